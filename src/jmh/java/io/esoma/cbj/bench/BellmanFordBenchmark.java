@@ -0,0 +1,109 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.algo.BellmanFord;
+import io.esoma.cbj.algo.ShortestPathTree;
+import io.esoma.cbj.ds.CsrGraph;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the queue-based and the parallel modes of {@link BellmanFord} against the classic
+ * algorithm that relaxes every edge in every round, on a large graph with negative weights but no
+ * negative cycle. The weights are shifted by random vertex potentials, which makes many of them
+ * negative while keeping the weight of every cycle. Random graphs converge in a few full rounds,
+ * while on grids, with their long shortest paths, most rounds only change a narrow frontier.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BellmanFordBenchmark {
+
+    @Param({"1000000"})
+    int nodes;
+
+    @Param({"SPARSE_RANDOM", "GRID"})
+    GraphShape shape;
+
+    CsrGraph graph;
+
+    @Setup
+    public void setUp() {
+        CsrGraph base = shape.generate(nodes, IntSortBenchmark.SEED);
+        int n = base.nodeCount();
+        int[] offsets = base.offsets();
+        int[] targets = base.targets();
+        int[] potential =
+                new SplittableRandom(IntSortBenchmark.SEED).ints(n, 0, 1000).toArray();
+        int[] weights = base.weights().clone();
+        for (int u = 0; u < n; ++u) {
+            for (int e = offsets[u]; e < offsets[u + 1]; ++e) {
+                weights[e] += potential[u] - potential[targets[e]];
+            }
+        }
+        graph = new CsrGraph(offsets, targets, weights);
+    }
+
+    @Benchmark
+    public long[] fullRounds() {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] weights = graph.weights();
+        int n = graph.nodeCount();
+        long[] dist = new long[n];
+        Arrays.fill(dist, Long.MAX_VALUE);
+        dist[0] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int u = 0; u < n; ++u) {
+                long du = dist[u];
+                if (du == Long.MAX_VALUE) {
+                    continue;
+                }
+                for (int e = offsets[u]; e < offsets[u + 1]; ++e) {
+                    long nd = du + weights[e];
+                    if (nd < dist[targets[e]]) {
+                        dist[targets[e]] = nd;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        return dist;
+    }
+
+    @Benchmark
+    public ShortestPathTree spfa() {
+        return BellmanFord.shortestPaths(graph, 0);
+    }
+
+    @Benchmark
+    public ShortestPathTree parallelRounds() {
+        return BellmanFord.parallelShortestPaths(graph, 0, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public int[] negativeCycleScan() {
+        return BellmanFord.findNegativeCycle(graph);
+    }
+}
@@ -0,0 +1,74 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.algo.GreatestCommonDivisor;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link GreatestCommonDivisor#bestGcd(int[], int)} and its parallel sweep on uniform
+ * random values. Many values below a large bound are handled by the divisor sweep, and few values
+ * by trial division, which does not depend on the thread count.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BestGcdBenchmark {
+
+    @Param({"1000000:10000000", "1000:100000000"})
+    String shape;
+
+    @Param({"3"})
+    int group;
+
+    @Param({"1", "4"})
+    int threads;
+
+    int[] array;
+    ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        String[] parts = shape.split(":");
+        int len = Integer.parseInt(parts[0]);
+        int bound = Integer.parseInt(parts[1]);
+        array = new SplittableRandom(IntSortBenchmark.SEED)
+                .ints(len, 1, bound + 1)
+                .toArray();
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int bestGcd() {
+        return GreatestCommonDivisor.bestGcd(array, group);
+    }
+
+    @Benchmark
+    public int parallelBestGcd() {
+        return GreatestCommonDivisor.bestGcd(array, group, pool);
+    }
+}
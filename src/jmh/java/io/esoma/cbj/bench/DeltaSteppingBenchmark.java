@@ -0,0 +1,71 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.algo.DeltaStepping;
+import io.esoma.cbj.algo.Dijkstra;
+import io.esoma.cbj.algo.ShortestPathTree;
+import io.esoma.cbj.ds.CsrGraph;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how {@link DeltaStepping} scales with the number of threads on large graphs, against the
+ * single threaded {@link Dijkstra#shortestPaths(CsrGraph, int)}. The Dijkstra baseline does not
+ * depend on the thread count.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class DeltaSteppingBenchmark {
+
+    @Param({"1000000", "4000000"})
+    int nodes;
+
+    @Param({"SPARSE_RANDOM", "GRID"})
+    GraphShape shape;
+
+    @Param({"1", "2", "4", "8"})
+    int threads;
+
+    CsrGraph graph;
+    ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        graph = shape.generate(nodes, IntSortBenchmark.SEED);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public ShortestPathTree deltaStepping() {
+        return DeltaStepping.shortestPaths(graph, 0, pool);
+    }
+
+    @Benchmark
+    public ShortestPathTree dijkstra() {
+        return Dijkstra.shortestPaths(graph, 0);
+    }
+}
@@ -0,0 +1,100 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.algo.GreatestCommonDivisor;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the Euclidean and binary GCD kernels over a million random pairs, the batched {@link
+ * GreatestCommonDivisor#gcdAll(int[], int[], int[])}, and the sequential and parallel reductions of
+ * a whole array. The array for the reductions shares a common factor, so the reduction never stops
+ * early at 1.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xms4g", "-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+public class GcdBenchmark {
+
+    private static final int FACTOR = 6;
+
+    @Param({"1000000"})
+    int size;
+
+    @Param({"1", "4"})
+    int threads;
+
+    int[] a;
+    int[] b;
+    int[] out;
+    int[] multiples;
+    ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom rand = new SplittableRandom(IntSortBenchmark.SEED);
+        a = rand.ints(size, 1, Integer.MAX_VALUE).toArray();
+        b = rand.ints(size, 1, Integer.MAX_VALUE).toArray();
+        out = new int[size];
+        multiples = rand.ints(size, 1, Integer.MAX_VALUE / FACTOR)
+                .map(x -> x * FACTOR)
+                .toArray();
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int[] egcd() {
+        for (int i = 0; i < size; ++i) {
+            out[i] = GreatestCommonDivisor.egcd(a[i], b[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public int[] binaryGcd() {
+        for (int i = 0; i < size; ++i) {
+            out[i] = GreatestCommonDivisor.gcd(a[i], b[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public int[] gcdAll() {
+        GreatestCommonDivisor.gcdAll(a, b, out);
+        return out;
+    }
+
+    @Benchmark
+    public int findGcd() {
+        return GreatestCommonDivisor.findGcd(multiples);
+    }
+
+    @Benchmark
+    public int parallelFindGcd() {
+        return GreatestCommonDivisor.findGcd(multiples, pool);
+    }
+}
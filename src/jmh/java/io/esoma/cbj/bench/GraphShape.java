@@ -0,0 +1,96 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.ds.CsrGraph;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Shapes of weighted directed graphs used by the graph benchmarks. The shapes differ in how many
+ * edges every node has and how far apart its neighbors are, which decides how often a shortest path
+ * search lowers a queued distance compared to how often it settles a node. Generation is
+ * deterministic for a given seed so that all algorithms in a run see exactly the same graph.
+ *
+ * @author Eddy Soma
+ */
+public enum GraphShape {
+    /** Every node has a few edges to uniformly random targets. */
+    SPARSE_RANDOM {
+        @Override
+        CsrGraph build(int n, SplittableRandom rnd) {
+            return random(n, SPARSE_DEGREE, rnd);
+        }
+    },
+    /** Every node has many edges to uniformly random targets. */
+    DENSE_RANDOM {
+        @Override
+        CsrGraph build(int n, SplittableRandom rnd) {
+            return random(n, DENSE_DEGREE, rnd);
+        }
+    },
+    /**
+     * A square grid where every node has edges to its four neighbors, which resembles a road
+     * network with long shortest paths and a narrow search frontier.
+     */
+    GRID {
+        @Override
+        CsrGraph build(int n, SplittableRandom rnd) {
+            int side = Math.max(1, (int) Math.sqrt(n));
+            int nodes = side * side;
+            int[] offsets = new int[nodes + 1];
+            int[] targets = new int[4 * nodes];
+            int[] weights = new int[4 * nodes];
+            int m = 0;
+            for (int u = 0; u < nodes; ++u) {
+                offsets[u] = m;
+                int r = u / side;
+                int c = u % side;
+                if (r > 0) {
+                    targets[m++] = u - side;
+                }
+                if (r < side - 1) {
+                    targets[m++] = u + side;
+                }
+                if (c > 0) {
+                    targets[m++] = u - 1;
+                }
+                if (c < side - 1) {
+                    targets[m++] = u + 1;
+                }
+            }
+            offsets[nodes] = m;
+            for (int e = 0; e < m; ++e) {
+                weights[e] = 1 + rnd.nextInt(MAX_WEIGHT);
+            }
+            return new CsrGraph(offsets, Arrays.copyOf(targets, m), Arrays.copyOf(weights, m));
+        }
+    };
+
+    private static final int SPARSE_DEGREE = 8;
+    private static final int DENSE_DEGREE = 64;
+    private static final int MAX_WEIGHT = 1000;
+
+    /**
+     * Creates a new graph of about the given number of nodes with this shape. The grid is rounded
+     * down to a square.
+     *
+     * @param n the number of nodes
+     * @param seed the seed for the random generator
+     * @return the generated graph
+     */
+    public CsrGraph generate(int n, long seed) {
+        return build(n, new SplittableRandom(seed));
+    }
+
+    abstract CsrGraph build(int n, SplittableRandom rnd);
+
+    private static CsrGraph random(int n, int degree, SplittableRandom rnd) {
+        int m = n * degree;
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u <= n; ++u) {
+            offsets[u] = u * degree;
+        }
+        int[] targets = rnd.ints(m, 0, n).toArray();
+        int[] weights = rnd.ints(m, 1, MAX_WEIGHT + 1).toArray();
+        return new CsrGraph(offsets, targets, weights);
+    }
+}
@@ -0,0 +1,76 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.algo.HeapSort;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the heap layouts of {@link HeapSort} on arrays that are far larger than the CPU caches.
+ * The binary heap misses the cache on almost every level once the array exceeds L2, while the 4-ary
+ * and 8-ary heaps touch fewer levels and read the children of a node from a single cache line.
+ *
+ * <p>Run with {@code -Djmh.args="HeapSortBenchmark -prof perfnorm"} on Linux to see the cache
+ * misses per operation next to the timings.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class HeapSortBenchmark {
+
+    @Param({"1000000", "10000000", "100000000"})
+    int size;
+
+    @Param({"RANDOM", "FEW_UNIQUE"})
+    IntDistribution distribution;
+
+    int[] source;
+    int[] work;
+
+    @Setup
+    public void setUp() {
+        source = distribution.generate(size, IntSortBenchmark.SEED);
+        work = new int[size];
+    }
+
+    private int[] fresh() {
+        System.arraycopy(source, 0, work, 0, size);
+        return work;
+    }
+
+    @Benchmark
+    public int[] binaryHeap() {
+        return HeapSort.sort(fresh());
+    }
+
+    @Benchmark
+    public int[] bottomUpHeap() {
+        return HeapSort.sortBottomUp(fresh());
+    }
+
+    @Benchmark
+    public int[] quaternaryHeap() {
+        return HeapSort.sortDary(fresh(), 4);
+    }
+
+    @Benchmark
+    public int[] octonaryHeap() {
+        return HeapSort.sortDary(fresh(), 8);
+    }
+}
@@ -0,0 +1,91 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.algo.IncrementalMinSpanTree;
+import io.esoma.cbj.algo.MinSpanTree;
+import io.esoma.cbj.algo.SpanningForest;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long {@link IncrementalMinSpanTree} takes to ingest a whole stream of random edges,
+ * one at a time and in batches, against a single full run of {@link MinSpanTree#kruskal(int, int[],
+ * int[], int[])} over the same edges. Recomputing after every batch would cost the full run once
+ * per batch.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class IncrementalMinSpanTreeBenchmark {
+
+    private static final int BATCH = 1 << 16;
+
+    @Param({"1000000"})
+    int nodes;
+
+    @Param({"4"})
+    int degree;
+
+    int[] from;
+    int[] to;
+    int[] weight;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom rand = new SplittableRandom(IntSortBenchmark.SEED);
+        int m = nodes / 2 * degree;
+        from = new int[m];
+        to = new int[m];
+        weight = new int[m];
+        for (int e = 0; e < m; ++e) {
+            from[e] = rand.nextInt(nodes);
+            to[e] = rand.nextInt(nodes);
+            weight[e] = rand.nextInt(1, 1_000_001);
+        }
+    }
+
+    @Benchmark
+    public long ingestEdges() {
+        IncrementalMinSpanTree mst = new IncrementalMinSpanTree(nodes);
+        for (int e = 0; e < from.length; ++e) {
+            mst.addEdge(from[e], to[e], weight[e]);
+        }
+        return mst.weight();
+    }
+
+    @Benchmark
+    public long ingestBatches() {
+        IncrementalMinSpanTree mst = new IncrementalMinSpanTree(nodes);
+        for (int bin = 0; bin < from.length; bin += BATCH) {
+            int end = Math.min(from.length, bin + BATCH);
+            mst.addEdges(
+                    Arrays.copyOfRange(from, bin, end),
+                    Arrays.copyOfRange(to, bin, end),
+                    Arrays.copyOfRange(weight, bin, end));
+        }
+        return mst.weight();
+    }
+
+    @Benchmark
+    public SpanningForest recomputeOnce() {
+        return MinSpanTree.kruskal(nodes, from, to, weight);
+    }
+}
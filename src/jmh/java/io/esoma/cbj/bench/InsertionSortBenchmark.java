@@ -0,0 +1,66 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.core.BinaryInsertionSort;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link BinaryInsertionSort#sortOnline(int[], int, int, int)} against {@link
+ * Arrays#sort(int[])}. Insertion sort is quadratic, so it is measured separately from {@link
+ * IntSortBenchmark} on sizes where a single call still completes in reasonable time.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertionSortBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int size;
+
+    @Param
+    IntDistribution distribution;
+
+    int[] source;
+    int[] work;
+
+    @Setup
+    public void setUp() {
+        source = distribution.generate(size, IntSortBenchmark.SEED);
+        work = new int[size];
+    }
+
+    private int[] fresh() {
+        System.arraycopy(source, 0, work, 0, size);
+        return work;
+    }
+
+    @Benchmark
+    public int[] jdkSort() {
+        int[] array = fresh();
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] binaryInsertionSort() {
+        int[] array = fresh();
+        BinaryInsertionSort.sortOnline(array, 0, size - 1, 1);
+        return array;
+    }
+}
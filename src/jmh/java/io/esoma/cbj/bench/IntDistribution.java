@@ -0,0 +1,99 @@
+package io.esoma.cbj.bench;
+
+import java.util.SplittableRandom;
+
+/**
+ * Shapes of integer input data used by the sorting benchmarks. Each shape models a pattern that is
+ * common in real-world data and that favors or penalizes different sorting strategies. Generation
+ * is deterministic for a given seed so that all sorts in a run see exactly the same input.
+ *
+ * @author Eddy Soma
+ */
+public enum IntDistribution {
+    /** Uniformly random values over the full integer range. */
+    RANDOM {
+        @Override
+        void fill(int[] array, SplittableRandom rnd) {
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = rnd.nextInt();
+            }
+        }
+    },
+    /** Already ascending values. */
+    SORTED {
+        @Override
+        void fill(int[] array, SplittableRandom rnd) {
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = i;
+            }
+        }
+    },
+    /** Strictly descending values. */
+    REVERSED {
+        @Override
+        void fill(int[] array, SplittableRandom rnd) {
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = array.length - i;
+            }
+        }
+    },
+    /** Random values drawn from a tiny set of distinct keys. */
+    FEW_UNIQUE {
+        @Override
+        void fill(int[] array, SplittableRandom rnd) {
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = rnd.nextInt(FEW_UNIQUE_KEYS);
+            }
+        }
+    },
+    /** Ascending first half followed by a descending second half. */
+    ORGAN_PIPE {
+        @Override
+        void fill(int[] array, SplittableRandom rnd) {
+            int half = array.length / 2;
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = i < half ? i : array.length - i;
+            }
+        }
+    },
+    /** Ascending runs of random length where a small fraction of elements is replaced by noise. */
+    RUNS_WITH_NOISE {
+        @Override
+        void fill(int[] array, SplittableRandom rnd) {
+            int i = 0;
+            while (i < array.length) {
+                int len = Math.min(array.length - i, 1 + rnd.nextInt(MAX_RUN_LENGTH));
+                int v = rnd.nextInt();
+                for (int j = 0; j < len; ++j) {
+                    array[i + j] = v;
+                    // Grow by a small positive step while avoiding overflow.
+                    v += v < Integer.MAX_VALUE - 16 ? rnd.nextInt(16) : 0;
+                }
+                i += len;
+            }
+            for (int k = array.length / NOISE_RATIO; k > 0; --k) {
+                array[rnd.nextInt(array.length)] = rnd.nextInt();
+            }
+        }
+    };
+
+    private static final int FEW_UNIQUE_KEYS = 8;
+    private static final int MAX_RUN_LENGTH = 2048;
+    // One element in every 100 becomes noise.
+    private static final int NOISE_RATIO = 100;
+
+    /**
+     * Creates a new array of the given length populated with this shape.
+     *
+     * @param n the length of the array
+     * @param seed the seed for the random generator
+     * @return the generated array
+     */
+    public int[] generate(int n, long seed) {
+        int[] array = new int[n];
+        fill(array, new SplittableRandom(seed));
+        return array;
+    }
+
+    abstract void fill(int[] array, SplittableRandom rnd);
+}
@@ -0,0 +1,100 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.algo.HeapSort;
+import io.esoma.cbj.algo.MergeSort;
+import io.esoma.cbj.algo.QuickSort;
+import io.esoma.cbj.algo.TimSort;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the integer sorts of this project against {@link Arrays#sort(int[])} across input sizes
+ * and data shapes. Throughput and sampled latency (including p99) are reported for every case, and
+ * the allocation rate is available by running with the gc profiler (the default for the {@code jmh}
+ * profile).
+ *
+ * <p>Every invocation copies the pristine input into a preallocated work array before sorting, so
+ * the copy cost is identical for all candidates and no sort ever sees pre-sorted data by accident.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xms4g", "-Xmx4g", "-Xss16m"})
+public class IntSortBenchmark {
+
+    static final long SEED = 0x5EED_CB1L;
+
+    @Param({"1000", "100000", "1000000", "50000000"})
+    int size;
+
+    @Param
+    IntDistribution distribution;
+
+    int[] source;
+    int[] work;
+
+    @Setup
+    public void setUp() {
+        source = distribution.generate(size, SEED);
+        work = new int[size];
+    }
+
+    private int[] fresh() {
+        System.arraycopy(source, 0, work, 0, size);
+        return work;
+    }
+
+    @Benchmark
+    public int[] jdkSort() {
+        int[] array = fresh();
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] mergeSort() {
+        return MergeSort.sort(fresh());
+    }
+
+    @Benchmark
+    public int[] mergeSortInPlace() {
+        return MergeSort.sortInPlace(fresh());
+    }
+
+    @Benchmark
+    public int[] heapSort() {
+        return HeapSort.sort(fresh());
+    }
+
+    @Benchmark
+    public int[] quickSort() {
+        return QuickSort.sort(fresh());
+    }
+
+    @Benchmark
+    public int[] quickIntroSort() {
+        return QuickSort.introSort(fresh());
+    }
+
+    @Benchmark
+    public int[] timSort() {
+        return TimSort.sort(fresh());
+    }
+}
@@ -0,0 +1,77 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.core.BinarySearch;
+import io.esoma.cbj.core.SortedArrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares ways to look up a sorted set of probe keys in a sorted array, as done by the probe side
+ * of a sort-merge join: one {@link BinarySearch#searchInt(int[], int)} per probe, the galloping
+ * {@link BinarySearch#searchAll(int[], int[])} and its parallel variant, and {@link
+ * SortedArrays#intersect(int[], int[])} when only the matching keys are needed.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class JoinBenchmark {
+
+    @Param({"10000000"})
+    int size;
+
+    @Param({"1000", "100000", "1000000"})
+    int probes;
+
+    int[] haystack;
+    int[] sortedProbes;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom rnd = new SplittableRandom(IntSortBenchmark.SEED);
+        haystack = rnd.ints(size, 0, 4 * size).sorted().toArray();
+        sortedProbes = rnd.ints(probes, 0, 4 * size).sorted().toArray();
+    }
+
+    @Benchmark
+    public int[] perProbeSearch() {
+        int[] found = new int[probes];
+        for (int i = 0; i < probes; ++i) {
+            found[i] = BinarySearch.searchInt(haystack, sortedProbes[i]);
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int[] searchAll() {
+        return BinarySearch.searchAll(haystack, sortedProbes);
+    }
+
+    @Benchmark
+    public int[] parallelSearchAll() {
+        return BinarySearch.parallelSearchAll(haystack, sortedProbes, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public int[] intersect() {
+        return SortedArrays.intersect(haystack, sortedProbes);
+    }
+}
@@ -0,0 +1,111 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.ds.ConcurrentLRUCache;
+import io.esoma.cbj.ds.LRUCache;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a read-heavy mix of lookups and inserts with skewed keys on a {@link LRUCache} behind
+ * one lock, against the lock-striped {@link ConcurrentLRUCache}, with several threads sharing a
+ * cache. Every operation is a batch of lookups by one thread. The thread count can be changed with
+ * the {@code -t} option of JMH.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(4)
+public class LRUCacheBenchmark {
+
+    private static final int CAPACITY = 1 << 14;
+    private static final int KEYS = 1 << 17;
+    private static final int BATCH = 1 << 16;
+
+    /** The percentage of operations that are inserts. */
+    @Param({"10"})
+    int writes;
+
+    LRUCache<Integer> locked;
+    ConcurrentLRUCache<Integer> concurrent;
+
+    @Setup
+    public void setUp() {
+        locked = new LRUCache<>(CAPACITY);
+        concurrent = new ConcurrentLRUCache<>(CAPACITY);
+        for (int key = 0; key < CAPACITY; ++key) {
+            locked.put(key, key);
+            concurrent.put(key, key);
+        }
+    }
+
+    /** The keys of one thread, skewed towards the small ones, and whether each one is a write. */
+    @State(Scope.Thread)
+    public static class Ops {
+
+        private static final AtomicLong SEEDS = new AtomicLong(IntSortBenchmark.SEED);
+
+        int[] keys;
+        boolean[] write;
+
+        @Setup
+        public void setUp(LRUCacheBenchmark bench) {
+            SplittableRandom rand = new SplittableRandom(SEEDS.getAndIncrement());
+            keys = new int[BATCH];
+            write = new boolean[BATCH];
+            for (int i = 0; i < BATCH; ++i) {
+                keys[i] = (int) (KEYS * Math.pow(rand.nextDouble(), 3));
+                write[i] = rand.nextInt(100) < bench.writes;
+            }
+        }
+    }
+
+    @Benchmark
+    public int synchronizedLru(Ops ops) {
+        int hits = 0;
+        for (int i = 0; i < BATCH; ++i) {
+            int key = ops.keys[i];
+            synchronized (locked) {
+                if (ops.write[i]) {
+                    locked.put(key, key);
+                } else if (locked.get(key) != null) {
+                    ++hits;
+                }
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int concurrentLru(Ops ops) {
+        int hits = 0;
+        for (int i = 0; i < BATCH; ++i) {
+            int key = ops.keys[i];
+            if (ops.write[i]) {
+                concurrent.put(key, key);
+            } else if (concurrent.get(key) != null) {
+                ++hits;
+            }
+        }
+        return hits;
+    }
+}
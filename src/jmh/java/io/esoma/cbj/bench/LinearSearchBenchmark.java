@@ -0,0 +1,76 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.core.ArrayCore;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the scalar {@link ArrayCore#linearSearchInt(int[], int, int, int)} against the SIMD
+ * {@link ArrayCore#linearSearchIntSimd(int[], int, int, int)} on small arrays, where a linear scan
+ * is a common alternative to binary search. The fork adds the vector module, so the SIMD variant is
+ * backed by the vector API.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@OperationsPerInvocation(LinearSearchBenchmark.QUERIES)
+public class LinearSearchBenchmark {
+
+    static final int QUERIES = 1024;
+
+    @Param({"16", "64", "256", "1024", "4096"})
+    int size;
+
+    int[] array;
+    int[] queries;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom rnd = new SplittableRandom(IntSortBenchmark.SEED);
+        array = new int[size];
+        for (int i = 0; i < size; ++i) {
+            array[i] = 2 * i;
+        }
+        queries = new int[QUERIES];
+        for (int i = 0; i < QUERIES; ++i) {
+            queries[i] = rnd.nextInt(2 * size);
+        }
+    }
+
+    @Benchmark
+    public int scalarScan() {
+        int sum = 0;
+        for (int q : queries) {
+            sum += ArrayCore.linearSearchInt(array, q, 0, size - 1);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int simdScan() {
+        int sum = 0;
+        for (int q : queries) {
+            sum += ArrayCore.linearSearchIntSimd(array, q, 0, size - 1);
+        }
+        return sum;
+    }
+}
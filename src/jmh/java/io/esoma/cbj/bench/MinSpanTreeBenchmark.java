@@ -0,0 +1,81 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.algo.MinSpanTree;
+import io.esoma.cbj.algo.SpanningForest;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the filter-Kruskal and the parallel Borůvka engines of {@link MinSpanTree} on large
+ * random graphs, given as primitive edge arrays with uniform weights. A higher degree means more
+ * heavy edges that filter-Kruskal never has to sort.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class MinSpanTreeBenchmark {
+
+    @Param({"1000000"})
+    int nodes;
+
+    @Param({"4", "32"})
+    int degree;
+
+    @Param({"1", "4"})
+    int threads;
+
+    int[] from;
+    int[] to;
+    int[] weight;
+    ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom rand = new SplittableRandom(IntSortBenchmark.SEED);
+        int m = nodes / 2 * degree;
+        from = new int[m];
+        to = new int[m];
+        weight = new int[m];
+        for (int e = 0; e < m; ++e) {
+            from[e] = rand.nextInt(nodes);
+            to[e] = rand.nextInt(nodes);
+            weight[e] = rand.nextInt(1, 1_000_001);
+        }
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public SpanningForest kruskal() {
+        return MinSpanTree.kruskal(nodes, from, to, weight);
+    }
+
+    @Benchmark
+    public SpanningForest boruvka() {
+        return MinSpanTree.boruvka(nodes, from, to, weight, pool);
+    }
+}
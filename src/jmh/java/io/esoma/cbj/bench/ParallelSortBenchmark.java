@@ -0,0 +1,80 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.algo.MergeSort;
+import io.esoma.cbj.algo.QuickSort;
+import io.esoma.cbj.algo.TimSort;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link TimSort#parallelSort(int[], ForkJoinPool)} and {@link
+ * MergeSort#parallelSort(int[], ForkJoinPool)} against {@link Arrays#parallelSort(int[])} on large
+ * arrays. All sorts run on the common pool. Partially ordered shapes are where run detection is
+ * expected to pay off.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ParallelSortBenchmark {
+
+    @Param({"1000000", "10000000", "100000000"})
+    int size;
+
+    @Param({"RUNS_WITH_NOISE", "ORGAN_PIPE", "SORTED", "RANDOM"})
+    IntDistribution distribution;
+
+    int[] source;
+    int[] work;
+
+    @Setup
+    public void setUp() {
+        source = distribution.generate(size, IntSortBenchmark.SEED);
+        work = new int[size];
+    }
+
+    private int[] fresh() {
+        System.arraycopy(source, 0, work, 0, size);
+        return work;
+    }
+
+    @Benchmark
+    public int[] jdkParallelSort() {
+        int[] array = fresh();
+        Arrays.parallelSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] timParallelSort() {
+        return TimSort.parallelSort(fresh(), ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public int[] mergeParallelSort() {
+        return MergeSort.parallelSort(fresh(), ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public int[] quickParallelIntroSort() {
+        return QuickSort.parallelIntroSort(fresh(), ForkJoinPool.commonPool());
+    }
+}
@@ -0,0 +1,91 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.algo.PermutationGen;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures enumerating every permutation of 1 to n with a cheap cost per permutation, by copying
+ * with {@link PermutationGen#getNext()}, in place with {@link
+ * PermutationGen#forEachRemaining(java.util.function.Consumer)}, and with sequential and parallel
+ * streams over the rank ranges of {@link PermutationGen#spliterator(int)}.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class PermutationBenchmark {
+
+    @Param({"10", "11"})
+    int n;
+
+    @Param({"1", "4"})
+    int threads;
+
+    ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    private static long cost(int[] p) {
+        return (long) p[0] * p[p.length - 1] + p[p.length / 2];
+    }
+
+    @Benchmark
+    public long getNext() {
+        PermutationGen gen = new PermutationGen(n);
+        long sum = 0;
+        while (gen.hasNext()) {
+            sum += cost(gen.getNext());
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long forEachRemaining() {
+        PermutationGen gen = new PermutationGen(n);
+        long[] sum = new long[1];
+        gen.forEachRemaining(p -> sum[0] += cost(p));
+        return sum[0];
+    }
+
+    @Benchmark
+    public long stream() {
+        return PermutationGen.stream(n, false)
+                .mapToLong(PermutationBenchmark::cost)
+                .sum();
+    }
+
+    @Benchmark
+    public long parallelStream() {
+        return pool.submit(() -> PermutationGen.stream(n, true)
+                        .mapToLong(PermutationBenchmark::cost)
+                        .sum())
+                .join();
+    }
+}
@@ -0,0 +1,106 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.core.BinarySearch;
+import io.esoma.cbj.core.EytzingerIndex;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares lookups in a sorted array with the searches of {@link BinarySearch} and with an {@link
+ * EytzingerIndex}. Every invocation runs a fixed batch of random queries, half of which hit, and
+ * the reported time is per query. The sizes range from arrays that fit in L1 to arrays that only
+ * fit in main memory.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(SearchBenchmark.QUERIES)
+public class SearchBenchmark {
+
+    static final int QUERIES = 4096;
+
+    @Param({"16", "256", "4096", "65536", "1048576", "16777216"})
+    int size;
+
+    int[] sorted;
+    int[] queries;
+    EytzingerIndex index;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom rnd = new SplittableRandom(IntSortBenchmark.SEED);
+        // Even keys only, so odd queries always miss.
+        sorted = new int[size];
+        for (int i = 0; i < size; ++i) {
+            sorted[i] = 2 * i;
+        }
+        queries = new int[QUERIES];
+        for (int i = 0; i < QUERIES; ++i) {
+            queries[i] = rnd.nextInt(2 * size);
+        }
+        index = new EytzingerIndex(sorted);
+    }
+
+    @Benchmark
+    public int binarySearch() {
+        int sum = 0;
+        for (int q : queries) {
+            sum += BinarySearch.searchInt(sorted, q);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int binarySearchLeft() {
+        int sum = 0;
+        for (int q : queries) {
+            sum += BinarySearch.searchIntLeft(sorted, q, 0, size - 1);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int branchlessSearch() {
+        int sum = 0;
+        for (int q : queries) {
+            sum += BinarySearch.searchIntLeftBranchless(sorted, q, 0, size - 1);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int eytzingerSearch() {
+        int sum = 0;
+        for (int q : queries) {
+            sum += index.lowerBound(q);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int jdkSearch() {
+        int sum = 0;
+        for (int q : queries) {
+            sum += Arrays.binarySearch(sorted, q);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,110 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.algo.HeapSort;
+import io.esoma.cbj.algo.QuickSelect;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares ways to extract the k smallest or largest elements of a large array against a full
+ * {@link Arrays#sort(int[])}: the bounded heap of {@link HeapSort#partialSort(int[], int)} and
+ * {@link HeapSort#topK(java.util.stream.IntStream, int)}, and the quickselect based {@link
+ * QuickSelect#select(int[], int)}. The percentile benchmarks compare one {@link
+ * QuickSelect#selectMany(int[], int...)} call against a selection per rank; they do not depend on
+ * k.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class SelectionBenchmark {
+
+    // The p50, p90, p99 and p99.9 of a latency distribution.
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+    @Param({"1000000", "10000000"})
+    int size;
+
+    @Param({"10", "1000", "100000"})
+    int k;
+
+    @Param({"RANDOM", "SORTED"})
+    IntDistribution distribution;
+
+    int[] source;
+    int[] work;
+
+    @Setup
+    public void setUp() {
+        source = distribution.generate(size, IntSortBenchmark.SEED);
+        work = new int[size];
+    }
+
+    private int[] fresh() {
+        System.arraycopy(source, 0, work, 0, size);
+        return work;
+    }
+
+    @Benchmark
+    public int[] fullSort() {
+        int[] array = fresh();
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] partialSort() {
+        return HeapSort.partialSort(fresh(), k);
+    }
+
+    @Benchmark
+    public int[] quickSelect() {
+        return QuickSelect.select(fresh(), k);
+    }
+
+    @Benchmark
+    public int[] streamTopK() {
+        // Reads the pristine input directly, since the stream does not modify it.
+        return HeapSort.topK(Arrays.stream(source), k);
+    }
+
+    @Benchmark
+    public int[] percentilesRepeated() {
+        int[] array = fresh();
+        int[] found = new int[PERCENTILES.length];
+        for (int i = 0; i < PERCENTILES.length; ++i) {
+            found[i] = QuickSelect.findKthSmallest(array, rank(PERCENTILES[i]));
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int[] percentilesMany() {
+        int[] ranks = new int[PERCENTILES.length];
+        for (int i = 0; i < PERCENTILES.length; ++i) {
+            ranks[i] = rank(PERCENTILES[i]);
+        }
+        return QuickSelect.selectMany(fresh(), ranks);
+    }
+
+    private int rank(double percentile) {
+        return Math.max(1, (int) Math.ceil(percentile * size));
+    }
+}
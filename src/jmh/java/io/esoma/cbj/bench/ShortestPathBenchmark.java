@@ -0,0 +1,88 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.algo.Dijkstra;
+import io.esoma.cbj.algo.ShortestPathTree;
+import io.esoma.cbj.ds.CsrGraph;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures single source shortest paths on large sparse graphs of different shapes. {@link
+ * Dijkstra#shortestPaths(CsrGraph, int, Dijkstra.HeapType)} is run with every type of priority
+ * queue, and compared against the common textbook version that pushes a boxed entry into a {@link
+ * PriorityQueue} for every improvement and skips stale entries when they are polled.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ShortestPathBenchmark {
+
+    @Param({"1000000"})
+    int nodes;
+
+    @Param({"SPARSE_RANDOM", "DENSE_RANDOM", "GRID"})
+    GraphShape shape;
+
+    @Param({"BINARY_HEAP", "QUATERNARY_HEAP", "PAIRING_HEAP", "FIBONACCI_HEAP"})
+    Dijkstra.HeapType heap;
+
+    CsrGraph graph;
+
+    @Setup
+    public void setUp() {
+        graph = shape.generate(nodes, IntSortBenchmark.SEED);
+    }
+
+    @Benchmark
+    public ShortestPathTree dijkstra() {
+        return Dijkstra.shortestPaths(graph, 0, heap);
+    }
+
+    /** The baseline does not depend on the heap type. */
+    @Benchmark
+    public long[] boxedQueue() {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] weights = graph.weights();
+        long[] dist = new long[graph.nodeCount()];
+        Arrays.fill(dist, Long.MAX_VALUE);
+        dist[0] = 0;
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        queue.add(new long[] {0, 0});
+        while (!queue.isEmpty()) {
+            long[] entry = queue.poll();
+            int u = (int) entry[1];
+            if (entry[0] > dist[u]) {
+                continue;
+            }
+            for (int e = offsets[u]; e < offsets[u + 1]; ++e) {
+                int v = targets[e];
+                long nd = entry[0] + weights[e];
+                if (nd < dist[v]) {
+                    dist[v] = nd;
+                    queue.add(new long[] {nd, v});
+                }
+            }
+        }
+        return dist;
+    }
+}
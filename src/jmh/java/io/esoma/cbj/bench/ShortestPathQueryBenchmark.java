@@ -0,0 +1,105 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.algo.Dijkstra;
+import io.esoma.cbj.algo.ShortestPathEngine;
+import io.esoma.cbj.ds.CsrGraph;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures single pair shortest path queries answered by {@link ShortestPathEngine}: random pairs
+ * with a bidirectional search, pairs from a few hot sources served by the tree cache, and a batch
+ * of pairs grouped by source. A full {@link Dijkstra#shortestPaths(CsrGraph, int)} per query is the
+ * baseline.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ShortestPathQueryBenchmark {
+
+    private static final int PAIRS = 1 << 12;
+    private static final int HOT_SOURCES = 8;
+    // Pairs in a batch, kept small since every cold pair is a full search.
+    private static final int BATCH = 64;
+
+    @Param({"1000000"})
+    int nodes;
+
+    @Param({"SPARSE_RANDOM", "GRID"})
+    GraphShape shape;
+
+    CsrGraph graph;
+    ShortestPathEngine engine;
+    int[] sources;
+    int[] hotSources;
+    int[] targets;
+    int next;
+
+    @Setup
+    public void setUp() {
+        graph = shape.generate(nodes, IntSortBenchmark.SEED);
+        engine = new ShortestPathEngine(graph, HOT_SOURCES);
+        SplittableRandom rnd = new SplittableRandom(IntSortBenchmark.SEED);
+        int n = graph.nodeCount();
+        sources = rnd.ints(PAIRS, 0, n).toArray();
+        targets = rnd.ints(PAIRS, 0, n).toArray();
+        hotSources = new int[PAIRS];
+        for (int i = 0; i < PAIRS; ++i) {
+            hotSources[i] = sources[i % HOT_SOURCES];
+        }
+    }
+
+    private int nextPair() {
+        next = (next + 1) & (PAIRS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public long fullDijkstra() {
+        int i = nextPair();
+        return Dijkstra.shortestPaths(graph, sources[i]).distance(targets[i]);
+    }
+
+    @Benchmark
+    public long bidirectional() {
+        int i = nextPair();
+        return engine.distance(sources[i], targets[i]);
+    }
+
+    @Benchmark
+    public long hotSource() {
+        int i = nextPair();
+        return engine.distance(hotSources[i], targets[i]);
+    }
+
+    /** Answers a batch of pairs at once, with half of them from the hot sources. */
+    @Benchmark
+    public long[] batch() {
+        int[] s = new int[BATCH];
+        int[] t = new int[BATCH];
+        for (int k = 0; k < BATCH; ++k) {
+            int i = nextPair();
+            s[k] = (k & 1) == 0 ? hotSources[i] : sources[i];
+            t[k] = targets[i];
+        }
+        return engine.distances(s, t);
+    }
+}
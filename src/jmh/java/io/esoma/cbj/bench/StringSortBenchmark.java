@@ -0,0 +1,130 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.algo.ThreeWayStringSort;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the string sorts of {@link ThreeWayStringSort} against {@link Arrays#sort(Object[])} on
+ * keys shaped like API paths and host names, which share long prefixes and contain many duplicates.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class StringSortBenchmark {
+
+    private static final String[] SEGMENTS = {
+        "users", "orders", "items", "search", "v1", "v2", "health", "metrics", "accounts", "sessions"
+    };
+    private static final String[] DOMAINS = {"com", "net", "org", "io", "dev"};
+
+    /** Shapes of the generated keys. */
+    public enum KeyShape {
+        API_PATH,
+        HOST_NAME
+    }
+
+    @Param({"100000", "1000000", "10000000"})
+    int size;
+
+    @Param
+    KeyShape shape;
+
+    String[] source;
+    String[] work;
+    byte[][] sourceBytes;
+    byte[][] workBytes;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom rnd = new SplittableRandom(IntSortBenchmark.SEED);
+        source = new String[size];
+        sourceBytes = new byte[size][];
+        for (int i = 0; i < size; ++i) {
+            source[i] = shape == KeyShape.API_PATH ? apiPath(rnd) : hostName(rnd);
+            sourceBytes[i] = source[i].getBytes(StandardCharsets.UTF_8);
+        }
+        work = new String[size];
+        workBytes = new byte[size][];
+    }
+
+    private static String apiPath(SplittableRandom rnd) {
+        StringBuilder sb = new StringBuilder("https://api.example.com/");
+        int depth = 2 + rnd.nextInt(4);
+        for (int d = 0; d < depth; ++d) {
+            sb.append(SEGMENTS[rnd.nextInt(SEGMENTS.length)]).append('/');
+        }
+        return sb.append(rnd.nextInt(100_000)).toString();
+    }
+
+    private static String hostName(SplittableRandom rnd) {
+        StringBuilder sb = new StringBuilder();
+        int labels = 1 + rnd.nextInt(3);
+        for (int l = 0; l < labels; ++l) {
+            int len = 3 + rnd.nextInt(8);
+            for (int c = 0; c < len; ++c) {
+                sb.append((char) ('a' + rnd.nextInt(26)));
+            }
+            sb.append('.');
+        }
+        return sb.append(DOMAINS[rnd.nextInt(DOMAINS.length)]).toString();
+    }
+
+    private String[] fresh() {
+        System.arraycopy(source, 0, work, 0, size);
+        return work;
+    }
+
+    private byte[][] freshBytes() {
+        System.arraycopy(sourceBytes, 0, workBytes, 0, size);
+        return workBytes;
+    }
+
+    @Benchmark
+    public String[] jdkSort() {
+        String[] array = fresh();
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public String[] threeWaySort() {
+        return ThreeWayStringSort.sort(fresh());
+    }
+
+    @Benchmark
+    public String[] radixSort() {
+        return ThreeWayStringSort.radixSort(fresh());
+    }
+
+    @Benchmark
+    public String[] parallelRadixSort() {
+        return ThreeWayStringSort.parallelRadixSort(fresh(), ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public byte[][] radixSortBytes() {
+        return ThreeWayStringSort.radixSort(freshBytes());
+    }
+}
@@ -0,0 +1,71 @@
+package io.esoma.cbj.bench;
+
+import io.esoma.cbj.algo.TimSort;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures Timsort on the small and medium arrays that are sorted at high rates, where allocation
+ * churn matters most. Run with the gc profiler to confirm that both the pooled {@link
+ * TimSort#sort(int[])} and an owned sorter allocate nothing per operation once warmed up.
+ *
+ * @author Eddy Soma
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimSortReuseBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    int size;
+
+    @Param({"RANDOM", "RUNS_WITH_NOISE"})
+    IntDistribution distribution;
+
+    int[] source;
+    int[] work;
+    TimSort sorter;
+
+    @Setup
+    public void setUp() {
+        source = distribution.generate(size, IntSortBenchmark.SEED);
+        work = new int[size];
+        sorter = TimSort.newSorter();
+    }
+
+    private int[] fresh() {
+        System.arraycopy(source, 0, work, 0, size);
+        return work;
+    }
+
+    @Benchmark
+    public int[] jdkSort() {
+        int[] array = fresh();
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] pooledSort() {
+        return TimSort.sort(fresh());
+    }
+
+    @Benchmark
+    public int[] ownedSorter() {
+        return sorter.sortArray(fresh());
+    }
+}
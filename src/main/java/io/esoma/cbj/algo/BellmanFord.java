@@ -1,5 +1,11 @@
 package io.esoma.cbj.algo;
 
+import io.esoma.cbj.ds.CsrGraph;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
 /**
  * Class for illustrating the Bellman-Ford algorithm. This is an algorithm that computes shortest
  * paths from a single source vertex to all of the other vertices in a weighted digraph. It is
@@ -8,9 +14,20 @@ package io.esoma.cbj.algo;
  * when the problem limits the total number of stops that one can travel from the source. The
  * algorithm was first proposed by Alfonso Shimbel (1955), but is instead named after Richard
  * Bellman and Lester Ford Jr., who published it in 1958 and 1956, respectively.
+ *
+ * <p>Besides the hop-limited search of {@link #bfFind(int, int[][], int, int, int)}, the class
+ * computes full shortest path trees over {@link CsrGraph} inputs, either with the queue-based
+ * variant known as SPFA or with rounds of parallel edge relaxation, and finds negative cycles.
  */
 public class BellmanFord {
 
+    // Unreachable vertices keep their infinite distance in the tree.
+    private static final long INF = ShortestPathTree.NO_PATH;
+    // Frontiers with at most this many outgoing edges are relaxed by a single task.
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+    // A frontier with more than 1/16 of the vertices is collected by a scan in vertex order.
+    private static final int DENSE_FRONTIER = 16;
+
     private BellmanFord() {}
 
     /**
@@ -75,4 +92,453 @@ public class BellmanFord {
 
         return priCache[dest] == Integer.MAX_VALUE ? -1 : priCache[dest];
     }
+
+    /**
+     * Finds the shortest paths from the source to all other vertices of a graph given as an edge
+     * list in the same format as {@link #bfFind(int, int[][], int, int, int)}, without a limit on
+     * the number of stops. See {@link #shortestPaths(CsrGraph, int)}.
+     *
+     * @param n the total number of vertices (labeled from 0 to n - 1)
+     * @param edges the edges, each holding the start vertex, the end vertex and the weight
+     * @param src the source vertex
+     * @return the shortest path tree rooted at the source
+     */
+    public static ShortestPathTree shortestPaths(int n, int[][] edges, int src) {
+        int[] from = new int[edges.length];
+        int[] to = new int[edges.length];
+        int[] weight = new int[edges.length];
+        for (int e = 0; e < edges.length; ++e) {
+            from[e] = edges[e][0];
+            to[e] = edges[e][1];
+            weight[e] = edges[e][2];
+        }
+        return shortestPaths(CsrGraph.fromEdges(n, from, to, weight), src);
+    }
+
+    /**
+     * Finds the shortest paths from the source to all other vertices of a graph that may have
+     * negative weights, using the queue-based variant of the algorithm (SPFA). Instead of relaxing
+     * every edge in every round, only the edges of vertices whose distance changed are relaxed, so
+     * the work follows the changes. The worst case is still O(nm), but it is usually close to
+     * linear in the number of edges.
+     *
+     * @param graph the graph
+     * @param source the source vertex
+     * @return the shortest path tree rooted at the source, where unreachable vertices have a
+     *     distance of {@link ShortestPathTree#NO_PATH}
+     * @throws IllegalArgumentException if a negative cycle can be reached from the source, since
+     *     the distances are then unbounded; see {@link #findNegativeCycle(CsrGraph, int)}
+     */
+    public static ShortestPathTree shortestPaths(CsrGraph graph, int source) {
+        checkSource(graph, source);
+
+        Spfa spfa = new Spfa(graph);
+        spfa.start(source);
+        if (spfa.run() != null) {
+            throw new IllegalArgumentException("Negative cycle reachable from the source");
+        }
+        return spfa.tree(source);
+    }
+
+    /**
+     * Finds the shortest paths from the source to all other vertices of a graph that may have
+     * negative weights, relaxing edges in parallel rounds. Only vertices whose distance changed in
+     * a round have their edges relaxed in the next one. Their edges are split between tasks by a
+     * prefix sum of the out-degrees, so every task relaxes about the same number of edges and the
+     * edges of a single hub vertex may be shared by several tasks. The tasks lower the distances
+     * concurrently with compare-and-set. A large frontier is collected in vertex order, so its
+     * tasks read the edge array in contiguous ranges. Since a round may already see the updates of
+     * the same round, it converges in at most as many rounds as the sequential algorithm, and a
+     * change after n rounds means that a negative cycle can be reached.
+     *
+     * @param graph the graph
+     * @param source the source vertex
+     * @param pool the pool to run the relaxations
+     * @return the shortest path tree rooted at the source, where unreachable vertices have a
+     *     distance of {@link ShortestPathTree#NO_PATH}
+     * @throws IllegalArgumentException if a negative cycle can be reached from the source
+     */
+    public static ShortestPathTree parallelShortestPaths(CsrGraph graph, int source, ForkJoinPool pool) {
+        checkSource(graph, source);
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+
+        int n = graph.nodeCount();
+        AtomicLongArray dist = new AtomicLongArray(n);
+        for (int v = 0; v < n; ++v) {
+            dist.set(v, INF);
+        }
+        dist.set(source, 0);
+        // Whether a vertex is already in the next frontier.
+        byte[] next = new byte[n];
+        // The number of edges of the frontier before every position.
+        int[] offsets = graph.offsets();
+        int[] prefix = new int[n + 1];
+        IntBuffer frontier = new IntBuffer();
+        frontier.add(source);
+
+        for (int round = 0; frontier.size > 0; ++round) {
+            if (round == n) {
+                throw new IllegalArgumentException("Negative cycle reachable from the source");
+            }
+            for (int i = 0; i < frontier.size; ++i) {
+                int u = frontier.data[i];
+                prefix[i + 1] = prefix[i] + offsets[u + 1] - offsets[u];
+            }
+            int edges = prefix[frontier.size];
+            int grain = Math.max(PARALLEL_THRESHOLD, edges / (pool.getParallelism() * 8));
+            int chunks = Math.max(1, (int) (((long) edges + grain - 1) / grain));
+            IntBuffer[] out = new IntBuffer[chunks];
+            RelaxTask task = new RelaxTask(graph, dist, next, frontier, prefix, grain, 0, chunks, out);
+            if (chunks == 1) {
+                task.compute();
+            } else {
+                pool.invoke(task);
+            }
+
+            int total = 0;
+            for (IntBuffer o : out) {
+                total += o.size;
+            }
+            frontier = new IntBuffer();
+            if (total > n / DENSE_FRONTIER) {
+                for (int v = 0; v < n; ++v) {
+                    if (next[v] != 0) {
+                        next[v] = 0;
+                        frontier.add(v);
+                    }
+                }
+            } else {
+                for (IntBuffer o : out) {
+                    for (int i = 0; i < o.size; ++i) {
+                        int v = o.data[i];
+                        if (next[v] != 0) {
+                            next[v] = 0;
+                            frontier.add(v);
+                        }
+                    }
+                }
+            }
+        }
+
+        long[] distances = new long[n];
+        for (int v = 0; v < n; ++v) {
+            distances[v] = dist.get(v);
+        }
+        return tightTree(graph, source, distances);
+    }
+
+    /**
+     * Finds a negative cycle anywhere in the graph, as if a virtual source had an edge of zero
+     * weight to every vertex. This is how an arbitrage opportunity is found in a graph of negated
+     * logarithmic exchange rates.
+     *
+     * @param graph the graph
+     * @return the vertices of a negative cycle in the order of its edges, starting with the least
+     *     vertex and with an edge from the last vertex back to the first, or an empty array if
+     *     there is none
+     */
+    public static int[] findNegativeCycle(CsrGraph graph) {
+        Spfa spfa = new Spfa(graph);
+        for (int v = 0; v < graph.nodeCount(); ++v) {
+            spfa.dist[v] = 0;
+            spfa.push(v);
+        }
+        int[] cycle = spfa.run();
+        return cycle == null ? new int[0] : cycle;
+    }
+
+    /**
+     * Finds a negative cycle that can be reached from the source.
+     *
+     * @param graph the graph
+     * @param source the source vertex
+     * @return the vertices of a negative cycle in the order of its edges, starting with the least
+     *     vertex and with an edge from the last vertex back to the first, or an empty array if
+     *     there is none
+     */
+    public static int[] findNegativeCycle(CsrGraph graph, int source) {
+        checkSource(graph, source);
+
+        Spfa spfa = new Spfa(graph);
+        spfa.start(source);
+        int[] cycle = spfa.run();
+        return cycle == null ? new int[0] : cycle;
+    }
+
+    private static void checkSource(CsrGraph graph, int source) {
+        if (source < 0 || source >= graph.nodeCount()) {
+            throw new IllegalArgumentException("Invalid source vertex");
+        }
+    }
+
+    /**
+     * Builds the tree from final distances with a breadth first search over tight edges, where the
+     * distance of the end equals the distance of the start plus the weight. With negative weights,
+     * tight edges may form cycles of zero weight, which the search never follows twice.
+     */
+    private static ShortestPathTree tightTree(CsrGraph graph, int source, long[] dist) {
+        int n = graph.nodeCount();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] weights = graph.weights();
+        int[] pred = new int[n];
+        Arrays.fill(pred, -1);
+        int[] queue = new int[n];
+        int tail = 0;
+        queue[tail++] = source;
+        for (int head = 0; head < tail; ++head) {
+            int u = queue[head];
+            for (int e = offsets[u]; e < offsets[u + 1]; ++e) {
+                int v = targets[e];
+                if (v != source && pred[v] < 0 && dist[u] + weights[e] == dist[v]) {
+                    pred[v] = u;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return new ShortestPathTree(source, ShortestPathTree.NO_PATH, dist, pred);
+    }
+
+    /**
+     * The state of a queue-based search. A negative cycle keeps the queue from ever draining, so
+     * the predecessor graph is checked for a cycle after every n relaxations, and whenever a vertex
+     * has a tentative path of at least n edges. Every cycle of the predecessor graph has a negative
+     * weight, and one appears soon after a negative cycle has been reached.
+     */
+    private static final class Spfa {
+
+        private final int n;
+        private final int[] offsets;
+        private final int[] targets;
+        private final int[] weights;
+        private final long[] dist;
+        private final int[] pred;
+        // The number of edges on the tentative path of every vertex.
+        private final int[] hops;
+        private final boolean[] queued;
+        // A circular queue, which never holds a vertex twice.
+        private final int[] queue;
+        private int head;
+        private int size;
+
+        Spfa(CsrGraph graph) {
+            this.n = graph.nodeCount();
+            this.offsets = graph.offsets();
+            this.targets = graph.targets();
+            this.weights = graph.weights();
+            this.dist = new long[n];
+            this.pred = new int[n];
+            this.hops = new int[n];
+            this.queued = new boolean[n];
+            this.queue = new int[Math.max(1, n)];
+            Arrays.fill(dist, INF);
+            Arrays.fill(pred, -1);
+        }
+
+        void start(int source) {
+            dist[source] = 0;
+            push(source);
+        }
+
+        void push(int v) {
+            queued[v] = true;
+            queue[(head + size++) % queue.length] = v;
+        }
+
+        private void pushFront(int v) {
+            queued[v] = true;
+            head = (head + queue.length - 1) % queue.length;
+            queue[head] = v;
+            ++size;
+        }
+
+        /**
+         * Relaxes until no distance changes.
+         *
+         * @return a negative cycle, or null if there is none
+         */
+        int[] run() {
+            long relaxations = 0;
+            long nextCheck = 0;
+            while (size > 0) {
+                int u = queue[head];
+                head = (head + 1) % queue.length;
+                --size;
+                queued[u] = false;
+
+                long du = dist[u];
+                for (int e = offsets[u]; e < offsets[u + 1]; ++e) {
+                    int v = targets[e];
+                    long nd = du + weights[e];
+                    if (nd < dist[v]) {
+                        dist[v] = nd;
+                        pred[v] = u;
+                        hops[v] = hops[u] + 1;
+                        ++relaxations;
+                        if (hops[v] >= n && relaxations >= nextCheck) {
+                            int[] cycle = predecessorCycle();
+                            if (cycle != null) {
+                                return cycle;
+                            }
+                            nextCheck = relaxations + n;
+                        }
+                        if (!queued[v]) {
+                            // Small label first: a vertex that beats the head is relaxed next.
+                            if (size > 0 && nd < dist[queue[head]]) {
+                                pushFront(v);
+                            } else {
+                                push(v);
+                            }
+                        }
+                    }
+                }
+            }
+            return null;
+        }
+
+        /** Finds a cycle in the predecessor graph by walking up from every vertex once. */
+        private int[] predecessorCycle() {
+            // The vertex whose walk first visited a vertex, plus one.
+            int[] walk = new int[n];
+            for (int start = 0; start < n; ++start) {
+                int v = start;
+                while (v >= 0 && walk[v] == 0) {
+                    walk[v] = start + 1;
+                    v = pred[v];
+                }
+                if (v >= 0 && walk[v] == start + 1) {
+                    return extractCycle(v);
+                }
+            }
+            return null;
+        }
+
+        /** Collects the cycle through v in edge order, rotated to start at its least vertex. */
+        private int[] extractCycle(int v) {
+            int len = 1;
+            for (int u = pred[v]; u != v; u = pred[u]) {
+                ++len;
+            }
+            int[] cycle = new int[len];
+            int least = 0;
+            int u = v;
+            for (int i = len - 1; i >= 0; --i) {
+                cycle[i] = u;
+                u = pred[u];
+            }
+            for (int i = 1; i < len; ++i) {
+                if (cycle[i] < cycle[least]) {
+                    least = i;
+                }
+            }
+            int[] rotated = new int[len];
+            for (int i = 0; i < len; ++i) {
+                rotated[i] = cycle[(least + i) % len];
+            }
+            return rotated;
+        }
+
+        ShortestPathTree tree(int source) {
+            return new ShortestPathTree(source, ShortestPathTree.NO_PATH, dist, pred);
+        }
+    }
+
+    /**
+     * Task for relaxing a range of chunks of the frontier edges. The edges of the frontier are
+     * numbered in frontier order, and every chunk holds a grain of them, which may start and end in
+     * the middle of the edges of a vertex.
+     */
+    private static final class RelaxTask extends RecursiveAction {
+
+        private final CsrGraph graph;
+        private final AtomicLongArray dist;
+        private final byte[] next;
+        private final IntBuffer frontier;
+        private final int[] prefix;
+        private final int grain;
+        private final int from;
+        private final int to;
+        private final IntBuffer[] out;
+
+        RelaxTask(
+                CsrGraph graph,
+                AtomicLongArray dist,
+                byte[] next,
+                IntBuffer frontier,
+                int[] prefix,
+                int grain,
+                int from,
+                int to,
+                IntBuffer[] out) {
+            this.graph = graph;
+            this.dist = dist;
+            this.next = next;
+            this.frontier = frontier;
+            this.prefix = prefix;
+            this.grain = grain;
+            this.from = from;
+            this.to = to;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(
+                        new RelaxTask(graph, dist, next, frontier, prefix, grain, from, mid, out),
+                        new RelaxTask(graph, dist, next, frontier, prefix, grain, mid, to, out));
+                return;
+            }
+
+            int[] offsets = graph.offsets();
+            int[] targets = graph.targets();
+            int[] weights = graph.weights();
+            IntBuffer changed = new IntBuffer();
+            int size = frontier.size;
+            int bin = from * grain;
+            int end = (int) Math.min(prefix[size], (long) (from + 1) * grain);
+            for (int i = firstVertex(bin); i < size && prefix[i] < end; ++i) {
+                int u = frontier.data[i];
+                long du = dist.get(u);
+                // Only the edges of the vertex that fall into the chunk.
+                int base = offsets[u] - prefix[i];
+                int last = base + Math.min(end, prefix[i + 1]);
+                for (int e = base + Math.max(bin, prefix[i]); e < last; ++e) {
+                    int v = targets[e];
+                    long nd = du + weights[e];
+                    long cur = dist.get(v);
+                    while (nd < cur) {
+                        if (dist.compareAndSet(v, cur, nd)) {
+                            // Racing tasks may both add v, and the merge skips the duplicate.
+                            if (next[v] == 0) {
+                                next[v] = 1;
+                                changed.add(v);
+                            }
+                            break;
+                        }
+                        cur = dist.get(v);
+                    }
+                }
+            }
+            out[from] = changed;
+        }
+
+        /** Finds the last frontier position whose edges start at or before the given edge. */
+        private int firstVertex(int edge) {
+            int lo = 0;
+            int hi = frontier.size;
+            while (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                if (prefix[mid] <= edge) {
+                    lo = mid;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
 }
@@ -0,0 +1,338 @@
+package io.esoma.cbj.algo;
+
+import io.esoma.cbj.ds.CsrGraph;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class for illustrating the delta-stepping algorithm of Meyer and Sanders, a parallel single
+ * source shortest path algorithm for graphs without negative weights. Nodes are kept in buckets of
+ * width delta by their tentative distance, and the buckets are processed in increasing order. All
+ * nodes of the current bucket are relaxed at the same time, and their light edges (not heavier than
+ * delta) may add nodes back to the same bucket, so the bucket is repeated until it stays empty.
+ * Heavy edges can only reach later buckets, so they are relaxed once per bucket at the end.
+ * Dijkstra's algorithm is the special case of a tiny delta, with one node settled at a time, while
+ * a huge delta turns it into the Bellman-Ford algorithm, with much parallel but redundant work.
+ *
+ * <p>Relaxations run concurrently on a {@link ForkJoinPool} and lower distances with
+ * compare-and-set, so the result is the same as the one of {@link Dijkstra#djFind(int[][])} and
+ * {@link Dijkstra#shortestPaths(CsrGraph, int)}, whatever the number of threads.
+ *
+ * @author Eddy Soma
+ */
+public class DeltaStepping {
+
+    // Frontiers of at most this many nodes are relaxed by a single task.
+    private static final int PARALLEL_THRESHOLD = 1 << 10;
+    // The most buckets that may hold nodes at the same time.
+    private static final int MAX_BUCKETS = 1 << 24;
+
+    private DeltaStepping() {}
+
+    /**
+     * Finds the shortest paths from the source to all other nodes with a delta derived from the
+     * graph. The default is the maximum weight divided by the average degree, which keeps the
+     * number of repeated relaxations in a bucket low on random graphs, but it is raised if needed
+     * to keep the number of buckets bounded.
+     *
+     * @param graph the graph, must not have negative weights
+     * @param source the source node
+     * @param pool the pool to run the relaxations
+     * @return the shortest path tree rooted at the source
+     */
+    public static ShortestPathTree shortestPaths(CsrGraph graph, int source, ForkJoinPool pool) {
+        int maxWeight = maxWeight(graph);
+        int avgDegree = Math.max(1, graph.edgeCount() / Math.max(1, graph.nodeCount()));
+        int delta = Math.max(maxWeight / avgDegree, maxWeight / (MAX_BUCKETS - 2) + 1);
+        return shortestPaths(graph, source, Math.max(1, delta), pool);
+    }
+
+    /**
+     * Finds the shortest paths from the source to all other nodes with the given bucket width. A
+     * smaller delta does less redundant work but has fewer nodes to relax in parallel and more
+     * buckets to step through, which matters when distances are large compared to delta. The
+     * maximum weight divided by delta must be less than 2^24, which bounds the number of buckets.
+     *
+     * @param graph the graph, must not have negative weights
+     * @param source the source node
+     * @param delta the bucket width, at least 1
+     * @param pool the pool to run the relaxations
+     * @return the shortest path tree rooted at the source
+     */
+    public static ShortestPathTree shortestPaths(CsrGraph graph, int source, int delta, ForkJoinPool pool) {
+        if (source < 0 || source >= graph.nodeCount()) {
+            throw new IllegalArgumentException("Invalid source node");
+        }
+        if (delta < 1) {
+            throw new IllegalArgumentException("Delta must be at least 1");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        if (graph.hasNegativeWeight()) {
+            throw new IllegalArgumentException("Negative weights are not supported");
+        }
+        int maxWeight = maxWeight(graph);
+        if (maxWeight / delta + 2 > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Delta is too small for the maximum weight");
+        }
+
+        return new Search(graph, delta, maxWeight, pool).run(source);
+    }
+
+    private static int maxWeight(CsrGraph graph) {
+        int max = 0;
+        for (int w : graph.weights()) {
+            max = Math.max(max, w);
+        }
+        return max;
+    }
+
+    /** The state of a single search. */
+    private static final class Search {
+
+        private final CsrGraph graph;
+        private final int[] offsets;
+        private final int[] targets;
+        private final int[] weights;
+        private final long delta;
+        private final ForkJoinPool pool;
+        private final int chunk;
+        private final AtomicLongArray dist;
+        // The buckets that can hold nodes at any time, reused cyclically.
+        private final IntBuffer[] ring;
+        // The round in which a node was last added to a frontier, to skip duplicates.
+        private final int[] stamp;
+        // The bucket in which a node was last settled, to collect every node once per bucket.
+        private final int[] settled;
+        private int pending;
+
+        Search(CsrGraph graph, int delta, int maxWeight, ForkJoinPool pool) {
+            this.graph = graph;
+            this.offsets = graph.offsets();
+            this.targets = graph.targets();
+            this.weights = graph.weights();
+            this.delta = delta;
+            this.pool = pool;
+            this.chunk = Math.max(PARALLEL_THRESHOLD, graph.nodeCount() / (pool.getParallelism() * 64));
+
+            int n = graph.nodeCount();
+            // Tentative distances never exceed the current bucket by more than the maximum weight.
+            this.ring = new IntBuffer[maxWeight / delta + 2];
+            this.dist = new AtomicLongArray(n);
+            this.stamp = new int[n];
+            this.settled = new int[n];
+            Arrays.fill(this.stamp, -1);
+            Arrays.fill(this.settled, -1);
+            for (int u = 0; u < n; ++u) {
+                this.dist.set(u, Long.MAX_VALUE);
+            }
+        }
+
+        ShortestPathTree run(int source) {
+            dist.set(source, 0);
+            add(source, 0);
+
+            int round = 0;
+            int phase = 0;
+            IntBuffer done = new IntBuffer();
+            for (long b = 0; pending > 0; ++b) {
+                int slot = (int) (b % ring.length);
+                IntBuffer bucket = ring[slot];
+                if (bucket == null || bucket.size == 0) {
+                    continue;
+                }
+                ring[slot] = null;
+                pending -= bucket.size;
+
+                done.size = 0;
+                IntBuffer frontier = filter(bucket, b, ++round);
+                while (frontier.size > 0) {
+                    for (int i = 0; i < frontier.size; ++i) {
+                        int u = frontier.data[i];
+                        if (settled[u] != phase) {
+                            settled[u] = phase;
+                            done.add(u);
+                        }
+                    }
+                    IntBuffer[] updates = relax(frontier, true);
+                    // Updates that stay in this bucket form the next frontier, the rest wait.
+                    frontier = new IntBuffer();
+                    ++round;
+                    for (IntBuffer out : updates) {
+                        for (int i = 0; i < out.size; ++i) {
+                            int v = out.data[i];
+                            long bv = dist.get(v) / delta;
+                            if (bv == b) {
+                                if (stamp[v] != round) {
+                                    stamp[v] = round;
+                                    frontier.add(v);
+                                }
+                            } else {
+                                add(v, bv);
+                            }
+                        }
+                    }
+                }
+
+                for (IntBuffer out : relax(done, false)) {
+                    for (int i = 0; i < out.size; ++i) {
+                        int v = out.data[i];
+                        add(v, dist.get(v) / delta);
+                    }
+                }
+                ++phase;
+            }
+
+            return tree(source);
+        }
+
+        /** Keeps the nodes of a bucket that still belong to it, each once. */
+        private IntBuffer filter(IntBuffer bucket, long b, int round) {
+            IntBuffer frontier = new IntBuffer();
+            for (int i = 0; i < bucket.size; ++i) {
+                int u = bucket.data[i];
+                if (stamp[u] != round && dist.get(u) / delta == b) {
+                    stamp[u] = round;
+                    frontier.add(u);
+                }
+            }
+            return frontier;
+        }
+
+        private void add(int v, long b) {
+            int slot = (int) (b % ring.length);
+            if (ring[slot] == null) {
+                ring[slot] = new IntBuffer();
+            }
+            ring[slot].add(v);
+            ++pending;
+        }
+
+        /**
+         * Relaxes the light or the heavy edges of the nodes, in parallel if there are many. Every
+         * chunk of nodes reports the nodes whose distance it lowered in its own buffer.
+         */
+        private IntBuffer[] relax(IntBuffer nodes, boolean light) {
+            int chunks = Math.max(1, (nodes.size + chunk - 1) / chunk);
+            IntBuffer[] out = new IntBuffer[chunks];
+            if (chunks == 1) {
+                out[0] = relaxRange(nodes, 0, nodes.size, light);
+            } else {
+                pool.invoke(new RelaxTask(this, nodes, 0, chunks, light, out));
+            }
+            return out;
+        }
+
+        private IntBuffer relaxRange(IntBuffer nodes, int from, int to, boolean light) {
+            IntBuffer out = new IntBuffer();
+            for (int i = from; i < to; ++i) {
+                int u = nodes.data[i];
+                long du = dist.get(u);
+                for (int e = offsets[u]; e < offsets[u + 1]; ++e) {
+                    int w = weights[e];
+                    if ((w <= delta) != light) {
+                        continue;
+                    }
+                    int v = targets[e];
+                    long nd = du + w;
+                    long cur = dist.get(v);
+                    while (nd < cur) {
+                        if (dist.compareAndSet(v, cur, nd)) {
+                            out.add(v);
+                            break;
+                        }
+                        cur = dist.get(v);
+                    }
+                }
+            }
+            return out;
+        }
+
+        /**
+         * Builds the tree from the final distances. Any edge that is tight (where the distance of
+         * the target equals the distance of the source plus the weight) can be the last edge of a
+         * shortest path, and tight edges of positive weight can never form a cycle. Nodes that are
+         * only reached through tight edges of zero weight are attached afterwards with a search
+         * from the nodes that already have a predecessor.
+         */
+        private ShortestPathTree tree(int source) {
+            int n = graph.nodeCount();
+            long[] distances = new long[n];
+            int[] pred = new int[n];
+            Arrays.fill(pred, -1);
+            for (int u = 0; u < n; ++u) {
+                long du = dist.get(u);
+                distances[u] = du == Long.MAX_VALUE ? ShortestPathTree.UNREACHABLE : du;
+            }
+            for (int u = 0; u < n; ++u) {
+                long du = distances[u];
+                if (du < 0) {
+                    continue;
+                }
+                for (int e = offsets[u]; e < offsets[u + 1]; ++e) {
+                    int v = targets[e];
+                    if (weights[e] > 0 && du + weights[e] == distances[v]) {
+                        pred[v] = u;
+                    }
+                }
+            }
+
+            int[] queue = new int[n];
+            int tail = 0;
+            for (int u = 0; u < n; ++u) {
+                if (u == source || pred[u] >= 0) {
+                    queue[tail++] = u;
+                }
+            }
+            for (int head = 0; head < tail; ++head) {
+                int u = queue[head];
+                for (int e = offsets[u]; e < offsets[u + 1]; ++e) {
+                    int v = targets[e];
+                    if (weights[e] == 0 && v != source && pred[v] < 0 && distances[v] == distances[u]) {
+                        pred[v] = u;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+            return new ShortestPathTree(source, distances, pred);
+        }
+    }
+
+    /** Task for relaxing a range of chunks of nodes, splitting it in halves while it is large. */
+    private static final class RelaxTask extends RecursiveAction {
+
+        private final Search search;
+        private final IntBuffer nodes;
+        private final int from;
+        private final int to;
+        private final boolean light;
+        private final IntBuffer[] out;
+
+        RelaxTask(Search search, IntBuffer nodes, int from, int to, boolean light, IntBuffer[] out) {
+            this.search = search;
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+            this.light = light;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                int bin = from * search.chunk;
+                int end = Math.min(bin + search.chunk, nodes.size);
+                out[from] = search.relaxRange(nodes, bin, end, light);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(
+                    new RelaxTask(search, nodes, from, mid, light, out),
+                    new RelaxTask(search, nodes, mid, to, light, out));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.esoma.cbj.algo;
 
+import io.esoma.cbj.ds.CsrGraph;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.Queue;
@@ -15,6 +16,18 @@ import java.util.Queue;
  */
 public class Dijkstra {
 
+    /** The priority queues that {@link #shortestPaths(CsrGraph, int, HeapType)} can run with. */
+    public enum HeapType {
+        /** An indexed binary heap of primitive keys. */
+        BINARY_HEAP,
+        /** An indexed 4-ary heap of primitive keys, which is the default. */
+        QUATERNARY_HEAP,
+        /** A pairing heap of node handles. */
+        PAIRING_HEAP,
+        /** A Fibonacci heap of node handles. */
+        FIBONACCI_HEAP
+    }
+
     private Dijkstra() {}
 
     /**
@@ -63,4 +76,94 @@ public class Dijkstra {
 
         return results;
     }
+
+    /**
+     * Finds the shortest paths from the source to all other nodes of a graph given as compressed
+     * sparse row arrays. See {@link #shortestPaths(CsrGraph, int)}.
+     *
+     * @param offsets the first edge index of every node, followed by the number of edges
+     * @param targets the target node of every edge
+     * @param weights the weight of every edge, must not be negative
+     * @param source the source node
+     * @return the shortest path tree rooted at the source
+     */
+    public static ShortestPathTree shortestPaths(int[] offsets, int[] targets, int[] weights, int source) {
+        return shortestPaths(new CsrGraph(offsets, targets, weights), source);
+    }
+
+    /**
+     * Finds the shortest paths from the source to all other nodes of a sparse graph. Unlike {@link
+     * #djFind(int[][])}, every node is settled exactly once in the order of its distance, using an
+     * indexed heap that lowers the key of a queued node in place. Only the outgoing edges of the
+     * settled node are scanned, so this runs in O((n + m) log n) time and O(n + m) memory for n
+     * nodes and m edges.
+     *
+     * @param graph the graph, must not have negative weights
+     * @param source the source node
+     * @return the shortest path tree rooted at the source
+     */
+    public static ShortestPathTree shortestPaths(CsrGraph graph, int source) {
+        return shortestPaths(graph, source, HeapType.QUATERNARY_HEAP);
+    }
+
+    /**
+     * Finds the shortest paths from the source to all other nodes of a sparse graph with the given
+     * type of priority queue. The Fibonacci heap has the best bound of O(m + n log n), since
+     * decreasing a key takes O(1) amortized time, but the array based heaps allocate nothing per
+     * node and are usually faster unless the graph is dense enough for decreases to dominate.
+     *
+     * @param graph the graph, must not have negative weights
+     * @param source the source node
+     * @param type the priority queue to use
+     * @return the shortest path tree rooted at the source
+     */
+    public static ShortestPathTree shortestPaths(CsrGraph graph, int source, HeapType type) {
+        int n = graph.nodeCount();
+        if (source < 0 || source >= n) {
+            throw new IllegalArgumentException("Invalid source node");
+        }
+        if (graph.hasNegativeWeight()) {
+            throw new IllegalArgumentException("Negative weights are not supported");
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("Heap type must not be null");
+        }
+
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] weights = graph.weights();
+        long[] dist = new long[n];
+        int[] pred = new int[n];
+        Arrays.fill(dist, Long.MAX_VALUE);
+        Arrays.fill(pred, -1);
+
+        NodeQueue heap = NodeQueue.create(type, n);
+        dist[source] = 0;
+        heap.insert(source, 0);
+        while (!heap.isEmpty()) {
+            int u = heap.pollMin();
+            long du = dist[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; ++e) {
+                int v = targets[e];
+                long nd = du + weights[e];
+                // Settled nodes never improve, since weights are not negative.
+                if (nd < dist[v]) {
+                    if (dist[v] == Long.MAX_VALUE) {
+                        heap.insert(v, nd);
+                    } else {
+                        heap.decreaseKey(v, nd);
+                    }
+                    dist[v] = nd;
+                    pred[v] = u;
+                }
+            }
+        }
+
+        for (int v = 0; v < n; ++v) {
+            if (dist[v] == Long.MAX_VALUE) {
+                dist[v] = ShortestPathTree.UNREACHABLE;
+            }
+        }
+        return new ShortestPathTree(source, dist, pred);
+    }
 }
@@ -1,20 +1,30 @@
 package io.esoma.cbj.algo;
 
+import io.esoma.cbj.core.ArrayCore;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Class for studying the Greatest Common Divisor (GCD) problem. The GCD is defined to be the
  * largest positive integer that fully divides each of the integer in a group of non-zero integers.
  * For example, the GCD of 5, 10, 15 is 5.
  *
+ * <p>Following that definition, the GCD of any group with a zero in it is 0 here, so a zero is
+ * never silently ignored.
+ *
  * @author Eddy Soma
  */
 public class GreatestCommonDivisor {
 
-    // Integer bound (performance is significantly affected by this constant).
-    private static final int MAX_INT = 10001;
-
-    // Static references of the input array and the result cache.
-    private static int[] sa;
-    private static int[][][] cache;
+    // The largest value the histogram can hold, bounded by the maximum array length.
+    private static final int MAX_VALUE = Integer.MAX_VALUE - 8;
+    // Ranges of at most this many candidate divisors are swept by a single task.
+    private static final int PARALLEL_THRESHOLD = 1 << 12;
+    // Trial division is used when the number of integers times this factor times the square root
+    // of the largest value is below the largest value.
+    private static final int SPARSE_FACTOR = 4;
 
     private GreatestCommonDivisor() {}
 
@@ -24,12 +34,14 @@ public class GreatestCommonDivisor {
      * change if the larger number is replaced by its difference with the smaller number. The
      * operation repeatedly replaces the larger integer of the two with the remainder of dividing it
      * by the smaller integer until the smaller integer is a factor of (or equal to) the larger one.
+     * Every step is an integer division, which takes tens of cycles, so {@link #gcd(int, int)} is
+     * usually faster.
      *
      * @param a the first integer
      * @param b the second integer
-     * @return the GCD of the two integers
+     * @return the GCD of the two integers, or 0 if either is 0
      */
-    private static int egcd(int a, int b) {
+    public static int egcd(int a, int b) {
         if (a == 0 || b == 0) {
             return 0;
         } else {
@@ -52,26 +64,147 @@ public class GreatestCommonDivisor {
     }
 
     /**
-     * Finds the GCD of the given integer array.
+     * Calculates the GCD between two integers using the binary GCD algorithm of Stein. Common
+     * factors of two are taken out with a single trailing zero count, and then the smaller odd
+     * number is repeatedly subtracted from the larger one, with the factors of two of the
+     * difference shifted out at once. Only subtractions, shifts and comparisons are needed, and the
+     * loop compiles to conditional moves instead of branches, so it is much faster than the
+     * divisions of {@link #egcd(int, int)}. Like {@link Math#abs(int)}, a result of 2^31 (only for
+     * two multiples of {@link Integer#MIN_VALUE}) overflows to {@link Integer#MIN_VALUE}.
+     *
+     * @param a the first integer
+     * @param b the second integer
+     * @return the GCD of the two integers, or 0 if either is 0
+     */
+    public static int gcd(int a, int b) {
+        if (a == 0 || b == 0) {
+            return 0;
+        }
+
+        // Absolute values are read as unsigned, so that the minimum value is 2^31.
+        a = Math.abs(a);
+        b = Math.abs(b);
+        int shift = Integer.numberOfTrailingZeros(a | b);
+        a >>>= Integer.numberOfTrailingZeros(a);
+        // Both numbers are odd and below 2^31 from here on.
+        while (b != 0) {
+            b >>>= Integer.numberOfTrailingZeros(b);
+            int d = b - a;
+            a = Math.min(a, b);
+            b = Math.abs(d);
+        }
+        return a << shift;
+    }
+
+    /**
+     * Calculates the GCD between two long integers using the binary GCD algorithm, as {@link
+     * #gcd(int, int)} does. A result of 2^63 overflows to {@link Long#MIN_VALUE}.
+     *
+     * @param a the first integer
+     * @param b the second integer
+     * @return the GCD of the two integers, or 0 if either is 0
+     */
+    public static long gcd(long a, long b) {
+        if (a == 0 || b == 0) {
+            return 0;
+        }
+
+        a = Math.abs(a);
+        b = Math.abs(b);
+        int shift = Long.numberOfTrailingZeros(a | b);
+        a >>>= Long.numberOfTrailingZeros(a);
+        while (b != 0) {
+            b >>>= Long.numberOfTrailingZeros(b);
+            long d = b - a;
+            a = Math.min(a, b);
+            b = Math.abs(d);
+        }
+        return a << shift;
+    }
+
+    /**
+     * Calculates the GCD of every pair of elements at the same index of two arrays, as {@link
+     * #gcd(int, int)} does. When the {@code jdk.incubator.vector} module is available, a full
+     * vector of pairs is reduced at a time with SIMD instructions.
+     *
+     * @param a the first elements
+     * @param b the second elements
+     * @param out the output array, which may be one of the inputs
+     */
+    public static void gcdAll(int[] a, int[] b, int[] out) {
+        if (a.length != b.length || a.length != out.length) {
+            throw new IllegalArgumentException("Arrays must have the same length");
+        }
+
+        if (ArrayCore.isVectorized()) {
+            VectorizedGcd.gcdAll(a, b, out, a.length);
+            return;
+        }
+        for (int i = 0; i < a.length; ++i) {
+            out[i] = gcd(a[i], b[i]);
+        }
+    }
+
+    /**
+     * Finds the GCD of the given integer array. The elements are folded with {@link #gcd(int, int)}
+     * after taking their remainder by the running GCD, and the fold stops early once the GCD is 1,
+     * as it cannot change any more unless there is a zero in the rest of the array.
      *
      * @param array the input array
-     * @return the GCD value
+     * @return the GCD value, or 0 if the array is empty or has a zero
      */
     public static int findGcd(int[] array) {
-        int len = array.length;
-        if (len < 1) {
+        return reduce(array, 0, array.length);
+    }
+
+    /**
+     * Finds the GCD of the given integer array as {@link #findGcd(int[])} does, with the array
+     * split into halves in parallel like a tree. Every leaf folds its range, and the GCDs of two
+     * halves are combined on the way back up, which is exact since the GCD is associative.
+     *
+     * @param array the input array
+     * @param pool the pool to run the reduction
+     * @return the GCD value, or 0 if the array is empty or has a zero
+     */
+    public static int findGcd(int[] array, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        if (array.length <= PARALLEL_THRESHOLD) {
+            return reduce(array, 0, array.length);
+        }
+
+        return pool.invoke(new ReduceTask(array, 0, array.length));
+    }
+
+    /** Folds the GCD of a range of the array. */
+    private static int reduce(int[] array, int bin, int end) {
+        if (bin >= end) {
             return 0;
         }
 
-        int gcd = array[0];
-        for (int i = 1; i < len; ++i) {
-            if (gcd == 1) {
+        int g = Math.abs(array[bin]);
+        for (int i = bin + 1; i < end && g != 0; ++i) {
+            if (g == 1) {
+                for (int j = i; j < end; ++j) {
+                    if (array[j] == 0) {
+                        return 0;
+                    }
+                }
                 return 1;
             }
-            gcd = egcd(gcd, array[i]);
+            // The running GCD soon gets much smaller than the elements, and then one remainder
+            // leaves the binary loop far fewer bits to strip.
+            int x = array[i];
+            if (x == 0) {
+                return 0;
+            }
+            int r = x % g;
+            if (r != 0) {
+                g = gcd(g, r);
+            }
         }
-
-        return gcd;
+        return g;
     }
 
     /**
@@ -80,85 +213,251 @@ public class GreatestCommonDivisor {
      * if we have integers 4, 5, 10, 15, 6, 12, and n is 3, then we should pick 5, 10, 15 whose GCD
      * is the largest (5) amongst all combinations.
      *
-     * @param array the input array
+     * <p>A group with a GCD of d exists exactly when at least n integers are multiples of d, so the
+     * answer is the largest such d. The integers are counted in a histogram by absolute value, and
+     * the candidates are swept from the largest value down, adding up the counts of their
+     * multiples. A candidate d reads V / d entries for the largest value V, so the whole sweep
+     * takes O(V log V) time at most, like a sieve, and O(V) memory. The sweep stops at the first
+     * candidate with enough multiples.
+     *
+     * <p>When there are few integers compared to V, the divisors of every integer are listed by
+     * trial division instead, in O(len sqrt(V)) time, and the answer is the largest divisor shared
+     * by at least n of them. No memory proportional to V is needed then.
+     *
+     * @param array the input array, which is not modified
      * @param n the number of integers to select
-     * @return the GCD of the chosen group
+     * @return the GCD of the chosen group, or 0 if the array is empty, n is 0, or there is a zero
      */
     public static int bestGcd(int[] array, int n) {
-        int len = array.length;
-        if (len < 1 || n == 0) {
+        int max = maxValue(array, n);
+        if (max == 0) {
             return 0;
         }
-        if (n > len) {
-            n = len;
+
+        int k = Math.min(n, array.length);
+        if (isSparse(array.length, max)) {
+            return commonDivisor(array, k);
         }
+        return sweep(histogram(array, max), k, 1, max, null);
+    }
 
-        // Initialize static arrays.
-        for (int i = 0; i < len; ++i) {
-            if (array[i] == 0) {
+    /**
+     * Finds the largest possible GCD of a group of n integers picked from the array as {@link
+     * #bestGcd(int[], int)} does, with the candidates swept in parallel. The candidates are split
+     * into ranges that halve from the largest value down, (V / 2, V], (V / 4, V / 2], and so on,
+     * which all take about the same time to sweep. Every range is swept in parallel, and the sweep
+     * stops after the first range with a result. Within a range, tasks skip the candidates below
+     * the best result found so far. Few integers compared to V are handled by trial division on the
+     * calling thread, as in the sequential version.
+     *
+     * @param array the input array, which is not modified
+     * @param n the number of integers to select
+     * @param pool the pool to run the sweep
+     * @return the GCD of the chosen group, or 0 if the array is empty, n is 0, or there is a zero
+     */
+    public static int bestGcd(int[] array, int n, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        int max = maxValue(array, n);
+        if (max == 0) {
+            return 0;
+        }
+
+        int k = Math.min(n, array.length);
+        if (isSparse(array.length, max)) {
+            return commonDivisor(array, k);
+        }
+        int[] hist = histogram(array, max);
+        for (int hi = max; hi >= 1; hi /= 2) {
+            int lo = hi / 2 + 1;
+            int d = hi - lo < PARALLEL_THRESHOLD
+                    ? sweep(hist, k, lo, hi, null)
+                    : pool.invoke(new SweepTask(hist, k, lo, hi, new AtomicInteger()));
+            if (d > 0) {
+                return d;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Validates the input and returns the largest absolute value, or 0 if there is no group to
+     * pick, which is when the array is empty, n is 0, or there is a zero in the array.
+     */
+    private static int maxValue(int[] array, int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Invalid group size");
+        }
+        if (array.length < 1 || n == 0) {
+            return 0;
+        }
+
+        int max = 0;
+        for (int v : array) {
+            if (v == 0) {
                 return 0;
-            } else {
-                array[i] = Math.abs(array[i]);
             }
+            if (v < -MAX_VALUE || v > MAX_VALUE) {
+                throw new IllegalArgumentException("Value is out of range: " + v);
+            }
+            max = Math.max(max, Math.abs(v));
+        }
+        return max;
+    }
+
+    /** Checks whether trial division of every integer is cheaper than sweeping all candidates. */
+    private static boolean isSparse(int len, int max) {
+        return (long) len * (long) Math.sqrt(max) * SPARSE_FACTOR < max;
+    }
+
+    /** Counts the integers by absolute value. */
+    private static int[] histogram(int[] array, int max) {
+        int[] hist = new int[max + 1];
+        for (int v : array) {
+            ++hist[Math.abs(v)];
+        }
+        return hist;
+    }
+
+    /**
+     * Lists the divisors of every distinct absolute value by trial division, each with the number
+     * of times the value occurs, and finds the largest divisor with a total of at least n.
+     */
+    private static int commonDivisor(int[] array, int n) {
+        int[] values = new int[array.length];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = Math.abs(array[i]);
         }
-        sa = array;
+        Arrays.sort(values);
 
-        cache = new int[MAX_INT][len + 1][n + 1];
+        // Every entry packs a divisor in the high half and a count in the low half.
+        long[] divisors = new long[64];
+        int size = 0;
+        for (int i = 0; i < values.length; ) {
+            int v = values[i];
+            int j = i;
+            while (j < values.length && values[j] == v) {
+                ++j;
+            }
+            long count = j - i;
+            i = j;
+            for (int f = 1; (long) f * f <= v; ++f) {
+                if (v % f == 0) {
+                    if (size + 2 > divisors.length) {
+                        divisors = Arrays.copyOf(divisors, divisors.length * 2);
+                    }
+                    divisors[size++] = (long) f << 32 | count;
+                    if (f != v / f) {
+                        divisors[size++] = (long) (v / f) << 32 | count;
+                    }
+                }
+            }
+        }
+        Arrays.sort(divisors, 0, size);
 
-        return dpGcd(0, len, n);
+        int best = 0;
+        for (int i = 0; i < size; ) {
+            int d = (int) (divisors[i] >>> 32);
+            long total = 0;
+            while (i < size && (int) (divisors[i] >>> 32) == d) {
+                total += (int) divisors[i++];
+            }
+            if (total >= n) {
+                best = d;
+            }
+        }
+        return best;
     }
 
     /**
-     * Computes the largest GCD with the given parameters and a cached array. This method is
-     * recursive and built on the principle of dynamic programming. The core logic is to enumerate
-     * every element of the array and decide if the current element should be a part of the final
-     * combination. Caching is used to quickly look up already computed values. However, this does
-     * not scale well with a high integer bound.
+     * Finds the largest candidate between lo and hi (inclusive) with at least n multiples in the
+     * histogram. If a shared best result is given, candidates not above it are skipped.
      *
-     * @param c the retained GCD
-     * @param a the number of elements left in the array
-     * @param n the number of elements still to be picked
-     * @return the desired GCD
+     * @return the candidate, or 0 if there is none
      */
-    private static int dpGcd(int c, int a, int n) {
-        // Termination conditions.
-        if (n == 0) {
-            return c;
-        }
-        if (n > a) {
-            return -1;
-        }
-        if (c == 1) {
-            return 1;
-        }
-
-        if (cache[c][a][n] == 0) {
-            // No cache available.
-            int head = sa[sa.length - a];
-            if (a == 1) {
-                // Only one element left.
-                if (c == 0) {
-                    // No GCD constraint.
-                    cache[c][a][n] = head;
-                } else {
-                    // GCD present.
-                    cache[c][a][n] = egcd(c, head);
+    private static int sweep(int[] hist, int n, int lo, int hi, AtomicInteger best) {
+        int max = hist.length - 1;
+        for (int d = hi; d >= lo; --d) {
+            if (best != null && d <= best.get()) {
+                return 0;
+            }
+            int count = 0;
+            for (int m = d; ; m += d) {
+                count += hist[m];
+                if (count >= n) {
+                    return d;
                 }
-            } else {
-                // More than one element left.
-                if (c == 0) {
-                    cache[head][a - 1][n - 1] = dpGcd(head, a - 1, n - 1);
-                    cache[0][a - 1][n] = dpGcd(0, a - 1, n);
-                    cache[c][a][n] = Math.max(cache[head][a - 1][n - 1], cache[0][a - 1][n]);
-                } else {
-                    int gh = egcd(c, head);
-                    cache[gh][a - 1][n - 1] = dpGcd(gh, a - 1, n - 1);
-                    cache[c][a - 1][n] = dpGcd(c, a - 1, n);
-                    cache[c][a][n] = Math.max(cache[gh][a - 1][n - 1], cache[c][a - 1][n]);
+                if (m > max - d) {
+                    break;
                 }
             }
         }
+        return 0;
+    }
+
+    /**
+     * Task for folding the GCD of a range of the array, splitting it in halves while it is large.
+     */
+    private static final class ReduceTask extends RecursiveTask<Integer> {
+
+        private final int[] array;
+        private final int bin;
+        private final int end;
 
-        return cache[c][a][n];
+        ReduceTask(int[] array, int bin, int end) {
+            this.array = array;
+            this.bin = bin;
+            this.end = end;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (end - bin <= PARALLEL_THRESHOLD) {
+                return reduce(array, bin, end);
+            }
+
+            int mid = (bin + end) >>> 1;
+            ReduceTask right = new ReduceTask(array, mid, end);
+            right.fork();
+            int left = new ReduceTask(array, bin, mid).compute();
+            int g = right.join();
+            return left == 0 || g == 0 ? 0 : gcd(left, g);
+        }
+    }
+
+    /** Task for sweeping a range of candidates, splitting it in halves while it is large. */
+    private static final class SweepTask extends RecursiveTask<Integer> {
+
+        private final int[] hist;
+        private final int n;
+        private final int lo;
+        private final int hi;
+        private final AtomicInteger best;
+
+        SweepTask(int[] hist, int n, int lo, int hi, AtomicInteger best) {
+            this.hist = hist;
+            this.n = n;
+            this.lo = lo;
+            this.hi = hi;
+            this.best = best;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (hi - lo < PARALLEL_THRESHOLD) {
+                int d = sweep(hist, n, lo, hi, best);
+                best.accumulateAndGet(d, Math::max);
+                return d;
+            }
+
+            int mid = (lo + hi) >>> 1;
+            SweepTask upper = new SweepTask(hist, n, mid + 1, hi, best);
+            SweepTask lower = new SweepTask(hist, n, lo, mid, best);
+            // The upper half is swept first, so that the lower half can skip most of its work.
+            lower.fork();
+            int d = upper.compute();
+            return Math.max(d, lower.join());
+        }
     }
 }
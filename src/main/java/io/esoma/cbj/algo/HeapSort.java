@@ -1,5 +1,9 @@
 package io.esoma.cbj.algo;
 
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
 /**
  * Class for implementing the Heap Sort algorithm. Like selection sort, heapsort divides its input
  * into a sorted and an unsorted region, and it iteratively shrinks the unsorted region by
@@ -52,6 +56,182 @@ public class HeapSort {
         return array;
     }
 
+    /**
+     * Performs heap sort on a d-ary max heap, where every node has the given number of children. A
+     * wider heap is shallower, so each extraction visits fewer levels, and the children of a node
+     * are adjacent in memory, so a level usually costs a single cache line rather than one miss per
+     * comparison. Arities of 4 or 8 work best for large int arrays. The array is sorted in-place.
+     *
+     * @param array the input array
+     * @param arity the number of children per node, at least 2
+     * @return the sorted array
+     */
+    public static int[] sortDary(int[] array, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Arity must be at least 2");
+        }
+
+        int size = array.length;
+        // Build the max heap bottom-up, starting at the parent of the last node.
+        for (int i = (size - 2) / arity; i >= 0 && size > 1; --i) {
+            siftDownDary(array, size, i, arity);
+        }
+
+        while (size > 1) {
+            int max = array[0];
+            array[0] = array[size - 1];
+            array[size - 1] = max;
+            --size;
+            siftDownDary(array, size, 0, arity);
+        }
+
+        return array;
+    }
+
+    /**
+     * Performs heap sort on a binary max heap with Floyd's bottom-up extraction. Instead of
+     * comparing the sifted element against the children at every level, the hole left by the
+     * extracted maximum is first moved down to a leaf along the path of larger children, and the
+     * last element of the heap is then sifted up from there. Because that element almost always
+     * belongs near the bottom, this takes about half the comparisons of the classic sift down. The
+     * array is sorted in-place.
+     *
+     * @param array the input array
+     * @return the sorted array
+     */
+    public static int[] sortBottomUp(int[] array) {
+        int size = array.length;
+        for (int i = size / 2 - 1; i >= 0; --i) {
+            siftDownRange(array, 0, size, i);
+        }
+
+        while (size > 1) {
+            int max = array[0];
+            int last = array[size - 1];
+            --size;
+            siftDownBottomUp(array, size, last);
+            array[size] = max;
+        }
+
+        return array;
+    }
+
+    /**
+     * Rearranges the array so that its first k positions hold the k smallest elements in ascending
+     * order. The order of the remaining elements is unspecified. A max heap of the first k elements
+     * is kept while the rest of the array is scanned, and every element smaller than the root
+     * replaces it, so the cost is O(n log k) instead of the O(n log n) of a full sort. The array is
+     * rearranged in-place.
+     *
+     * @param array the input array
+     * @param k the number of smallest elements to sort, must be between 0 and the length of the
+     *     array
+     * @return the partially sorted array
+     */
+    public static int[] partialSort(int[] array, int k) {
+        if (k < 0 || k > array.length) {
+            throw new IllegalArgumentException("Invalid k");
+        }
+
+        for (int i = k / 2 - 1; i >= 0; --i) {
+            siftDownRange(array, 0, k, i);
+        }
+        for (int i = k; i < array.length; ++i) {
+            int ni = array[i];
+            if (ni < array[0]) {
+                array[i] = array[0];
+                array[0] = ni;
+                siftDownRange(array, 0, k, 0);
+            }
+        }
+
+        return k > 0 ? sortHeap(array, k) : array;
+    }
+
+    /**
+     * Returns the k largest elements of the stream in descending order. Only a bounded heap of k
+     * elements is kept, so the stream may be arbitrarily long and is consumed in a single pass. If
+     * the stream has fewer than k elements, all of them are returned.
+     *
+     * @param stream the input stream
+     * @param k the number of elements to keep, must not be negative
+     * @return the largest elements in descending order
+     */
+    public static int[] topK(IntStream stream, int k) {
+        return topK(stream.iterator(), k);
+    }
+
+    /**
+     * Returns the k largest elements of the iterator in descending order with O(k) memory and O(n
+     * log k) time.
+     *
+     * <p>The max heap procedures are reused for a min heap by storing the bitwise complement of
+     * every element, which reverses the order without the overflow that negation has on {@link
+     * Integer#MIN_VALUE}. The root is then the smallest of the kept elements, which is the one to
+     * evict when a larger element arrives.
+     *
+     * @param iterator the input elements
+     * @param k the number of elements to keep, must not be negative
+     * @return the largest elements in descending order
+     */
+    public static int[] topK(PrimitiveIterator.OfInt iterator, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Invalid k");
+        }
+        if (k == 0) {
+            return new int[0];
+        }
+
+        int[] heap = new int[Math.min(k, 1024)];
+        int size = 0;
+        // Fill the heap with the first k elements.
+        while (size < k && iterator.hasNext()) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, (int) Math.min(k, heap.length * 2L));
+            }
+            heap[size++] = ~iterator.nextInt();
+        }
+        for (int i = size / 2 - 1; i >= 0; --i) {
+            siftDownRange(heap, 0, size, i);
+        }
+
+        // Keep the k largest elements, which are the k smallest complements.
+        while (iterator.hasNext()) {
+            int x = ~iterator.nextInt();
+            if (x < heap[0]) {
+                heap[0] = x;
+                siftDownRange(heap, 0, size, 0);
+            }
+        }
+
+        // Ascending complements are descending elements.
+        sortHeap(heap, size);
+        int[] result = new int[size];
+        for (int i = 0; i < size; ++i) {
+            result[i] = ~heap[i];
+        }
+        return result;
+    }
+
+    /**
+     * Sorts the max heap that occupies the first positions of the array in ascending order by
+     * repeatedly moving the root to the end of the shrinking heap.
+     *
+     * @param array the heap source array
+     * @param size the size of the heap
+     * @return the array with the heap positions sorted
+     */
+    private static int[] sortHeap(int[] array, int size) {
+        while (size > 1) {
+            int max = array[0];
+            array[0] = array[size - 1];
+            array[size - 1] = max;
+            --size;
+            siftDownRange(array, 0, size, 0);
+        }
+        return array;
+    }
+
     /**
      * Performs the sift down procedure from the root node. Assumes the heap is a max heap. Only a
      * partial of the array will be considered as the heap with the given size.
@@ -67,6 +247,34 @@ public class HeapSort {
         siftDown(array, size, 0);
     }
 
+    /**
+     * Sorts the elements within the bounds of the array in-place with the same heap procedure. The
+     * range is treated as a heap of its own, so elements outside of the bounds are not touched.
+     * This is used as the guaranteed O(n log n) fallback of other sorts.
+     *
+     * @param array the input array
+     * @param bin the left bound
+     * @param end the right bound
+     * @return the array with the range sorted
+     */
+    public static int[] sort(int[] array, int bin, int end) {
+        int size = end - bin + 1;
+        // Build the max heap bottom-up, starting at the last parent.
+        for (int i = size / 2 - 1; i >= 0; --i) {
+            siftDownRange(array, bin, size, i);
+        }
+
+        while (size > 1) {
+            int max = array[bin];
+            array[bin] = array[bin + size - 1];
+            array[bin + size - 1] = max;
+            --size;
+            siftDownRange(array, bin, size, 0);
+        }
+
+        return array;
+    }
+
     /**
      * Given a max heap specified by the array and size, starting from a specific node and checks
      * its children nodes and swap them if the parent is less than any of the children. This is
@@ -109,4 +317,107 @@ public class HeapSort {
             }
         }
     }
+
+    /**
+     * Performs the sift down procedure on a heap that starts at the given base index of the array.
+     * Node indices are relative to the base. The node is moved down to its final position with
+     * single writes instead of repeated swaps.
+     *
+     * @param array the heap source array
+     * @param base the index of the root of the heap in the array
+     * @param size the size of the heap
+     * @param node the index of the starting node relative to the base
+     */
+    private static void siftDownRange(int[] array, int base, int size, int node) {
+        int n0 = array[base + node];
+        int half = size / 2;
+        // Nodes below the half have no children.
+        while (node < half) {
+            int child = node * 2 + 1;
+            int nc = array[base + child];
+            // Use the right child if it exists and is larger. Favor the left one on ties.
+            if (child + 1 < size && array[base + child + 1] > nc) {
+                ++child;
+                nc = array[base + child];
+            }
+            if (n0 >= nc) {
+                break;
+            }
+            array[base + node] = nc;
+            node = child;
+        }
+        array[base + node] = n0;
+    }
+
+    /**
+     * Performs the sift down procedure on a d-ary heap. The largest child is found with a linear
+     * scan over the adjacent children of each level.
+     *
+     * @param array the heap source array
+     * @param size the size of the heap
+     * @param node the index of the starting node
+     * @param arity the number of children per node
+     */
+    private static void siftDownDary(int[] array, int size, int node, int arity) {
+        int n0 = array[node];
+        while (true) {
+            int first = node * arity + 1;
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + arity, size);
+            int child = first;
+            int nc = array[first];
+            for (int c = first + 1; c < last; ++c) {
+                if (array[c] > nc) {
+                    child = c;
+                    nc = array[c];
+                }
+            }
+            if (n0 >= nc) {
+                break;
+            }
+            array[node] = nc;
+            node = child;
+        }
+        array[node] = n0;
+    }
+
+    /**
+     * Refills the root of a binary heap whose maximum has been removed. The hole at the root is
+     * moved down to a leaf by promoting the larger child at each level, and then the given element
+     * is sifted up from that leaf to its final position.
+     *
+     * @param array the heap source array
+     * @param size the size of the heap after the removal
+     * @param x the element to place into the heap, usually the former last element
+     */
+    private static void siftDownBottomUp(int[] array, int size, int x) {
+        if (size == 0) {
+            return;
+        }
+
+        int node = 0;
+        int half = size / 2;
+        // Walk the hole down to a leaf without comparing against the element being placed.
+        while (node < half) {
+            int child = node * 2 + 1;
+            if (child + 1 < size && array[child + 1] > array[child]) {
+                ++child;
+            }
+            array[node] = array[child];
+            node = child;
+        }
+        // Sift the element back up from the leaf.
+        while (node > 0) {
+            int parent = (node - 1) / 2;
+            int np = array[parent];
+            if (np >= x) {
+                break;
+            }
+            array[node] = np;
+            node = parent;
+        }
+        array[node] = x;
+    }
 }
@@ -0,0 +1,296 @@
+package io.esoma.cbj.algo;
+
+import io.esoma.cbj.ds.LinkCutTree;
+import io.esoma.cbj.ds.UnionFind;
+import java.util.Arrays;
+
+/**
+ * Class for maintaining a minimum spanning forest and the connected components of a graph whose
+ * edges arrive as a stream, without recomputing anything from scratch. The components are kept in a
+ * {@link UnionFind}, so the component count is updated in O(α(n)) amortized time per edge. The
+ * forest follows from the cycle property: a new edge between two components always joins the
+ * forest, and a new edge inside a component closes a cycle with the forest path between its ends,
+ * so it replaces the heaviest edge of that path if it is lighter. The forest is kept in a {@link
+ * LinkCutTree}, with every forest edge as a node of its own whose value is its weight, which finds
+ * that heaviest edge in O(log n) amortized time.
+ *
+ * <p>Large batches take another route. The minimum spanning forest of the graph with a batch of new
+ * edges is also the minimum spanning forest of the current forest with the batch, since an edge
+ * left out of the forest stays out when more edges arrive. So a batch of at least n / 16 edges is
+ * merged with the at most n - 1 forest edges by Kruskal's algorithm, which costs O(n + b log b) and
+ * is much faster per edge than the link-cut tree for big batches. The link-cut tree is then rebuilt
+ * from the new forest when the next single edge arrives.
+ *
+ * <p>The total weight, the number of edges and the number of components can be queried at any
+ * moment in O(1). Edges are never removed from the input, so components only ever merge.
+ *
+ * @author Eddy Soma
+ */
+public final class IncrementalMinSpanTree {
+
+    // Batches of at least n / BATCH_RATIO edges are merged with the forest by Kruskal's algorithm.
+    private static final int BATCH_RATIO = 16;
+
+    private final int n;
+    private UnionFind sets;
+    // The vertices are the nodes from 0 to n - 1, and forest edge i is the node n + i. It is null
+    // until the next single edge arrives after a batch.
+    private LinkCutTree forest;
+    // Whether the forest edges are in the order of weight, as they are right after a merge.
+    private boolean sorted = true;
+    private int[] from;
+    private int[] to;
+    private int[] weights;
+    private int edgeCount;
+    private long weight;
+
+    /**
+     * Constructs an empty graph with the given number of vertices and no edges.
+     *
+     * @param n the number of vertices (labeled from 0 to n - 1)
+     */
+    public IncrementalMinSpanTree(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Invalid number of vertices");
+        }
+
+        int slots = Math.max(0, n - 1);
+        this.n = n;
+        this.sets = new UnionFind(n);
+        this.from = new int[slots];
+        this.to = new int[slots];
+        this.weights = new int[slots];
+    }
+
+    /**
+     * Adds an edge to the graph and updates the forest.
+     *
+     * @param u the first end
+     * @param v the second end
+     * @param w the weight
+     * @return true if the edge joined the forest
+     */
+    public boolean addEdge(int u, int v, int w) {
+        if (u < 0 || u >= n || v < 0 || v >= n) {
+            throw new IllegalArgumentException("Invalid edge");
+        }
+        if (u == v) {
+            return false;
+        }
+
+        LinkCutTree lct = forest();
+        sorted = false;
+        if (sets.union(u, v)) {
+            link(lct, edgeCount++, u, v, w);
+            weight += w;
+            return true;
+        }
+
+        int heaviest = lct.pathMax(u, v) - n;
+        if (weights[heaviest] <= w) {
+            return false;
+        }
+        lct.cut(from[heaviest], n + heaviest);
+        lct.cut(n + heaviest, to[heaviest]);
+        weight += (long) w - weights[heaviest];
+        link(lct, heaviest, u, v, w);
+        return true;
+    }
+
+    /**
+     * Adds a batch of edges given as three parallel arrays. A large batch is merged with the forest
+     * by Kruskal's algorithm. A small one is added edge by edge in the order of weight, so that no
+     * edge of the batch joins the forest only to be replaced by a lighter one of the same batch.
+     *
+     * @param from the first end of every edge
+     * @param to the second end of every edge
+     * @param weight the weight of every edge
+     * @return the number of edges of the batch in the forest afterwards
+     */
+    public int addEdges(int[] from, int[] to, int[] weight) {
+        if (from.length != to.length || from.length != weight.length) {
+            throw new IllegalArgumentException("Edge arrays must have the same length");
+        }
+        for (int e = 0; e < from.length; ++e) {
+            if (from[e] < 0 || from[e] >= n || to[e] < 0 || to[e] >= n) {
+                throw new IllegalArgumentException("Invalid edge");
+            }
+        }
+
+        if (from.length >= n / BATCH_RATIO) {
+            return merge(from, to, weight);
+        }
+
+        long[] keys = new long[from.length];
+        for (int e = 0; e < keys.length; ++e) {
+            keys[e] = key(weight[e], e);
+        }
+        Arrays.sort(keys);
+        // A later edge of the batch is never lighter than an earlier one, so it never replaces it.
+        int added = 0;
+        for (long k : keys) {
+            int e = (int) k;
+            if (addEdge(from[e], to[e], weight[e])) {
+                ++added;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Merges a batch with the forest by Kruskal's algorithm, and drops the link-cut tree until it
+     * is needed again. The forest edges come out of a merge in the order of weight, so only the
+     * batch has to be sorted as long as no single edge has been added since. The sets are rebuilt
+     * from the new forest, which spans the same components as the whole graph.
+     */
+    private int merge(int[] bFrom, int[] bTo, int[] bWeight) {
+        int k = edgeCount;
+        long[] old = new long[k];
+        for (int i = 0; i < k; ++i) {
+            old[i] = key(weights[i], i);
+        }
+        if (!sorted) {
+            Arrays.sort(old);
+        }
+        long[] batch = new long[bFrom.length];
+        for (int e = 0; e < batch.length; ++e) {
+            batch[e] = key(bWeight[e], e);
+        }
+        Arrays.sort(batch);
+
+        UnionFind fresh = new UnionFind(n);
+        int[] nFrom = new int[from.length];
+        int[] nTo = new int[from.length];
+        int[] nWeights = new int[from.length];
+        int count = 0;
+        int added = 0;
+        long total = 0;
+        // Equal weights favor the forest, so no forest edge is swapped for one of the same weight.
+        for (int i = 0, j = 0; (i < k || j < batch.length) && count < from.length; ) {
+            boolean fromForest = j == batch.length || (i < k && (old[i] >> 32) <= (batch[j] >> 32));
+            int u;
+            int v;
+            int w;
+            if (fromForest) {
+                int e = (int) old[i++];
+                u = from[e];
+                v = to[e];
+                w = weights[e];
+            } else {
+                int e = (int) batch[j++];
+                u = bFrom[e];
+                v = bTo[e];
+                w = bWeight[e];
+            }
+            if (fresh.union(u, v)) {
+                nFrom[count] = u;
+                nTo[count] = v;
+                nWeights[count++] = w;
+                total += w;
+                if (!fromForest) {
+                    ++added;
+                }
+            }
+        }
+
+        sets = fresh;
+        forest = null;
+        sorted = true;
+        from = nFrom;
+        to = nTo;
+        weights = nWeights;
+        edgeCount = count;
+        weight = total;
+        return added;
+    }
+
+    /** Returns the link-cut tree of the forest, and builds it first if a batch dropped it. */
+    private LinkCutTree forest() {
+        if (forest == null) {
+            forest = new LinkCutTree(n + from.length);
+            // Vertices must never be the heaviest node of a path.
+            for (int v = 0; v < n; ++v) {
+                forest.setValue(v, Long.MIN_VALUE);
+            }
+            for (int i = 0; i < edgeCount; ++i) {
+                link(forest, i, from[i], to[i], weights[i]);
+            }
+        }
+        return forest;
+    }
+
+    private void link(LinkCutTree lct, int slot, int u, int v, int w) {
+        from[slot] = u;
+        to[slot] = v;
+        weights[slot] = w;
+        lct.setValue(n + slot, w);
+        lct.link(u, n + slot);
+        lct.link(n + slot, v);
+    }
+
+    /** Packs an edge into a long that orders edges by weight and then by index. */
+    private static long key(int weight, int e) {
+        return ((long) weight << 32) | e;
+    }
+
+    /**
+     * Returns the number of vertices.
+     *
+     * @return the number of vertices
+     */
+    public int nodeCount() {
+        return n;
+    }
+
+    /**
+     * Returns the number of connected components.
+     *
+     * @return the number of components
+     */
+    public int componentCount() {
+        return sets.count();
+    }
+
+    /**
+     * Returns the number of edges in the forest, which is the number of vertices minus the number
+     * of components.
+     *
+     * @return the number of edges
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Returns the total weight of the forest.
+     *
+     * @return the total weight
+     */
+    public long weight() {
+        return weight;
+    }
+
+    /**
+     * Checks whether two vertices are in the same component.
+     *
+     * @param u the first vertex
+     * @param v the second vertex
+     * @return true if there is a path between the vertices
+     */
+    public boolean connected(int u, int v) {
+        return sets.connected(u, v);
+    }
+
+    /**
+     * Returns a copy of the edges of the forest, in no particular order.
+     *
+     * @return the from, to, and weight data of every edge
+     */
+    public int[][] edges() {
+        int[][] edges = new int[edgeCount][];
+        for (int i = 0; i < edgeCount; ++i) {
+            edges[i] = new int[] {from[i], to[i], weights[i]};
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,22 @@
+package io.esoma.cbj.algo;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive integers, used for the frontiers and the per-task outputs of the
+ * parallel graph algorithms in this package.
+ *
+ * @author Eddy Soma
+ */
+final class IntBuffer {
+
+    int[] data = new int[16];
+    int size;
+
+    void add(int v) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, size * 2);
+        }
+        data[size++] = v;
+    }
+}
@@ -0,0 +1,398 @@
+package io.esoma.cbj.algo;
+
+import java.util.Arrays;
+
+/**
+ * Timsort engine for {@code long} arrays in ascending order. It follows {@link TimSort} step by
+ * step: natural runs are detected and extended with binary insertion sort, and merged with the same
+ * trimming and galloping logic, so it has the same strengths on partially ordered data. Sorters are
+ * pooled per thread by {@link TimSort#sort(long[])}, and {@link TimSort#sort(double[])} sorts
+ * through it as well.
+ *
+ * @author Eddy Soma
+ */
+final class LongTimSort {
+
+    private static final int MIN_GALLOP_INIT = 7;
+    private static final int INIT_STACK_SIZE = 40;
+    private static final int INIT_TEMP_SIZE = 256;
+    private static final int MAX_POOLED_TEMP_SIZE = 1 << 17;
+    private static final long[] EMPTY_TEMP = new long[0];
+
+    // This keeps track of the ideal galloping threshold which adapts to the data.
+    private int minGallop = MIN_GALLOP_INIT;
+    // This controls the merge mode.
+    private boolean gallopMode = false;
+    // The stack of runs kept as parallel arrays of base indices and lengths.
+    private int[] runBase = new int[INIT_STACK_SIZE];
+    private int[] runLen = new int[INIT_STACK_SIZE];
+    private int stackSize = 0;
+    // Scratch memory for merging, reused across merges and calls.
+    private long[] temp = EMPTY_TEMP;
+    // The sortable bits of double values, reused across calls of the double sorts in TimSort.
+    private long[] bits = EMPTY_TEMP;
+
+    /**
+     * Sorts the elements within the bounds of the array. The state is reset at the start so that a
+     * sorter can be reused for any number of calls.
+     *
+     * @param array the input array
+     * @param bin the left bound
+     * @param end the right bound
+     */
+    void sort(long[] array, int bin, int end) {
+        minGallop = MIN_GALLOP_INIT;
+        gallopMode = false;
+        stackSize = 0;
+
+        int minRun = TimSort.calcMinRun(end - bin + 1);
+        boolean newRun = true;
+        int lb = 0;
+        int rb = 0;
+        boolean asc = true;
+
+        // The main loop for collecting runs, identical to the integer version.
+        for (int i = bin; i <= end; ++i) {
+            if (newRun) {
+                newRun = false;
+                lb = i;
+                if (i == end) {
+                    pushRun(i, 1);
+                    break;
+                } else {
+                    asc = !lt(array[i + 1], array[i]);
+                    rb = ++i;
+                }
+            } else {
+                if ((asc && !lt(array[i], array[i - 1])) || (!asc && lt(array[i], array[i - 1]))) {
+                    ++rb;
+                } else {
+                    if (!asc) {
+                        reverse(array, lb, rb);
+                    }
+                    if (rb - lb + 1 >= minRun) {
+                        --i;
+                    } else {
+                        rb = Math.min(end, lb + minRun - 1);
+                        insertionSort(array, lb, rb, i);
+                        i = rb;
+                    }
+                    pushRun(lb, rb - lb + 1);
+                    newRun = true;
+                }
+            }
+
+            if (i == end && !newRun) {
+                if (!asc) {
+                    reverse(array, lb, rb);
+                }
+                pushRun(lb, rb - lb + 1);
+            }
+
+            if (newRun) {
+                mergeCollapse(array, false);
+            }
+        }
+
+        mergeCollapse(array, true);
+    }
+
+    /** Drops the buffers of a pooled sorter if they have grown too large to keep. */
+    void trimTemp() {
+        if (temp.length > MAX_POOLED_TEMP_SIZE) {
+            temp = EMPTY_TEMP;
+        }
+        if (bits.length > MAX_POOLED_TEMP_SIZE) {
+            bits = EMPTY_TEMP;
+        }
+    }
+
+    /**
+     * Returns a buffer for the sortable bits of at least the given number of doubles. Its contents
+     * are undefined, and it stays valid until the next call or {@link #trimTemp()}.
+     *
+     * @param minCapacity the number of values
+     * @return the buffer
+     */
+    long[] bitsBuffer(int minCapacity) {
+        if (bits.length < minCapacity) {
+            bits = new long[minCapacity];
+        }
+        return bits;
+    }
+
+    /** Checks whether the first element is strictly less than the second one. */
+    private boolean lt(long x, long y) {
+        return x < y;
+    }
+
+    private void pushRun(int base, int len) {
+        if (stackSize == runBase.length) {
+            runBase = Arrays.copyOf(runBase, stackSize << 1);
+            runLen = Arrays.copyOf(runLen, stackSize << 1);
+        }
+        runBase[stackSize] = base;
+        runLen[stackSize] = len;
+        ++stackSize;
+    }
+
+    private void mergeCollapse(long[] array, boolean force) {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (force) {
+                if (n > 0 && runLen[n - 1] < runLen[n + 1]) {
+                    --n;
+                }
+            } else if ((n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1])
+                    || (n > 1 && runLen[n - 2] <= runLen[n - 1] + runLen[n])) {
+                if (runLen[n - 1] < runLen[n + 1]) {
+                    --n;
+                }
+            } else if (runLen[n] > runLen[n + 1]) {
+                return;
+            }
+            mergeAt(array, n);
+        }
+    }
+
+    private void mergeAt(long[] array, int n) {
+        int lBin = runBase[n];
+        int lLen = runLen[n];
+        int rBin = runBase[n + 1];
+        int rLen = runLen[n + 1];
+
+        runLen[n] = lLen + rLen;
+        if (n == stackSize - 3) {
+            runBase[n + 1] = runBase[n + 2];
+            runLen[n + 1] = runLen[n + 2];
+        }
+        --stackSize;
+
+        int lEnd = lBin + lLen - 1;
+        int rEnd = rBin + rLen - 1;
+        // Skip the elements already suited in the right place on both runs.
+        int nlb = searchRight(array, array[rBin], lBin, lEnd);
+        int nrb = searchLeft(array, array[lEnd], rBin, rEnd) - 1;
+        int lSize = lEnd - nlb + 1;
+        int rSize = nrb - rBin + 1;
+
+        if (lSize > 0 && rSize >= lSize) {
+            mergeLo(array, nlb, nrb, lEnd);
+        } else if (rSize > 0 && lSize > rSize) {
+            mergeHi(array, nlb, nrb, rBin);
+        }
+    }
+
+    /** Merges two runs starting at the left bound with the shorter left run in temporary memory. */
+    private void mergeLo(long[] array, int bin, int end, int mid) {
+        int lLen = mid - bin + 1;
+        long[] tempL = ensureTemp(lLen, array.length);
+        System.arraycopy(array, bin, tempL, 0, lLen);
+        int lp = 0;
+        int rp = mid + 1;
+
+        int streak = 0;
+        boolean leftGallop = true;
+        boolean badGallop = false;
+
+        for (int i = bin; i <= end; ++i) {
+            if (lp >= lLen) {
+                array[i] = array[rp];
+                ++rp;
+            } else if (rp > end) {
+                array[i] = tempL[lp];
+                ++lp;
+            } else {
+                long le = tempL[lp];
+                long re = array[rp];
+                if (!gallopMode) {
+                    if (!lt(re, le)) {
+                        streak = Math.min(-1, streak - 1);
+                        array[i] = le;
+                        ++lp;
+                    } else {
+                        streak = Math.max(1, streak + 1);
+                        array[i] = re;
+                        ++rp;
+                    }
+                    if (Math.abs(streak) >= minGallop) {
+                        gallopMode = true;
+                        streak = 0;
+                    }
+                } else {
+                    int gp;
+                    if (leftGallop) {
+                        int rlp = searchLeft(array, le, rp, end);
+                        gp = rlp - rp;
+                        while (rp < rlp) {
+                            array[i] = array[rp];
+                            ++i;
+                            ++rp;
+                        }
+                        array[i] = le;
+                        ++lp;
+                    } else {
+                        int lrp = searchRight(tempL, re, lp, lLen - 1);
+                        gp = lrp - lp;
+                        while (lp < lrp) {
+                            array[i] = tempL[lp];
+                            ++i;
+                            ++lp;
+                        }
+                        array[i] = re;
+                        ++rp;
+                    }
+                    leftGallop = !leftGallop;
+                    if (gp >= minGallop) {
+                        --minGallop;
+                    } else {
+                        if (badGallop) {
+                            gallopMode = false;
+                            badGallop = false;
+                        } else {
+                            badGallop = true;
+                        }
+                        ++minGallop;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges two runs starting at the right bound with the shorter right run in temporary memory.
+     */
+    private void mergeHi(long[] array, int bin, int end, int mid) {
+        int rLen = end - mid + 1;
+        long[] tempR = ensureTemp(rLen, array.length);
+        System.arraycopy(array, mid, tempR, 0, rLen);
+        int rp = rLen - 1;
+        int lp = mid - 1;
+
+        int streak = 0;
+        boolean rightGallop = true;
+        boolean badGallop = false;
+
+        for (int i = end; i >= bin; --i) {
+            if (rp < 0) {
+                array[i] = array[lp];
+                --lp;
+            } else if (lp < bin) {
+                array[i] = tempR[rp];
+                --rp;
+            } else {
+                long re = tempR[rp];
+                long le = array[lp];
+                if (!gallopMode) {
+                    if (!lt(re, le)) {
+                        streak = Math.max(1, streak + 1);
+                        array[i] = re;
+                        --rp;
+                    } else {
+                        streak = Math.min(-1, streak - 1);
+                        array[i] = le;
+                        --lp;
+                    }
+                    if (Math.abs(streak) >= minGallop) {
+                        gallopMode = true;
+                        streak = 0;
+                    }
+                } else {
+                    int gp;
+                    if (rightGallop) {
+                        int lrp = searchRight(array, re, bin, lp) - 1;
+                        gp = lp - lrp;
+                        while (lp > lrp) {
+                            array[i] = array[lp];
+                            --i;
+                            --lp;
+                        }
+                        array[i] = re;
+                        --rp;
+                    } else {
+                        int rlp = searchLeft(tempR, le, 0, rp) - 1;
+                        gp = rp - rlp;
+                        while (rp > rlp) {
+                            array[i] = tempR[rp];
+                            --i;
+                            --rp;
+                        }
+                        array[i] = le;
+                        --lp;
+                    }
+                    rightGallop = !rightGallop;
+                    if (gp >= minGallop) {
+                        --minGallop;
+                    } else {
+                        if (badGallop) {
+                            gallopMode = false;
+                            badGallop = false;
+                        } else {
+                            badGallop = true;
+                        }
+                        ++minGallop;
+                    }
+                }
+            }
+        }
+    }
+
+    private long[] ensureTemp(int minCapacity, int n) {
+        if (temp.length < minCapacity) {
+            int newSize = Math.max(INIT_TEMP_SIZE, temp.length << 1);
+            newSize = Math.max(minCapacity, Math.min(newSize, n >>> 1));
+            temp = new long[newSize];
+        }
+        return temp;
+    }
+
+    /** Binary insertion sort of the bounded range where everything before next is sorted. */
+    private void insertionSort(long[] array, int bin, int end, int next) {
+        if (next <= bin) {
+            next = bin + 1;
+        }
+        for (int i = next; i <= end; ++i) {
+            long it = array[i];
+            // Insert at the rightmost spot to maintain stability.
+            int target = searchRight(array, it, bin, i - 1);
+            System.arraycopy(array, target, array, target + 1, i - target);
+            array[target] = it;
+        }
+    }
+
+    private void reverse(long[] array, int bin, int end) {
+        while (end > bin) {
+            long ib = array[bin];
+            array[bin] = array[end];
+            array[end] = ib;
+            ++bin;
+            --end;
+        }
+    }
+
+    /** Returns the leftmost index in the bounds at which the target can be inserted. */
+    private int searchLeft(long[] array, long target, int bin, int end) {
+        while (bin != end) {
+            int mid = (bin + end) >>> 1;
+            if (!lt(array[mid], target)) {
+                end = mid;
+            } else {
+                bin = mid + 1;
+            }
+        }
+        return !lt(array[bin], target) ? bin : bin + 1;
+    }
+
+    /** Returns the rightmost index in the bounds at which the target can be inserted. */
+    private int searchRight(long[] array, long target, int bin, int end) {
+        while (bin != end) {
+            int mid = (bin + end) >>> 1;
+            if (lt(target, array[mid])) {
+                end = mid;
+            } else {
+                bin = mid + 1;
+            }
+        }
+        return !lt(target, array[bin]) ? bin + 1 : bin;
+    }
+}
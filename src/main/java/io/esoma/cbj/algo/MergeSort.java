@@ -1,5 +1,10 @@
 package io.esoma.cbj.algo;
 
+import io.esoma.cbj.core.BinaryInsertionSort;
+import io.esoma.cbj.core.BinarySearch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * Class for implementing the Merge Sort algorithm. Merge sort is an efficient, general-purpose,
  * comparison-based sorting algorithm. Most implementations produce a stable sort. Merge sort is a
@@ -9,8 +14,72 @@ package io.esoma.cbj.algo;
  */
 public class MergeSort {
 
+    // Sub-arrays of at most this length are sorted by binary insertion sort.
+    private static final int INSERTION_CUTOFF = 32;
+    // Default length above which the parallel sort forks sub-tasks.
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 13;
+
     private MergeSort() {}
 
+    /**
+     * Performs a stable merge sort in-place with a single auxiliary buffer. Instead of copying each
+     * half into new arrays, the input and the buffer swap roles on every level of recursion
+     * (ping-pong merging), so every element is moved once per level. Small sub-arrays are sorted
+     * with binary insertion sort, and two halves that are already in order are copied over without
+     * merging, which makes sorted input linear.
+     *
+     * @param array the input array
+     * @return the sorted array
+     */
+    public static int[] sortInPlace(int[] array) {
+        if (array.length > 1) {
+            // Both arrays start with the same elements, which is what each level relies on.
+            int[] aux = array.clone();
+            processInto(aux, array, 0, array.length - 1);
+        }
+
+        return array;
+    }
+
+    /**
+     * Performs the same sort as {@link #sortInPlace(int[])} with a default parallel threshold.
+     *
+     * @param array the input array
+     * @param pool the pool to run the sorting tasks
+     * @return the sorted array
+     */
+    public static int[] parallelSort(int[] array, ForkJoinPool pool) {
+        return parallelSort(array, pool, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Performs the same sort as {@link #sortInPlace(int[])}, but sub-arrays longer than the
+     * threshold have their halves sorted concurrently by the given pool. Large merges are split
+     * concurrently as well: the middle element of the longer run is placed by a binary search in
+     * the other run, and the two sides are merged independently. The sort is still stable.
+     *
+     * @param array the input array
+     * @param pool the pool to run the sorting tasks
+     * @param threshold the minimum length of a sub-array to sort or merge in parallel
+     * @return the sorted array
+     */
+    public static int[] parallelSort(int[] array, ForkJoinPool pool, int threshold) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Invalid threshold");
+        }
+
+        if (array.length <= threshold) {
+            return sortInPlace(array);
+        }
+
+        int[] aux = array.clone();
+        pool.invoke(new SortTask(aux, array, 0, array.length - 1, threshold));
+        return array;
+    }
+
     /**
      * Performs sorting on an initially unsorted array. Order is ascending.
      *
@@ -80,4 +149,160 @@ public class MergeSort {
 
         return sorted;
     }
+
+    /**
+     * Sorts the elements of the source within the bounds into the destination. Both arrays must
+     * hold the same elements within the bounds. The halves are sorted into the source with the
+     * roles swapped, and then merged back into the destination.
+     *
+     * @param src the source array
+     * @param dst the destination array
+     * @param bin the beginning index
+     * @param end the ending index
+     */
+    private static void processInto(int[] src, int[] dst, int bin, int end) {
+        if (end - bin < INSERTION_CUTOFF) {
+            BinaryInsertionSort.sortOnline(dst, bin, end, bin + 1);
+            return;
+        }
+
+        int mid = (bin + end) >>> 1;
+        processInto(dst, src, bin, mid);
+        processInto(dst, src, mid + 1, end);
+        mergeInto(src, dst, bin, mid, end);
+    }
+
+    /**
+     * Merges two adjacent sorted runs of the source into the same bounds of the destination. If the
+     * runs are already in order, they are copied directly.
+     *
+     * @param src the source array
+     * @param dst the destination array
+     * @param bin the beginning index of the left run
+     * @param mid the ending index of the left run
+     * @param end the ending index of the right run
+     */
+    private static void mergeInto(int[] src, int[] dst, int bin, int mid, int end) {
+        if (src[mid] <= src[mid + 1]) {
+            System.arraycopy(src, bin, dst, bin, end - bin + 1);
+            return;
+        }
+
+        int li = bin;
+        int ri = mid + 1;
+        for (int si = bin; si <= end; ++si) {
+            // Take from the left on ties to keep the sort stable.
+            if (ri > end || (li <= mid && src[li] <= src[ri])) {
+                dst[si] = src[li++];
+            } else {
+                dst[si] = src[ri++];
+            }
+        }
+    }
+
+    /**
+     * Merges two sorted runs of the source, which need not be adjacent, into the destination
+     * starting at the given index. Either run may be empty.
+     */
+    private static void mergeRuns(int[] src, int[] dst, int lb, int le, int rb, int re, int di) {
+        while (lb <= le && rb <= re) {
+            dst[di++] = src[lb] <= src[rb] ? src[lb++] : src[rb++];
+        }
+        if (lb <= le) {
+            System.arraycopy(src, lb, dst, di, le - lb + 1);
+        } else if (rb <= re) {
+            System.arraycopy(src, rb, dst, di, re - rb + 1);
+        }
+    }
+
+    /** Fork-join task that sorts the source within the bounds into the destination. */
+    private static final class SortTask extends RecursiveAction {
+
+        private final int[] src;
+        private final int[] dst;
+        private final int bin;
+        private final int end;
+        private final int threshold;
+
+        SortTask(int[] src, int[] dst, int bin, int end, int threshold) {
+            this.src = src;
+            this.dst = dst;
+            this.bin = bin;
+            this.end = end;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - bin + 1 <= threshold) {
+                processInto(src, dst, bin, end);
+                return;
+            }
+
+            int mid = (bin + end) >>> 1;
+            invokeAll(new SortTask(dst, src, bin, mid, threshold), new SortTask(dst, src, mid + 1, end, threshold));
+            if (src[mid] <= src[mid + 1]) {
+                System.arraycopy(src, bin, dst, bin, end - bin + 1);
+            } else {
+                new MergeTask(src, dst, bin, mid, mid + 1, end, bin, threshold).compute();
+            }
+        }
+    }
+
+    /** Fork-join task that merges two sorted runs of the source into the destination. */
+    private static final class MergeTask extends RecursiveAction {
+
+        private final int[] src;
+        private final int[] dst;
+        private final int lb;
+        private final int le;
+        private final int rb;
+        private final int re;
+        private final int di;
+        private final int threshold;
+
+        MergeTask(int[] src, int[] dst, int lb, int le, int rb, int re, int di, int threshold) {
+            this.src = src;
+            this.dst = dst;
+            this.lb = lb;
+            this.le = le;
+            this.rb = rb;
+            this.re = re;
+            this.di = di;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            int lLen = le - lb + 1;
+            int rLen = re - rb + 1;
+            if (lLen + rLen <= threshold || lLen == 0 || rLen == 0) {
+                mergeRuns(src, dst, lb, le, rb, re, di);
+                return;
+            }
+
+            // Split around the middle of the longer run. Equal elements from the left run always
+            // end up before those from the right run, so the merge stays stable.
+            int lm;
+            int rm;
+            int pos;
+            if (lLen >= rLen) {
+                lm = (lb + le) >>> 1;
+                rm = BinarySearch.searchIntLeft(src, src[lm], rb, re);
+                pos = di + (lm - lb) + (rm - rb);
+                dst[pos] = src[lm];
+                invokeAll(
+                        new MergeTask(src, dst, lb, lm - 1, rb, rm - 1, di, threshold),
+                        new MergeTask(src, dst, lm + 1, le, rm, re, pos + 1, threshold));
+            } else {
+                rm = (rb + re) >>> 1;
+                lm = BinarySearch.searchIntRight(src, src[rm], lb, le);
+                pos = di + (lm - lb) + (rm - rb);
+                dst[pos] = src[rm];
+                invokeAll(
+                        new MergeTask(src, dst, lb, lm - 1, rb, rm - 1, di, threshold),
+                        new MergeTask(src, dst, lm, le, rm + 1, re, pos + 1, threshold));
+            }
+        }
+    }
 }
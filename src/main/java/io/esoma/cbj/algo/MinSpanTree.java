@@ -1,13 +1,22 @@
 package io.esoma.cbj.algo;
 
+import io.esoma.cbj.ds.UnionFind;
 import java.util.Arrays;
-import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Class for studying the Minimum Spanning Tree (MST) problem. A MST is a subset of the edges of a
  * connected, edge-weighted undirected graph that connects all the vertices together, without any
  * cycles and with the minimum possible total edge weight.
  *
+ * <p>The engines below take the graph as three parallel arrays of edge ends and weights, and keep
+ * the disjoint sets in a {@link UnionFind}, so memory grows by a few primitives per edge and vertex
+ * and large graphs with tens of millions of edges fit in the heap. They return the chosen edges as
+ * a {@link SpanningForest}, and work on graphs that are not connected.
+ *
  * @author Eddy Soma
  */
 public class MinSpanTree {
@@ -19,7 +28,8 @@ public class MinSpanTree {
      * Kruskal's algorithm. The idea behind this algorithm is to repeatedly check the edge with the
      * smallest weight, and if this edge does not create a circle in the tree, then it is added to
      * the MST and removed from the set. Edges that form a circle in the tree will be ignored. A
-     * disjoint-set data structure is used for optimal performance.
+     * disjoint-set data structure is used for optimal performance. The edges are converted and
+     * passed to {@link #kruskal(int, int[], int[], int[])}.
      *
      * @param n the number of vertices in the graph
      * @param edges a 2-dimensional array containing the from, to, and weight data of all available
@@ -27,107 +37,435 @@ public class MinSpanTree {
      * @return the total weight of all edges in the final MST
      */
     public static int calcKruskal(int n, int[][] edges) {
-        // Collect and sort the edges.
-        Edge[] edgeArr = new Edge[edges.length];
-        for (int i = 0; i < edges.length; ++i) {
-            int from = edges[i][0];
-            int to = edges[i][1];
-            int weight = edges[i][2];
-            edgeArr[i] = new Edge(from, to, weight);
-        }
-        Arrays.sort(edgeArr);
-
-        // Create and initialize the disjoint-set.
-        DsNode[] nSet = new DsNode[n];
-        for (int i = 0; i < n; ++i) {
-            nSet[i] = new DsNode(1, null);
-        }
-
-        int total = 0;
-        for (Edge e : edgeArr) {
-            // Find the topmost parents for both ends of the edge.
-            DsNode fNode = nSet[e.from - 1];
-            while (fNode.parent != null) {
-                fNode = fNode.parent;
-            }
-            DsNode tNode = nSet[e.to - 1];
-            while (tNode.parent != null) {
-                tNode = tNode.parent;
-            }
-
-            // Check if the edge connects an extra vertex.
-            if (fNode != tNode) {
-                // The edge will be included in the MST.
-                total += e.weight;
-
-                // Create a new parent.
-                DsNode parent = new DsNode(fNode.count + tNode.count, null);
-                fNode.parent = parent;
-                tNode.parent = parent;
-
-                // Terminate the loop if the parent has all the vertices.
-                if (parent.count == n) {
-                    break;
-                }
+        int m = edges.length;
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] weight = new int[m];
+        for (int i = 0; i < m; ++i) {
+            from[i] = edges[i][0] - 1;
+            to[i] = edges[i][1] - 1;
+            weight[i] = edges[i][2];
+        }
 
-                // Path compression.
-                nSet[e.from - 1].parent = parent;
-                nSet[e.to - 1].parent = parent;
+        return (int) kruskal(n, from, to, weight).weight();
+    }
+
+    /**
+     * Finds a minimum spanning forest of a graph given as three parallel edge arrays, with the
+     * vertices labeled from 0 to n - 1. This is the filter-Kruskal variant of Kruskal's algorithm:
+     * instead of sorting all edges up front, the edges are split around a pivot weight like in
+     * quicksort, and the light half is solved first. Heavy edges whose ends are already connected
+     * by then can never be in the forest, so they are filtered out before the heavy half is split
+     * in turn, and the search stops as soon as the forest spans all vertices. On dense graphs most
+     * heavy edges are never sorted at all.
+     *
+     * <p>An edge is sorted as a single long, with its weight in the high half and its index in the
+     * low half, so no object is allocated per edge and equal weights are ordered by index.
+     *
+     * @param n the number of vertices
+     * @param from the first end of every edge
+     * @param to the second end of every edge
+     * @param weight the weight of every edge
+     * @return the minimum spanning forest
+     */
+    public static SpanningForest kruskal(int n, int[] from, int[] to, int[] weight) {
+        checkEdges(n, from, to, weight);
+
+        int m = from.length;
+        long[] keys = new long[m];
+        int size = 0;
+        for (int e = 0; e < m; ++e) {
+            if (from[e] != to[e]) {
+                keys[size++] = key(weight[e], e);
             }
         }
 
-        return total;
+        Kruskal search = new Kruskal(n, from, to, weight);
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(size));
+        search.run(keys, 0, size, depth);
+        return search.forest();
     }
-}
 
-/**
- * Helper class for storing data of weighted graph edges.
- *
- * @author Eddy Soma
- */
-class Edge implements Comparable<Edge> {
+    /**
+     * Finds a minimum spanning forest of a graph given as three parallel edge arrays in parallel
+     * with Borůvka's algorithm. In every round, each component picks its lightest edge to another
+     * component, and all picked edges are added to the forest at once, which at least halves the
+     * number of components that still have edges. The edges are scanned in parallel, and the
+     * lightest edge of every component is kept with compare-and-set, so there are at most
+     * logarithmically many rounds of parallel work. Edges inside a component are dropped after
+     * every round. On dense graphs, the rounds only run on a batch of the lightest edges at a time,
+     * and heavier edges that end up inside a component are dropped before the next batch.
+     *
+     * <p>Edges are ordered by weight and then by index, as in {@link #kruskal(int, int[], int[],
+     * int[])}, so both methods choose the same edges.
+     *
+     * @param n the number of vertices
+     * @param from the first end of every edge
+     * @param to the second end of every edge
+     * @param weight the weight of every edge
+     * @param pool the pool to scan the edges
+     * @return the minimum spanning forest
+     */
+    public static SpanningForest boruvka(int n, int[] from, int[] to, int[] weight, ForkJoinPool pool) {
+        checkEdges(n, from, to, weight);
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
 
-    final int from;
-    final int to;
-    final int weight;
+        return new Boruvka(n, from, to, weight, pool).run();
+    }
 
-    Edge(int from, int to, int weight) {
-        this.from = from;
-        this.to = to;
-        this.weight = weight;
+    private static void checkEdges(int n, int[] from, int[] to, int[] weight) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Invalid number of vertices");
+        }
+        if (from == null || to == null || weight == null) {
+            throw new IllegalArgumentException("Arrays must not be null");
+        }
+        if (from.length != to.length || from.length != weight.length) {
+            throw new IllegalArgumentException("Edge arrays must have the same length");
+        }
+        for (int e = 0; e < from.length; ++e) {
+            if (from[e] < 0 || from[e] >= n || to[e] < 0 || to[e] >= n) {
+                throw new IllegalArgumentException("Invalid edge " + e);
+            }
+        }
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Edge edge = (Edge) o;
-        return from == edge.from && to == edge.to && weight == edge.weight;
+    /** Packs an edge into a long that orders edges by weight and then by index. */
+    private static long key(int weight, int e) {
+        return ((long) weight << 32) | e;
     }
 
-    @Override
-    public int hashCode() {
-        return Objects.hash(from, to, weight);
+    /** The state of a single filter-Kruskal search. */
+    private static final class Kruskal {
+
+        // Ranges of at most this many edges are sorted directly.
+        private static final int SORT_THRESHOLD = 1 << 10;
+
+        private final int n;
+        private final int[] from;
+        private final int[] to;
+        private final int[] weight;
+        private final UnionFind sets;
+        private final IntBuffer tree = new IntBuffer();
+        private long total;
+
+        Kruskal(int n, int[] from, int[] to, int[] weight) {
+            this.n = n;
+            this.from = from;
+            this.to = to;
+            this.weight = weight;
+            this.sets = new UnionFind(n);
+        }
+
+        /**
+         * Adds the edges of the range to the forest in order. Pivots are medians of three, and a
+         * range is sorted instead once the depth runs out, which bounds the worst case.
+         */
+        void run(long[] keys, int lo, int hi, int depth) {
+            while (hi - lo > SORT_THRESHOLD && depth > 0 && tree.size < n - 1) {
+                --depth;
+                long pivot = medianOfThree(keys[lo], keys[(lo + hi) >>> 1], keys[hi - 1]);
+                int split = partition(keys, lo, hi, pivot);
+                run(keys, lo, split, depth);
+                lo = split;
+                hi = filter(keys, lo, hi);
+            }
+            if (hi - lo > 0 && tree.size < n - 1) {
+                Arrays.sort(keys, lo, hi);
+                for (int i = lo; i < hi && tree.size < n - 1; ++i) {
+                    int e = (int) keys[i];
+                    if (sets.union(from[e], to[e])) {
+                        tree.add(e);
+                        total += weight[e];
+                    }
+                }
+            }
+        }
+
+        /** Moves the keys not greater than the pivot to the front and returns where they end. */
+        private static int partition(long[] keys, int lo, int hi, long pivot) {
+            int i = lo;
+            int j = hi - 1;
+            while (true) {
+                while (i <= j && keys[i] <= pivot) {
+                    ++i;
+                }
+                while (i <= j && keys[j] > pivot) {
+                    --j;
+                }
+                if (i >= j) {
+                    return i;
+                }
+                long t = keys[i];
+                keys[i] = keys[j];
+                keys[j] = t;
+            }
+        }
+
+        /**
+         * Drops the edges whose ends are already connected and returns the new end of the range.
+         */
+        private int filter(long[] keys, int lo, int hi) {
+            int end = lo;
+            for (int i = lo; i < hi; ++i) {
+                int e = (int) keys[i];
+                if (!sets.connected(from[e], to[e])) {
+                    keys[end++] = keys[i];
+                }
+            }
+            return end;
+        }
+
+        private static long medianOfThree(long a, long b, long c) {
+            return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+        }
+
+        SpanningForest forest() {
+            return new SpanningForest(n, Arrays.copyOf(tree.data, tree.size), total, sets.count());
+        }
     }
 
-    @Override
-    public int compareTo(Edge other) {
-        return this.weight - other.weight;
+    /** The state of a single parallel Borůvka search. */
+    private static final class Boruvka {
+
+        // Ranges of at most this many edges are scanned by a single task.
+        private static final int PARALLEL_THRESHOLD = 1 << 14;
+        // The number of edges sampled to pick the weight of the next light batch.
+        private static final int SAMPLE_SIZE = 1 << 10;
+        private static final long NONE = Long.MAX_VALUE;
+
+        private final int n;
+        private final int[] from;
+        private final int[] to;
+        private final int[] weight;
+        private final ForkJoinPool pool;
+        private final UnionFind sets;
+        // The component of every vertex, which is the root of its set as of the last round.
+        private final int[] comp;
+        // The key of the lightest edge leaving every component.
+        private final AtomicLongArray best;
+        private final SplittableRandom rand = new SplittableRandom(0);
+        private final IntBuffer tree = new IntBuffer();
+        private long total;
+
+        Boruvka(int n, int[] from, int[] to, int[] weight, ForkJoinPool pool) {
+            this.n = n;
+            this.from = from;
+            this.to = to;
+            this.weight = weight;
+            this.pool = pool;
+            this.sets = new UnionFind(n);
+            this.comp = new int[n];
+            this.best = new AtomicLongArray(n);
+            for (int v = 0; v < n; ++v) {
+                comp[v] = v;
+                best.set(v, NONE);
+            }
+        }
+
+        /**
+         * Runs Borůvka's algorithm on batches of the lightest edges. On a dense graph, most edges
+         * stay between different components until the very last rounds, so scanning all of them in
+         * every round is mostly wasted. Instead, a batch of about 1.5 edges per vertex is split off
+         * below a sampled weight and solved first, and every heavier edge that ends up inside a
+         * component is dropped while the next batch is split off, as in filter-Kruskal.
+         */
+        SpanningForest run() {
+            int[] live = new int[from.length];
+            int size = 0;
+            for (int e = 0; e < from.length; ++e) {
+                if (from[e] != to[e]) {
+                    live[size++] = e;
+                }
+            }
+
+            while (size > 0) {
+                IntBuffer batch = new IntBuffer();
+                size = scan(live, size, false, pivot(live, size), batch);
+                for (int count = batch.size; count > 0; ) {
+                    count = round(batch.data, count);
+                }
+            }
+
+            return new SpanningForest(n, Arrays.copyOf(tree.data, tree.size), total, sets.count());
+        }
+
+        /** Picks a key below which about 1.5 live edges per vertex fall, from a random sample. */
+        private long pivot(int[] live, int size) {
+            long target = n + n / 2;
+            if (size <= Math.max(target, SAMPLE_SIZE)) {
+                return NONE;
+            }
+
+            long[] sample = new long[SAMPLE_SIZE];
+            for (int i = 0; i < SAMPLE_SIZE; ++i) {
+                int e = live[rand.nextInt(size)];
+                sample[i] = key(weight[e], e);
+            }
+            Arrays.sort(sample);
+            return sample[(int) (target * SAMPLE_SIZE / size)];
+        }
+
+        /**
+         * Runs one round of Borůvka's algorithm on a batch: every component picks its lightest
+         * edge, the picked edges join the forest, and the edges that end up inside a component are
+         * dropped.
+         *
+         * @return the number of edges left in the batch
+         */
+        private int round(int[] batch, int size) {
+            scan(batch, size, true, NONE, null);
+            for (int c = 0; c < n; ++c) {
+                long k = best.get(c);
+                if (k != NONE) {
+                    best.set(c, NONE);
+                    int e = (int) k;
+                    // Both components may pick the same edge, but it is only added once.
+                    if (sets.union(from[e], to[e])) {
+                        tree.add(e);
+                        total += weight[e];
+                    }
+                }
+            }
+            for (int v = 0; v < n; ++v) {
+                comp[v] = sets.find(v);
+            }
+            return scan(batch, size, false, NONE, null);
+        }
+
+        /**
+         * Scans the edges in chunks, either to record the lightest edge of every component or to
+         * drop the edges inside a component. When a buffer for light edges is given, the edges not
+         * heavier than the pivot are moved there. Every chunk is compacted in place, and the chunks
+         * are then moved together.
+         *
+         * @return the number of edges left
+         */
+        private int scan(int[] edges, int size, boolean pick, long pivot, IntBuffer light) {
+            int grain = Math.max(PARALLEL_THRESHOLD, size / (pool.getParallelism() * 8));
+            int chunks = (size + grain - 1) / grain;
+            int[] kept = new int[chunks];
+            IntBuffer[] out = light == null ? null : new IntBuffer[chunks];
+            EdgeTask task = new EdgeTask(this, edges, size, grain, 0, chunks, pick, pivot, kept, out);
+            if (chunks == 1) {
+                task.compute();
+            } else {
+                pool.invoke(task);
+            }
+            if (pick) {
+                return size;
+            }
+
+            int end = kept[0];
+            for (int i = 1; i < chunks; ++i) {
+                System.arraycopy(edges, i * grain, edges, end, kept[i]);
+                end += kept[i];
+            }
+            if (out != null) {
+                for (IntBuffer o : out) {
+                    for (int i = 0; i < o.size; ++i) {
+                        light.add(o.data[i]);
+                    }
+                }
+            }
+            return end;
+        }
+
+        private void pick(int[] edges, int lo, int hi) {
+            for (int i = lo; i < hi; ++i) {
+                int e = edges[i];
+                long k = key(weight[e], e);
+                lower(comp[from[e]], k);
+                lower(comp[to[e]], k);
+            }
+        }
+
+        private void lower(int c, long k) {
+            long cur = best.get(c);
+            while (k < cur) {
+                if (best.compareAndSet(c, cur, k)) {
+                    return;
+                }
+                cur = best.get(c);
+            }
+        }
+
+        private int filter(int[] edges, int lo, int hi, long pivot, IntBuffer light) {
+            int end = lo;
+            for (int i = lo; i < hi; ++i) {
+                int e = edges[i];
+                if (comp[from[e]] == comp[to[e]]) {
+                    continue;
+                }
+                if (light != null && key(weight[e], e) <= pivot) {
+                    light.add(e);
+                } else {
+                    edges[end++] = e;
+                }
+            }
+            return end - lo;
+        }
     }
-}
 
-/**
- * Helper class for storing data of nodes in a disjoint-set.
- *
- * @author Eddy Soma
- */
-class DsNode {
+    /** Task for scanning a range of chunks of edges. */
+    private static final class EdgeTask extends RecursiveAction {
 
-    final int count;
-    DsNode parent;
+        private final Boruvka search;
+        private final int[] edges;
+        private final int size;
+        private final int grain;
+        private final int from;
+        private final int to;
+        private final boolean pick;
+        private final long pivot;
+        private final int[] kept;
+        private final IntBuffer[] light;
 
-    DsNode(int count, DsNode parent) {
-        this.count = count;
-        this.parent = parent;
+        EdgeTask(
+                Boruvka search,
+                int[] edges,
+                int size,
+                int grain,
+                int from,
+                int to,
+                boolean pick,
+                long pivot,
+                int[] kept,
+                IntBuffer[] light) {
+            this.search = search;
+            this.edges = edges;
+            this.size = size;
+            this.grain = grain;
+            this.from = from;
+            this.to = to;
+            this.pick = pick;
+            this.pivot = pivot;
+            this.kept = kept;
+            this.light = light;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(
+                        new EdgeTask(search, edges, size, grain, from, mid, pick, pivot, kept, light),
+                        new EdgeTask(search, edges, size, grain, mid, to, pick, pivot, kept, light));
+                return;
+            }
+
+            int lo = from * grain;
+            int hi = Math.min(size, lo + grain);
+            if (pick) {
+                search.pick(edges, lo, hi);
+            } else if (light == null) {
+                kept[from] = search.filter(edges, lo, hi, pivot, null);
+            } else {
+                light[from] = new IntBuffer();
+                kept[from] = search.filter(edges, lo, hi, pivot, light[from]);
+            }
+        }
     }
 }
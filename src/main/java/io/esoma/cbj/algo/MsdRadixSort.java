@@ -0,0 +1,311 @@
+package io.esoma.cbj.algo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Most significant digit first radix sort for string keys, which backs the radix modes of {@link
+ * ThreeWayStringSort}. Keys are split into byte digits that are examined from left to right, and a
+ * key without a digit at some position sorts before every key that has one. Sub-arrays that still
+ * need work are kept on an explicit stack of frames instead of the call stack, so keys with long
+ * common prefixes cannot overflow it. Small frames skip the 256-way counting and are partitioned on
+ * a single digit like three-way string quicksort, and the smallest ones are finished by insertion
+ * sort.
+ *
+ * <p>An instance holds the scratch state of a single thread. The auxiliary array may be shared by
+ * several instances as long as they sort disjoint ranges.
+ *
+ * @param <T> the type of the keys
+ * @author Eddy Soma
+ */
+final class MsdRadixSort<T> {
+
+    /** Splits a key into byte digits. */
+    interface Digits<T> {
+
+        /**
+         * Returns the digit of the key at the given position.
+         *
+         * @param key the key
+         * @param d the digit position
+         * @return the digit between 0 and 255, or -1 if the key has no digit at the position
+         */
+        int digit(T key, int d);
+    }
+
+    /**
+     * Splits strings into the high and the low byte of every char, which gives the same order as
+     * {@link String#compareTo(String)}.
+     */
+    static final Digits<String> UTF16 = (key, d) -> {
+        int i = d >>> 1;
+        if (i >= key.length()) {
+            return -1;
+        }
+        char c = key.charAt(i);
+        return (d & 1) == 0 ? c >>> 8 : c & 0xFF;
+    };
+
+    /** Splits byte arrays into unsigned bytes, which orders UTF-8 keys by code point. */
+    static final Digits<byte[]> BYTES = (key, d) -> d < key.length ? key[d] & 0xFF : -1;
+
+    private static final int RADIX = 256;
+    // Frames of at most this length are partitioned on one digit instead of counted.
+    private static final int QUICKSORT_CUTOFF = 96;
+    // Frames of at most this length are finished by insertion sort.
+    private static final int INSERTION_CUTOFF = 12;
+    // Frames of at most this length are never split further for the parallel sort.
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+    // Every frame on the stack holds the beginning, the end (exclusive) and the digit position.
+    private static final int FRAME = 3;
+
+    private final Digits<T> digits;
+    private final T[] aux;
+    // Bucket counts for keys without a digit (index 1) and for every digit value (index 2 to 257).
+    private final int[] count = new int[RADIX + 2];
+    private int[] stack = new int[FRAME * 64];
+    private int top;
+
+    MsdRadixSort(Digits<T> digits, T[] aux) {
+        this.digits = digits;
+        this.aux = aux;
+    }
+
+    /**
+     * Sorts the array with a single thread.
+     *
+     * @param array the array to sort
+     * @param digits the digit function of the keys
+     * @param <T> the type of the keys
+     */
+    static <T> void sort(T[] array, Digits<T> digits) {
+        new MsdRadixSort<>(digits, array.clone()).sort(array, 0, array.length, 0);
+    }
+
+    /**
+     * Sorts the array with the given pool. Large frames are distributed by the calling thread until
+     * they are small enough to give every worker several of them, and those are then sorted
+     * concurrently. Splitting continues past a bucket that holds all keys of its frame, so a common
+     * prefix shared by every key does not prevent the split.
+     *
+     * @param array the array to sort
+     * @param digits the digit function of the keys
+     * @param pool the pool to run the sorting tasks
+     * @param <T> the type of the keys
+     */
+    static <T> void parallelSort(T[] array, Digits<T> digits, ForkJoinPool pool) {
+        T[] aux = array.clone();
+        MsdRadixSort<T> splitter = new MsdRadixSort<>(digits, aux);
+        int grain = Math.max(PARALLEL_THRESHOLD, array.length / (pool.getParallelism() * 8));
+        List<BucketTask<T>> tasks = new ArrayList<>();
+        splitter.push(0, array.length, 0);
+        while (splitter.top > 0) {
+            splitter.top -= FRAME;
+            int bin = splitter.stack[splitter.top];
+            int end = splitter.stack[splitter.top + 1];
+            int d = splitter.stack[splitter.top + 2];
+            if (end - bin > grain) {
+                splitter.distribute(array, bin, end, d);
+            } else {
+                tasks.add(new BucketTask<>(array, aux, digits, bin, end, d));
+            }
+        }
+
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+    /**
+     * Sorts the keys in the range that are known to be equal before the given digit position.
+     *
+     * @param array the array to sort
+     * @param bin the beginning index
+     * @param end the ending index (exclusive)
+     * @param d the first digit position to examine
+     */
+    void sort(T[] array, int bin, int end, int d) {
+        push(bin, end, d);
+        while (top > 0) {
+            top -= FRAME;
+            int lo = stack[top];
+            int hi = stack[top + 1];
+            int depth = stack[top + 2];
+            int n = hi - lo;
+            if (n <= INSERTION_CUTOFF) {
+                insertionSort(array, lo, hi, depth);
+            } else if (n <= QUICKSORT_CUTOFF) {
+                partition(array, lo, hi, depth);
+            } else {
+                distribute(array, lo, hi, depth);
+            }
+        }
+    }
+
+    /**
+     * Counts the digits at the given position and moves the keys into their buckets through the
+     * auxiliary array. Every bucket is then pushed with the next position, except the one of keys
+     * that have ended, since those are all equal.
+     */
+    private void distribute(T[] array, int bin, int end, int d) {
+        int[] c = count;
+        Arrays.fill(c, 0);
+        for (int i = bin; i < end; ++i) {
+            ++c[digits.digit(array[i], d) + 2];
+        }
+
+        int n = end - bin;
+        for (int b = 1; b < c.length; ++b) {
+            if (c[b] == n) {
+                // All keys share this digit, so nothing moves. Skip the whole common prefix at once
+                // rather than counting it one digit at a time.
+                if (b > 1) {
+                    push(bin, end, commonPrefix(array, bin, end, d + 1));
+                }
+                return;
+            }
+        }
+
+        // Turn the counts into the starting offset of every bucket.
+        for (int b = 1; b < c.length; ++b) {
+            c[b] += c[b - 1];
+        }
+        for (int i = bin; i < end; ++i) {
+            T key = array[i];
+            aux[bin + c[digits.digit(key, d) + 1]++] = key;
+        }
+        System.arraycopy(aux, bin, array, bin, n);
+
+        // Offsets have moved by one bucket, so bucket b now ends at c[b].
+        for (int b = 1; b <= RADIX; ++b) {
+            push(bin + c[b - 1], bin + c[b], d + 1);
+        }
+    }
+
+    /**
+     * Returns the first position at or after d where the keys in the range do not all have the same
+     * digit, or where the first key has ended. Each key is compared with the first one in a single
+     * pass, which reads its digits sequentially.
+     */
+    private int commonPrefix(T[] array, int bin, int end, int d) {
+        T first = array[bin];
+        int limit = Integer.MAX_VALUE;
+        for (int i = bin + 1; i < end && limit > d; ++i) {
+            T key = array[i];
+            int k = d;
+            while (k < limit) {
+                int dk = digits.digit(first, k);
+                if (dk < 0 || dk != digits.digit(key, k)) {
+                    break;
+                }
+                ++k;
+            }
+            limit = k;
+        }
+        return limit;
+    }
+
+    /**
+     * Splits the keys into those with a digit less than, equal to and greater than a pivot digit at
+     * the given position. Only the middle part advances to the next position, and only if the pivot
+     * is an actual digit.
+     */
+    private void partition(T[] array, int bin, int end, int d) {
+        int v = medianOfThree(
+                digits.digit(array[bin], d),
+                digits.digit(array[(bin + end) >>> 1], d),
+                digits.digit(array[end - 1], d));
+        int lt = bin;
+        int gt = end - 1;
+        int i = bin;
+        while (i <= gt) {
+            T key = array[i];
+            int t = digits.digit(key, d);
+            if (t < v) {
+                array[i++] = array[lt];
+                array[lt++] = key;
+            } else if (t > v) {
+                array[i] = array[gt];
+                array[gt--] = key;
+            } else {
+                ++i;
+            }
+        }
+
+        push(bin, lt, d);
+        if (v >= 0) {
+            push(lt, gt + 1, d + 1);
+        }
+        push(gt + 1, end, d);
+    }
+
+    private void insertionSort(T[] array, int bin, int end, int d) {
+        for (int i = bin + 1; i < end; ++i) {
+            T key = array[i];
+            int j = i;
+            while (j > bin && less(key, array[j - 1], d)) {
+                array[j] = array[j - 1];
+                --j;
+            }
+            array[j] = key;
+        }
+    }
+
+    private boolean less(T x, T y, int d) {
+        while (true) {
+            int dx = digits.digit(x, d);
+            int dy = digits.digit(y, d);
+            if (dx != dy) {
+                return dx < dy;
+            }
+            if (dx < 0) {
+                return false;
+            }
+            ++d;
+        }
+    }
+
+    private void push(int bin, int end, int d) {
+        if (end - bin < 2) {
+            return;
+        }
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[top] = bin;
+        stack[top + 1] = end;
+        stack[top + 2] = d;
+        top += FRAME;
+    }
+
+    private static int medianOfThree(int a, int b, int c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    /** Sorts one frame left by the parallel split with its own scratch state. */
+    private static final class BucketTask<T> extends RecursiveAction {
+
+        private final T[] array;
+        private final T[] aux;
+        private final Digits<T> digits;
+        private final int bin;
+        private final int end;
+        private final int d;
+
+        BucketTask(T[] array, T[] aux, Digits<T> digits, int bin, int end, int d) {
+            this.array = array;
+            this.aux = aux;
+            this.digits = digits;
+            this.bin = bin;
+            this.end = end;
+            this.d = d;
+        }
+
+        @Override
+        protected void compute() {
+            new MsdRadixSort<>(digits, aux).sort(array, bin, end, d);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package io.esoma.cbj.algo;
+
+import io.esoma.cbj.ds.FibonacciHeap;
+import io.esoma.cbj.ds.IndexedMinHeap;
+import io.esoma.cbj.ds.PairingHeap;
+
+/**
+ * Priority queue of graph nodes keyed by their tentative distance, as used by the shortest path
+ * searches in this package. Each implementation adapts one of the heaps in {@code io.esoma.cbj.ds},
+ * so the searches can be run and measured with any of them.
+ *
+ * @author Eddy Soma
+ */
+interface NodeQueue {
+
+    /**
+     * Adds a node that is not queued yet.
+     *
+     * @param v the node
+     * @param key the distance of the node
+     */
+    void insert(int v, long key);
+
+    /**
+     * Lowers the distance of a queued node.
+     *
+     * @param v the node
+     * @param key the new distance, not greater than the current one
+     */
+    void decreaseKey(int v, long key);
+
+    /**
+     * Removes and returns the node with the least distance.
+     *
+     * @return the node with the least distance
+     */
+    int pollMin();
+
+    /**
+     * Checks whether the queue is empty.
+     *
+     * @return true if no node is queued
+     */
+    boolean isEmpty();
+
+    /**
+     * Creates an empty queue of the given type.
+     *
+     * @param type the heap type
+     * @param n the number of nodes in the graph
+     * @return the queue
+     */
+    static NodeQueue create(Dijkstra.HeapType type, int n) {
+        return switch (type) {
+            case BINARY_HEAP -> new Indexed(new IndexedMinHeap(n, 2));
+            case QUATERNARY_HEAP -> new Indexed(new IndexedMinHeap(n, 4));
+            case PAIRING_HEAP -> new Pairing(n);
+            case FIBONACCI_HEAP -> new Fibonacci(n);
+        };
+    }
+
+    /** A node and its distance as an element of the object based heaps. */
+    record Entry(long key, int node) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry o) {
+            return Long.compare(key, o.key);
+        }
+    }
+
+    /** Adapts the array based {@link IndexedMinHeap}, which allocates nothing per node. */
+    final class Indexed implements NodeQueue {
+
+        private final IndexedMinHeap heap;
+
+        Indexed(IndexedMinHeap heap) {
+            this.heap = heap;
+        }
+
+        @Override
+        public void insert(int v, long key) {
+            heap.insert(v, key);
+        }
+
+        @Override
+        public void decreaseKey(int v, long key) {
+            heap.decreaseKey(v, key);
+        }
+
+        @Override
+        public int pollMin() {
+            return heap.pollMin();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return heap.isEmpty();
+        }
+    }
+
+    /** Adapts {@link PairingHeap}, with the handle of every queued node kept by node index. */
+    final class Pairing implements NodeQueue {
+
+        private final PairingHeap<Entry> heap = new PairingHeap<>();
+        private final PairingHeap.Handle<Entry>[] handles;
+
+        @SuppressWarnings("unchecked")
+        Pairing(int n) {
+            handles = new PairingHeap.Handle[n];
+        }
+
+        @Override
+        public void insert(int v, long key) {
+            handles[v] = heap.push(new Entry(key, v));
+        }
+
+        @Override
+        public void decreaseKey(int v, long key) {
+            heap.decreaseKey(handles[v], new Entry(key, v));
+        }
+
+        @Override
+        public int pollMin() {
+            int v = heap.popMin().node();
+            handles[v] = null;
+            return v;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return heap.getSize() == 0;
+        }
+    }
+
+    /** Adapts {@link FibonacciHeap}, with the handle of every queued node kept by node index. */
+    final class Fibonacci implements NodeQueue {
+
+        private final FibonacciHeap<Entry> heap = new FibonacciHeap<>();
+        private final FibonacciHeap.Handle<Entry>[] handles;
+
+        @SuppressWarnings("unchecked")
+        Fibonacci(int n) {
+            handles = new FibonacciHeap.Handle[n];
+        }
+
+        @Override
+        public void insert(int v, long key) {
+            handles[v] = heap.push(new Entry(key, v));
+        }
+
+        @Override
+        public void decreaseKey(int v, long key) {
+            heap.decreaseKey(handles[v], new Entry(key, v));
+        }
+
+        @Override
+        public int pollMin() {
+            int v = heap.popMin().node();
+            handles[v] = null;
+            return v;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return heap.getSize() == 0;
+        }
+    }
+}
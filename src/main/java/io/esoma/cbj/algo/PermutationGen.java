@@ -2,14 +2,36 @@ package io.esoma.cbj.algo;
 
 import io.esoma.cbj.core.ArrayCore;
 import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Class that implements a permutation generator for integers from 1 to n. Permutations are returned
  * in lexicographical order until exhausted.
+ *
+ * <p>Every permutation also has a rank, its index in that order, which is written in the factorial
+ * number system: the digit at position i counts the unused integers smaller than the i-th element,
+ * and weighs (n - 1 - i)!. So a permutation can be found from its rank without walking all the ones
+ * before it, and the whole space can be split into ranges of ranks to be enumerated in parallel.
+ * Ranks are longs, so they are only defined for n up to {@link #MAX_RANKED}.
  */
 public class PermutationGen {
 
+    /** The largest n whose number of permutations fits in a long. */
+    public static final int MAX_RANKED = 20;
+
+    private static final long[] FACTORIAL = new long[MAX_RANKED + 1];
+
+    static {
+        FACTORIAL[0] = 1;
+        for (int i = 1; i <= MAX_RANKED; ++i) {
+            FACTORIAL[i] = FACTORIAL[i - 1] * i;
+        }
+    }
+
     private final int[] state;
 
     private boolean ended;
@@ -50,7 +72,119 @@ public class PermutationGen {
         }
 
         int[] result = Arrays.copyOf(state, state.length);
+        if (!advance(state)) {
+            ended = true;
+        }
+
+        return result;
+    }
+
+    /**
+     * Passes every remaining permutation to the visitor in order, and leaves the generator
+     * exhausted. Unlike {@link #getNext()}, nothing is copied: the visitor gets the internal state
+     * array, which is rearranged in place for the next permutation after the visitor returns. The
+     * array must not be modified, and has to be copied if it is kept.
+     *
+     * @param visitor the action for every permutation
+     */
+    public void forEachRemaining(Consumer<int[]> visitor) {
+        while (!ended) {
+            visitor.accept(state);
+            if (!advance(state)) {
+                ended = true;
+            }
+        }
+    }
+
+    /**
+     * Moves the generator to the permutation of the given rank, which is returned by the next call
+     * to {@link #getNext()}.
+     *
+     * @param index the rank of the permutation, from 0 to n! (exclusive)
+     */
+    public void seek(long index) {
+        unrank(state.length, index, state);
+        ended = false;
+    }
+
+    /**
+     * Finds the permutation of 1 to n with the given rank in lexicographical order.
+     *
+     * @param index the rank of the permutation, from 0 to n! (exclusive)
+     * @return a new array with the permutation
+     */
+    public int[] unrank(long index) {
+        int[] result = new int[state.length];
+        unrank(state.length, index, result);
+        return result;
+    }
+
+    /**
+     * Finds the rank of a permutation of 1 to n in lexicographical order. The digits of the rank
+     * are counted with a bit set of the integers seen so far, so it takes O(n) time.
+     *
+     * @param permutation a permutation of 1 to n
+     * @return the rank of the permutation, from 0 to n! (exclusive)
+     */
+    public long rank(int[] permutation) {
+        int n = state.length;
+        checkRanked(n);
+        if (permutation.length != n) {
+            throw new IllegalArgumentException("Invalid permutation length");
+        }
+
+        int seen = 0;
+        long rank = 0;
+        for (int i = 0; i < n; ++i) {
+            int v = permutation[i];
+            if (v < 1 || v > n || (seen >>> (v - 1) & 1) != 0) {
+                throw new IllegalArgumentException("Not a permutation of 1 to n");
+            }
+            // The unused integers smaller than v.
+            int digit = v - 1 - Integer.bitCount(seen & ((1 << (v - 1)) - 1));
+            rank += digit * FACTORIAL[n - 1 - i];
+            seen |= 1 << (v - 1);
+        }
+        return rank;
+    }
+
+    /**
+     * Returns a spliterator over all the permutations of 1 to n in lexicographical order. It splits
+     * the ranks into halves, and every part finds its first permutation by its rank and the rest by
+     * stepping in place, so a parallel stream enumerates the space across cores with no shared
+     * state. Like {@link #forEachRemaining(Consumer)}, every part passes one array that is
+     * rearranged in place, so a permutation must be copied if it is kept past the action, and the
+     * stream must not be sorted or collected as it is.
+     *
+     * @param n the number of integers, from 1 to {@link #MAX_RANKED}
+     * @return the spliterator over the n! permutations
+     */
+    public static Spliterator<int[]> spliterator(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be greater or equal to 1");
+        }
+        checkRanked(n);
+
+        return new RangeSpliterator(n, 0, FACTORIAL[n]);
+    }
 
+    /**
+     * Returns a stream over all the permutations of 1 to n, backed by {@link #spliterator(int)}.
+     *
+     * @param n the number of integers, from 1 to {@link #MAX_RANKED}
+     * @param parallel whether the stream is parallel
+     * @return the stream of the n! permutations
+     */
+    public static Stream<int[]> stream(int n, boolean parallel) {
+        return StreamSupport.stream(spliterator(n), parallel);
+    }
+
+    /**
+     * Steps a permutation to the next one in lexicographical order in place.
+     *
+     * @return false if the permutation is the last one, which is then left as it is
+     */
+    private static boolean advance(int[] state) {
         // Find the first decrease starting from the end.
         int pivotIndex = -1;
         int prev = Integer.MIN_VALUE;
@@ -65,23 +199,114 @@ public class PermutationGen {
 
         // State is strictly descending indicating it's the last permutation.
         if (pivotIndex == -1) {
-            ended = true;
-            return result;
+            return false;
         }
 
-        // Revert the tail to ascending order.
-        ArrayCore.reverseInt(state, pivotIndex + 1, state.length - 1);
-
-        // Find the smallest number greater than the pivot to swap the pivot with.
+        // The tail is descending, so the smallest number greater than the pivot is the last one
+        // greater than it. Swapping keeps the tail descending, so reverting it makes it ascending.
         int pivot = state[pivotIndex];
-        int swapIndex = Arrays.binarySearch(state, pivotIndex + 1, state.length, pivot + 1);
-        if (swapIndex < 0) {
-            swapIndex = (swapIndex + 1) * -1;
+        int swapIndex = state.length - 1;
+        while (state[swapIndex] < pivot) {
+            --swapIndex;
         }
-
         state[pivotIndex] = state[swapIndex];
         state[swapIndex] = pivot;
 
-        return result;
+        ArrayCore.reverseInt(state, pivotIndex + 1, state.length - 1);
+
+        return true;
+    }
+
+    /** Writes the permutation of the given rank into the output, digit by digit. */
+    private static void unrank(int n, long index, int[] out) {
+        checkRanked(n);
+        if (index < 0 || index >= FACTORIAL[n]) {
+            throw new IllegalArgumentException("Invalid permutation index");
+        }
+
+        // The unused integers in ascending order.
+        int[] unused = IntStream.rangeClosed(1, n).toArray();
+        for (int i = 0; i < n; ++i) {
+            long weight = FACTORIAL[n - 1 - i];
+            int digit = (int) (index / weight);
+            index -= digit * weight;
+            out[i] = unused[digit];
+            System.arraycopy(unused, digit + 1, unused, digit, n - 1 - i - digit);
+        }
+    }
+
+    private static void checkRanked(int n) {
+        if (n > MAX_RANKED) {
+            throw new IllegalArgumentException("n must be at most " + MAX_RANKED + " to be ranked");
+        }
+    }
+
+    /** Spliterator over the permutations with ranks from bin to end (exclusive). */
+    private static final class RangeSpliterator implements Spliterator<int[]> {
+
+        private final int n;
+        private long bin;
+        private final long end;
+        // The permutation of rank bin - 1 once the first one has been passed, or null before.
+        private int[] state;
+
+        RangeSpliterator(int n, long bin, long end) {
+            this.n = n;
+            this.bin = bin;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super int[]> action) {
+            if (bin >= end) {
+                return false;
+            }
+
+            step();
+            action.accept(state);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super int[]> action) {
+            while (bin < end) {
+                step();
+                action.accept(state);
+            }
+        }
+
+        private void step() {
+            if (state == null) {
+                state = new int[n];
+                unrank(n, bin, state);
+            } else {
+                advance(state);
+            }
+            ++bin;
+        }
+
+        @Override
+        public Spliterator<int[]> trySplit() {
+            long mid = (bin + end) >>> 1;
+            if (mid <= bin) {
+                return null;
+            }
+
+            // The suffix is kept, so its first permutation has to be found again.
+            Spliterator<int[]> prefix = new RangeSpliterator(n, bin, mid);
+            bin = mid;
+            state = null;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - bin;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
     }
 }
@@ -1,5 +1,7 @@
 package io.esoma.cbj.algo;
 
+import java.util.Arrays;
+
 /**
  * Class for implementing the Quickselect algorithm. The algorithm is designed to find the kth
  * smallest element in an unordered array efficiently. This approach has various similarities to the
@@ -11,8 +13,9 @@ public class QuickSelect {
 
     /**
      * Finds and returns the kth smallest element in an integer array. This is a divide and conquer
-     * implementation that has optimal average case runtime. Exception is thrown if inputs are
-     * invalid.
+     * implementation that has optimal average case runtime, and it falls back to median of medians
+     * pivots on adversarial inputs, so the worst case is linear as well. The array is reordered
+     * in-place. Exception is thrown if inputs are invalid.
      *
      * @param array the input array
      * @param k the position of the element to return when sorted, must not be larger than the
@@ -23,53 +26,219 @@ public class QuickSelect {
         if (k <= 0 || k > array.length) {
             throw new IllegalArgumentException("Invalid k");
         }
-        return searchKth(array, 0, array.length, k);
+        nthElement(array, 0, array.length - 1, k - 1);
+        return array[k - 1];
     }
 
-    private static int searchKth(int[] array, int start, int end, int k) {
-        int len = end - start;
-        if (len == 1) {
-            return array[start];
-        } else if (len == 2) {
-            if (k == start + 1) {
-                return Math.min(array[start], array[start + 1]);
+    /**
+     * Returns the k smallest elements of the array in ascending order. The array is first
+     * rearranged in-place by quickselect so that the k smallest elements occupy its first k
+     * positions, and then only those are copied and sorted. This runs in O(n + k log k) on average
+     * instead of the O(n log n) of sorting the whole array.
+     *
+     * @param array the input array, which is reordered
+     * @param k the number of elements to return, must be between 0 and the length of the array
+     * @return the k smallest elements in ascending order
+     */
+    public static int[] select(int[] array, int k) {
+        if (k < 0 || k > array.length) {
+            throw new IllegalArgumentException("Invalid k");
+        }
+        if (k == 0) {
+            return new int[0];
+        }
+
+        nthElement(array, 0, array.length - 1, k - 1);
+        int[] smallest = Arrays.copyOf(array, k);
+        return QuickSort.introSort(smallest);
+    }
+
+    /**
+     * Finds the elements of several ranks at once, for example the p50, p90 and p99 of a latency
+     * array. The array is partitioned once, and only the parts that still contain requested ranks
+     * are partitioned further, so k ranks cost far less than k separate selections. The array is
+     * reordered in-place.
+     *
+     * @param array the input array
+     * @param ranks the positions of the elements to return when sorted, starting at 1, in any order
+     * @return the element of every rank, in the order of the given ranks
+     */
+    public static int[] selectMany(int[] array, int... ranks) {
+        int[] idx = new int[ranks.length];
+        for (int i = 0; i < ranks.length; ++i) {
+            if (ranks[i] <= 0 || ranks[i] > array.length) {
+                throw new IllegalArgumentException("Invalid rank");
+            }
+            idx[i] = ranks[i] - 1;
+        }
+        Arrays.sort(idx);
+
+        if (idx.length > 0) {
+            multiSelect(array, 0, array.length - 1, idx, 0, idx.length - 1, budget(array.length), new int[2]);
+        }
+        int[] found = new int[ranks.length];
+        for (int i = 0; i < ranks.length; ++i) {
+            found[i] = array[ranks[i] - 1];
+        }
+        return found;
+    }
+
+    /**
+     * Rearranges the sub-array so that the element at the given index is the one that would be
+     * there if the sub-array was sorted, with no larger element before it and no smaller element
+     * after it. Each step splits the range into three parts around a median-of-three pivot, so runs
+     * of equal keys end the search early instead of degrading it.
+     *
+     * <p>This is an introselect: the partitioning work is charged against a budget of a few times
+     * the length, and once an unlucky sequence of pivots exhausts it, the pivots are chosen by the
+     * median of medians instead. Those pivots always discard a constant fraction of the range, so
+     * the worst case is linear as well.
+     *
+     * @param array the input array
+     * @param bin the beginning index
+     * @param end the ending index
+     * @param idx the index to settle, must be within the bounds
+     */
+    private static void nthElement(int[] array, int bin, int end, int idx) {
+        nthElement(array, bin, end, idx, budget(end - bin + 1), new int[2]);
+    }
+
+    /**
+     * Performs the introselect with the given partitioning budget. A budget of 0 selects with
+     * median of medians pivots from the start.
+     *
+     * @param array the input array
+     * @param bin the beginning index
+     * @param end the ending index
+     * @param idx the index to settle, must be within the bounds
+     * @param budget the partitioning work allowed before the fallback
+     * @param bounds scratch space for the partition bounds
+     */
+    static void nthElement(int[] array, int bin, int end, int idx, long budget, int[] bounds) {
+        while (bin < end) {
+            budget -= end - bin + 1;
+            partition(array, bin, end, choosePivot(array, bin, end, budget, bounds), bounds);
+            if (idx < bounds[0]) {
+                end = bounds[0] - 1;
+            } else if (idx > bounds[1]) {
+                bin = bounds[1] + 1;
             } else {
-                return Math.max(array[start], array[start + 1]);
+                // The index falls among the keys equal to the pivot.
+                return;
             }
         }
+    }
 
-        int pivot = array[end - 1];
-        int i = start;
-        int j = end - 1;
+    /**
+     * Settles all sorted indices between lo and hi within the sub-array. After partitioning, the
+     * indices that fall among the keys equal to the pivot are done, and the remaining ones are
+     * handed to the left or right part. Parts without any requested index are never touched again.
+     */
+    private static void multiSelect(
+            int[] array, int bin, int end, int[] idx, int lo, int hi, long budget, int[] bounds) {
+        while (lo <= hi && bin < end) {
+            if (lo == hi) {
+                nthElement(array, bin, end, idx[lo], budget, bounds);
+                return;
+            }
+
+            budget -= end - bin + 1;
+            partition(array, bin, end, choosePivot(array, bin, end, budget, bounds), bounds);
+            int lt = bounds[0];
+            int gt = bounds[1];
+            // Split the requested indices into the ones before and after the middle part.
+            int leftHi = lo - 1;
+            while (leftHi < hi && idx[leftHi + 1] < lt) {
+                ++leftHi;
+            }
+            int rightLo = leftHi + 1;
+            while (rightLo <= hi && idx[rightLo] <= gt) {
+                ++rightLo;
+            }
+
+            // Recurse into the side with fewer indices and loop on the other one.
+            if (leftHi - lo < hi - rightLo) {
+                multiSelect(array, bin, lt - 1, idx, lo, leftHi, budget, bounds);
+                bin = gt + 1;
+                lo = rightLo;
+            } else {
+                multiSelect(array, gt + 1, end, idx, rightLo, hi, budget, bounds);
+                end = lt - 1;
+                hi = leftHi;
+            }
+        }
+    }
 
-        while (i < j) {
+    /**
+     * Splits the sub-array into keys less than, equal to and greater than the pivot. The bounds
+     * receive the first and the last index of the keys equal to the pivot.
+     */
+    private static void partition(int[] array, int bin, int end, int pivot, int[] bounds) {
+        int lt = bin;
+        int gt = end;
+        int i = bin;
+        while (i <= gt) {
             int ai = array[i];
-            int aj = array[j];
-            if (ai > pivot && aj <= pivot) {
-                array[i] = aj;
-                array[j] = ai;
-                ++i;
-                --j;
+            if (ai < pivot) {
+                array[i++] = array[lt];
+                array[lt++] = ai;
             } else if (ai > pivot) {
-                --j;
-            } else if (aj <= pivot) {
-                ++i;
+                array[i] = array[gt];
+                array[gt--] = ai;
             } else {
                 ++i;
-                --j;
             }
         }
+        bounds[0] = lt;
+        bounds[1] = gt;
+    }
+
+    /** The partitioning work allowed before falling back to median of medians pivots. */
+    private static long budget(int n) {
+        return 4L * n;
+    }
+
+    private static int choosePivot(int[] array, int bin, int end, long budget, int[] bounds) {
+        if (budget > 0 || end - bin < 5) {
+            return medianOfThree(array[bin], array[(bin + end) >>> 1], array[end]);
+        }
+        return medianOfMedians(array, bin, end, bounds);
+    }
 
-        // Move i to the starting index of the right partition.
-        if (array[i] < pivot) {
-            ++i;
+    /**
+     * Finds the median of the medians of groups of five elements. The median of each group is moved
+     * to the front of the sub-array, and the median among those is then selected recursively in the
+     * deterministic mode. The result is larger and smaller than at least 30% of the sub-array each.
+     */
+    private static int medianOfMedians(int[] array, int bin, int end, int[] bounds) {
+        int groups = 0;
+        for (int g = bin; g + 4 <= end; g += 5) {
+            sortGroup(array, g);
+            int m = array[g + 2];
+            array[g + 2] = array[bin + groups];
+            array[bin + groups] = m;
+            ++groups;
         }
 
-        if (k < i + 1) {
-            // Answer is on the left.
-            return searchKth(array, start, i, k);
-        } else {
-            return searchKth(array, i, end, k);
+        int mid = bin + (groups - 1) / 2;
+        nthElement(array, bin, bin + groups - 1, mid, 0, bounds);
+        return array[mid];
+    }
+
+    /** Sorts the five elements starting at the given index with insertion sort. */
+    private static void sortGroup(int[] array, int g) {
+        for (int i = g + 1; i < g + 5; ++i) {
+            int x = array[i];
+            int j = i - 1;
+            while (j >= g && array[j] > x) {
+                array[j + 1] = array[j];
+                --j;
+            }
+            array[j + 1] = x;
         }
     }
+
+    private static int medianOfThree(int a, int b, int c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
 }
@@ -1,5 +1,9 @@
 package io.esoma.cbj.algo;
 
+import io.esoma.cbj.core.BinaryInsertionSort;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * Class for implementing the Quick Sort algorithm. Quicksort is an efficient sorting algorithm
  * developed by British computer scientist Tony Hoare in 1959. Quicksort is a divide-and-conquer
@@ -12,8 +16,47 @@ package io.esoma.cbj.algo;
  */
 public class QuickSort {
 
+    // Partitions of at most this length are sorted by binary insertion sort.
+    private static final int INSERTION_CUTOFF = 32;
+    // Partitions of at most this length are not split further by the parallel sort.
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
     private QuickSort() {}
 
+    /**
+     * Performs an introspective dual-pivot quicksort in-place. Each step picks two pivots from a
+     * sorted sample of five elements and splits the partition into three parts: less than the first
+     * pivot, between the pivots, and greater than the second pivot. Keys equal to a pivot are moved
+     * out of a large middle part, so inputs with many duplicates do not degrade. Small partitions
+     * are finished by binary insertion sort. If the recursion gets deeper than twice the logarithm
+     * of the length, which only happens on adversarial inputs, the partition is handed over to heap
+     * sort, so the worst case is O(n log n).
+     *
+     * @param array the input array
+     * @return the sorted array
+     */
+    public static int[] introSort(int[] array) {
+        introProcess(array, 0, array.length - 1, depthLimit(array.length), new int[4]);
+        return array;
+    }
+
+    /**
+     * Performs the same sort as {@link #introSort(int[])}, but the three parts created by each
+     * partitioning step are sorted concurrently by the given pool until they become small.
+     *
+     * @param array the input array
+     * @param pool the pool to run the sorting tasks
+     * @return the sorted array
+     */
+    public static int[] parallelIntroSort(int[] array, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+
+        pool.invoke(new IntroSortTask(array, 0, array.length - 1, depthLimit(array.length)));
+        return array;
+    }
+
     /**
      * Implements the original "Hoare partition scheme" where two indices are used check inversions
      * and swap elements in the wrong order with the given pivot. The middle element is selected as
@@ -86,4 +129,190 @@ public class QuickSort {
         process(array, bin, f);
         process(array, f + 1, end);
     }
+
+    /**
+     * Sorts the partition with the introsort procedure.
+     *
+     * @param array the sub-array to process
+     * @param bin the beginning index
+     * @param end the ending index
+     * @param depth the remaining number of partitioning levels before falling back to heap sort
+     * @param bounds scratch space for the bounds returned by partitioning
+     */
+    private static void introProcess(int[] array, int bin, int end, int depth, int[] bounds) {
+        if (end - bin < INSERTION_CUTOFF) {
+            BinaryInsertionSort.sortOnline(array, bin, end, bin + 1);
+            return;
+        }
+        if (depth == 0) {
+            HeapSort.sort(array, bin, end);
+            return;
+        }
+
+        partition(array, bin, end, bounds);
+        // The bounds are overwritten by the recursive calls, so keep them locally.
+        int lEnd = bounds[0];
+        int mBin = bounds[1];
+        int mEnd = bounds[2];
+        int rBin = bounds[3];
+        introProcess(array, bin, lEnd, depth - 1, bounds);
+        if (mBin <= mEnd) {
+            introProcess(array, mBin, mEnd, depth - 1, bounds);
+        }
+        introProcess(array, rBin, end, depth - 1, bounds);
+    }
+
+    /**
+     * Partitions the sub-array around two pivots. The pivots end up in their final positions, and
+     * the bounds describe the three remaining parts: the left part ends at index 0, the middle part
+     * spans indices 1 to 2 (it may be empty), and the right part starts at index 3.
+     *
+     * @param array the sub-array to process, must have more than a few elements
+     * @param bin the beginning index
+     * @param end the ending index
+     * @param bounds the array to receive the bounds of the three parts
+     */
+    private static void partition(int[] array, int bin, int end, int[] bounds) {
+        // Sort five evenly spaced samples in place and take the second and fourth as pivots.
+        int seventh = (end - bin + 1) / 7;
+        int e3 = (bin + end) >>> 1;
+        int e2 = e3 - seventh;
+        int e1 = e2 - seventh;
+        int e4 = e3 + seventh;
+        int e5 = e4 + seventh;
+        sortSamples(array, e1, e2, e3, e4, e5);
+
+        int p = array[e2];
+        int q = array[e4];
+        // Park the pivots at both ends.
+        array[e2] = array[bin];
+        array[e4] = array[end];
+
+        int lt = bin + 1;
+        int gt = end - 1;
+        int i = lt;
+        while (i <= gt) {
+            int x = array[i];
+            if (x < p) {
+                array[i] = array[lt];
+                array[lt] = x;
+                ++lt;
+                ++i;
+            } else if (x > q) {
+                // The swapped in element is not examined yet, so i stays.
+                array[i] = array[gt];
+                array[gt] = x;
+                --gt;
+            } else {
+                ++i;
+            }
+        }
+
+        // Move the pivots into their final positions.
+        array[bin] = array[lt - 1];
+        array[lt - 1] = p;
+        array[end] = array[gt + 1];
+        array[gt + 1] = q;
+
+        bounds[0] = lt - 2;
+        bounds[3] = gt + 2;
+        if (p == q) {
+            // Everything in the middle equals the pivots and is already in place.
+            bounds[1] = 0;
+            bounds[2] = -1;
+            return;
+        }
+
+        if (gt - lt + 1 > (end - bin + 1) / 3 * 2) {
+            // A large middle part usually means many keys equal to a pivot. Move them out so
+            // that they are not partitioned again.
+            int k = lt;
+            while (k <= gt) {
+                int x = array[k];
+                if (x == p) {
+                    array[k] = array[lt];
+                    array[lt] = x;
+                    ++lt;
+                    ++k;
+                } else if (x == q) {
+                    array[k] = array[gt];
+                    array[gt] = x;
+                    --gt;
+                } else {
+                    ++k;
+                }
+            }
+        }
+
+        bounds[1] = lt;
+        bounds[2] = gt;
+    }
+
+    /** Sorts the elements at the five sample indices with an optimal sorting network. */
+    private static void sortSamples(int[] array, int e1, int e2, int e3, int e4, int e5) {
+        sortPair(array, e1, e2);
+        sortPair(array, e4, e5);
+        sortPair(array, e3, e5);
+        sortPair(array, e3, e4);
+        sortPair(array, e2, e5);
+        sortPair(array, e1, e4);
+        sortPair(array, e1, e3);
+        sortPair(array, e2, e4);
+        sortPair(array, e2, e3);
+    }
+
+    private static void sortPair(int[] array, int i, int j) {
+        if (array[i] > array[j]) {
+            int t = array[i];
+            array[i] = array[j];
+            array[j] = t;
+        }
+    }
+
+    /**
+     * Calculates the maximum partitioning depth before heap sort takes over.
+     *
+     * @param n the length of the array
+     * @return twice the binary logarithm of the length
+     */
+    private static int depthLimit(int n) {
+        return 2 * (32 - Integer.numberOfLeadingZeros(Math.max(n, 1)));
+    }
+
+    /** Fork-join task of the parallel introsort. */
+    private static final class IntroSortTask extends RecursiveAction {
+
+        private final int[] array;
+        private final int bin;
+        private final int end;
+        private final int depth;
+
+        IntroSortTask(int[] array, int bin, int end, int depth) {
+            this.array = array;
+            this.bin = bin;
+            this.end = end;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            int[] bounds = new int[4];
+            if (end - bin + 1 <= PARALLEL_THRESHOLD || depth == 0) {
+                introProcess(array, bin, end, depth, bounds);
+                return;
+            }
+
+            partition(array, bin, end, bounds);
+            if (bounds[1] <= bounds[2]) {
+                invokeAll(
+                        new IntroSortTask(array, bin, bounds[0], depth - 1),
+                        new IntroSortTask(array, bounds[1], bounds[2], depth - 1),
+                        new IntroSortTask(array, bounds[3], end, depth - 1));
+            } else {
+                invokeAll(
+                        new IntroSortTask(array, bin, bounds[0], depth - 1),
+                        new IntroSortTask(array, bounds[3], end, depth - 1));
+            }
+        }
+    }
 }
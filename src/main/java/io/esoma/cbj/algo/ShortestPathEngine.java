@@ -0,0 +1,440 @@
+package io.esoma.cbj.algo;
+
+import io.esoma.cbj.ds.CsrGraph;
+import io.esoma.cbj.ds.IndexedMinHeap;
+import io.esoma.cbj.ds.LRUCache;
+import java.util.Arrays;
+
+/**
+ * Class for answering many shortest path queries over a mostly static graph without negative
+ * weights. A single query between two nodes runs a bidirectional Dijkstra search, which grows one
+ * search forward from the source and one backward from the target until they meet, and usually
+ * settles far fewer nodes than a full search. Several targets of the same source are answered by
+ * one forward search that stops as soon as all of them are settled.
+ *
+ * <p>Sources that are queried again are served from an LRU cache of full shortest path trees, so
+ * repeated queries from a hot source take constant time. To keep one-off queries from filling the
+ * cache, a source is only admitted the second time it misses while it is still remembered as a
+ * recent miss. Changing the graph invalidates the whole cache.
+ *
+ * <p>The engine keeps scratch state between queries and is not thread-safe.
+ *
+ * @author Eddy Soma
+ */
+public final class ShortestPathEngine {
+
+    private static final long INF = Long.MAX_VALUE;
+
+    private final LRUCache<ShortestPathTree> trees;
+    // Sources that missed the cache recently, with no meaningful value.
+    private final LRUCache<Boolean> recentMisses;
+    private CsrGraph graph;
+    private CsrGraph reverse;
+
+    // Scratch state of the searches, reset after every query through the touched nodes.
+    private long[] distF;
+    private long[] distB;
+    private int[] predF;
+    private int[] predB;
+    private IndexedMinHeap heapF;
+    private IndexedMinHeap heapB;
+    private int[] touched;
+    private int touchedCount;
+    // The batch in which a node was last marked as a target.
+    private int[] mark;
+    private int batch;
+
+    /**
+     * Creates an engine over a copy of the graph's weights, so the caller's graph is never modified
+     * by {@link #setEdgeWeight(int, int, int)}.
+     *
+     * @param graph the graph, must not have negative weights
+     * @param cacheCapacity the number of shortest path trees to keep, at least 1
+     */
+    public ShortestPathEngine(CsrGraph graph, int cacheCapacity) {
+        if (cacheCapacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be at least 1");
+        }
+
+        this.trees = new LRUCache<>(cacheCapacity);
+        this.recentMisses = new LRUCache<>(Math.max(16, cacheCapacity * 4));
+        this.setGraph(graph);
+    }
+
+    /**
+     * Returns the graph that queries run on. Its arrays must not be modified.
+     *
+     * @return the graph
+     */
+    public CsrGraph graph() {
+        return this.graph;
+    }
+
+    /**
+     * Replaces the graph and invalidates every cached tree.
+     *
+     * @param graph the new graph, must not have negative weights
+     */
+    public void setGraph(CsrGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph must not be null");
+        }
+        if (graph.hasNegativeWeight()) {
+            throw new IllegalArgumentException("Negative weights are not supported");
+        }
+
+        this.graph =
+                new CsrGraph(graph.offsets(), graph.targets(), graph.weights().clone());
+        this.reverse = this.graph.reverse();
+        int n = graph.nodeCount();
+        if (this.distF == null || this.distF.length != n) {
+            this.distF = new long[n];
+            this.distB = new long[n];
+            this.predF = new int[n];
+            this.predB = new int[n];
+            this.heapF = new IndexedMinHeap(n);
+            this.heapB = new IndexedMinHeap(n);
+            this.touched = new int[n];
+            this.mark = new int[n];
+            Arrays.fill(this.distF, INF);
+            Arrays.fill(this.distB, INF);
+        }
+        this.invalidate();
+    }
+
+    /**
+     * Changes the weight of every edge from u to v and invalidates every cached tree.
+     *
+     * @param u the source node of the edge
+     * @param v the target node of the edge
+     * @param weight the new weight, must not be negative
+     */
+    public void setEdgeWeight(int u, int v, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weights are not supported");
+        }
+        // Both weight arrays are private copies owned by this engine.
+        if (setWeight(this.graph, u, v, weight) == 0) {
+            throw new IllegalArgumentException("No edge from " + u + " to " + v);
+        }
+        setWeight(this.reverse, v, u, weight);
+        this.invalidate();
+    }
+
+    /** Drops every cached tree and every remembered miss. */
+    public void invalidate() {
+        this.trees.clear();
+        this.recentMisses.clear();
+    }
+
+    /**
+     * Returns the full shortest path tree of a source, from the cache if possible. A computed tree
+     * is always cached.
+     *
+     * @param source the source node
+     * @return the shortest path tree rooted at the source
+     */
+    public ShortestPathTree tree(int source) {
+        this.checkNode(source);
+        ShortestPathTree tree = this.trees.get(source);
+        if (tree == null) {
+            tree = Dijkstra.shortestPaths(this.graph, source);
+            this.trees.put(source, tree);
+        }
+        return tree;
+    }
+
+    /**
+     * Returns the shortest distance from the source to the target.
+     *
+     * @param source the source node
+     * @param target the target node
+     * @return the shortest distance, or -1 if the target cannot be reached
+     */
+    public long distance(int source, int target) {
+        this.checkNode(source);
+        this.checkNode(target);
+        ShortestPathTree tree = this.cachedTree(source);
+        if (tree != null) {
+            return tree.distance(target);
+        }
+
+        int meet = this.bidirectional(source, target);
+        long d = meet < 0 ? ShortestPathTree.UNREACHABLE : this.distF[meet] + this.distB[meet];
+        this.reset();
+        return d;
+    }
+
+    /**
+     * Returns the nodes on a shortest path from the source to the target, both included.
+     *
+     * @param source the source node
+     * @param target the target node
+     * @return the path starting at the source, or an empty array if the target cannot be reached
+     */
+    public int[] path(int source, int target) {
+        this.checkNode(source);
+        this.checkNode(target);
+        ShortestPathTree tree = this.cachedTree(source);
+        if (tree != null) {
+            return tree.pathTo(target);
+        }
+
+        int meet = this.bidirectional(source, target);
+        int[] path = new int[0];
+        if (meet >= 0) {
+            int front = 1;
+            for (int u = meet; u != source; u = this.predF[u]) {
+                ++front;
+            }
+            int back = 0;
+            for (int u = meet; u != target; u = this.predB[u]) {
+                ++back;
+            }
+            path = new int[front + back];
+            int i = front;
+            for (int u = meet; i > 0; u = this.predF[u]) {
+                path[--i] = u;
+            }
+            i = front;
+            for (int u = meet; u != target; ) {
+                u = this.predB[u];
+                path[i++] = u;
+            }
+        }
+        this.reset();
+        return path;
+    }
+
+    /**
+     * Answers a batch of queries given as pairs of sources and targets at the same index. The
+     * queries are grouped by source, so every source is searched at most once: from the cache, by a
+     * forward search that stops when all targets of the source are settled, or by a bidirectional
+     * search if it has a single target.
+     *
+     * @param sources the source node of every query
+     * @param targets the target node of every query
+     * @return the shortest distance of every query, or -1 if the target cannot be reached
+     */
+    public long[] distances(int[] sources, int[] targets) {
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("Sources and targets must have the same length");
+        }
+        int q = sources.length;
+        for (int i = 0; i < q; ++i) {
+            this.checkNode(sources[i]);
+            this.checkNode(targets[i]);
+        }
+
+        // Sort the query indices by source, packing the source above the index.
+        long[] order = new long[q];
+        for (int i = 0; i < q; ++i) {
+            order[i] = (long) sources[i] << 32 | i;
+        }
+        Arrays.sort(order);
+
+        long[] result = new long[q];
+        for (int lo = 0, hi; lo < q; lo = hi) {
+            int s = (int) (order[lo] >>> 32);
+            hi = lo + 1;
+            while (hi < q && (int) (order[hi] >>> 32) == s) {
+                ++hi;
+            }
+
+            ShortestPathTree tree = this.cachedTree(s);
+            if (tree != null) {
+                for (int k = lo; k < hi; ++k) {
+                    int i = (int) order[k];
+                    result[i] = tree.distance(targets[i]);
+                }
+            } else if (hi - lo == 1) {
+                int i = (int) order[lo];
+                int meet = this.bidirectional(s, targets[i]);
+                result[i] = meet < 0 ? ShortestPathTree.UNREACHABLE : this.distF[meet] + this.distB[meet];
+                this.reset();
+            } else {
+                this.forward(s, targets, order, lo, hi);
+                for (int k = lo; k < hi; ++k) {
+                    int i = (int) order[k];
+                    long d = this.distF[targets[i]];
+                    result[i] = d == INF ? ShortestPathTree.UNREACHABLE : d;
+                }
+                this.reset();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the cached tree of a source. On a miss, a source that missed recently is computed and
+     * admitted to the cache, and any other source is remembered as a recent miss.
+     */
+    private ShortestPathTree cachedTree(int source) {
+        ShortestPathTree tree = this.trees.get(source);
+        if (tree == null) {
+            if (this.recentMisses.get(source) != null) {
+                tree = this.tree(source);
+            } else {
+                this.recentMisses.put(source, Boolean.TRUE);
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Runs a forward search from the source that stops when every target of the queries between lo
+     * and hi (exclusive) in the order is settled.
+     */
+    private void forward(int source, int[] targets, long[] order, int lo, int hi) {
+        if (++this.batch == 0) {
+            // The batch counter wrapped around, so old marks could look current.
+            Arrays.fill(this.mark, 0);
+            this.batch = 1;
+        }
+        int remaining = 0;
+        for (int k = lo; k < hi; ++k) {
+            int t = targets[(int) order[k]];
+            if (this.mark[t] != this.batch) {
+                this.mark[t] = this.batch;
+                ++remaining;
+            }
+        }
+
+        int[] offsets = this.graph.offsets();
+        int[] adj = this.graph.targets();
+        int[] weights = this.graph.weights();
+        this.relaxF(source, -1, 0);
+        while (!this.heapF.isEmpty() && remaining > 0) {
+            int u = this.heapF.pollMin();
+            if (this.mark[u] == this.batch) {
+                --remaining;
+            }
+            long du = this.distF[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; ++e) {
+                this.relaxF(adj[e], u, du + weights[e]);
+            }
+        }
+    }
+
+    /**
+     * Runs a bidirectional search and returns the node where a shortest path passes from the
+     * forward to the backward search, or -1 if there is no path. The side with the smaller queue is
+     * expanded first, and the search stops once the two queue minimums add up to at least the best
+     * path found, since no later meeting can be shorter.
+     */
+    private int bidirectional(int source, int target) {
+        this.relaxF(source, -1, 0);
+        this.relaxB(target, -1, 0);
+        long best = source == target ? 0 : INF;
+        int meet = source == target ? source : -1;
+
+        int[] offF = this.graph.offsets();
+        int[] adjF = this.graph.targets();
+        int[] wF = this.graph.weights();
+        int[] offB = this.reverse.offsets();
+        int[] adjB = this.reverse.targets();
+        int[] wB = this.reverse.weights();
+        while (!this.heapF.isEmpty() && !this.heapB.isEmpty()) {
+            long minF = this.heapF.keyOf(this.heapF.peekMin());
+            long minB = this.heapB.keyOf(this.heapB.peekMin());
+            if (best != INF && minF + minB >= best) {
+                break;
+            }
+
+            if (this.heapF.size() <= this.heapB.size()) {
+                int u = this.heapF.pollMin();
+                long du = this.distF[u];
+                for (int e = offF[u]; e < offF[u + 1]; ++e) {
+                    int v = adjF[e];
+                    long nd = du + wF[e];
+                    this.relaxF(v, u, nd);
+                    if (this.distB[v] != INF && nd + this.distB[v] < best) {
+                        best = nd + this.distB[v];
+                        meet = v;
+                    }
+                }
+            } else {
+                int u = this.heapB.pollMin();
+                long du = this.distB[u];
+                for (int e = offB[u]; e < offB[u + 1]; ++e) {
+                    int v = adjB[e];
+                    long nd = du + wB[e];
+                    this.relaxB(v, u, nd);
+                    if (this.distF[v] != INF && nd + this.distF[v] < best) {
+                        best = nd + this.distF[v];
+                        meet = v;
+                    }
+                }
+            }
+        }
+        return meet;
+    }
+
+    private void relaxF(int v, int u, long nd) {
+        long dv = this.distF[v];
+        if (nd < dv) {
+            if (dv == INF && this.distB[v] == INF) {
+                this.touch(v);
+            }
+            if (dv == INF) {
+                this.heapF.insert(v, nd);
+            } else {
+                this.heapF.decreaseKey(v, nd);
+            }
+            this.distF[v] = nd;
+            this.predF[v] = u;
+        }
+    }
+
+    private void relaxB(int v, int u, long nd) {
+        long dv = this.distB[v];
+        if (nd < dv) {
+            if (dv == INF && this.distF[v] == INF) {
+                this.touch(v);
+            }
+            if (dv == INF) {
+                this.heapB.insert(v, nd);
+            } else {
+                this.heapB.decreaseKey(v, nd);
+            }
+            this.distB[v] = nd;
+            this.predB[v] = u;
+        }
+    }
+
+    private void touch(int v) {
+        this.touched[this.touchedCount++] = v;
+    }
+
+    /** Restores the scratch state of every node touched by the last search. */
+    private void reset() {
+        for (int i = 0; i < this.touchedCount; ++i) {
+            int v = this.touched[i];
+            this.distF[v] = INF;
+            this.distB[v] = INF;
+        }
+        this.touchedCount = 0;
+        this.heapF.clear();
+        this.heapB.clear();
+    }
+
+    private void checkNode(int v) {
+        if (v < 0 || v >= this.graph.nodeCount()) {
+            throw new IllegalArgumentException("Invalid node " + v);
+        }
+    }
+
+    private static int setWeight(CsrGraph graph, int u, int v, int weight) {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] weights = graph.weights();
+        int changed = 0;
+        for (int e = offsets[u]; e < offsets[u + 1]; ++e) {
+            if (targets[e] == v) {
+                weights[e] = weight;
+                ++changed;
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,155 @@
+package io.esoma.cbj.algo;
+
+/**
+ * The result of a single source shortest path search: the distance from the source to every node
+ * and the predecessor of every node on its shortest path, which together form a shortest path tree
+ * rooted at the source. Distances are longs, so sums of int weights along long paths cannot
+ * overflow. As in {@link Dijkstra#djFind(int[][])}, a node that cannot be reached has a distance of
+ * -1. With negative weights, -1 can also be a real distance, so searches that allow them mark such
+ * nodes with {@link #NO_PATH} instead, which no sum of int weights can reach. {@link
+ * #unreachable()} tells which of the two a tree uses.
+ *
+ * @author Eddy Soma
+ */
+public final class ShortestPathTree {
+
+    /** The distance of a node that cannot be reached from the source. */
+    public static final long UNREACHABLE = -1;
+
+    /** The distance of a node that cannot be reached, when the weights may be negative. */
+    public static final long NO_PATH = Long.MAX_VALUE;
+
+    private final int source;
+    private final long unreachable;
+    private final long[] distances;
+    private final int[] predecessors;
+
+    /**
+     * Wraps the arrays computed by a search over non-negative weights. The arrays are not copied.
+     *
+     * @param source the source node
+     * @param distances the distance of every node, or -1 if unreachable
+     * @param predecessors the previous node on the shortest path of every node, or -1 for the
+     *     source and unreachable nodes
+     */
+    ShortestPathTree(int source, long[] distances, int[] predecessors) {
+        this(source, UNREACHABLE, distances, predecessors);
+    }
+
+    /**
+     * Wraps the arrays computed by a search, with unreachable nodes marked by the given distance.
+     * The arrays are not copied.
+     *
+     * @param source the source node
+     * @param unreachable the distance of unreachable nodes, either {@link #UNREACHABLE} or {@link
+     *     #NO_PATH}
+     * @param distances the distance of every node
+     * @param predecessors the previous node on the shortest path of every node, or -1 for the
+     *     source and unreachable nodes
+     */
+    ShortestPathTree(int source, long unreachable, long[] distances, int[] predecessors) {
+        this.source = source;
+        this.unreachable = unreachable;
+        this.distances = distances;
+        this.predecessors = predecessors;
+    }
+
+    /**
+     * Returns the source node of the search.
+     *
+     * @return the source node
+     */
+    public int source() {
+        return this.source;
+    }
+
+    /**
+     * Returns the distance of the nodes that cannot be reached: {@link #NO_PATH} if the search
+     * allowed negative weights, or {@link #UNREACHABLE} otherwise.
+     *
+     * @return the distance of unreachable nodes
+     */
+    public long unreachable() {
+        return this.unreachable;
+    }
+
+    /**
+     * Returns the number of nodes in the searched graph.
+     *
+     * @return the number of nodes
+     */
+    public int nodeCount() {
+        return this.distances.length;
+    }
+
+    /**
+     * Returns the shortest distance from the source to a node.
+     *
+     * @param v the node
+     * @return the shortest distance, or {@link #unreachable()} if the node cannot be reached
+     */
+    public long distance(int v) {
+        return this.distances[v];
+    }
+
+    /**
+     * Checks whether a node can be reached from the source.
+     *
+     * @param v the node
+     * @return true if there is a path from the source
+     */
+    public boolean isReachable(int v) {
+        return this.distances[v] != this.unreachable;
+    }
+
+    /**
+     * Returns the previous node on the shortest path from the source to a node.
+     *
+     * @param v the node
+     * @return the predecessor, or -1 for the source and unreachable nodes
+     */
+    public int predecessor(int v) {
+        return this.predecessors[v];
+    }
+
+    /**
+     * Returns the nodes on a shortest path from the source to the given node, both included.
+     *
+     * @param v the target node
+     * @return the path starting at the source, or an empty array if the node cannot be reached
+     */
+    public int[] pathTo(int v) {
+        if (!isReachable(v)) {
+            return new int[0];
+        }
+
+        int len = 1;
+        for (int u = v; u != this.source; u = this.predecessors[u]) {
+            ++len;
+        }
+        int[] path = new int[len];
+        for (int u = v; len > 0; u = this.predecessors[u]) {
+            path[--len] = u;
+        }
+        return path;
+    }
+
+    /**
+     * Returns the distances of all nodes. The array is the internal one and must not be modified.
+     *
+     * @return the distance of every node, or {@link #unreachable()} if unreachable
+     */
+    public long[] distances() {
+        return this.distances;
+    }
+
+    /**
+     * Returns the predecessors of all nodes. The array is the internal one and must not be
+     * modified.
+     *
+     * @return the predecessor of every node, or -1 for the source and unreachable nodes
+     */
+    public int[] predecessors() {
+        return this.predecessors;
+    }
+}
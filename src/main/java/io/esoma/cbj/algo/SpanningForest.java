@@ -0,0 +1,89 @@
+package io.esoma.cbj.algo;
+
+/**
+ * The result of a minimum spanning tree search: the chosen edges, their total weight, and the
+ * number of connected components. If the graph is not connected, the edges form a minimum spanning
+ * tree of every component, which is a minimum spanning forest. Edges are given by their index in
+ * the edge arrays of the input, so any data stored next to the edges can be looked up directly.
+ *
+ * @author Eddy Soma
+ */
+public final class SpanningForest {
+
+    private final int nodeCount;
+    private final int[] edges;
+    private final long weight;
+    private final int components;
+
+    /**
+     * Wraps the edges chosen by a search. The array is not copied.
+     *
+     * @param nodeCount the number of nodes in the graph
+     * @param edges the indices of the chosen edges
+     * @param weight the total weight of the chosen edges
+     * @param components the number of connected components
+     */
+    SpanningForest(int nodeCount, int[] edges, long weight, int components) {
+        this.nodeCount = nodeCount;
+        this.edges = edges;
+        this.weight = weight;
+        this.components = components;
+    }
+
+    /**
+     * Returns the number of nodes in the graph.
+     *
+     * @return the number of nodes
+     */
+    public int nodeCount() {
+        return this.nodeCount;
+    }
+
+    /**
+     * Returns the number of edges in the forest, which is the number of nodes minus the number of
+     * components.
+     *
+     * @return the number of edges
+     */
+    public int edgeCount() {
+        return this.edges.length;
+    }
+
+    /**
+     * Returns the indices of the edges in the forest, in the order in which they were chosen. The
+     * array is the internal one and must not be modified.
+     *
+     * @return the edge indices
+     */
+    public int[] edges() {
+        return this.edges;
+    }
+
+    /**
+     * Returns the total weight of the edges in the forest. It is a long, so the sum of many int
+     * weights cannot overflow.
+     *
+     * @return the total weight
+     */
+    public long weight() {
+        return this.weight;
+    }
+
+    /**
+     * Returns the number of connected components of the graph, each spanned by one tree.
+     *
+     * @return the number of components
+     */
+    public int componentCount() {
+        return this.components;
+    }
+
+    /**
+     * Checks whether the graph is connected, so that the forest is a single spanning tree.
+     *
+     * @return true if there is one component, or none for an empty graph
+     */
+    public boolean isSpanningTree() {
+        return this.components <= 1;
+    }
+}
@@ -1,5 +1,7 @@
 package io.esoma.cbj.algo;
 
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Class for implementing a 3-way string (quick) sort. The idea is to do a 3-way partition on the
  * leading character of the keys, dividing all strings into a "greater than", a "less than", and an
@@ -28,6 +30,83 @@ public class ThreeWayStringSort {
         return array;
     }
 
+    /**
+     * Sorts the input strings in their natural ordering with an MSD radix sort. Every char is
+     * examined as two byte digits, and the work is kept on an explicit stack, so long common
+     * prefixes such as URLs neither recurse nor overflow the stack. Small groups of strings are
+     * handed to a three-way partition on a single digit. The sort is performed in place, using one
+     * auxiliary array of the same length.
+     *
+     * @param array the array to sort, must not contain null
+     * @return the same input array after in-place sort
+     */
+    public static String[] radixSort(String[] array) {
+        if (array == null || array.length < 1) {
+            return array;
+        }
+
+        MsdRadixSort.sort(array, MsdRadixSort.UTF16);
+        return array;
+    }
+
+    /**
+     * Sorts byte string keys, such as UTF-8 encoded text, in unsigned lexicographic order with the
+     * same MSD radix sort as {@link #radixSort(String[])}. For UTF-8 keys this is the order of code
+     * points, which differs from the natural ordering of strings only for characters outside the
+     * Basic Multilingual Plane.
+     *
+     * @param array the array to sort, must not contain null
+     * @return the same input array after in-place sort
+     */
+    public static byte[][] radixSort(byte[][] array) {
+        if (array == null || array.length < 1) {
+            return array;
+        }
+
+        MsdRadixSort.sort(array, MsdRadixSort.BYTES);
+        return array;
+    }
+
+    /**
+     * Performs the same sort as {@link #radixSort(String[])}, but the buckets created by the top
+     * levels of the radix sort are sorted concurrently by the given pool.
+     *
+     * @param array the array to sort, must not contain null
+     * @param pool the pool to run the sorting tasks
+     * @return the same input array after in-place sort
+     */
+    public static String[] parallelRadixSort(String[] array, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        if (array == null || array.length < 1) {
+            return array;
+        }
+
+        MsdRadixSort.parallelSort(array, MsdRadixSort.UTF16, pool);
+        return array;
+    }
+
+    /**
+     * Performs the same sort as {@link #radixSort(byte[][])}, but the buckets created by the top
+     * levels of the radix sort are sorted concurrently by the given pool.
+     *
+     * @param array the array to sort, must not contain null
+     * @param pool the pool to run the sorting tasks
+     * @return the same input array after in-place sort
+     */
+    public static byte[][] parallelRadixSort(byte[][] array, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        if (array == null || array.length < 1) {
+            return array;
+        }
+
+        MsdRadixSort.parallelSort(array, MsdRadixSort.BYTES, pool);
+        return array;
+    }
+
     /**
      * Partitions the subarray based on the specified range at the specified character position. The
      * specified subarray will be rearranged into three parts, and this is recursively called on
@@ -44,8 +123,8 @@ public class ThreeWayStringSort {
             return;
         }
 
-        Character pivot = choosePivot(array, start, end, pos);
-        if (pivot == null) {
+        int pivot = choosePivot(array, start, end, pos);
+        if (pivot < 0) {
             // No more character to examine. All strings are equal in this subarray.
             return;
         }
@@ -119,9 +198,9 @@ public class ThreeWayStringSort {
      * @param start the first index
      * @param end the last index (exclusive)
      * @param pos the character position to check
-     * @return the chosen pivot character, or null if no string has more characters
+     * @return the chosen pivot character, or -1 if no string has more characters
      */
-    private static Character choosePivot(String[] array, int start, int end, int pos) {
+    private static int choosePivot(String[] array, int start, int end, int pos) {
         for (int i = start; i < end; ++i) {
             String str = array[i];
             if (pos >= str.length()) {
@@ -130,7 +209,7 @@ public class ThreeWayStringSort {
             return str.charAt(pos);
         }
 
-        return null;
+        return -1;
     }
 
     private static void swap(String[] array, int index1, int index2) {
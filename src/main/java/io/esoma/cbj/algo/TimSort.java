@@ -3,8 +3,11 @@ package io.esoma.cbj.algo;
 import io.esoma.cbj.core.ArrayCore;
 import io.esoma.cbj.core.BinaryInsertionSort;
 import io.esoma.cbj.core.BinarySearch;
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntBinaryOperator;
 
 /**
  * Class for implementing the Timsort algorithm. Timsort is a hybrid stable sorting algorithm,
@@ -28,17 +31,48 @@ public class TimSort {
     // A high number can be set to disable galloping.
     private static final int MIN_GALLOP_INIT = 7;
     private static final boolean ENABLE_GALLOP = true;
+    // Chunks at or below this length are sorted sequentially by the parallel sort.
+    private static final int MIN_PARALLEL_CHUNK = 1 << 13;
+    // Initial capacities of the run stack and the merge buffer. Both grow on demand.
+    private static final int INIT_STACK_SIZE = 40;
+    private static final int INIT_TEMP_SIZE = 256;
+    // Pooled sorters drop merge buffers larger than this after a call (in ints), so that a single
+    // huge sort does not pin its scratch memory to the thread forever.
+    private static final int MAX_POOLED_TEMP_SIZE = 1 << 17;
+    private static final int[] EMPTY_TEMP = new int[0];
+
+    // Each thread sorts with its own sorter so that concurrent calls never share the
+    // merge state below. The sorter is reused across calls on the same thread.
+    private static final ThreadLocal<TimSort> SORTERS = ThreadLocal.withInitial(TimSort::new);
+    private static final ThreadLocal<LongTimSort> LONG_SORTERS = ThreadLocal.withInitial(LongTimSort::new);
+    private static final ThreadLocal<IndirectTimSort> INDIRECT_SORTERS = ThreadLocal.withInitial(IndirectTimSort::new);
 
     // This keeps track of the ideal galloping threshold which adapts appropriately
     // based on the data for each sorting case.
-    private static int minGallop = MIN_GALLOP_INIT;
+    private int minGallop = MIN_GALLOP_INIT;
     // This controls the merge mode.
-    private static boolean gallopMode = false;
-    // The stack of runs
-    private static Deque<Run> runStack = null;
+    private boolean gallopMode = false;
+    // The stack of runs kept as parallel arrays of base indices and lengths.
+    private int[] runBase = new int[INIT_STACK_SIZE];
+    private int[] runLen = new int[INIT_STACK_SIZE];
+    private int stackSize = 0;
+    // Scratch memory for merging, reused across merges and calls.
+    private int[] temp = EMPTY_TEMP;
 
     private TimSort() {}
 
+    /**
+     * Creates a sorter that owns its run stack and merge buffer. Repeated calls to {@link
+     * #sortArray(int[])} on the same sorter reuse both, so once the buffer has grown to fit the
+     * largest merge, sorting allocates no memory at all. Unlike {@link #sort(int[])}, the buffer is
+     * never shrunk. A sorter must not be used by more than one thread at the same time.
+     *
+     * @return a new sorter
+     */
+    public static TimSort newSorter() {
+        return new TimSort();
+    }
+
     /**
      * Performs the standard Timsort for the given array. The array is theoretically sorted in-place
      * but a reference is also returned. Galloping is enabled when appropriate for the merging
@@ -47,17 +81,208 @@ public class TimSort {
      * necessarily faster than other optimized sorts. Binary insertion sort is leveraged for sorting
      * small data sets.
      *
+     * <p>This method is thread-safe. All merge state lives in a sorter that is private to the
+     * calling thread, so concurrent sorts of different arrays do not interfere with each other. The
+     * sorter keeps its run stack and a moderately sized merge buffer between calls, so sorting
+     * small and medium arrays does not allocate in the steady state.
+     *
      * @param array the input array
      * @return the sorted array
      */
     public static int[] sort(int[] array) {
-        // Initialize parameters and the run stack.
+        TimSort sorter = SORTERS.get();
+        sorter.sortArray(array);
+        sorter.trimTemp();
+        return array;
+    }
+
+    /**
+     * Performs the standard Timsort for the given {@code long} array in-place. It behaves exactly
+     * like {@link #sort(int[])}, including thread-safety and buffer reuse.
+     *
+     * @param array the input array
+     * @return the sorted array
+     */
+    public static long[] sort(long[] array) {
+        LongTimSort sorter = LONG_SORTERS.get();
+        sorter.sort(array, 0, array.length - 1);
+        sorter.trimTemp();
+        return array;
+    }
+
+    /**
+     * Performs the standard Timsort for the given {@code double} array in-place. It behaves exactly
+     * like {@link #sort(int[])}, including thread-safety and buffer reuse. Values are ordered as by
+     * {@link Double#compare(double, double)}, so {@code -0.0} comes before {@code 0.0} and NaN
+     * values are placed last. The values are mapped to longs with the same order in a per-thread
+     * buffer, sorted as longs and mapped back, so every NaN comes out as the canonical NaN. Like
+     * the merge buffer, the long buffer is only kept for arrays of up to 2^17 elements, and larger
+     * arrays allocate one for the call.
+     *
+     * @param array the input array
+     * @return the sorted array
+     */
+    public static double[] sort(double[] array) {
+        LongTimSort sorter = LONG_SORTERS.get();
+        long[] bits = sorter.bitsBuffer(array.length);
+        for (int i = 0; i < array.length; ++i) {
+            bits[i] = sortableBits(array[i]);
+        }
+        sorter.sort(bits, 0, array.length - 1);
+        for (int i = 0; i < array.length; ++i) {
+            // The transform is its own inverse.
+            array[i] = Double.longBitsToDouble(sortableBits(bits[i]));
+        }
+        sorter.trimTemp();
+        return array;
+    }
+
+    /**
+     * Performs the standard Timsort for the given object array in-place, ordered by the comparator.
+     * The sort is stable, so records already ordered by one field can be sorted by another without
+     * a compound comparator.
+     *
+     * @param array the input array
+     * @param cmp the comparator to order the elements
+     * @param <T> the type of the elements
+     * @return the sorted array
+     */
+    public static <T> T[] sort(T[] array, Comparator<? super T> cmp) {
+        if (cmp == null) {
+            throw new IllegalArgumentException("Comparator must not be null");
+        }
+
+        new ObjectTimSort<T>(cmp).sort(array, 0, array.length - 1);
+        return array;
+    }
+
+    /**
+     * Sorts a permutation of row indices by an {@code int} key column, which is the indirect mode
+     * for columnar data. Every element of the permutation must be a valid index of the keys. The
+     * keys are never moved or boxed, and the sort is stable, so rows with equal keys keep their
+     * order in the permutation. Applying the sorted permutation to other columns of the same rows
+     * orders them all by this key.
+     *
+     * @param perm the permutation to sort, typically {@code 0} to {@code n - 1} initially
+     * @param keys the key column
+     * @return the sorted permutation
+     */
+    public static int[] sortIndirect(int[] perm, int[] keys) {
+        return sortIndirect(perm, (x, y) -> Integer.compare(keys[x], keys[y]));
+    }
+
+    /**
+     * Sorts a permutation of row indices by a {@code long} key column. See {@link
+     * #sortIndirect(int[], int[])} for details.
+     *
+     * @param perm the permutation to sort, typically {@code 0} to {@code n - 1} initially
+     * @param keys the key column
+     * @return the sorted permutation
+     */
+    public static int[] sortIndirect(int[] perm, long[] keys) {
+        return sortIndirect(perm, (x, y) -> Long.compare(keys[x], keys[y]));
+    }
+
+    /**
+     * Sorts a permutation of row indices by a {@code double} key column, ordered as by {@link
+     * Double#compare(double, double)}. See {@link #sortIndirect(int[], int[])} for details. The
+     * keys are compared as longs with the same order, which are kept in the same per-thread buffer
+     * as in {@link #sort(double[])}. The key column itself is not modified.
+     *
+     * @param perm the permutation to sort, typically {@code 0} to {@code n - 1} initially
+     * @param keys the key column
+     * @return the sorted permutation
+     */
+    public static int[] sortIndirect(int[] perm, double[] keys) {
+        LongTimSort bitsOwner = LONG_SORTERS.get();
+        long[] bits = bitsOwner.bitsBuffer(keys.length);
+        for (int i = 0; i < keys.length; ++i) {
+            bits[i] = sortableBits(keys[i]);
+        }
+        sortIndirect(perm, bits);
+        bitsOwner.trimTemp();
+        return perm;
+    }
+
+    /**
+     * Maps a double to a long whose signed order is the order of {@link Double#compare(double,
+     * double)}. All but the sign bit of negative values are flipped, which reverses their order and
+     * keeps them below the positive ones. NaN values are first collapsed to the canonical NaN,
+     * which then sorts above positive infinity. Applying the same flip to the result restores the
+     * bits.
+     */
+    private static long sortableBits(double d) {
+        return sortableBits(Double.doubleToLongBits(d));
+    }
+
+    private static long sortableBits(long bits) {
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    private static int[] sortIndirect(int[] perm, IntBinaryOperator cmp) {
+        IndirectTimSort sorter = INDIRECT_SORTERS.get();
+        sorter.sort(perm, 0, perm.length - 1, cmp);
+        sorter.trimTemp();
+        return perm;
+    }
+
+    /**
+     * Performs a parallel Timsort for the given array with the tasks executed by the given pool.
+     * The array is divided into chunks which are sorted concurrently with the standard sequential
+     * algorithm, so natural runs inside each chunk are detected and extended exactly as in {@link
+     * #sort(int[])}. Sorted neighbors are then merged pairwise in a merge tree whose merges on the
+     * same level also run concurrently. Each merge uses the same trimming and galloping logic as
+     * the sequential sort, so chunks that are already in order relative to each other cost only two
+     * binary searches. The sort is stable, and small arrays are sorted sequentially.
+     *
+     * @param array the input array
+     * @param pool the pool to run the sorting tasks
+     * @return the sorted array
+     */
+    public static int[] parallelSort(int[] array, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+
         int n = array.length;
+        // Aim for a few chunks per worker so that uneven chunks can be balanced by stealing.
+        int chunk = Math.max(MIN_PARALLEL_CHUNK, n / (pool.getParallelism() << 2));
+        if (n <= chunk) {
+            return sort(array);
+        }
+
+        pool.invoke(new SortTask(array, 0, n - 1, chunk));
+        return array;
+    }
+
+    /**
+     * Performs the sort with the state of this sorter. The state is reset at the start so that a
+     * sorter can be reused for any number of calls.
+     *
+     * @param array the input array
+     * @return the sorted array
+     */
+    public int[] sortArray(int[] array) {
+        sortRange(array, 0, array.length - 1);
+        return array;
+    }
+
+    /**
+     * Sorts the elements within the bounds of the array. Elements outside of the bounds are not
+     * touched. The state is reset at the start.
+     *
+     * @param array the input array
+     * @param bin the left bound
+     * @param end the right bound
+     */
+    private void sortRange(int[] array, int bin, int end) {
+        // Initialize parameters and the run stack.
         minGallop = MIN_GALLOP_INIT;
-        runStack = new ArrayDeque<>();
+        gallopMode = false;
+        stackSize = 0;
 
         // The minimum length of a run will be calculated at the start of the algorithm.
-        int minRun = calcMinRun(n);
+        int minRun = calcMinRun(end - bin + 1);
 
         // This flag controls whether we create a new run.
         boolean newRun = true;
@@ -68,13 +293,13 @@ public class TimSort {
         boolean asc = true;
 
         // The main loop for collecting runs.
-        for (int i = 0; i < n; ++i) {
+        for (int i = bin; i <= end; ++i) {
             if (newRun) {
                 newRun = false;
                 lb = i;
                 // If only one element remains, we push it to the stack.
-                if (i == n - 1) {
-                    runStack.push(new Run(i, i));
+                if (i == end) {
+                    pushRun(i, 1);
                     break;
                 } else {
                     // A run has at least a length of 2, we will decide the order.
@@ -97,22 +322,22 @@ public class TimSort {
                         --i;
                     } else {
                         // Collect more elements
-                        rb = Math.min(n - 1, lb + minRun - 1);
+                        rb = Math.min(end, lb + minRun - 1);
                         BinaryInsertionSort.sortOnline(array, lb, rb, i);
                         i = rb;
                     }
                     // Push the natural or crafted run.
-                    runStack.push(new Run(lb, rb));
+                    pushRun(lb, rb - lb + 1);
                     newRun = true;
                 }
             }
 
             // Check for end of array and push the last run.
-            if (i == n - 1 && !newRun) {
+            if (i == end && !newRun) {
                 if (!asc) {
                     ArrayCore.reverseInt(array, lb, rb);
                 }
-                runStack.push(new Run(lb, rb));
+                pushRun(lb, rb - lb + 1);
             }
 
             // Check merging condition if a new run is added.
@@ -124,69 +349,92 @@ public class TimSort {
         // Once the main loop ends, all runs have been collected. Force merging will
         // start.
         mergeCollapse(array, true);
+    }
 
-        return array;
+    /**
+     * Pushes a new run onto the run stack, growing the stack if it is full.
+     *
+     * @param base the starting index of the run
+     * @param len the length of the run
+     */
+    private void pushRun(int base, int len) {
+        if (stackSize == runBase.length) {
+            runBase = Arrays.copyOf(runBase, stackSize << 1);
+            runLen = Arrays.copyOf(runLen, stackSize << 1);
+        }
+        runBase[stackSize] = base;
+        runLen[stackSize] = len;
+        ++stackSize;
     }
 
     /**
-     * Checks the merge condition and merges the top runs in the stack if necessary. It is recursive
-     * until the merge condition is no longer satisfied, or the stack size is less than 3. Force
-     * merging will be used at the end of the sorting process.
+     * Checks the merge condition and merges the top runs in the stack if necessary. It repeats
+     * until the merge condition is no longer satisfied, or only one run is left. Force merging will
+     * be used at the end of the sorting process.
      *
      * @param array the input array
      * @param force whether to ignore the merge condition
      */
-    private static void mergeCollapse(int[] array, boolean force) {
-        if (runStack.size() < 2) {
-            return;
-        }
-
-        Run lRun;
-        Run rRun;
-
-        if (runStack.size() == 2 && force) {
-            rRun = runStack.pop();
-            lRun = runStack.pop();
-        } else if (runStack.size() > 2) {
-            // Load the top three runs and check the merge condition.
-            Run c = runStack.pop();
-            Run b = runStack.pop();
-            Run a = runStack.pop();
-            // Two invariants specified by the author.
-            if ((b.getLen() > c.getLen() && a.getLen() > (b.getLen() + c.getLen())) && !force) {
-                // Return the runs to the stack.
-                runStack.push(a);
-                runStack.push(b);
-                runStack.push(c);
+    private void mergeCollapse(int[] array, boolean force) {
+        while (stackSize > 1) {
+            // Index of the lower of the top two runs.
+            int n = stackSize - 2;
+            if (force) {
+                // Merge the smaller neighbor into the middle run.
+                if (n > 0 && runLen[n - 1] < runLen[n + 1]) {
+                    --n;
+                }
+            } else if ((n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1])
+                    || (n > 1 && runLen[n - 2] <= runLen[n - 1] + runLen[n])) {
+                // The invariants specified by the author are violated. The fourth run is also
+                // checked since restoring them for the top three alone is not enough.
+                if (runLen[n - 1] < runLen[n + 1]) {
+                    --n;
+                }
+            } else if (runLen[n] > runLen[n + 1]) {
+                // The lower run must stay longer than the upper one, otherwise the upper run keeps
+                // absorbing new runs while the lower one never merges, which is quadratic.
                 return;
             }
+            mergeAt(array, n);
+        }
+    }
 
-            // Merge is needed.
-            if (c.getLen() > a.getLen()) {
-                // Merge a and b.
-                lRun = a;
-                rRun = b;
-                runStack.push(new Run(a.getLb(), b.getRb()));
-                runStack.push(c);
-            } else {
-                // Merge b and c.
-                lRun = b;
-                rRun = c;
-                runStack.push(a);
-                runStack.push(new Run(b.getLb(), c.getRb()));
-            }
-        } else {
-            // Only 2 runs in the stack while in the process.
-            return;
+    /**
+     * Merges the run at the given stack index with the run above it and updates the stack.
+     *
+     * @param array the input array
+     * @param n the stack index of the lower run
+     */
+    private void mergeAt(int[] array, int n) {
+        int lBin = runBase[n];
+        int lLen = runLen[n];
+        int rBin = runBase[n + 1];
+        int rLen = runLen[n + 1];
+
+        runLen[n] = lLen + rLen;
+        if (n == stackSize - 3) {
+            // The top run slides down when the two below it are merged.
+            runBase[n + 1] = runBase[n + 2];
+            runLen[n + 1] = runLen[n + 2];
         }
+        --stackSize;
 
-        // Further shrink the merging size by searching for elements already suited in
-        // the right place on both runs.
-        int lBin = lRun.getLb();
-        int lEnd = lRun.getRb();
-        int rBin = rRun.getLb();
-        int rEnd = rRun.getRb();
+        mergeRuns(array, lBin, lBin + lLen - 1, rBin, rBin + rLen - 1);
+    }
 
+    /**
+     * Merges two adjacent sorted runs. The merging size is first shrunk by searching for elements
+     * already suited in the right place on both runs, and the shorter remainder decides the merge
+     * direction.
+     *
+     * @param array the input array
+     * @param lBin the left bound of the left run
+     * @param lEnd the right bound of the left run
+     * @param rBin the left bound of the right run
+     * @param rEnd the right bound of the right run
+     */
+    private void mergeRuns(int[] array, int lBin, int lEnd, int rBin, int rEnd) {
         // New bounds after binary search.
         int nlb = BinarySearch.searchIntRight(array, array[rBin], lBin, lEnd);
         int nrb = BinarySearch.searchIntLeft(array, array[lEnd], rBin, rEnd) - 1;
@@ -201,9 +449,6 @@ public class TimSort {
             // Merge starts from the higher end.
             mergeHi(array, nlb, nrb, rBin);
         }
-
-        // Recursively call until no longer needed.
-        mergeCollapse(array, force);
     }
 
     /**
@@ -215,9 +460,11 @@ public class TimSort {
      * @param end the ending index
      * @param mid the ending index of the left run
      */
-    private static void mergeLo(int[] array, int bin, int end, int mid) {
+    private void mergeLo(int[] array, int bin, int end, int mid) {
         // Copy the left run into temporary memory.
-        int[] tempL = ArrayCore.copyInt(array, bin, mid);
+        int lLen = mid - bin + 1;
+        int[] tempL = ensureTemp(lLen, array.length);
+        System.arraycopy(array, bin, tempL, 0, lLen);
         // Index pointers.
         int lp = 0;
         int rp = mid + 1;
@@ -230,7 +477,7 @@ public class TimSort {
         boolean badGallop = false;
 
         for (int i = bin; i <= end; ++i) {
-            if (lp >= tempL.length) {
+            if (lp >= lLen) {
                 array[i] = array[rp];
                 ++rp;
             } else if (rp > end) {
@@ -276,7 +523,7 @@ public class TimSort {
                         ++lp;
                     } else {
                         // Right search.
-                        int lrp = BinarySearch.searchIntRight(tempL, re, lp, tempL.length - 1);
+                        int lrp = BinarySearch.searchIntRight(tempL, re, lp, lLen - 1);
                         gp = lrp - lp;
                         while (lp < lrp) {
                             array[i] = tempL[lp];
@@ -316,11 +563,13 @@ public class TimSort {
      * @param end the ending index
      * @param mid the ending index of the right run
      */
-    private static void mergeHi(int[] array, int bin, int end, int mid) {
-        // Copy the left run into temporary memory.
-        int[] tempR = ArrayCore.copyInt(array, mid, end);
+    private void mergeHi(int[] array, int bin, int end, int mid) {
+        // Copy the right run into temporary memory.
+        int rLen = end - mid + 1;
+        int[] tempR = ensureTemp(rLen, array.length);
+        System.arraycopy(array, mid, tempR, 0, rLen);
 
-        int rp = tempR.length - 1;
+        int rp = rLen - 1;
         int lp = mid - 1;
 
         int streak = 0;
@@ -400,6 +649,31 @@ public class TimSort {
         }
     }
 
+    /**
+     * Returns the merge buffer with at least the given capacity. The buffer grows geometrically but
+     * never beyond half of the array being sorted (the largest merge that can occur), unless more
+     * is required.
+     *
+     * @param minCapacity the required capacity
+     * @param n the length of the array being sorted
+     * @return the merge buffer
+     */
+    private int[] ensureTemp(int minCapacity, int n) {
+        if (temp.length < minCapacity) {
+            int newSize = Math.max(INIT_TEMP_SIZE, temp.length << 1);
+            newSize = Math.max(minCapacity, Math.min(newSize, n >>> 1));
+            temp = new int[newSize];
+        }
+        return temp;
+    }
+
+    /** Drops the merge buffer of a pooled sorter if it has grown too large to keep. */
+    private void trimTemp() {
+        if (temp.length > MAX_POOLED_TEMP_SIZE) {
+            temp = EMPTY_TEMP;
+        }
+    }
+
     /**
      * Calculates the min_run based on the array length. The goal is to achieve balanced merges at
      * the end (especially for random data).
@@ -429,33 +703,47 @@ public class TimSort {
 
         return n;
     }
-}
-
-/**
- * Simple data structure for storing the runs for Timsort.
- *
- * @author Eddy Soma
- */
-class Run {
-
-    // We store the starting and ending indices in the original array.
-    private final int lb;
-    private final int rb;
-
-    public Run(int lb, int rb) {
-        this.lb = lb;
-        this.rb = rb;
-    }
 
-    public int getLb() {
-        return lb;
-    }
+    /**
+     * Fork-join task of the parallel sort. A task either sorts its range directly, or splits it in
+     * half, sorts both halves concurrently and merges them with the sorter of the current thread.
+     */
+    private static final class SortTask extends RecursiveAction {
+
+        private final int[] array;
+        private final int bin;
+        private final int end;
+        private final int chunk;
+
+        SortTask(int[] array, int bin, int end, int chunk) {
+            this.array = array;
+            this.bin = bin;
+            this.end = end;
+            this.chunk = chunk;
+        }
 
-    public int getRb() {
-        return rb;
-    }
+        @Override
+        protected void compute() {
+            if (end - bin + 1 <= chunk) {
+                TimSort sorter = SORTERS.get();
+                sorter.sortRange(array, bin, end);
+                sorter.trimTemp();
+                return;
+            }
 
-    public int getLen() {
-        return this.rb - this.lb + 1;
+            int mid = (bin + end) >>> 1;
+            SortTask left = new SortTask(array, bin, mid, chunk);
+            left.fork();
+            new SortTask(array, mid + 1, end, chunk).compute();
+            left.join();
+
+            // The sorter is fetched only after joining, and no task is forked while merging, so
+            // it is never shared with a stolen task on the same thread.
+            TimSort sorter = SORTERS.get();
+            sorter.minGallop = MIN_GALLOP_INIT;
+            sorter.gallopMode = false;
+            sorter.mergeRuns(array, bin, mid, mid + 1, end);
+            sorter.trimTemp();
+        }
     }
 }
@@ -0,0 +1,59 @@
+package io.esoma.cbj.algo;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * GCD loops written with the incubating vector API, which runs the binary GCD algorithm on a full
+ * vector of pairs at a time. This class must only be loaded when the {@code jdk.incubator.vector}
+ * module is present, so it is reached exclusively through {@link GreatestCommonDivisor}.
+ *
+ * @author Eddy Soma
+ */
+final class VectorizedGcd {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private VectorizedGcd() {}
+
+    /**
+     * Computes the GCD of every pair of elements as {@link GreatestCommonDivisor#gcd(int, int)}
+     * does. Every lane follows the same steps as the scalar loop, and lanes that are done are
+     * masked out until the slowest lane of the vector is done too. The tail that does not fill a
+     * vector is computed by the scalar loop.
+     *
+     * @param a the first elements
+     * @param b the second elements
+     * @param out the output array, which may be one of the inputs
+     * @param len the number of pairs
+     */
+    static void gcdAll(int[] a, int[] b, int[] out, int len) {
+        int i = 0;
+        int bound = SPECIES.loopBound(len);
+        for (; i < bound; i += SPECIES.length()) {
+            IntVector x = IntVector.fromArray(SPECIES, a, i).abs();
+            IntVector y = IntVector.fromArray(SPECIES, b, i).abs();
+            VectorMask<Integer> zero = x.eq(0).or(y.eq(0));
+            // Lanes with a zero run on ones and are cleared at the end, so they finish at once.
+            x = x.blend(1, zero);
+            y = y.blend(1, zero);
+            IntVector shift = x.or(y).lanewise(VectorOperators.TRAILING_ZEROS_COUNT);
+            x = x.lanewise(VectorOperators.LSHR, x.lanewise(VectorOperators.TRAILING_ZEROS_COUNT));
+
+            VectorMask<Integer> active = y.compare(VectorOperators.NE, 0);
+            while (active.anyTrue()) {
+                y = y.lanewise(VectorOperators.LSHR, y.lanewise(VectorOperators.TRAILING_ZEROS_COUNT));
+                IntVector d = y.sub(x);
+                x = x.blend(x.min(y), active);
+                y = y.blend(d.abs(), active);
+                active = y.compare(VectorOperators.NE, 0);
+            }
+            x.lanewise(VectorOperators.LSHL, shift).blend(0, zero).intoArray(out, i);
+        }
+        for (; i < len; ++i) {
+            out[i] = GreatestCommonDivisor.gcd(a[i], b[i]);
+        }
+    }
+}
@@ -8,6 +8,11 @@ package io.esoma.cbj.core;
  */
 public class ArrayCore {
 
+    // The vector API is an incubator module that is only resolved when requested on the command
+    // line with --add-modules jdk.incubator.vector.
+    private static final boolean VECTOR_API =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
     private ArrayCore() {}
 
     /**
@@ -30,6 +35,33 @@ public class ArrayCore {
         return -1;
     }
 
+    /**
+     * Performs the same search as {@link #linearSearchInt(int[], int, int, int)}, but compares
+     * several elements at once with SIMD instructions when the {@code jdk.incubator.vector} module
+     * is available. Otherwise, this is the scalar search.
+     *
+     * @param array the array to search
+     * @param target the value to search
+     * @param bin the left bound
+     * @param end the right bound
+     * @return the index of the first occurrence of the target in the array, or -1 if none if found
+     */
+    public static int linearSearchIntSimd(int[] array, int target, int bin, int end) {
+        if (VECTOR_API) {
+            return VectorizedSearch.linearSearchInt(array, target, bin, end);
+        }
+        return linearSearchInt(array, target, bin, end);
+    }
+
+    /**
+     * Checks whether the SIMD variants of the methods of this class are backed by the vector API.
+     *
+     * @return true if the {@code jdk.incubator.vector} module is available
+     */
+    public static boolean isVectorized() {
+        return VECTOR_API;
+    }
+
     /**
      * Reverses the integer array. Reversal is done in the obvious pair swapping fashion and is
      * in-place. However, a reference of the array is still returned. Elements outside of the
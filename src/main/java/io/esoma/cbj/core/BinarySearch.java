@@ -1,5 +1,8 @@
 package io.esoma.cbj.core;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * Class for implementing the binary search algorithm. Binary search is a search algorithm that
  * finds the position of a target value within a sorted array. Binary search compares the target
@@ -12,6 +15,9 @@ package io.esoma.cbj.core;
  */
 public class BinarySearch {
 
+    // Probe sets of at most this length are not split further by the parallel search.
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
     private BinarySearch() {}
 
     /**
@@ -99,4 +105,173 @@ public class BinarySearch {
 
         return array[bin] <= target ? bin + 1 : bin;
     }
+
+    /**
+     * Performs a branchless binary search and returns the index of the search target in a sorted
+     * array. If not found, -1 is returned. Unlike {@link #searchInt(int[], int)}, the leftmost
+     * index is returned when multiple targets exist.
+     *
+     * @param array the integer array to search, ascending order is assumed
+     * @param target the value to search
+     * @return the target's leftmost index or -1 if not existent
+     */
+    public static int searchIntBranchless(int[] array, int target) {
+        if (array.length == 0) {
+            return -1;
+        }
+        int i = searchIntLeftBranchless(array, target, 0, array.length - 1);
+        return i < array.length && array[i] == target ? i : -1;
+    }
+
+    /**
+     * Returns the same index as {@link #searchIntLeft(int[], int, int, int)} without a
+     * data-dependent branch in the loop. The remaining range only ever shrinks by half from the
+     * top, and whether its base moves up is a conditional move rather than a jump, so the loop runs
+     * the same number of iterations for every target and never mispredicts. This is faster on small
+     * to medium arrays, where branch mispredictions rather than cache misses dominate.
+     *
+     * @param array an integer array of ascending order
+     * @param target the value to search
+     * @param bin the left bound
+     * @param end the right bound
+     * @return an imaginary index for the target to be inserted as the leftmost element of its
+     *     duplicates
+     */
+    public static int searchIntLeftBranchless(int[] array, int target, int bin, int end) {
+        int base = bin;
+        int len = end - bin + 1;
+        while (len > 1) {
+            int half = len >>> 1;
+            // The sign of the widened difference is 1 exactly when the probe is less than the
+            // target. The answer stays within [base, base + len] either way.
+            base += half * (int) (((long) array[base + half] - target) >>> 63);
+            len -= half;
+        }
+
+        return array[base] < target ? base + 1 : base;
+    }
+
+    /**
+     * Returns the same index as {@link #searchIntLeft(int[], int, int, int)}, but finds it by
+     * galloping from the left bound: the elements at distances 1, 3, 7, 15 and so on are checked
+     * until one is not less than the target, and only the last gap is binary searched. This takes
+     * O(log d) comparisons for an answer at distance d from the left bound, which is much cheaper
+     * than a full binary search when the answer is expected to be close.
+     *
+     * @param array an integer array of ascending order
+     * @param target the value to search
+     * @param bin the left bound
+     * @param end the right bound
+     * @return an imaginary index for the target to be inserted as the leftmost element of its
+     *     duplicates
+     */
+    public static int gallopIntLeft(int[] array, int target, int bin, int end) {
+        if (bin > end || array[bin] >= target) {
+            return bin;
+        }
+
+        // Invariant: array[last] < target. The step is a long so that doubling cannot overflow.
+        int last = bin;
+        long step = 1;
+        while (bin + step <= end && array[(int) (bin + step)] < target) {
+            last = (int) (bin + step);
+            step = step * 2 + 1;
+        }
+        if (last == end) {
+            return end + 1;
+        }
+
+        return searchIntLeft(array, target, last + 1, (int) Math.min(bin + step, end));
+    }
+
+    /**
+     * Looks up many targets in a sorted array at once. Since the probes are sorted too, every
+     * search gallops from the position where the previous one ended instead of starting over, so
+     * the total cost is O(m log(n / m)) for m probes rather than O(m log n), and the array is read
+     * front to back in a cache-friendly order.
+     *
+     * @param array the integer array to search, ascending order is assumed
+     * @param sortedProbes the values to search, must be in ascending order
+     * @return for every probe, its leftmost index in the array or -1 if not existent
+     */
+    public static int[] searchAll(int[] array, int[] sortedProbes) {
+        int[] found = new int[sortedProbes.length];
+        searchRange(array, sortedProbes, 0, sortedProbes.length, found);
+        return found;
+    }
+
+    /**
+     * Performs the same lookups as {@link #searchAll(int[], int[])}, but consecutive chunks of the
+     * probes are searched concurrently by the given pool. Each chunk starts with a full binary
+     * search and gallops from there.
+     *
+     * @param array the integer array to search, ascending order is assumed
+     * @param sortedProbes the values to search, must be in ascending order
+     * @param pool the pool to run the search tasks
+     * @return for every probe, its leftmost index in the array or -1 if not existent
+     */
+    public static int[] parallelSearchAll(int[] array, int[] sortedProbes, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+
+        int[] found = new int[sortedProbes.length];
+        pool.invoke(new SearchTask(array, sortedProbes, 0, sortedProbes.length, found));
+        return found;
+    }
+
+    /**
+     * Searches the probes between the given indices (exclusive end) and stores the results.
+     *
+     * @param array the array to search
+     * @param probes the sorted probes
+     * @param from the first probe to search
+     * @param to the end of the probes to search (exclusive)
+     * @param found the array to store the results
+     */
+    private static void searchRange(int[] array, int[] probes, int from, int to, int[] found) {
+        int n = array.length;
+        int cursor = 0;
+        for (int i = from; i < to; ++i) {
+            int probe = probes[i];
+            if (i > 0 && probe < probes[i - 1]) {
+                throw new IllegalArgumentException("Probes must be sorted");
+            }
+            if (i == from) {
+                cursor = n > 0 ? searchIntLeft(array, probe, 0, n - 1) : 0;
+            } else {
+                cursor = gallopIntLeft(array, probe, cursor, n - 1);
+            }
+            found[i] = cursor < n && array[cursor] == probe ? cursor : -1;
+        }
+    }
+
+    /** Task for searching a chunk of the probes, splitting it in halves while it is large. */
+    private static final class SearchTask extends RecursiveAction {
+
+        private final int[] array;
+        private final int[] probes;
+        private final int from;
+        private final int to;
+        private final int[] found;
+
+        SearchTask(int[] array, int[] probes, int from, int to, int[] found) {
+            this.array = array;
+            this.probes = probes;
+            this.from = from;
+            this.to = to;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                searchRange(array, probes, from, to, found);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new SearchTask(array, probes, from, mid, found), new SearchTask(array, probes, mid, to, found));
+        }
+    }
 }
@@ -0,0 +1,120 @@
+package io.esoma.cbj.core;
+
+/**
+ * Immutable search index over a sorted integer array that stores the keys in Eytzinger (breadth
+ * first) order. The root of the implicit search tree comes first, followed by the two nodes of the
+ * second level, then the four of the third, and so on, so the node at index k has its children at
+ * 2k and 2k + 1. A search walks down from the root, and the first few levels that every search
+ * visits share a handful of cache lines that stay hot. A plain binary search instead jumps across
+ * the whole array from the very first probe. The loop is also branchless, which makes this layout
+ * faster than {@link BinarySearch} on arrays that are probed many times, once they no longer fit in
+ * the L1 cache.
+ *
+ * <p>The index is built once in linear time from the sorted array, and it is safe to share between
+ * threads.
+ *
+ * @author Eddy Soma
+ */
+public final class EytzingerIndex {
+
+    // Larger trees would overflow the child index of the last level.
+    private static final int MAX_SIZE = (1 << 30) - 1;
+
+    // The keys in breadth first order, starting at index 1.
+    private final int[] tree;
+    // The index in the sorted array of every node, starting at index 1.
+    private final int[] rank;
+    private final int size;
+
+    /**
+     * Builds the index from an array of ascending order. The array is copied and can be modified
+     * afterwards without affecting the index.
+     *
+     * @param sorted an integer array of ascending order, with less than 2^30 elements
+     */
+    public EytzingerIndex(int[] sorted) {
+        if (sorted == null) {
+            throw new IllegalArgumentException("Array must not be null");
+        }
+        if (sorted.length > MAX_SIZE) {
+            throw new IllegalArgumentException("Array is too large");
+        }
+
+        size = sorted.length;
+        tree = new int[size + 1];
+        rank = new int[size + 1];
+        fill(sorted, 0, 1);
+    }
+
+    /**
+     * Fills the subtree rooted at node k with an in-order walk, which visits the nodes in sorted
+     * order. The recursion is only as deep as the tree.
+     *
+     * @param sorted the sorted source array
+     * @param i the index of the next element of the source array to place
+     * @param k the root of the subtree
+     * @return the index of the next element after the subtree
+     */
+    private int fill(int[] sorted, int i, int k) {
+        if (k <= size) {
+            i = fill(sorted, i, 2 * k);
+            tree[k] = sorted[i];
+            rank[k] = i++;
+            i = fill(sorted, i, 2 * k + 1);
+        }
+        return i;
+    }
+
+    /**
+     * Returns the number of keys in the index.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index in the sorted array of the first key that is not less than the target, or
+     * the size of the index if every key is less. This is the same index as {@link
+     * BinarySearch#searchIntLeft(int[], int, int, int)} over the whole sorted array.
+     *
+     * @param target the value to search
+     * @return the leftmost insertion index of the target in the sorted array
+     */
+    public int lowerBound(int target) {
+        int k = 1;
+        while (k <= size) {
+            k = 2 * k + (tree[k] < target ? 1 : 0);
+        }
+        // Every right turn after the last left turn is undone to find the node where it was taken.
+        k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+        return k == 0 ? size : rank[k];
+    }
+
+    /**
+     * Returns the index in the sorted array of the leftmost occurrence of the target, or -1 if it
+     * does not exist.
+     *
+     * @param target the value to search
+     * @return the target's leftmost index or -1 if not existent
+     */
+    public int indexOf(int target) {
+        int k = 1;
+        while (k <= size) {
+            k = 2 * k + (tree[k] < target ? 1 : 0);
+        }
+        k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+        return k != 0 && tree[k] == target ? rank[k] : -1;
+    }
+
+    /**
+     * Checks whether the target is one of the keys.
+     *
+     * @param target the value to search
+     * @return true if the target exists
+     */
+    public boolean contains(int target) {
+        return indexOf(target) >= 0;
+    }
+}
@@ -0,0 +1,137 @@
+package io.esoma.cbj.core;
+
+import java.util.Arrays;
+
+/**
+ * Utility class for combining sorted integer arrays as multisets. An element that occurs a times in
+ * one array and b times in the other occurs min(a, b) times in the intersection, max(a, b) times in
+ * the union, and max(a - b, 0) times in the difference, so the results of sets without duplicates
+ * are sets again. All results are sorted.
+ *
+ * <p>The arrays are merged in a single pass. When one array is much shorter than the other, the
+ * longer one is not scanned element by element; instead, each element of the shorter one gallops
+ * ahead in it with {@link BinarySearch#gallopIntLeft(int[], int, int, int)}.
+ *
+ * @author Eddy Soma
+ */
+public class SortedArrays {
+
+    // Galloping pays off once one array is this many times longer than the other.
+    private static final int GALLOP_RATIO = 16;
+
+    private SortedArrays() {}
+
+    /**
+     * Returns the elements that are contained in both arrays.
+     *
+     * @param a an integer array of ascending order
+     * @param b an integer array of ascending order
+     * @return the sorted intersection
+     */
+    public static int[] intersect(int[] a, int[] b) {
+        if (a.length > b.length) {
+            // Keep the shorter array in a.
+            int[] t = a;
+            a = b;
+            b = t;
+        }
+
+        int[] out = new int[a.length];
+        int k = 0;
+        if ((long) a.length * GALLOP_RATIO < b.length) {
+            int j = 0;
+            for (int i = 0; i < a.length && j < b.length; ++i) {
+                j = BinarySearch.gallopIntLeft(b, a[i], j, b.length - 1);
+                if (j < b.length && b[j] == a[i]) {
+                    out[k++] = a[i];
+                    // Every match consumes one copy from each side.
+                    ++j;
+                }
+            }
+            return Arrays.copyOf(out, k);
+        }
+
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            int x = a[i];
+            int y = b[j];
+            if (x < y) {
+                ++i;
+            } else if (x > y) {
+                ++j;
+            } else {
+                out[k++] = x;
+                ++i;
+                ++j;
+            }
+        }
+        return Arrays.copyOf(out, k);
+    }
+
+    /**
+     * Returns the elements that are contained in either array.
+     *
+     * @param a an integer array of ascending order
+     * @param b an integer array of ascending order
+     * @return the sorted union
+     */
+    public static int[] union(int[] a, int[] b) {
+        int[] out = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length && j < b.length) {
+            int x = a[i];
+            int y = b[j];
+            if (x < y) {
+                out[k++] = x;
+                ++i;
+            } else if (x > y) {
+                out[k++] = y;
+                ++j;
+            } else {
+                out[k++] = x;
+                ++i;
+                ++j;
+            }
+        }
+        // Copy the remaining tail of either array.
+        System.arraycopy(a, i, out, k, a.length - i);
+        k += a.length - i;
+        System.arraycopy(b, j, out, k, b.length - j);
+        k += b.length - j;
+        return k == out.length ? out : Arrays.copyOf(out, k);
+    }
+
+    /**
+     * Returns the elements of the first array that are not contained in the second one.
+     *
+     * @param a an integer array of ascending order
+     * @param b an integer array of ascending order, the elements to remove
+     * @return the sorted difference
+     */
+    public static int[] difference(int[] a, int[] b) {
+        int[] out = new int[a.length];
+        int k = 0;
+        int j = 0;
+        boolean gallop = (long) a.length * GALLOP_RATIO < b.length;
+        for (int i = 0; i < a.length; ++i) {
+            int x = a[i];
+            if (gallop) {
+                j = BinarySearch.gallopIntLeft(b, x, j, b.length - 1);
+            } else {
+                while (j < b.length && b[j] < x) {
+                    ++j;
+                }
+            }
+            if (j < b.length && b[j] == x) {
+                // Removed by one copy in the second array.
+                ++j;
+            } else {
+                out[k++] = x;
+            }
+        }
+        return Arrays.copyOf(out, k);
+    }
+}
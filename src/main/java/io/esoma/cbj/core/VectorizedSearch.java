@@ -0,0 +1,47 @@
+package io.esoma.cbj.core;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Search loops written with the incubating vector API, which compiles them to SIMD instructions of
+ * the widest width the CPU supports. This class must only be loaded when the {@code
+ * jdk.incubator.vector} module is present, so it is reached exclusively through {@link ArrayCore}.
+ *
+ * @author Eddy Soma
+ */
+final class VectorizedSearch {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private VectorizedSearch() {}
+
+    /**
+     * Compares a full vector of elements with the target at a time, and falls back to scalar
+     * comparisons for the tail that does not fill a vector.
+     *
+     * @param array the array to search
+     * @param target the value to search
+     * @param bin the left bound
+     * @param end the right bound
+     * @return the index of the first occurrence of the target in the array, or -1 if none is found
+     */
+    static int linearSearchInt(int[] array, int target, int bin, int end) {
+        int i = bin;
+        int bound = bin + SPECIES.loopBound(end - bin + 1);
+        for (; i < bound; i += SPECIES.length()) {
+            VectorMask<Integer> hits = IntVector.fromArray(SPECIES, array, i).eq(target);
+            if (hits.anyTrue()) {
+                return i + hits.firstTrue();
+            }
+        }
+        for (; i <= end; ++i) {
+            if (array[i] == target) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,304 @@
+package io.esoma.cbj.ds;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Class for implementing a thread-safe LRU (Least Recently Used) cache with the same contract as
+ * {@link LRUCache}: integer keys, non-null values of any type, and eviction of the least recently
+ * used entry once the cache is full.
+ *
+ * <p>The keys are hashed into segments, and every segment has its own LRU list and its own lock, so
+ * writes to different segments never contend. Lookups go through a concurrent map and never lock at
+ * all. Instead of moving the entry to the head of its list right away, a hit is recorded into a
+ * small lock-free ring buffer of its segment, and the buffered hits are replayed onto the list in a
+ * batch by whichever thread manages to take the lock, on the next write or once the buffer is half
+ * full. The buffer is lossy: a hit is dropped when the buffer is full or another reader wins the
+ * slot. Dropping a few hits of a popular entry barely changes its position, and it keeps a hit from
+ * ever waiting, which is the same trade that Caffeine makes.
+ *
+ * <p>The capacity is global. The number of entries is kept in one counter, and a write that takes
+ * it over the capacity evicts the least recently used entry of its own segment. Keys are spread
+ * evenly over the segments, so the segment tails are close to the global tail. The size only ever
+ * exceeds the capacity when a segment has no entry to give up but the new one, by at most one entry
+ * per segment, and there are at most capacity / 16 segments.
+ *
+ * @author Eddy Soma
+ */
+public class ConcurrentLRUCache<V> {
+
+    private static final int DEFAULT_CAPACITY = 20;
+    private static final int MAX_SEGMENTS = 1 << 16;
+    // The least number of entries per segment, which bounds the excess over the capacity.
+    private static final int MIN_SHARE = 16;
+    // The number of slots of every read buffer, a power of two.
+    private static final int BUFFER_SIZE = 64;
+    private static final int DRAIN_THRESHOLD = BUFFER_SIZE / 2;
+
+    private final int capacity;
+    private final ConcurrentHashMap<Integer, EntryNode<V>> internalMap;
+    private final Segment<V>[] segments;
+    private final int segmentMask;
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Constructs a new cache with the specified capacity, and four segments per available
+     * processor.
+     *
+     * @param capacity the limit of the cache size
+     */
+    public ConcurrentLRUCache(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Constructs a new cache with the specified capacity and number of segments. The number of
+     * segments is rounded up to a power of two, and down so that every segment has a fair share of
+     * at least 16 entries.
+     *
+     * @param capacity the limit of the cache size
+     * @param concurrency the number of segments, which bounds the number of concurrent writers
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLRUCache(int capacity, int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Invalid concurrency level");
+        }
+
+        this.capacity = capacity <= 0 ? DEFAULT_CAPACITY : capacity;
+        // Round up to a power of two, but leave every segment a fair share of the capacity.
+        int count = concurrency == 1 ? 1 : Integer.highestOneBit(Math.min(concurrency, MAX_SEGMENTS) - 1) << 1;
+        count = Math.min(count, Integer.highestOneBit(Math.max(1, this.capacity / MIN_SHARE)));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; ++i) {
+            this.segments[i] = new Segment<>();
+        }
+        this.segmentMask = count - 1;
+        this.internalMap = new ConcurrentHashMap<>(this.capacity + count, 0.75f, count);
+    }
+
+    /**
+     * Returns the capacity of the cache.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of entries in the cache. It may exceed the capacity by at most the number
+     * of segments, which is at most a sixteenth of the capacity.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return this.size.get();
+    }
+
+    /** Deletes all entries in the cache. Entries that are written concurrently may stay. */
+    public void clear() {
+        for (Segment<V> segment : this.segments) {
+            segment.lock.lock();
+            try {
+                segment.drain();
+                for (EntryNode<V> node = segment.head; node != null; node = node.next) {
+                    this.internalMap.remove(node.key, node);
+                    node.linked = false;
+                }
+                this.size.addAndGet(-segment.count);
+                segment.head = null;
+                segment.tail = null;
+                segment.count = 0;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Inserts a value into the cache identified by the specified key. If a key already exists, the
+     * old value will be replaced. Replacement counts as access. Exception is thrown if the provided
+     * value is null. Only the segment of the key is locked.
+     *
+     * @param key the key for storing the value
+     * @param value the associated value to store
+     * @return true if the key does not exist in the cache previously, or false if a replacement
+     *     occurs
+     */
+    public boolean put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null value is not permitted");
+        }
+
+        Segment<V> segment = this.segmentFor(key);
+        segment.lock.lock();
+        try {
+            // Replay the buffered hits first, so that the eviction below sees them.
+            segment.drain();
+            EntryNode<V> existingNode = this.internalMap.get(key);
+            if (existingNode != null) {
+                existingNode.value = value;
+                segment.makeHead(existingNode);
+                return false;
+            }
+
+            EntryNode<V> newNode = new EntryNode<>(key, value);
+            this.internalMap.put(key, newNode);
+            segment.addToHead(newNode);
+            this.size.incrementAndGet();
+            while (this.size.get() > this.capacity && segment.tail != newNode) {
+                EntryNode<V> victim = segment.cutTail();
+                this.internalMap.remove(victim.key, victim);
+                this.size.decrementAndGet();
+            }
+            return true;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Accesses the key and returns its value if it exists. The access is recorded without locking
+     * and the key is promoted as the most recently used key once the access is replayed. Null will
+     * be returned for non-existent keys.
+     *
+     * @param key the key to retrieve the value
+     * @return the associated value, or null if the key is not found in the cache
+     */
+    public V get(int key) {
+        EntryNode<V> node = this.internalMap.get(key);
+        if (node == null) {
+            return null;
+        }
+
+        Segment<V> segment = this.segmentFor(key);
+        if (segment.record(node) >= DRAIN_THRESHOLD && segment.lock.tryLock()) {
+            try {
+                segment.drain();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    private Segment<V> segmentFor(int key) {
+        int h = key * 0x9E3779B9;
+        return this.segments[(h ^ (h >>> 16)) & this.segmentMask];
+    }
+
+    /** A segment with its LRU list, guarded by its lock, and its buffer of pending hits. */
+    private static final class Segment<V> {
+
+        final ReentrantLock lock = new ReentrantLock();
+        final AtomicReferenceArray<EntryNode<V>> buffer = new AtomicReferenceArray<>(BUFFER_SIZE);
+        // Slots are claimed by moving the write counter, and freed by moving the read counter.
+        final AtomicLong writeCounter = new AtomicLong();
+        volatile long readCounter;
+
+        EntryNode<V> head;
+        EntryNode<V> tail;
+        int count;
+
+        /**
+         * Records a hit in a free slot of the buffer, or drops it if there is none or another
+         * reader claims the slot first.
+         *
+         * @return the number of pending hits
+         */
+        int record(EntryNode<V> node) {
+            long read = this.readCounter;
+            long write = this.writeCounter.get();
+            long pending = write - read;
+            if (pending < BUFFER_SIZE && this.writeCounter.compareAndSet(write, write + 1)) {
+                this.buffer.lazySet((int) write & (BUFFER_SIZE - 1), node);
+                ++pending;
+            }
+            return (int) pending;
+        }
+
+        /** Replays the pending hits in order. Must be called with the lock held. */
+        void drain() {
+            long read = this.readCounter;
+            long write = this.writeCounter.get();
+            for (; read < write; ++read) {
+                int slot = (int) read & (BUFFER_SIZE - 1);
+                EntryNode<V> node = this.buffer.get(slot);
+                if (node == null) {
+                    // The reader that claimed the slot has not filled it yet.
+                    break;
+                }
+                this.buffer.lazySet(slot, null);
+                // The entry may have been evicted since the hit.
+                if (node.linked) {
+                    this.makeHead(node);
+                }
+            }
+            this.readCounter = read;
+        }
+
+        void addToHead(EntryNode<V> node) {
+            node.linked = true;
+            node.prev = null;
+            node.next = this.head;
+            if (this.head != null) {
+                this.head.prev = node;
+            } else {
+                // First node is also the tail.
+                this.tail = node;
+            }
+            this.head = node;
+            ++this.count;
+        }
+
+        EntryNode<V> cutTail() {
+            EntryNode<V> node = this.tail;
+            this.unlink(node);
+            return node;
+        }
+
+        void makeHead(EntryNode<V> node) {
+            if (node != this.head) {
+                this.unlink(node);
+                this.addToHead(node);
+            }
+        }
+
+        private void unlink(EntryNode<V> node) {
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            } else {
+                this.head = node.next;
+            }
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            } else {
+                this.tail = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            node.linked = false;
+            --this.count;
+        }
+    }
+
+    private static class EntryNode<V> {
+
+        final int key;
+        volatile V value;
+
+        // Guarded by the lock of the segment.
+        EntryNode<V> prev;
+        EntryNode<V> next;
+        boolean linked;
+
+        EntryNode(int key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package io.esoma.cbj.ds;
+
+/**
+ * Class for implementing a weighted directed graph in the compressed sparse row (CSR) format. The
+ * outgoing edges of all nodes are stored back to back in two parallel arrays of targets and
+ * weights, ordered by their source node, and an offsets array of length n + 1 marks where the edges
+ * of each node begin. The edges of node u are therefore at the indices offsets[u] (inclusive) to
+ * offsets[u + 1] (exclusive). This takes O(n + m) memory for n nodes and m edges, and scanning the
+ * neighbors of a node reads contiguous memory, which makes it the standard input format for graph
+ * algorithms on large sparse graphs.
+ *
+ * <p>A graph is immutable once created. The arrays returned by the accessors are the internal ones
+ * and are exposed for fast traversal, so they must not be modified.
+ *
+ * @author Eddy Soma
+ */
+public final class CsrGraph {
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+
+    /**
+     * Creates a graph from existing CSR arrays. The arrays are used as they are and are validated
+     * but not copied.
+     *
+     * @param offsets the first edge index of every node, followed by the number of edges
+     * @param targets the target node of every edge
+     * @param weights the weight of every edge
+     */
+    public CsrGraph(int[] offsets, int[] targets, int[] weights) {
+        if (offsets == null || targets == null || weights == null) {
+            throw new IllegalArgumentException("Arrays must not be null");
+        }
+        if (offsets.length < 1 || offsets[0] != 0 || offsets[offsets.length - 1] != targets.length) {
+            throw new IllegalArgumentException("Invalid offsets");
+        }
+        if (targets.length != weights.length) {
+            throw new IllegalArgumentException("Targets and weights must have the same length");
+        }
+
+        int n = offsets.length - 1;
+        for (int u = 0; u < n; ++u) {
+            if (offsets[u] > offsets[u + 1]) {
+                throw new IllegalArgumentException("Offsets must not decrease");
+            }
+        }
+        for (int v : targets) {
+            if (v < 0 || v >= n) {
+                throw new IllegalArgumentException("Invalid target node " + v);
+            }
+        }
+
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Builds a graph from an edge list given as three parallel arrays. The edges are grouped by
+     * their source node with a counting sort, which keeps the relative order of the edges of each
+     * node.
+     *
+     * @param n the total number of nodes (labeled from 0 to n - 1)
+     * @param from the source node of every edge
+     * @param to the target node of every edge
+     * @param weight the weight of every edge
+     * @return the graph
+     */
+    public static CsrGraph fromEdges(int n, int[] from, int[] to, int[] weight) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Invalid number of nodes");
+        }
+        if (from.length != to.length || from.length != weight.length) {
+            throw new IllegalArgumentException("Edge arrays must have the same length");
+        }
+
+        int[] offsets = new int[n + 1];
+        for (int u : from) {
+            if (u < 0 || u >= n) {
+                throw new IllegalArgumentException("Invalid source node " + u);
+            }
+            ++offsets[u + 1];
+        }
+        for (int u = 0; u < n; ++u) {
+            offsets[u + 1] += offsets[u];
+        }
+
+        int m = from.length;
+        int[] targets = new int[m];
+        int[] weights = new int[m];
+        // The next free slot of every node.
+        int[] next = new int[n];
+        System.arraycopy(offsets, 0, next, 0, n);
+        for (int e = 0; e < m; ++e) {
+            int slot = next[from[e]]++;
+            targets[slot] = to[e];
+            weights[slot] = weight[e];
+        }
+
+        return new CsrGraph(offsets, targets, weights);
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return the number of nodes
+     */
+    public int nodeCount() {
+        return this.offsets.length - 1;
+    }
+
+    /**
+     * Returns the number of edges.
+     *
+     * @return the number of edges
+     */
+    public int edgeCount() {
+        return this.targets.length;
+    }
+
+    /**
+     * Returns the number of outgoing edges of a node.
+     *
+     * @param u the node
+     * @return the out-degree of the node
+     */
+    public int degree(int u) {
+        return this.offsets[u + 1] - this.offsets[u];
+    }
+
+    /**
+     * Returns the offsets array, which must not be modified.
+     *
+     * @return the first edge index of every node, followed by the number of edges
+     */
+    public int[] offsets() {
+        return this.offsets;
+    }
+
+    /**
+     * Returns the targets array, which must not be modified.
+     *
+     * @return the target node of every edge
+     */
+    public int[] targets() {
+        return this.targets;
+    }
+
+    /**
+     * Returns the weights array, which must not be modified.
+     *
+     * @return the weight of every edge
+     */
+    public int[] weights() {
+        return this.weights;
+    }
+
+    /**
+     * Builds the graph with every edge reversed, which has the incoming edges of every node of this
+     * graph as its outgoing edges. The reverse graph is what a backward search from a target node
+     * runs on. The edges of every node come in the order of their source in this graph.
+     *
+     * @return the reverse graph
+     */
+    public CsrGraph reverse() {
+        int n = this.nodeCount();
+        int m = this.edgeCount();
+        int[] from = new int[m];
+        for (int u = 0; u < n; ++u) {
+            for (int e = this.offsets[u]; e < this.offsets[u + 1]; ++e) {
+                from[e] = u;
+            }
+        }
+        return fromEdges(n, this.targets, from, this.weights);
+    }
+
+    /**
+     * Checks whether any edge has a negative weight.
+     *
+     * @return true if there is a negative weight
+     */
+    public boolean hasNegativeWeight() {
+        for (int w : this.weights) {
+            if (w < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
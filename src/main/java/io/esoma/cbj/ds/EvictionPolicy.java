@@ -0,0 +1,59 @@
+package io.esoma.cbj.ds;
+
+import java.util.function.Consumer;
+
+/**
+ * Interface for the eviction policy of a {@link LRUCache}. The cache keeps its entries in one map,
+ * and tells the policy about every hit and every new entry. The policy links the entries in
+ * whatever order it needs through the fields of their nodes, so no second lookup is needed, and
+ * decides which entries leave the cache once it is full. A policy is made for one cache with its
+ * capacity, and is never shared.
+ *
+ * @author Eddy Soma
+ */
+public interface EvictionPolicy {
+
+    /**
+     * Records a lookup of an entry that is in the cache, or a replacement of its value.
+     *
+     * @param node the entry
+     */
+    void recordHit(Node node);
+
+    /**
+     * Records an entry that has just been added to the cache, and passes every entry that has to
+     * leave the cache to the evictor, so that the cache holds at most its capacity afterwards. The
+     * evicted entry may be the new one itself, if the policy does not admit it.
+     *
+     * @param node the new entry
+     * @param evictor the action that removes an entry from the cache
+     */
+    void recordInsert(Node node, Consumer<Node> evictor);
+
+    /** Forgets every entry, as the cache has been emptied. */
+    void clear();
+
+    /** The part of a cache entry that belongs to the policy: its key and its links. */
+    class Node {
+
+        final int key;
+        // The list of the node, for policies with several lists.
+        byte region;
+
+        Node prev;
+        Node next;
+
+        Node(int key) {
+            this.key = key;
+        }
+
+        /**
+         * Returns the key of the entry.
+         *
+         * @return the key
+         */
+        public int key() {
+            return this.key;
+        }
+    }
+}
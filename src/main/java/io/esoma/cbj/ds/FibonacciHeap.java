@@ -1,9 +1,5 @@
 package io.esoma.cbj.ds;
 
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Map;
-
 /**
  * Class for implementing the Fibonacci Heap data structure. A Fibonacci heap is used for priority
  * queue operations, consisting of a collection of heap-ordered trees. It has a better amortized
@@ -11,22 +7,35 @@ import java.util.Map;
  * binomial heap. This implementation is a min-heap, and it will order elements only by their
  * natural ordering.
  *
+ * <p>Every pushed element gets a {@link Handle} that identifies its node, which makes it possible
+ * to lower the key of an element or delete it without searching the heap. Decreasing a key takes
+ * O(1) amortized time, which is what makes the heap attractive for Dijkstra's and Prim's
+ * algorithms, and two heaps can be merged in O(1) time.
+ *
  * @author Eddy Soma
  * @param <E> the type of elements held in this heap
  */
 public class FibonacciHeap<E extends Comparable<E>> {
 
-    private final LinkedList<FhNode<E>> mainChain;
+    // The degree is bounded by log base phi of the size.
+    private static final int MAX_DEGREE = 46;
+
+    // The root list is a circular doubly linked list reached from the min node.
+    private Handle<E> minNode;
     // Internal state.
     private int size;
-    private FhNode<E> minNode;
+    // The token of the handles pushed to this heap, and to the heaps merged into it.
+    private Owner owner = new Owner();
+
+    // The roots by degree during consolidation, empty between two calls.
+    @SuppressWarnings("unchecked")
+    private final Handle<E>[] degreeTable = new Handle[MAX_DEGREE];
 
     /*
      * Default constructor for creating a blank Fibonacci heap.
      */
     public FibonacciHeap() {
         super();
-        this.mainChain = new LinkedList<>();
     }
 
     /**
@@ -40,22 +49,18 @@ public class FibonacciHeap<E extends Comparable<E>> {
 
     /**
      * Pushes a new element to the heap. In a Fibonacci heap, this operation is to simply add this
-     * element as the root of a new node tree which will then be appended to the main chain. The
+     * element as the root of a new node tree which will then be appended to the root list. The
      * pointer to the minimum element will be updated if necessary.
      *
      * @param e the element to be inserted
+     * @return the handle of the new element
      */
-    public void push(E e) {
+    public Handle<E> push(E e) {
         // Create a new node for the element.
-        FhNode<E> n = new FhNode<>(e);
-        // Append the node to the chain.
-        this.mainChain.add(n);
+        Handle<E> n = new Handle<>(e, this.owner);
+        this.addRoot(n);
         ++this.size;
-
-        // Update the min key if necessary.
-        if (this.minNode == null || n.isLess(this.minNode)) {
-            this.minNode = n;
-        }
+        return n;
     }
 
     /**
@@ -64,15 +69,14 @@ public class FibonacciHeap<E extends Comparable<E>> {
      * @return the head (the least element) of the heap, or null of the heap is empty
      */
     public E peekMin() {
-        return this.minNode.key;
+        return this.minNode == null ? null : this.minNode.key;
     }
 
     /**
      * Retrieves the least element and removes it from the heap. The children of the removed node
-     * will be promoted to become parts of the root list. Any time a node has lost two children, it
-     * will also be dumped to the root list. At the end, trees in the main chain will be merged if
-     * they have the same degree (number of direct children). The pointer to the next minimum node
-     * will also be updated appropriately.
+     * will be promoted to become parts of the root list. At the end, trees in the root list will be
+     * merged if they have the same degree (number of direct children). The pointer to the next
+     * minimum node will also be updated appropriately.
      *
      * @return the head of the heap, or null of the heap is empty
      */
@@ -81,66 +85,236 @@ public class FibonacciHeap<E extends Comparable<E>> {
             return null;
         }
 
-        // Hold on to the reference for the return value.
-        E min = this.minNode.key;
-        // Remove the min node.
-        this.mainChain.remove(this.minNode);
+        Handle<E> z = this.minNode;
         // Promote its children if any.
-        this.mainChain.addAll(this.minNode.children);
+        Handle<E> c = z.child;
+        if (c != null) {
+            Handle<E> x = c;
+            do {
+                x.parent = null;
+                x = x.right;
+            } while (x != c);
+            splice(z, c);
+            z.child = null;
+        }
 
-        // Prepare the next min key.
+        // Remove the min node.
+        z.left.right = z.right;
+        z.right.left = z.left;
         --this.size;
-        if (this.mainChain.isEmpty()) {
+        if (z.right == z) {
             this.minNode = null;
         } else {
-            FhNode<E> newMn = this.mainChain.element();
-            Map<Integer, FhNode<E>> map = new HashMap<>();
-
-            while (!this.mainChain.isEmpty()) {
-                FhNode<E> n = this.mainChain.poll();
-                // Update the next min key if less.
-                if (n.isLess(newMn)) {
-                    newMn = n;
-                }
+            this.minNode = z.right;
+            this.consolidate();
+        }
 
-                // Merge node operation.
-                this.mergeNode(map, n);
-            }
+        z.left = z;
+        z.right = z;
+        z.removed = true;
+        return z.key;
+    }
 
-            // Populate the main chain again.
-            this.mainChain.addAll(map.values());
+    /**
+     * Lowers the key of an element in the heap. If the element is no longer in heap order with its
+     * parent, its node is cut and moved to the root list. A parent that loses its second child this
+     * way is cut as well, and so on up the tree (cascading cuts), which keeps the trees bushy
+     * enough for the amortized bounds.
+     *
+     * @param h the handle of the element, which must still be in this heap
+     * @param e the new key, which must not be greater than the current one
+     */
+    public void decreaseKey(Handle<E> h, E e) {
+        this.checkHandle(h);
+        if (e.compareTo(h.key) > 0) {
+            throw new IllegalArgumentException("Key must not increase");
+        }
 
-            // Set the next min key.
-            this.minNode = newMn;
+        h.key = e;
+        Handle<E> p = h.parent;
+        if (p != null && h.key.compareTo(p.key) < 0) {
+            this.cut(h, p);
+            this.cascadingCut(p);
+        }
+        if (h.key.compareTo(this.minNode.key) < 0) {
+            this.minNode = h;
         }
+    }
 
-        return min;
+    /**
+     * Removes an element from the heap. Its node is cut to the root list as if its key had been
+     * decreased below every other key, and then removed as the minimum.
+     *
+     * @param h the handle of the element, which must still be in this heap
+     */
+    public void delete(Handle<E> h) {
+        this.checkHandle(h);
+
+        Handle<E> p = h.parent;
+        if (p != null) {
+            this.cut(h, p);
+            this.cascadingCut(p);
+        }
+        this.minNode = h;
+        this.popMin();
     }
 
     /**
-     * Recursively merges nodes of the same degree based on the given map of degree to node.
+     * Moves all elements of the other heap into this heap by joining the two root lists. The other
+     * heap is left empty, and the handles of its elements remain valid for this heap. The handles
+     * are not touched: the owner token of the other heap is linked under the one of this heap, and
+     * the other heap gets a fresh token for its new elements.
      *
-     * @param map a map containing nodes of different degrees
-     * @param node the node to be merged
+     * @param other the heap to merge into this one
      */
-    private void mergeNode(Map<Integer, FhNode<E>> map, FhNode<E> node) {
-        int deg = node.degree();
-        if (map.get(deg) == null) {
-            map.put(deg, node);
+    public void merge(FibonacciHeap<E> other) {
+        if (other == this || other.minNode == null) {
+            return;
+        }
+
+        other.owner.parent = this.owner;
+        other.owner = new Owner();
+
+        if (this.minNode == null) {
+            this.minNode = other.minNode;
+        } else {
+            splice(this.minNode, other.minNode);
+            if (other.minNode.key.compareTo(this.minNode.key) < 0) {
+                this.minNode = other.minNode;
+            }
+        }
+        this.size += other.size;
+        other.minNode = null;
+        other.size = 0;
+    }
+
+    /**
+     * Links trees of the same degree until every root has a distinct degree, and finds the new
+     * minimum on the way. The table of roots by degree is only as large as the maximum degree,
+     * which is logarithmic in the size, and it is kept between calls, so popping allocates nothing.
+     */
+    private void consolidate() {
+        Handle<E>[] table = this.degreeTable;
+        int maxDegree = 0;
+        // Detach the roots first, since linking changes the root list.
+        int roots = 0;
+        Handle<E> x = this.minNode;
+        do {
+            ++roots;
+            x = x.right;
+        } while (x != this.minNode);
+
+        Handle<E> next = this.minNode;
+        for (int i = 0; i < roots; ++i) {
+            Handle<E> n = next;
+            next = next.right;
+            int d = n.degree;
+            while (table[d] != null) {
+                Handle<E> y = table[d];
+                table[d] = null;
+                if (y.key.compareTo(n.key) < 0) {
+                    Handle<E> t = n;
+                    n = y;
+                    y = t;
+                }
+                this.link(y, n);
+                ++d;
+            }
+            table[d] = n;
+            maxDegree = Math.max(maxDegree, d);
+        }
+
+        // Rebuild the root list from the table, and leave the used slots empty for the next call.
+        this.minNode = null;
+        for (int d = 0; d <= maxDegree; ++d) {
+            Handle<E> n = table[d];
+            if (n != null) {
+                table[d] = null;
+                n.left = n;
+                n.right = n;
+                this.addRoot(n);
+            }
+        }
+    }
+
+    /** Checks that the handle is of an element that is still in this heap. */
+    private void checkHandle(Handle<E> h) {
+        if (h.removed || h.owner.root() != this.owner) {
+            throw new IllegalArgumentException("Element is not in the heap");
+        }
+    }
+
+    /** Makes the root y a child of the root x. */
+    private void link(Handle<E> y, Handle<E> x) {
+        y.left.right = y.right;
+        y.right.left = y.left;
+        y.left = y;
+        y.right = y;
+        y.parent = x;
+        if (x.child == null) {
+            x.child = y;
         } else {
-            FhNode<E> pn = map.remove(deg);
-            if (node.isLess(pn)) {
-                node.children.add(pn);
-                pn = node;
-            } else {
-                pn.children.add(node);
+            splice(x.child, y);
+        }
+        ++x.degree;
+        y.marked = false;
+    }
+
+    /** Moves the node x from the children of p to the root list. */
+    private void cut(Handle<E> x, Handle<E> p) {
+        if (x.right == x) {
+            p.child = null;
+        } else {
+            x.left.right = x.right;
+            x.right.left = x.left;
+            if (p.child == x) {
+                p.child = x.right;
+            }
+        }
+        --p.degree;
+        x.left = x;
+        x.right = x;
+        x.parent = null;
+        x.marked = false;
+        splice(this.minNode, x);
+    }
+
+    /** Cuts every marked ancestor, and marks the first one that is not. */
+    private void cascadingCut(Handle<E> y) {
+        Handle<E> p = y.parent;
+        while (p != null) {
+            if (!y.marked) {
+                y.marked = true;
+                return;
             }
+            this.cut(y, p);
+            y = p;
+            p = y.parent;
+        }
+    }
 
-            // Repeat the process.
-            this.mergeNode(map, pn);
+    /** Adds a single node to the root list and updates the min node. */
+    private void addRoot(Handle<E> n) {
+        if (this.minNode == null) {
+            this.minNode = n;
+        } else {
+            splice(this.minNode, n);
+            if (n.key.compareTo(this.minNode.key) < 0) {
+                this.minNode = n;
+            }
         }
     }
 
+    /** Joins two circular lists into one. */
+    private static <E extends Comparable<E>> void splice(Handle<E> a, Handle<E> b) {
+        Handle<E> an = a.right;
+        Handle<E> bp = b.left;
+        a.right = b;
+        b.left = a;
+        bp.right = an;
+        an.left = bp;
+    }
+
     @Override
     /*
      * Returns a string representation of the Fibonacci heap. All elements will be
@@ -148,41 +322,84 @@ public class FibonacciHeap<E extends Comparable<E>> {
      */
     public String toString() {
         StringBuilder bu = new StringBuilder();
-        if (this.mainChain != null) {
-            for (FhNode<E> n : this.mainChain) {
+        if (this.minNode != null) {
+            Handle<E> n = this.minNode;
+            do {
                 n.reportElements(bu);
-            }
+                n = n.right;
+            } while (n != this.minNode);
         }
 
         return "FibonacciHeap [" + bu.toString().trim() + "]";
     }
 
     /**
-     * Helper class for heap nodes.
+     * Token that tells which heap a handle belongs to. Merging heaps links their tokens like a
+     * union-find forest, and the root token is the one of the heap that holds the element.
+     */
+    private static final class Owner {
+
+        private Owner parent;
+
+        Owner root() {
+            Owner o = this;
+            while (o.parent != null) {
+                // Path halving keeps the chains short after many merges.
+                if (o.parent.parent != null) {
+                    o.parent = o.parent.parent;
+                }
+                o = o.parent;
+            }
+            return o;
+        }
+    }
+
+    /**
+     * Handle of an element in the heap, which is the heap node itself. It stays valid until the
+     * element is removed from the heap.
      *
      * @author Eddy Soma
      * @param <E> the type of elements stored in the node
      */
-    private static class FhNode<E extends Comparable<E>> {
+    public static final class Handle<E extends Comparable<E>> {
 
-        final E key;
-        final LinkedList<FhNode<E>> children;
+        private E key;
+        private Handle<E> parent;
+        private Handle<E> child;
+        private Handle<E> left;
+        private Handle<E> right;
+        private int degree;
+        // Whether the node has lost a child since it became a child itself.
+        private boolean marked;
+        private boolean removed;
+        private final Owner owner;
 
         /*
          * Constructor for creating a basic node with the given key.
          */
-        FhNode(E key) {
+        Handle(E key, Owner owner) {
             this.key = key;
-            this.children = new LinkedList<>();
+            this.owner = owner;
+            this.left = this;
+            this.right = this;
         }
 
         /**
-         * Returns the degree (number of direct children) of the node.
+         * Returns the current key of the element.
          *
-         * @return the degree
+         * @return the key
          */
-        int degree() {
-            return this.children.size();
+        public E getKey() {
+            return this.key;
+        }
+
+        /**
+         * Checks whether the element is still in a heap.
+         *
+         * @return true if the element has not been removed
+         */
+        public boolean isValid() {
+            return !this.removed;
         }
 
         /**
@@ -194,23 +411,12 @@ public class FibonacciHeap<E extends Comparable<E>> {
         void reportElements(StringBuilder bu) {
             bu.append(this.key.toString());
             bu.append(' ');
-            for (FhNode<E> n : this.children) {
-                n.reportElements(bu);
-            }
-        }
-
-        /**
-         * Compares to another node and checks if the key is less in comparison.
-         *
-         * @param other the other node
-         * @return true if the key in the current node is less than the key in the other node, or
-         *     false otherwise
-         */
-        boolean isLess(FhNode<E> other) {
-            if (other == null) {
-                return false;
-            } else {
-                return this.key.compareTo(other.key) < 0;
+            Handle<E> c = this.child;
+            if (c != null) {
+                do {
+                    c.reportElements(bu);
+                    c = c.right;
+                } while (c != this.child);
             }
         }
     }
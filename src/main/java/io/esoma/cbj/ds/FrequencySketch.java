@@ -0,0 +1,107 @@
+package io.esoma.cbj.ds;
+
+import java.util.Arrays;
+
+/**
+ * A count-min sketch that estimates how often every key has been seen recently, in a fixed space no
+ * matter how many keys there are. Every key has four 4-bit counters, picked by four hash functions
+ * from a table of longs with sixteen counters each, and its estimate is the smallest of the four,
+ * as the other keys that share a counter can only add to it. Counters stop at 15, which is enough
+ * to tell popular keys from rare ones.
+ *
+ * <p>The sketch ages: once the number of increments reaches ten times the capacity of the cache,
+ * every counter is halved. So the estimates follow the recent popularity of a key, and a key that
+ * was hot long ago fades out.
+ *
+ * @author Eddy Soma
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * Constructs an empty sketch sized for a cache of the given capacity, with a long of sixteen
+     * counters per entry, rounded up to a power of two.
+     *
+     * @param capacity the capacity of the cache
+     */
+    FrequencySketch(int capacity) {
+        int len = capacity <= 1 ? 1 : Integer.highestOneBit(Math.min(capacity, 1 << 30) - 1) << 1;
+        this.table = new long[len];
+        this.tableMask = len - 1;
+        this.sampleSize = (int) Math.min(10L * Math.max(capacity, 1), Integer.MAX_VALUE);
+    }
+
+    /** Returns the estimated number of recent occurrences of a key, from 0 to 15. */
+    int frequency(int key) {
+        int hash = spread(key);
+        // Every hash function takes its own counter out of the sixteen of a long.
+        int start = (hash & 3) << 2;
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < 4; ++i) {
+            int index = this.indexOf(hash, i);
+            int count = (int) ((this.table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /** Counts an occurrence of a key, and ages the sketch once enough occurrences are counted. */
+    void increment(int key) {
+        int hash = spread(key);
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; ++i) {
+            int index = this.indexOf(hash, i);
+            int offset = (start + i) << 2;
+            long mask = 0xfL << offset;
+            if ((this.table[index] & mask) != mask) {
+                this.table[index] += 1L << offset;
+                added = true;
+            }
+        }
+
+        if (added && ++this.additions == this.sampleSize) {
+            this.reset();
+        }
+    }
+
+    void clear() {
+        Arrays.fill(this.table, 0L);
+        this.additions = 0;
+    }
+
+    /** Halves every counter, and the number of additions with them. */
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < this.table.length; ++i) {
+            odd += Long.bitCount(this.table[i] & ONE_MASK);
+            this.table[i] = (this.table[i] >>> 1) & RESET_MASK;
+        }
+        // Every odd counter lost half an increment more, and every key has four counters.
+        this.additions = (this.additions >>> 1) - (odd >>> 2);
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & this.tableMask;
+    }
+
+    private static int spread(int key) {
+        int h = key * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        return h ^ (h >>> 13);
+    }
+}
@@ -0,0 +1,226 @@
+package io.esoma.cbj.ds;
+
+import java.util.Arrays;
+
+/**
+ * Class for implementing an indexed d-ary min heap over primitive keys. Every element is an integer
+ * id between 0 and the capacity (exclusive) with a long key, and the heap keeps the position of
+ * every id, so the key of an element already in the heap can be decreased in O(log n) without
+ * searching for it. This is the priority queue that Dijkstra's and Prim's algorithms need. No
+ * object is allocated per element, which keeps it usable for graphs with millions of nodes.
+ *
+ * <p>A wider heap has fewer levels, so decreasing a key (the most frequent operation in shortest
+ * path searches) moves an element up fewer times, while removing the minimum compares more children
+ * per level. An arity of 4 is a good default.
+ *
+ * @author Eddy Soma
+ */
+public final class IndexedMinHeap {
+
+    private static final int DEFAULT_ARITY = 4;
+
+    private final int arity;
+    // The ids in heap order.
+    private final int[] heap;
+    // The position of every id in the heap, or -1 if it is not in the heap.
+    private final int[] pos;
+    // The key of every id.
+    private final long[] keys;
+    private int size;
+
+    /**
+     * Constructs an empty 4-ary heap for the ids from 0 to the capacity (exclusive).
+     *
+     * @param capacity the number of distinct ids
+     */
+    public IndexedMinHeap(int capacity) {
+        this(capacity, DEFAULT_ARITY);
+    }
+
+    /**
+     * Constructs an empty heap with the given number of children per node.
+     *
+     * @param capacity the number of distinct ids
+     * @param arity the number of children per node, at least 2
+     */
+    public IndexedMinHeap(int capacity, int arity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Invalid capacity");
+        }
+        if (arity < 2) {
+            throw new IllegalArgumentException("Arity must be at least 2");
+        }
+
+        this.arity = arity;
+        this.heap = new int[capacity];
+        this.pos = new int[capacity];
+        this.keys = new long[capacity];
+        Arrays.fill(this.pos, -1);
+    }
+
+    /**
+     * Queries and returns the number of elements in the heap.
+     *
+     * @return the heap size
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Checks whether the heap is empty.
+     *
+     * @return true if there is no element
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Checks whether the id is in the heap.
+     *
+     * @param id the id
+     * @return true if the id is in the heap
+     */
+    public boolean contains(int id) {
+        return this.pos[id] >= 0;
+    }
+
+    /**
+     * Returns the key of an id in the heap.
+     *
+     * @param id the id
+     * @return the key of the id
+     */
+    public long keyOf(int id) {
+        if (this.pos[id] < 0) {
+            throw new IllegalArgumentException("Id is not in the heap");
+        }
+        return this.keys[id];
+    }
+
+    /**
+     * Inserts an id that is not in the heap yet.
+     *
+     * @param id the id
+     * @param key the key of the id
+     */
+    public void insert(int id, long key) {
+        if (this.pos[id] >= 0) {
+            throw new IllegalArgumentException("Id is already in the heap");
+        }
+
+        this.keys[id] = key;
+        this.pos[id] = this.size;
+        this.heap[this.size++] = id;
+        siftUp(this.size - 1);
+    }
+
+    /**
+     * Lowers the key of an id in the heap. A key that is not lower is an error.
+     *
+     * @param id the id
+     * @param key the new key of the id
+     */
+    public void decreaseKey(int id, long key) {
+        int p = this.pos[id];
+        if (p < 0) {
+            throw new IllegalArgumentException("Id is not in the heap");
+        }
+        if (key > this.keys[id]) {
+            throw new IllegalArgumentException("Key must not increase");
+        }
+
+        this.keys[id] = key;
+        siftUp(p);
+    }
+
+    /**
+     * Returns the id with the least key without removing it.
+     *
+     * @return the id with the least key
+     */
+    public int peekMin() {
+        if (this.size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+        return this.heap[0];
+    }
+
+    /**
+     * Removes and returns the id with the least key. Its key stays available from {@link
+     * #keyOf(int)} only while it is in the heap, so read it first if needed.
+     *
+     * @return the id with the least key
+     */
+    public int pollMin() {
+        if (this.size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+
+        int min = this.heap[0];
+        this.pos[min] = -1;
+        int last = this.heap[--this.size];
+        if (this.size > 0) {
+            this.heap[0] = last;
+            this.pos[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /** Removes all elements. This takes time proportional to the size, not the capacity. */
+    public void clear() {
+        for (int i = 0; i < this.size; ++i) {
+            this.pos[this.heap[i]] = -1;
+        }
+        this.size = 0;
+    }
+
+    private void siftUp(int i) {
+        int id = this.heap[i];
+        long key = this.keys[id];
+        while (i > 0) {
+            int parent = (i - 1) / this.arity;
+            int pid = this.heap[parent];
+            if (this.keys[pid] <= key) {
+                break;
+            }
+            this.heap[i] = pid;
+            this.pos[pid] = i;
+            i = parent;
+        }
+        this.heap[i] = id;
+        this.pos[id] = i;
+    }
+
+    private void siftDown(int i) {
+        int id = this.heap[i];
+        long key = this.keys[id];
+        while (true) {
+            int first = i * this.arity + 1;
+            if (first >= this.size) {
+                break;
+            }
+            int last = Math.min(first + this.arity, this.size);
+            int child = first;
+            long ck = this.keys[this.heap[first]];
+            for (int c = first + 1; c < last; ++c) {
+                long k = this.keys[this.heap[c]];
+                if (k < ck) {
+                    child = c;
+                    ck = k;
+                }
+            }
+            if (key <= ck) {
+                break;
+            }
+            int cid = this.heap[child];
+            this.heap[i] = cid;
+            this.pos[cid] = i;
+            i = child;
+        }
+        this.heap[i] = id;
+        this.pos[id] = i;
+    }
+}
@@ -0,0 +1,68 @@
+package io.esoma.cbj.ds;
+
+import io.esoma.cbj.ds.EvictionPolicy.Node;
+
+/**
+ * A doubly linked list of cache entries in access order, from the most recently used at the head to
+ * the least recently used at the tail. The nodes are the entries of the cache themselves, so a
+ * policy moves an entry between several lists in O(1) without any lookup.
+ *
+ * @author Eddy Soma
+ */
+final class KeyQueue {
+
+    private Node head;
+    private Node tail;
+    private int size;
+
+    int size() {
+        return this.size;
+    }
+
+    /** Returns the least recently used node, or null if the list is empty. */
+    Node tail() {
+        return this.tail;
+    }
+
+    void addToHead(Node node) {
+        node.prev = null;
+        node.next = this.head;
+        if (this.head != null) {
+            this.head.prev = node;
+        } else {
+            // First node is also the tail.
+            this.tail = node;
+        }
+        this.head = node;
+        ++this.size;
+    }
+
+    void remove(Node node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            this.head = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else {
+            this.tail = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        --this.size;
+    }
+
+    void makeHead(Node node) {
+        if (node != this.head) {
+            this.remove(node);
+            this.addToHead(node);
+        }
+    }
+
+    void clear() {
+        this.head = null;
+        this.tail = null;
+        this.size = 0;
+    }
+}
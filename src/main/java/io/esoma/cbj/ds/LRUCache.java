@@ -2,6 +2,8 @@ package io.esoma.cbj.ds;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 /**
  * Class for implementing the LRU (Least Recently Used) cache scheme. A LRU cache stores data in
@@ -14,6 +16,11 @@ import java.util.Map;
  * <p>In particular, this example class always use integers as keys, and the values can be any type
  * specified by the user during object creation. However, null values are not permitted as it
  * conflicts with the return of a cache miss.
+ *
+ * <p>Which entry leaves a full cache is decided by a pluggable {@link EvictionPolicy}. The default
+ * {@link LruPolicy} evicts the least recently used entry as described above. {@link TinyLfuPolicy}
+ * also weighs how often keys are used, so that a one-off scan through many keys does not flush the
+ * popular ones.
  */
 public class LRUCache<V> {
 
@@ -21,9 +28,8 @@ public class LRUCache<V> {
 
     private final int capacity;
     private final Map<Integer, EntryNode<V>> internalMap;
-    private int size = 0;
-    private EntryNode<V> head;
-    private EntryNode<V> tail;
+    private final EvictionPolicy policy;
+    private final Consumer<EvictionPolicy.Node> evictor;
 
     /**
      * Constructs a new LRUCache object with the specified capacity.
@@ -31,26 +37,55 @@ public class LRUCache<V> {
      * @param capacity the limit of the cache size
      */
     public LRUCache(int capacity) {
+        this(capacity, LruPolicy::new);
+    }
+
+    /**
+     * Constructs a new cache with the specified capacity and eviction policy, such as {@code
+     * TinyLfuPolicy::new}.
+     *
+     * @param capacity the limit of the cache size
+     * @param policyFactory the function that makes the policy for the capacity of the cache
+     */
+    public LRUCache(int capacity, IntFunction<EvictionPolicy> policyFactory) {
         if (capacity <= 0) {
             this.capacity = DEFAULT_CAPACITY;
         } else {
             this.capacity = capacity;
         }
         this.internalMap = new HashMap<>();
+        this.policy = policyFactory.apply(this.capacity);
+        this.evictor = node -> this.internalMap.remove(node.key);
+    }
+
+    /**
+     * Returns the capacity of the cache.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of entries in the cache, which never exceeds the capacity.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return internalMap.size();
     }
 
     /** Deletes all entries in the cache. */
     public void clear() {
         internalMap.clear();
-        head = null;
-        tail = null;
-        size = 0;
+        policy.clear();
     }
 
     /**
      * Inserts a value into the cache identified by the specified key. If a key already exists, the
      * old value will be replaced. Replacement counts as access. Exception is thrown if the provided
-     * value is null.
+     * value is null. Depending on the policy, a new key may be evicted again right away.
      *
      * @param key the key for storing the value
      * @param value the associated value to store
@@ -62,23 +97,15 @@ public class LRUCache<V> {
             throw new IllegalArgumentException("Null value is not permitted");
         }
 
-        if (internalMap.containsKey(key)) {
-            EntryNode<V> existingNode = internalMap.get(key);
+        EntryNode<V> existingNode = internalMap.get(key);
+        if (existingNode != null) {
             existingNode.value = value;
-            makeHead(existingNode);
+            policy.recordHit(existingNode);
             return false;
         } else {
             EntryNode<V> newNode = new EntryNode<>(key, value);
             internalMap.put(key, newNode);
-            if (size < capacity) {
-                // Add node to the head.
-                addToHead(newNode);
-                ++size;
-            } else {
-                // Cut the tail then add node to the head.
-                cutTail();
-                addToHead(newNode);
-            }
+            policy.recordInsert(newNode, evictor);
             return true;
         }
     }
@@ -91,64 +118,20 @@ public class LRUCache<V> {
      * @return the associated value, or null if the key is not found in the cache
      */
     public V get(int key) {
-        if (internalMap.containsKey(key)) {
-            EntryNode<V> existingNode = internalMap.get(key);
-            makeHead(existingNode);
+        EntryNode<V> existingNode = internalMap.get(key);
+        if (existingNode != null) {
+            policy.recordHit(existingNode);
             return existingNode.value;
         }
         return null;
     }
 
-    private void addToHead(EntryNode<V> node) {
-        node.next = head;
-        if (head != null) {
-            head.prev = node;
-        } else {
-            // First node is also the tail.
-            tail = node;
-        }
-        head = node;
-    }
-
-    private void cutTail() {
-        if (tail != null) {
-            internalMap.remove(tail.key);
-            tail = tail.prev;
-            if (tail != null) {
-                tail.next = null;
-            }
-        }
-    }
+    private static class EntryNode<V> extends EvictionPolicy.Node {
 
-    private void makeHead(EntryNode<V> node) {
-        EntryNode<V> nextNode = node.next;
-        EntryNode<V> prevNode = node.prev;
-        node.next = null;
-        node.prev = null;
-
-        if (nextNode != null && prevNode != null) {
-            prevNode.next = nextNode;
-            nextNode.prev = prevNode;
-            addToHead(node);
-        } else if (prevNode != null) {
-            // Node is the tail.
-            tail = prevNode;
-            addToHead(node);
-        }
-
-        // Node is already the head otherwise.
-    }
-
-    private static class EntryNode<V> {
-
-        final int key;
         V value;
 
-        EntryNode<V> prev;
-        EntryNode<V> next;
-
         EntryNode(int key, V value) {
-            this.key = key;
+            super(key);
             this.value = value;
         }
     }
@@ -0,0 +1,270 @@
+package io.esoma.cbj.ds;
+
+/**
+ * Class for implementing the link-cut tree of Sleator and Tarjan, which maintains a forest of
+ * unrooted trees over the nodes from 0 to n (exclusive) under adding and removing edges. Every tree
+ * is split into preferred paths, and every path is kept in a splay tree ordered by depth, so that
+ * linking two trees, cutting an edge, and querying the path between two nodes all take O(log n)
+ * amortized time. Every node has a long value, and a query returns the node with the greatest value
+ * on the path between two nodes, which is what is needed to keep a minimum spanning tree under edge
+ * insertions.
+ *
+ * <p>The splay trees are stored in parallel primitive arrays, so no object is allocated per node,
+ * and every operation is iterative.
+ *
+ * @author Eddy Soma
+ */
+public final class LinkCutTree {
+
+    // The splay tree links. The parent of the root of a splay tree is the path parent.
+    private final int[] left;
+    private final int[] right;
+    private final int[] parent;
+    // Whether the children of a node are to be swapped, to reverse a path lazily.
+    private final boolean[] flip;
+    private final long[] value;
+    // The node with the greatest value in the splay subtree of every node.
+    private final int[] max;
+    // Scratch space for pushing the flips down a splay tree.
+    private final int[] stack;
+
+    /**
+     * Constructs a forest of single nodes with values of 0.
+     *
+     * @param n the number of nodes
+     */
+    public LinkCutTree(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Invalid number of nodes");
+        }
+
+        this.left = new int[n];
+        this.right = new int[n];
+        this.parent = new int[n];
+        this.flip = new boolean[n];
+        this.value = new long[n];
+        this.max = new int[n];
+        this.stack = new int[n];
+        for (int x = 0; x < n; ++x) {
+            this.left[x] = -1;
+            this.right[x] = -1;
+            this.parent[x] = -1;
+            this.max[x] = x;
+        }
+    }
+
+    /**
+     * Queries and returns the number of nodes.
+     *
+     * @return the number of nodes
+     */
+    public int size() {
+        return this.value.length;
+    }
+
+    /**
+     * Returns the value of a node.
+     *
+     * @param x the node
+     * @return the value
+     */
+    public long value(int x) {
+        return this.value[x];
+    }
+
+    /**
+     * Sets the value of a node.
+     *
+     * @param x the node
+     * @param v the new value
+     */
+    public void setValue(int x, long v) {
+        this.access(x);
+        this.value[x] = v;
+        this.pull(x);
+    }
+
+    /**
+     * Adds an edge between two nodes of different trees.
+     *
+     * @param u the first node
+     * @param v the second node
+     */
+    public void link(int u, int v) {
+        this.makeRoot(u);
+        // Finding the root of v leaves u as the root of its own splay tree.
+        if (this.findRoot(v) == u) {
+            throw new IllegalArgumentException("Nodes are already connected");
+        }
+        this.parent[u] = v;
+    }
+
+    /**
+     * Removes the edge between two nodes.
+     *
+     * @param u the first node
+     * @param v the second node
+     */
+    public void cut(int u, int v) {
+        this.makeRoot(u);
+        this.access(v);
+        // The path from u to v is now the splay tree of v, and u must be right before v.
+        if (this.left[v] != u) {
+            throw new IllegalArgumentException("Nodes are not adjacent");
+        }
+        this.push(u);
+        if (this.right[u] >= 0) {
+            throw new IllegalArgumentException("Nodes are not adjacent");
+        }
+        this.left[v] = -1;
+        this.parent[u] = -1;
+        this.pull(v);
+    }
+
+    /**
+     * Checks whether two nodes are in the same tree.
+     *
+     * @param u the first node
+     * @param v the second node
+     * @return true if there is a path between the nodes
+     */
+    public boolean connected(int u, int v) {
+        return u == v || this.findRoot(u) == this.findRoot(v);
+    }
+
+    /**
+     * Finds the node with the greatest value on the path between two nodes, both included. Ties are
+     * broken arbitrarily.
+     *
+     * @param u the first node
+     * @param v the second node
+     * @return the node with the greatest value on the path
+     */
+    public int pathMax(int u, int v) {
+        this.makeRoot(u);
+        if (this.findRoot(v) != u) {
+            throw new IllegalArgumentException("Nodes are not connected");
+        }
+        this.access(v);
+        return this.max[v];
+    }
+
+    /**
+     * Makes the path from the root of the tree to x preferred, and splays x to the root of its
+     * splay tree, which then holds exactly the nodes of that path.
+     */
+    private void access(int x) {
+        int last = -1;
+        for (int y = x; y >= 0; y = this.parent[y]) {
+            this.splay(y);
+            this.right[y] = last;
+            this.pull(y);
+            last = y;
+        }
+        this.splay(x);
+    }
+
+    /** Makes x the root of its tree by reversing the path from the old root. */
+    private void makeRoot(int x) {
+        this.access(x);
+        this.flip[x] ^= true;
+    }
+
+    private int findRoot(int x) {
+        this.access(x);
+        int r = x;
+        this.push(r);
+        while (this.left[r] >= 0) {
+            r = this.left[r];
+            this.push(r);
+        }
+        this.splay(r);
+        return r;
+    }
+
+    private boolean isSplayRoot(int x) {
+        int p = this.parent[x];
+        return p < 0 || (this.left[p] != x && this.right[p] != x);
+    }
+
+    private void splay(int x) {
+        // Push the pending flips down from the root of the splay tree first.
+        int top = 0;
+        this.stack[top++] = x;
+        for (int y = x; !this.isSplayRoot(y); y = this.parent[y]) {
+            this.stack[top++] = this.parent[y];
+        }
+        while (top > 0) {
+            this.push(this.stack[--top]);
+        }
+
+        while (!this.isSplayRoot(x)) {
+            int p = this.parent[x];
+            if (!this.isSplayRoot(p)) {
+                int g = this.parent[p];
+                boolean zigZig = (this.left[g] == p) == (this.left[p] == x);
+                this.rotate(zigZig ? p : x);
+            }
+            this.rotate(x);
+        }
+    }
+
+    /** Rotates x above its parent. */
+    private void rotate(int x) {
+        int p = this.parent[x];
+        int g = this.parent[p];
+        boolean top = this.isSplayRoot(p);
+        if (this.left[p] == x) {
+            this.left[p] = this.right[x];
+            if (this.right[x] >= 0) {
+                this.parent[this.right[x]] = p;
+            }
+            this.right[x] = p;
+        } else {
+            this.right[p] = this.left[x];
+            if (this.left[x] >= 0) {
+                this.parent[this.left[x]] = p;
+            }
+            this.left[x] = p;
+        }
+        this.parent[p] = x;
+        this.parent[x] = g;
+        if (!top) {
+            if (this.left[g] == p) {
+                this.left[g] = x;
+            } else {
+                this.right[g] = x;
+            }
+        }
+        this.pull(p);
+        this.pull(x);
+    }
+
+    private void push(int x) {
+        if (this.flip[x]) {
+            int l = this.left[x];
+            this.left[x] = this.right[x];
+            this.right[x] = l;
+            if (this.left[x] >= 0) {
+                this.flip[this.left[x]] ^= true;
+            }
+            if (this.right[x] >= 0) {
+                this.flip[this.right[x]] ^= true;
+            }
+            this.flip[x] = false;
+        }
+    }
+
+    private void pull(int x) {
+        int m = x;
+        int l = this.left[x];
+        int r = this.right[x];
+        if (l >= 0 && this.value[this.max[l]] > this.value[m]) {
+            m = this.max[l];
+        }
+        if (r >= 0 && this.value[this.max[r]] > this.value[m]) {
+            m = this.max[r];
+        }
+        this.max[x] = m;
+    }
+}
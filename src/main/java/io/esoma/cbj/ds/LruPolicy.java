@@ -0,0 +1,50 @@
+package io.esoma.cbj.ds;
+
+import java.util.function.Consumer;
+
+/**
+ * The LRU (Least Recently Used) eviction policy, which is the default of {@link LRUCache}. Entries
+ * are kept in one list in access order, and the least recently used entry is evicted once the cache
+ * is over its capacity. It adapts at once to a change of the working set, but a single scan through
+ * more keys than the capacity flushes the whole cache, however popular the old keys were.
+ *
+ * @author Eddy Soma
+ */
+public final class LruPolicy implements EvictionPolicy {
+
+    private final int capacity;
+    private final KeyQueue queue = new KeyQueue();
+
+    /**
+     * Constructs the policy for a cache of the given capacity.
+     *
+     * @param capacity the capacity of the cache
+     */
+    public LruPolicy(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity");
+        }
+
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void recordHit(Node node) {
+        this.queue.makeHead(node);
+    }
+
+    @Override
+    public void recordInsert(Node node, Consumer<Node> evictor) {
+        this.queue.addToHead(node);
+        if (this.queue.size() > this.capacity) {
+            Node victim = this.queue.tail();
+            this.queue.remove(victim);
+            evictor.accept(victim);
+        }
+    }
+
+    @Override
+    public void clear() {
+        this.queue.clear();
+    }
+}
@@ -0,0 +1,316 @@
+package io.esoma.cbj.ds;
+
+/**
+ * Class for implementing the pairing heap data structure. A pairing heap is a single heap-ordered
+ * tree of any shape, where melding two trees simply makes the root with the greater key a child of
+ * the other. Removing the minimum melds its children in two passes, first pairwise from left to
+ * right and then from right to left. The structure is much simpler than a Fibonacci heap and is
+ * usually faster in practice, with O(1) insertion and O(log n) amortized removal. This
+ * implementation is a min-heap, and it will order elements only by their natural ordering.
+ *
+ * <p>Like {@link FibonacciHeap}, every pushed element gets a {@link Handle} for decreasing its key
+ * or deleting it without a search.
+ *
+ * @author Eddy Soma
+ * @param <E> the type of elements held in this heap
+ */
+public class PairingHeap<E extends Comparable<E>> {
+
+    private Handle<E> root;
+    private int size;
+    // The token of the handles pushed to this heap, and to the heaps merged into it.
+    private Owner owner = new Owner();
+
+    /*
+     * Default constructor for creating a blank pairing heap.
+     */
+    public PairingHeap() {
+        super();
+    }
+
+    /**
+     * Queries and returns the number of elements in the heap.
+     *
+     * @return the heap size
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Pushes a new element to the heap by melding it with the root as a single node tree.
+     *
+     * @param e the element to be inserted
+     * @return the handle of the new element
+     */
+    public Handle<E> push(E e) {
+        Handle<E> n = new Handle<>(e, this.owner);
+        this.root = this.root == null ? n : meld(this.root, n);
+        ++this.size;
+        return n;
+    }
+
+    /**
+     * Queries and returns the head of the heap, but the head will not be removed from the heap.
+     *
+     * @return the head (the least element) of the heap, or null if the heap is empty
+     */
+    public E peekMin() {
+        return this.root == null ? null : this.root.key;
+    }
+
+    /**
+     * Retrieves the least element and removes it from the heap. The children of the root are melded
+     * in two passes to form the new tree.
+     *
+     * @return the head of the heap, or null if the heap is empty
+     */
+    public E popMin() {
+        if (this.root == null) {
+            return null;
+        }
+
+        Handle<E> min = this.root;
+        this.root = mergePairs(min.child);
+        if (this.root != null) {
+            this.root.prev = null;
+        }
+        --this.size;
+
+        min.child = null;
+        min.removed = true;
+        return min.key;
+    }
+
+    /**
+     * Lowers the key of an element in the heap. Unless the element is the root, its subtree is cut
+     * from its parent and melded with the root.
+     *
+     * @param h the handle of the element, which must still be in this heap
+     * @param e the new key, which must not be greater than the current one
+     */
+    public void decreaseKey(Handle<E> h, E e) {
+        this.checkHandle(h);
+        if (e.compareTo(h.key) > 0) {
+            throw new IllegalArgumentException("Key must not increase");
+        }
+
+        h.key = e;
+        if (h != this.root) {
+            detach(h);
+            this.root = meld(this.root, h);
+        }
+    }
+
+    /**
+     * Removes an element from the heap. Its subtree is cut, its children are melded in two passes,
+     * and the result is melded with the rest of the heap.
+     *
+     * @param h the handle of the element, which must still be in this heap
+     */
+    public void delete(Handle<E> h) {
+        this.checkHandle(h);
+
+        if (h == this.root) {
+            this.popMin();
+            return;
+        }
+        detach(h);
+        Handle<E> sub = mergePairs(h.child);
+        if (sub != null) {
+            sub.prev = null;
+            this.root = meld(this.root, sub);
+        }
+        --this.size;
+        h.child = null;
+        h.removed = true;
+    }
+
+    /**
+     * Moves all elements of the other heap into this heap by melding the two roots. The other heap
+     * is left empty, and the handles of its elements remain valid for this heap. The handles are
+     * not touched: the owner token of the other heap is linked under the one of this heap, and the
+     * other heap gets a fresh token for its new elements.
+     *
+     * @param other the heap to merge into this one
+     */
+    public void merge(PairingHeap<E> other) {
+        if (other == this || other.root == null) {
+            return;
+        }
+
+        other.owner.parent = this.owner;
+        other.owner = new Owner();
+
+        this.root = this.root == null ? other.root : meld(this.root, other.root);
+        this.size += other.size;
+        other.root = null;
+        other.size = 0;
+    }
+
+    /** Checks that the handle is of an element that is still in this heap. */
+    private void checkHandle(Handle<E> h) {
+        if (h.removed || h.owner.root() != this.owner) {
+            throw new IllegalArgumentException("Element is not in the heap");
+        }
+    }
+
+    /** Unlinks a node that is not the root from its parent or left sibling. */
+    private static <E extends Comparable<E>> void detach(Handle<E> h) {
+        if (h.prev.child == h) {
+            h.prev.child = h.next;
+        } else {
+            h.prev.next = h.next;
+        }
+        if (h.next != null) {
+            h.next.prev = h.prev;
+        }
+        h.prev = null;
+        h.next = null;
+    }
+
+    /** Melds two trees whose roots have no siblings and returns the new root. */
+    private static <E extends Comparable<E>> Handle<E> meld(Handle<E> a, Handle<E> b) {
+        if (b.key.compareTo(a.key) < 0) {
+            Handle<E> t = a;
+            a = b;
+            b = t;
+        }
+        // The first child keeps a back pointer to its parent in prev.
+        b.prev = a;
+        b.next = a.child;
+        if (a.child != null) {
+            a.child.prev = b;
+        }
+        a.child = b;
+        a.next = null;
+        return a;
+    }
+
+    /**
+     * Melds a list of siblings in two passes without recursion. The first pass melds pairs from
+     * left to right and chains the results in reverse through their next pointers, and the second
+     * pass melds them back from right to left.
+     */
+    private static <E extends Comparable<E>> Handle<E> mergePairs(Handle<E> first) {
+        Handle<E> pairs = null;
+        while (first != null) {
+            Handle<E> a = first;
+            Handle<E> b = a.next;
+            if (b == null) {
+                first = null;
+            } else {
+                first = b.next;
+                b.next = null;
+                b.prev = null;
+            }
+            a.next = null;
+            a.prev = null;
+            Handle<E> m = b == null ? a : meld(a, b);
+            m.next = pairs;
+            pairs = m;
+        }
+
+        Handle<E> result = null;
+        while (pairs != null) {
+            Handle<E> m = pairs;
+            pairs = m.next;
+            m.next = null;
+            result = result == null ? m : meld(result, m);
+        }
+        return result;
+    }
+
+    @Override
+    /*
+     * Returns a string representation of the pairing heap. All elements will be
+     * listed but in arbitrary order.
+     */
+    public String toString() {
+        StringBuilder bu = new StringBuilder();
+        if (this.root != null) {
+            this.root.reportElements(bu);
+        }
+
+        return "PairingHeap [" + bu.toString().trim() + "]";
+    }
+
+    /**
+     * Token that tells which heap a handle belongs to. Merging heaps links their tokens like a
+     * union-find forest, and the root token is the one of the heap that holds the element.
+     */
+    private static final class Owner {
+
+        private Owner parent;
+
+        Owner root() {
+            Owner o = this;
+            while (o.parent != null) {
+                // Path halving keeps the chains short after many merges.
+                if (o.parent.parent != null) {
+                    o.parent = o.parent.parent;
+                }
+                o = o.parent;
+            }
+            return o;
+        }
+    }
+
+    /**
+     * Handle of an element in the heap, which is the heap node itself. It stays valid until the
+     * element is removed from the heap.
+     *
+     * @author Eddy Soma
+     * @param <E> the type of elements stored in the node
+     */
+    public static final class Handle<E extends Comparable<E>> {
+
+        private E key;
+        private Handle<E> child;
+        // The left sibling, or the parent for the first child.
+        private Handle<E> prev;
+        private Handle<E> next;
+        private boolean removed;
+        private final Owner owner;
+
+        /*
+         * Constructor for creating a basic node with the given key.
+         */
+        Handle(E key, Owner owner) {
+            this.key = key;
+            this.owner = owner;
+        }
+
+        /**
+         * Returns the current key of the element.
+         *
+         * @return the key
+         */
+        public E getKey() {
+            return this.key;
+        }
+
+        /**
+         * Checks whether the element is still in a heap.
+         *
+         * @return true if the element has not been removed
+         */
+        public boolean isValid() {
+            return !this.removed;
+        }
+
+        /**
+         * Writes all the elements under the node into the given StringBuilder for debugging and
+         * reporting purpose. Siblings are walked in a loop, so only the depth of the tree recurses.
+         *
+         * @param bu the output builder target
+         */
+        void reportElements(StringBuilder bu) {
+            bu.append(this.key.toString());
+            bu.append(' ');
+            for (Handle<E> c = this.child; c != null; c = c.next) {
+                c.reportElements(bu);
+            }
+        }
+    }
+}
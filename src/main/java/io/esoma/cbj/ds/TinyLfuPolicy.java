@@ -0,0 +1,121 @@
+package io.esoma.cbj.ds;
+
+import java.util.function.Consumer;
+
+/**
+ * The W-TinyLFU eviction policy of Einziger, Friedman and Manes, which keeps popular keys through
+ * scans that flush an LRU cache. The cache is split into two regions:
+ *
+ * <ul>
+ *   <li>the window, an LRU list of 1% of the capacity that every new key enters first, so that a
+ *       burst of accesses to a new key is never rejected, and
+ *   <li>the main region, a segmented LRU of a probation list and a protected list of 80% of the
+ *       main region. A key enters the main region on probation, and is promoted to the protected
+ *       list on its next hit, while the protected list pushes its least recently used keys back
+ *       onto probation when it is full.
+ * </ul>
+ *
+ * <p>A key that falls out of the window is a candidate for the main region. When the cache is full,
+ * the candidate and the least recently used key of the main region, the victim, are compared by
+ * their recent frequencies in a {@link FrequencySketch}, which counts every hit and every new key,
+ * and the less frequent one is evicted. Keys of a scan are seen once, so they never win against a
+ * key that is used over and over. The sketch ages, so a key that is no longer popular loses its
+ * place in time.
+ *
+ * @author Eddy Soma
+ */
+public final class TinyLfuPolicy implements EvictionPolicy {
+
+    private static final byte WINDOW = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+
+    private final int capacity;
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final KeyQueue window = new KeyQueue();
+    private final KeyQueue probation = new KeyQueue();
+    private final KeyQueue protectedQueue = new KeyQueue();
+    private final FrequencySketch sketch;
+
+    /**
+     * Constructs the policy for a cache of the given capacity.
+     *
+     * @param capacity the capacity of the cache
+     */
+    public TinyLfuPolicy(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity");
+        }
+
+        this.capacity = capacity;
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.protectedCapacity = (int) ((capacity - this.windowCapacity) * 8L / 10);
+        this.sketch = new FrequencySketch(capacity);
+    }
+
+    @Override
+    public void recordHit(Node node) {
+        this.sketch.increment(node.key);
+        switch (node.region) {
+            case WINDOW -> this.window.makeHead(node);
+            case PROTECTED -> this.protectedQueue.makeHead(node);
+            default -> {
+                this.probation.remove(node);
+                node.region = PROTECTED;
+                this.protectedQueue.addToHead(node);
+                // Demote the least recently used protected keys back onto probation.
+                while (this.protectedQueue.size() > this.protectedCapacity) {
+                    Node demoted = this.protectedQueue.tail();
+                    this.protectedQueue.remove(demoted);
+                    demoted.region = PROBATION;
+                    this.probation.addToHead(demoted);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void recordInsert(Node node, Consumer<Node> evictor) {
+        this.sketch.increment(node.key);
+        node.region = WINDOW;
+        this.window.addToHead(node);
+        if (this.window.size() <= this.windowCapacity) {
+            return;
+        }
+
+        // The window is full, so its least recently used key moves to the main region.
+        Node candidate = this.window.tail();
+        this.window.remove(candidate);
+        candidate.region = PROBATION;
+        this.probation.addToHead(candidate);
+        if (this.window.size() + this.probation.size() + this.protectedQueue.size() <= this.capacity) {
+            return;
+        }
+
+        Node victim = this.probation.tail();
+        if (victim == candidate) {
+            victim = this.protectedQueue.tail();
+        }
+        // Ties go to the victim, so a key seen only once never displaces another one. Without a
+        // victim, the main region is too small to hold more than the candidate.
+        Node evicted = candidate;
+        if (victim != null && this.sketch.frequency(candidate.key) > this.sketch.frequency(victim.key)) {
+            evicted = victim;
+        }
+        if (evicted.region == PROTECTED) {
+            this.protectedQueue.remove(evicted);
+        } else {
+            this.probation.remove(evicted);
+        }
+        evictor.accept(evicted);
+    }
+
+    @Override
+    public void clear() {
+        this.window.clear();
+        this.probation.clear();
+        this.protectedQueue.clear();
+        this.sketch.clear();
+    }
+}
@@ -0,0 +1,139 @@
+package io.esoma.cbj.pe;
+
+import io.esoma.cbj.ds.EvictionPolicy;
+import io.esoma.cbj.ds.LRUCache;
+import io.esoma.cbj.ds.LruPolicy;
+import io.esoma.cbj.ds.TinyLfuPolicy;
+import io.esoma.cbj.util.ResourceLoader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+import org.tinylog.Logger;
+
+/**
+ * A trace-driven simulator that replays key traces against a {@link LRUCache} with every eviction
+ * policy, and reports the hit ratio of each. Every lookup that misses puts the key into the cache,
+ * as a read-through cache would. The traces are made from the host metrics files, where a key is a
+ * pair of a hostname and an API, so a cache entry stands for the response of one API on one host:
+ *
+ * <p>hostname,api,status,requestBytes,responseBytes<br>
+ * 21,/getAccountStatus,200,4962,22461<br>
+ * ...
+ *
+ * <p>Every trace is replayed as it is, and again with batch jobs mixed in: every so often a scan
+ * looks up a run of keys that are never seen again, which is what flushes a plain LRU cache.
+ */
+public class CacheSimulator {
+
+    static final String[] TRACES = new String[] {"hosts/cluster1.csv", "hosts/cluster2.csv"};
+    static final int[] CAPACITIES = new int[] {25, 50, 100};
+    // The traffic of a file is replayed a few times, as a service sees the same keys all day.
+    static final int ROUNDS = 5;
+    static final int SCAN_PERIOD = 200;
+    static final int SCAN_LENGTH = 100;
+
+    static final Map<String, IntFunction<EvictionPolicy>> POLICIES = new LinkedHashMap<>();
+
+    static {
+        POLICIES.put("LRU", LruPolicy::new);
+        POLICIES.put("W-TinyLFU", TinyLfuPolicy::new);
+    }
+
+    public static void main(String[] args) {
+        try {
+            for (String file : TRACES) {
+                int[] trace = repeat(readTrace(file), ROUNDS);
+                int[] scanned = withScans(trace, SCAN_PERIOD, SCAN_LENGTH);
+                for (int capacity : CAPACITIES) {
+                    for (Map.Entry<String, IntFunction<EvictionPolicy>> policy : POLICIES.entrySet()) {
+                        Logger.info(
+                                "{} capacity {} {}: hit ratio {} plain, {} with scans.",
+                                file,
+                                capacity,
+                                policy.getKey(),
+                                String.format("%.4f", hitRatio(trace, capacity, policy.getValue())),
+                                String.format("%.4f", hitRatio(scanned, capacity, policy.getValue())));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            Logger.error("Encountered unrecoverable error in the cache simulator.");
+            Logger.error(e);
+            Runtime.getRuntime().exit(1);
+        }
+    }
+
+    /**
+     * Reads the keys of a host metrics file in order, with every distinct pair of a hostname and an
+     * API numbered from 0 in the order of first appearance.
+     *
+     * @param resource the path to the metrics file from the resource root
+     * @return the trace of keys
+     * @throws IOException if the file cannot be read
+     */
+    static int[] readTrace(String resource) throws IOException {
+        Map<String, Integer> ids = new HashMap<>();
+        try (BufferedReader reader =
+                new BufferedReader(new InputStreamReader(ResourceLoader.getResourceAsReader(resource)))) {
+            return reader.lines()
+                    // Skip CSV header.
+                    .skip(1)
+                    .map(line -> line.split(","))
+                    .mapToInt(data -> ids.computeIfAbsent(data[0] + data[1], k -> ids.size()))
+                    .toArray();
+        }
+    }
+
+    /** Concatenates a trace with itself the given number of times. */
+    static int[] repeat(int[] trace, int rounds) {
+        int[] result = new int[trace.length * rounds];
+        for (int r = 0; r < rounds; ++r) {
+            System.arraycopy(trace, 0, result, r * trace.length, trace.length);
+        }
+        return result;
+    }
+
+    /**
+     * Inserts a scan of keys that are seen only once after every period of the trace. The scan keys
+     * are negative, so they never collide with the keys of the trace.
+     */
+    static int[] withScans(int[] trace, int period, int length) {
+        int scans = trace.length / period;
+        int[] result = new int[trace.length + scans * length];
+        int next = -1;
+        for (int i = 0, j = 0; i < trace.length; ++i) {
+            result[j++] = trace[i];
+            if ((i + 1) % period == 0) {
+                for (int k = 0; k < length; ++k) {
+                    result[j++] = next--;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Replays a trace against an empty cache with the given policy.
+     *
+     * @param trace the keys to look up in order
+     * @param capacity the capacity of the cache
+     * @param policy the factory of the eviction policy
+     * @return the fraction of lookups that hit
+     */
+    static double hitRatio(int[] trace, int capacity, IntFunction<EvictionPolicy> policy) {
+        LRUCache<Integer> cache = new LRUCache<>(capacity, policy);
+        long hits = 0;
+        for (int key : trace) {
+            if (cache.get(key) != null) {
+                ++hits;
+            } else {
+                cache.put(key, key);
+            }
+        }
+        return trace.length == 0 ? 0 : (double) hits / trace.length;
+    }
+}
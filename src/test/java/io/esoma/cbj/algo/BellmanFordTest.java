@@ -1,7 +1,16 @@
 package io.esoma.cbj.algo;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import io.esoma.cbj.ds.CsrGraph;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
@@ -117,6 +126,18 @@ class BellmanFordTest {
         new int[] {14, 8, 4}
     };
 
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.shutdown();
+    }
+
     @Test
     void testBfFindSample1() {
         int n = 4;
@@ -175,4 +196,167 @@ class BellmanFordTest {
         Logger.debug(actual);
         assertEquals(expected, actual);
     }
+
+    @ParameterizedTest
+    @CsvSource({"0", "3", "8", "14"})
+    void testShortestPathsLarge(int src) {
+        ShortestPathTree actual = BellmanFord.shortestPaths(LARGE_TEST_N, LARGE_TEST_EDGES, src);
+        CsrGraph graph = toCsr(LARGE_TEST_N, LARGE_TEST_EDGES);
+        ShortestPathTree expected = Dijkstra.shortestPaths(graph, src);
+        ShortestPathTree parallel = BellmanFord.parallelShortestPaths(graph, src, pool);
+        Logger.debug(actual.distances());
+        for (int v = 0; v < LARGE_TEST_N; ++v) {
+            assertEquals(expected.isReachable(v), actual.isReachable(v));
+            assertEquals(expected.isReachable(v), parallel.isReachable(v));
+            long d = expected.isReachable(v) ? expected.distance(v) : ShortestPathTree.NO_PATH;
+            assertEquals(d, actual.distance(v));
+            assertEquals(d, parallel.distance(v));
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"300, 4, 1", "50000, 5, 2"})
+    void testShortestPathsNegative(int n, int degree, long seed) {
+        // Shifting weights by vertex potentials keeps cycle weights, so no cycle becomes negative.
+        SplittableRandom rnd = new SplittableRandom(seed);
+        int[] potential = rnd.ints(n, 0, 500).toArray();
+        int m = n * degree;
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] weight = new int[m];
+        int[] shifted = new int[m];
+        for (int e = 0; e < m; ++e) {
+            from[e] = e / degree;
+            to[e] = rnd.nextInt(n);
+            weight[e] = rnd.nextInt(100);
+            shifted[e] = weight[e] + potential[from[e]] - potential[to[e]];
+        }
+        ShortestPathTree base = Dijkstra.shortestPaths(CsrGraph.fromEdges(n, from, to, weight), 0);
+        CsrGraph graph = CsrGraph.fromEdges(n, from, to, shifted);
+        ShortestPathTree spfa = BellmanFord.shortestPaths(graph, 0);
+        ShortestPathTree parallel = BellmanFord.parallelShortestPaths(graph, 0, pool);
+        for (int v = 0; v < n; ++v) {
+            assertEquals(base.isReachable(v), spfa.isReachable(v));
+            assertEquals(base.isReachable(v), parallel.isReachable(v));
+            if (base.isReachable(v)) {
+                long expected = base.distance(v) + potential[0] - potential[v];
+                assertEquals(expected, spfa.distance(v));
+                assertEquals(expected, parallel.distance(v));
+                assertEquals(expected, pathWeight(graph, spfa.pathTo(v)));
+                assertEquals(expected, pathWeight(graph, parallel.pathTo(v)));
+            }
+        }
+    }
+
+    @Test
+    void testParallelHubs() {
+        // The edges of the two hubs are far more than a single chunk, so chunks split them.
+        int n = 60000;
+        SplittableRandom rnd = new SplittableRandom(3);
+        int m = 2 * (n - 1);
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] weight = new int[m];
+        for (int v = 1, e = 0; v < n; ++v) {
+            from[e] = 0;
+            to[e] = v;
+            weight[e++] = rnd.nextInt(1000);
+            from[e] = 1;
+            to[e] = v == 1 ? 0 : v;
+            // The cycle through 0 and 1 stays positive.
+            weight[e++] = v == 1 ? 1000 : -rnd.nextInt(1000);
+        }
+        CsrGraph graph = CsrGraph.fromEdges(n, from, to, weight);
+        ShortestPathTree expected = BellmanFord.shortestPaths(graph, 0);
+        ShortestPathTree actual = BellmanFord.parallelShortestPaths(graph, 0, pool);
+        assertArrayEquals(expected.distances(), actual.distances());
+        for (int v = 0; v < n; v += 997) {
+            assertEquals(actual.distance(v), pathWeight(graph, actual.pathTo(v)));
+        }
+    }
+
+    @Test
+    void testNegativeCycle() {
+        // 1 -> 2 -> 3 -> 1 weighs -1 and can be reached from 0, while 5 <-> 6 weighs -2 and cannot.
+        int[][] edges = new int[][] {
+            new int[] {0, 1, 4},
+            new int[] {1, 2, 2},
+            new int[] {2, 3, -6},
+            new int[] {3, 1, 3},
+            new int[] {3, 4, 1},
+            new int[] {5, 6, 1},
+            new int[] {6, 5, -3}
+        };
+        CsrGraph graph = toCsr(7, edges);
+        int[] cycle = BellmanFord.findNegativeCycle(graph, 0);
+        Logger.debug(cycle);
+        assertArrayEquals(new int[] {1, 2, 3}, cycle);
+        assertArrayEquals(new int[] {5, 6}, BellmanFord.findNegativeCycle(graph, 5));
+        assertArrayEquals(new int[0], BellmanFord.findNegativeCycle(graph, 4));
+        assertTrue(cycleWeight(graph, BellmanFord.findNegativeCycle(graph)) < 0);
+        assertThrows(IllegalArgumentException.class, () -> BellmanFord.shortestPaths(graph, 0));
+        assertThrows(IllegalArgumentException.class, () -> BellmanFord.parallelShortestPaths(graph, 0, pool));
+
+        // Without the cycles, a distance of -1 is still reachable.
+        ShortestPathTree tree = BellmanFord.shortestPaths(4, new int[][] {{0, 1, 2}, {1, 2, -3}}, 0);
+        assertEquals(-1, tree.distance(2));
+        assertTrue(tree.isReachable(2));
+        assertArrayEquals(new int[] {0, 1, 2}, tree.pathTo(2));
+        assertEquals(ShortestPathTree.NO_PATH, tree.unreachable());
+        assertEquals(ShortestPathTree.NO_PATH, tree.distance(3));
+        assertFalse(tree.isReachable(3));
+        assertArrayEquals(new int[0], tree.pathTo(3));
+        assertArrayEquals(new int[0], BellmanFord.findNegativeCycle(toCsr(3, new int[][] {{0, 1, 2}, {1, 2, -3}})));
+    }
+
+    @Test
+    void testLongArbitrageCycle() {
+        // A single negative cycle through every vertex, the longest one possible.
+        int n = 2000;
+        int[][] edges = new int[n][];
+        for (int v = 0; v < n; ++v) {
+            edges[v] = new int[] {v, (v + 1) % n, v == n - 1 ? -n : 1};
+        }
+        int[] cycle = BellmanFord.findNegativeCycle(toCsr(n, edges));
+        assertEquals(n, cycle.length);
+        assertEquals(-1, cycleWeight(toCsr(n, edges), cycle));
+        assertEquals(0, cycle[0]);
+        assertEquals(n - 1, cycle[n - 1]);
+    }
+
+    private static long pathWeight(CsrGraph graph, int[] path) {
+        long sum = 0;
+        for (int i = 1; i < path.length; ++i) {
+            sum += edgeWeight(graph, path[i - 1], path[i]);
+        }
+        return sum;
+    }
+
+    private static long cycleWeight(CsrGraph graph, int[] cycle) {
+        return pathWeight(graph, cycle) + edgeWeight(graph, cycle[cycle.length - 1], cycle[0]);
+    }
+
+    /** Returns the least weight of the edges from u to v, failing if there is none. */
+    private static long edgeWeight(CsrGraph graph, int u, int v) {
+        long best = Long.MAX_VALUE;
+        for (int e = graph.offsets()[u]; e < graph.offsets()[u + 1]; ++e) {
+            if (graph.targets()[e] == v) {
+                best = Math.min(best, graph.weights()[e]);
+            }
+        }
+        assertTrue(best != Long.MAX_VALUE);
+        return best;
+    }
+
+    private static CsrGraph toCsr(int n, int[][] edges) {
+        int[] from = new int[edges.length];
+        int[] to = new int[edges.length];
+        int[] weight = new int[edges.length];
+        for (int e = 0; e < edges.length; ++e) {
+            from[e] = edges[e][0];
+            to[e] = edges[e][1];
+            weight[e] = edges[e][2];
+        }
+        return CsrGraph.fromEdges(n, from, to, weight);
+    }
 }
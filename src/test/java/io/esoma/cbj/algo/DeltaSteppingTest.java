@@ -0,0 +1,107 @@
+package io.esoma.cbj.algo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.esoma.cbj.ds.CsrGraph;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.tinylog.Logger;
+
+class DeltaSteppingTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.shutdown();
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1", "2", "5", "100"})
+    void testShortestPaths(int delta) {
+        int[] expected = Dijkstra.djFind(DijkstraTest.TEST_GRAPH);
+        ShortestPathTree tree =
+                DeltaStepping.shortestPaths(DijkstraTest.toCsr(DijkstraTest.TEST_GRAPH), 0, delta, pool);
+        for (int v = 0; v < expected.length; ++v) {
+            assertEquals(expected[v], tree.distance(v));
+        }
+        assertValidTree(DijkstraTest.toCsr(DijkstraTest.TEST_GRAPH), tree);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"10, 0", "1000, 1", "100000, 0", "-1, 0"})
+    void testShortestPathsLarge(int delta, int minWeight) {
+        CsrGraph graph = randomGraph(200_000, 6, minWeight, 1000, delta);
+        ShortestPathTree expected = Dijkstra.shortestPaths(graph, 0);
+        ShortestPathTree actual = delta < 0
+                ? DeltaStepping.shortestPaths(graph, 0, pool)
+                : DeltaStepping.shortestPaths(graph, 0, delta, pool);
+        Logger.debug(actual.distance(graph.nodeCount() - 1));
+        assertArrayEquals(expected.distances(), actual.distances());
+        assertValidTree(graph, actual);
+    }
+
+    @Test
+    void testZeroWeightCycle() {
+        // 0 -> 1 costs 3, and 1, 2 and 3 form a cycle of zero weights.
+        CsrGraph graph =
+                CsrGraph.fromEdges(5, new int[] {0, 1, 2, 3, 2}, new int[] {1, 2, 3, 1, 4}, new int[] {3, 0, 0, 0, 2});
+        ShortestPathTree tree = DeltaStepping.shortestPaths(graph, 0, 1, pool);
+        assertArrayEquals(new long[] {0, 3, 3, 3, 5}, tree.distances());
+        assertArrayEquals(new int[] {0, 1, 2, 3}, tree.pathTo(3));
+        assertValidTree(graph, tree);
+    }
+
+    @Test
+    void testInvalid() {
+        CsrGraph graph = CsrGraph.fromEdges(2, new int[] {0}, new int[] {1}, new int[] {1});
+        assertThrows(IllegalArgumentException.class, () -> DeltaStepping.shortestPaths(graph, 2, pool));
+        assertThrows(IllegalArgumentException.class, () -> DeltaStepping.shortestPaths(graph, 0, 0, pool));
+        assertThrows(IllegalArgumentException.class, () -> DeltaStepping.shortestPaths(graph, 0, 1, null));
+        CsrGraph negative = CsrGraph.fromEdges(2, new int[] {0}, new int[] {1}, new int[] {-1});
+        assertThrows(IllegalArgumentException.class, () -> DeltaStepping.shortestPaths(negative, 0, pool));
+    }
+
+    /** Checks that every path of the tree is made of graph edges and has the reported length. */
+    private static void assertValidTree(CsrGraph graph, ShortestPathTree tree) {
+        int[] offsets = graph.offsets();
+        for (int v = 0; v < graph.nodeCount(); ++v) {
+            if (!tree.isReachable(v) || v == tree.source()) {
+                continue;
+            }
+            int u = tree.predecessor(v);
+            long best = Long.MAX_VALUE;
+            for (int e = offsets[u]; e < offsets[u + 1]; ++e) {
+                if (graph.targets()[e] == v) {
+                    best = Math.min(best, graph.weights()[e]);
+                }
+            }
+            assertEquals(tree.distance(v), tree.distance(u) + best);
+        }
+    }
+
+    private static CsrGraph randomGraph(int n, int degree, int minWeight, int maxWeight, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        int m = n * degree;
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u <= n; ++u) {
+            offsets[u] = u * degree;
+        }
+        return new CsrGraph(
+                offsets,
+                rnd.ints(m, 0, n).toArray(),
+                rnd.ints(m, minWeight, maxWeight + 1).toArray());
+    }
+}
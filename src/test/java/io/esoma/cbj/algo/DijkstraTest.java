@@ -1,16 +1,24 @@
 package io.esoma.cbj.algo;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import io.esoma.cbj.ds.CsrGraph;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.tinylog.Logger;
 
 class DijkstraTest {
 
     // Test input.
-    private static final int[][] TEST_GRAPH = new int[][] {
+    static final int[][] TEST_GRAPH = new int[][] {
         {0, 5, -1, 9, -1, -1, -1, 4, -1, -1, -1, -1, -1, -1, 5, -1, -1, 6, -1, 8},
         {5, 0, 2, 3, -1, 4, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 7, -1, -1},
         {-1, 2, 0, 9, -1, -1, -1, -1, -1, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
@@ -51,4 +59,84 @@ class DijkstraTest {
         Logger.debug(result[index]);
         assertEquals(dist, result[index]);
     }
+
+    @ParameterizedTest
+    @CsvSource({
+        "0, 0", "1, 5", "2, 7", "4, -1", "5, 6", "6, 8", "7, 4", "9, 5", "10, 7", "12, 10", "13, 8", "16, 6", "17, 6",
+        "8, 9", "19, 7"
+    })
+    void testShortestPaths(int index, int dist) {
+        ShortestPathTree tree = Dijkstra.shortestPaths(toCsr(TEST_GRAPH), 0);
+        Logger.debug(tree.distance(index));
+        assertEquals(dist, tree.distance(index));
+    }
+
+    @Test
+    void testShortestPathsPredecessors() {
+        CsrGraph graph = toCsr(TEST_GRAPH);
+        ShortestPathTree tree = Dijkstra.shortestPaths(graph, 0);
+        assertEquals(-1, tree.predecessor(0));
+        assertEquals(-1, tree.predecessor(4));
+        assertArrayEquals(new int[0], tree.pathTo(4));
+        assertArrayEquals(new int[] {0}, tree.pathTo(0));
+        for (int v = 0; v < TEST_GRAPH.length; ++v) {
+            int[] path = tree.pathTo(v);
+            long len = 0;
+            for (int i = 1; i < path.length; ++i) {
+                len += TEST_GRAPH[path[i - 1]][path[i]];
+            }
+            assertEquals(tree.isReachable(v) ? tree.distance(v) : 0, len);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Dijkstra.HeapType.class)
+    void testShortestPathsRandom(Dijkstra.HeapType type) {
+        Random rnd = new Random(14);
+        int n = 300;
+        int[][] matrix = new int[n][n];
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) {
+                matrix[i][j] = i == j ? 0 : rnd.nextInt(100) < 3 ? rnd.nextInt(50) : -1;
+            }
+        }
+        int[] expected = Dijkstra.djFind(matrix);
+        ShortestPathTree tree = Dijkstra.shortestPaths(toCsr(matrix), 0, type);
+        for (int v = 0; v < n; ++v) {
+            assertEquals(expected[v], tree.distance(v));
+        }
+    }
+
+    @Test
+    void testShortestPathsInvalid() {
+        int[] offsets = new int[] {0, 1, 1};
+        int[] targets = new int[] {1};
+        assertThrows(IllegalArgumentException.class, () -> Dijkstra.shortestPaths(offsets, targets, new int[] {-1}, 0));
+        assertThrows(IllegalArgumentException.class, () -> Dijkstra.shortestPaths(offsets, targets, new int[] {1}, 2));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> Dijkstra.shortestPaths(new CsrGraph(offsets, targets, new int[] {1}), 0, null));
+    }
+
+    /** Converts an adjacency matrix where -1 marks a missing edge into the CSR format. */
+    static CsrGraph toCsr(int[][] matrix) {
+        List<int[]> edges = new ArrayList<>();
+        for (int i = 0; i < matrix.length; ++i) {
+            for (int j = 0; j < matrix.length; ++j) {
+                if (i != j && matrix[i][j] != -1) {
+                    edges.add(new int[] {i, j, matrix[i][j]});
+                }
+            }
+        }
+        int m = edges.size();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] weight = new int[m];
+        for (int e = 0; e < m; ++e) {
+            from[e] = edges.get(e)[0];
+            to[e] = edges.get(e)[1];
+            weight[e] = edges.get(e)[2];
+        }
+        return CsrGraph.fromEdges(matrix.length, from, to, weight);
+    }
 }
@@ -1,12 +1,32 @@
 package io.esoma.cbj.algo;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.tinylog.Logger;
 
 class GreatestCommonDivisorTest {
 
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.shutdown();
+    }
+
     @Test
     void testFindGcd1() {
         int[] array = new int[] {5, 10, 15};
@@ -61,6 +81,108 @@ class GreatestCommonDivisorTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    void testFindGcdZeroAndSign() {
+        assertEquals(0, GreatestCommonDivisor.findGcd(new int[0]));
+        assertEquals(7, GreatestCommonDivisor.findGcd(new int[] {-7}));
+        assertEquals(6, GreatestCommonDivisor.findGcd(new int[] {-12, 18, -30}));
+        // A zero makes the GCD 0 wherever it is, even after the GCD has dropped to 1.
+        assertEquals(0, GreatestCommonDivisor.findGcd(new int[] {0, 4, 8}));
+        assertEquals(0, GreatestCommonDivisor.findGcd(new int[] {3, 4, 0}));
+        assertEquals(0, GreatestCommonDivisor.findGcd(new int[] {3, 4, 0}, pool));
+        assertThrows(IllegalArgumentException.class, () -> GreatestCommonDivisor.findGcd(new int[] {1}, null));
+    }
+
+    @Test
+    void testGcdAgainstEgcd() {
+        SplittableRandom rand = new SplittableRandom(22);
+        for (int round = 0; round < 100000; ++round) {
+            int a = rand.nextInt();
+            int b = round % 2 == 0 ? rand.nextInt() : rand.nextInt(1, 1000) * rand.nextInt(1, 1 << 20);
+            assertEquals(GreatestCommonDivisor.egcd(a, b), GreatestCommonDivisor.gcd(a, b));
+            assertEquals(GreatestCommonDivisor.egcd(a, b), GreatestCommonDivisor.gcd((long) a, b));
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "0, 5, 0",
+        "5, 0, 0",
+        "1, 1, 1",
+        "48, 18, 6",
+        "-48, 18, 6",
+        "-48, -18, 6",
+        "2147483647, 2147483646, 1",
+        "-2147483648, 6, 2",
+        "-2147483648, 1073741824, 1073741824",
+        "-2147483648, -2147483648, -2147483648"
+    })
+    void testGcd(int a, int b, int expected) {
+        assertEquals(expected, GreatestCommonDivisor.gcd(a, b));
+        assertEquals(expected, GreatestCommonDivisor.gcd(b, a));
+    }
+
+    @Test
+    void testGcdLong() {
+        assertEquals(1L << 40, GreatestCommonDivisor.gcd(3L << 40, 5L << 41));
+        assertEquals(999999937L, GreatestCommonDivisor.gcd(999999937L * 999999929L, 999999937L * 2));
+        assertEquals(0L, GreatestCommonDivisor.gcd(0L, 12L));
+        assertEquals(Long.MIN_VALUE, GreatestCommonDivisor.gcd(Long.MIN_VALUE, Long.MIN_VALUE));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0", "1", "7", "64", "1001", "100000"})
+    void testGcdAll(int len) {
+        SplittableRandom rand = new SplittableRandom(len);
+        int[] a = new int[len];
+        int[] b = new int[len];
+        for (int i = 0; i < len; ++i) {
+            int f = rand.nextInt(1, 1 << 10);
+            a[i] = f * rand.nextInt(-(1 << 20), 1 << 20);
+            b[i] = switch (rand.nextInt(8)) {
+                case 0 -> 0;
+                case 1 -> Integer.MIN_VALUE;
+                case 2 -> rand.nextInt();
+                default -> f * rand.nextInt(-(1 << 20), 1 << 20);
+            };
+        }
+        int[] expected = new int[len];
+        for (int i = 0; i < len; ++i) {
+            expected[i] = GreatestCommonDivisor.gcd(a[i], b[i]);
+        }
+
+        int[] out = new int[len];
+        GreatestCommonDivisor.gcdAll(a, b, out);
+        assertArrayEquals(expected, out);
+        // The output may be an input.
+        GreatestCommonDivisor.gcdAll(a, b, a);
+        assertArrayEquals(expected, a);
+        assertThrows(IllegalArgumentException.class, () -> GreatestCommonDivisor.gcdAll(b, new int[len + 1], b));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"4096, 1", "4097, 6", "100000, 30", "1000000, 1", "1000000, 210"})
+    void testFindGcdParallel(int len, int factor) {
+        SplittableRandom rand = new SplittableRandom(len + factor);
+        int[] array = new int[len];
+        for (int i = 0; i < len; ++i) {
+            array[i] = factor * rand.nextInt(-10000000 / factor, 10000000 / factor);
+            if (array[i] == 0) {
+                array[i] = factor;
+            }
+        }
+        int expected = GreatestCommonDivisor.findGcd(array);
+        Logger.debug(expected);
+        assertEquals(expected, GreatestCommonDivisor.findGcd(array, pool));
+        if (factor > 1) {
+            assertEquals(0, expected % factor);
+        }
+
+        array[len - 1] = 0;
+        assertEquals(0, GreatestCommonDivisor.findGcd(array));
+        assertEquals(0, GreatestCommonDivisor.findGcd(array, pool));
+    }
+
     @Test
     void testBestGcd1() {
         int[] array = new int[] {4, 6, 5, 10, 15, 12};
@@ -174,4 +296,59 @@ class GreatestCommonDivisorTest {
         Logger.debug(actual);
         assertEquals(expected, actual);
     }
+
+    @Test
+    void testBestGcdEdgeCases() {
+        int[] array = new int[] {-12, 18, 7, -30};
+        assertEquals(6, GreatestCommonDivisor.bestGcd(array, 3));
+        assertEquals(6, GreatestCommonDivisor.bestGcd(array, 3, pool));
+        // The input is left as it is.
+        assertArrayEquals(new int[] {-12, 18, 7, -30}, array);
+
+        assertEquals(30, GreatestCommonDivisor.bestGcd(array, 1));
+        assertEquals(1, GreatestCommonDivisor.bestGcd(array, 9));
+        assertEquals(0, GreatestCommonDivisor.bestGcd(array, 0));
+        assertEquals(0, GreatestCommonDivisor.bestGcd(new int[0], 2, pool));
+        assertEquals(0, GreatestCommonDivisor.bestGcd(new int[] {4, 0, 8}, 2));
+        assertEquals(1 << 20, GreatestCommonDivisor.bestGcd(new int[] {1 << 20, 3 << 20, 7}, 2, pool));
+        assertThrows(IllegalArgumentException.class, () -> GreatestCommonDivisor.bestGcd(array, -1));
+        assertThrows(IllegalArgumentException.class, () -> GreatestCommonDivisor.bestGcd(array, 2, null));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> GreatestCommonDivisor.bestGcd(new int[] {Integer.MIN_VALUE, 2}, 2));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"8, 2, 100", "10, 3, 1000", "12, 4, 60", "12, 6, 5000", "9, 9, 720"})
+    void testBestGcdAgainstSubsets(int len, int n, int bound) {
+        // Compare against the GCD of every group of n integers.
+        SplittableRandom rand = new SplittableRandom(len * 31L + n);
+        for (int round = 0; round < 20; ++round) {
+            int[] array = rand.ints(len, 1, bound + 1).toArray();
+            int expected = 0;
+            for (int mask = 0; mask < 1 << len; ++mask) {
+                if (Integer.bitCount(mask) == n) {
+                    int[] group = new int[n];
+                    for (int i = 0, j = 0; i < len; ++i) {
+                        if ((mask >> i & 1) != 0) {
+                            group[j++] = array[i];
+                        }
+                    }
+                    expected = Math.max(expected, GreatestCommonDivisor.findGcd(group));
+                }
+            }
+            assertEquals(expected, GreatestCommonDivisor.bestGcd(array, n));
+            assertEquals(expected, GreatestCommonDivisor.bestGcd(array, n, pool));
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"100000, 2, 10000000", "1000000, 50, 1000000", "1000, 3, 50000000"})
+    void testBestGcdLarge(int len, int n, int bound) {
+        SplittableRandom rand = new SplittableRandom(len);
+        int[] array = rand.ints(len, 1, bound + 1).toArray();
+        int expected = GreatestCommonDivisor.bestGcd(array, n);
+        Logger.debug(expected);
+        assertEquals(expected, GreatestCommonDivisor.bestGcd(array, n, pool));
+    }
 }
@@ -1,9 +1,15 @@
 package io.esoma.cbj.algo;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.tinylog.Logger;
 
 class HeapSortTest {
@@ -107,4 +113,87 @@ class HeapSortTest {
         Logger.debug(Arrays.toString(unsorted));
         assertArrayEquals(sorted, result);
     }
+
+    @Test
+    void testSortRange() {
+        int[] unsorted = new int[] {9, 8, 7, 6, 5, 4, 3, 2, 1, 0};
+        int[] expected = new int[] {9, 8, 2, 3, 4, 5, 6, 7, 1, 0};
+        int[] result = HeapSort.sort(unsorted, 2, 7);
+        Logger.debug(Arrays.toString(unsorted));
+        assertArrayEquals(expected, result);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0, 4", "1, 4", "2, 2", "9, 8", "1000, 2", "1000, 3", "100000, 4", "100000, 8"})
+    void testSortDary(int n, int arity) {
+        int[] unsorted = new Random(n).ints(n, -n - 1, n + 1).toArray();
+        int[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        int[] result = HeapSort.sortDary(unsorted, arity);
+        assertArrayEquals(sorted, result);
+    }
+
+    @Test
+    void testSortDaryInvalidArity() {
+        assertThrows(IllegalArgumentException.class, () -> HeapSort.sortDary(new int[] {2, 1}, 1));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0", "1", "2", "3", "17", "1000", "100000"})
+    void testSortBottomUp(int n) {
+        int[] unsorted = new Random(n).ints(n, -n - 1, n + 1).toArray();
+        int[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        int[] result = HeapSort.sortBottomUp(unsorted);
+        Logger.debug("Bottom-up heap sort of {} elements", n);
+        assertArrayEquals(sorted, result);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0, 0", "10, 0", "10, 3", "10, 10", "100000, 1", "100000, 100", "100000, 5000"})
+    void testPartialSort(int n, int k) {
+        int[] unsorted = new Random(n + k).ints(n, -50, 50).toArray();
+        int[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        int[] result = HeapSort.partialSort(unsorted, k);
+        assertArrayEquals(Arrays.copyOf(sorted, k), Arrays.copyOf(result, k));
+        // The array must still be a permutation of the input.
+        Arrays.sort(result);
+        assertArrayEquals(sorted, result);
+    }
+
+    @Test
+    void testPartialSortInvalidK() {
+        assertThrows(IllegalArgumentException.class, () -> HeapSort.partialSort(new int[] {2, 1}, 3));
+        assertThrows(IllegalArgumentException.class, () -> HeapSort.partialSort(new int[] {2, 1}, -1));
+    }
+
+    @Test
+    void testTopK1() {
+        int[] expected = new int[] {Integer.MAX_VALUE, 9, 9, 7};
+        int[] result = HeapSort.topK(IntStream.of(3, 9, Integer.MIN_VALUE, 7, 9, 1, Integer.MAX_VALUE, 0), 4);
+        Logger.debug(Arrays.toString(result));
+        assertArrayEquals(expected, result);
+    }
+
+    @Test
+    void testTopK2() {
+        int[] result = HeapSort.topK(IntStream.of(5, -2, 8), 10);
+        assertArrayEquals(new int[] {8, 5, -2}, result);
+        assertEquals(0, HeapSort.topK(IntStream.range(0, 10), 0).length);
+    }
+
+    @Test
+    void testTopKLargeStream() {
+        int n = 1_000_000;
+        int k = 2000;
+        int[] values = new Random(n).ints(n).toArray();
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int[] expected = new int[k];
+        for (int i = 0; i < k; ++i) {
+            expected[i] = sorted[n - 1 - i];
+        }
+        assertArrayEquals(expected, HeapSort.topK(Arrays.stream(values).iterator(), k));
+    }
 }
@@ -0,0 +1,123 @@
+package io.esoma.cbj.algo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.esoma.cbj.ds.UnionFind;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.tinylog.Logger;
+
+class IncrementalMinSpanTreeTest {
+
+    @Test
+    void testAddEdge() {
+        IncrementalMinSpanTree mst = new IncrementalMinSpanTree(5);
+        assertEquals(5, mst.componentCount());
+        assertTrue(mst.addEdge(0, 1, 3));
+        assertTrue(mst.addEdge(1, 2, 5));
+        assertTrue(mst.addEdge(3, 4, 1));
+        assertEquals(2, mst.componentCount());
+        assertEquals(9, mst.weight());
+        assertFalse(mst.connected(0, 4));
+
+        // Closes the cycle 0-1-2 and replaces the edge of weight 5.
+        assertTrue(mst.addEdge(2, 0, 4));
+        assertEquals(8, mst.weight());
+        assertFalse(mst.addEdge(0, 2, 4));
+        assertFalse(mst.addEdge(1, 2, 6));
+        assertFalse(mst.addEdge(3, 3, -10));
+
+        assertTrue(mst.addEdge(4, 2, Integer.MIN_VALUE));
+        assertEquals(1, mst.componentCount());
+        assertEquals(4, mst.edgeCount());
+        assertEquals(8L + Integer.MIN_VALUE, mst.weight());
+        Logger.debug(Arrays.deepToString(mst.edges()));
+    }
+
+    @Test
+    void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new IncrementalMinSpanTree(-1));
+        IncrementalMinSpanTree mst = new IncrementalMinSpanTree(3);
+        assertThrows(IllegalArgumentException.class, () -> mst.addEdge(0, 3, 1));
+        assertThrows(IllegalArgumentException.class, () -> mst.addEdges(new int[1], new int[1], new int[0]));
+        assertEquals(0, new IncrementalMinSpanTree(0).weight());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"50, 400, 20", "1000, 20000, 1000000", "20000, 100000, 100"})
+    void testStream(int n, int m, int maxWeight) {
+        // Check the forest against a full recomputation at regular points of the stream.
+        SplittableRandom rand = new SplittableRandom(n);
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] weight = new int[m];
+        IncrementalMinSpanTree mst = new IncrementalMinSpanTree(n);
+        int step = m / 20;
+        for (int e = 0; e < m; ++e) {
+            from[e] = rand.nextInt(n);
+            to[e] = rand.nextInt(n);
+            weight[e] = rand.nextInt(-maxWeight, maxWeight + 1);
+            mst.addEdge(from[e], to[e], weight[e]);
+            if ((e + 1) % step == 0) {
+                int len = e + 1;
+                assertMatches(
+                        MinSpanTree.kruskal(
+                                n, Arrays.copyOf(from, len), Arrays.copyOf(to, len), Arrays.copyOf(weight, len)),
+                        mst);
+            }
+        }
+        Logger.debug(mst.weight());
+    }
+
+    @Test
+    void testBatches() {
+        // Large batches are merged with the forest, and the rest goes through the link-cut tree.
+        int n = 5000;
+        int m = 60000;
+        SplittableRandom rand = new SplittableRandom(m);
+        int[] from = rand.ints(m, 0, n).toArray();
+        int[] to = rand.ints(m, 0, n).toArray();
+        int[] weight = rand.ints(m, 0, 1000).toArray();
+        int[] sizes = {7000, 100, 1, 2000, 1, 1};
+        IncrementalMinSpanTree mst = new IncrementalMinSpanTree(n);
+        for (int bin = 0, k = 0; bin < m; ++k) {
+            int end = Math.min(m, bin + sizes[k % sizes.length]);
+            if (end - bin == 1) {
+                mst.addEdge(from[bin], to[bin], weight[bin]);
+            } else {
+                int added = mst.addEdges(
+                        Arrays.copyOfRange(from, bin, end),
+                        Arrays.copyOfRange(to, bin, end),
+                        Arrays.copyOfRange(weight, bin, end));
+                assertTrue(added <= end - bin);
+            }
+            assertMatches(
+                    MinSpanTree.kruskal(
+                            n, Arrays.copyOf(from, end), Arrays.copyOf(to, end), Arrays.copyOf(weight, end)),
+                    mst);
+            bin = end;
+        }
+        Logger.debug(mst.weight());
+    }
+
+    private static void assertMatches(SpanningForest expected, IncrementalMinSpanTree actual) {
+        assertEquals(expected.weight(), actual.weight());
+        assertEquals(expected.componentCount(), actual.componentCount());
+        assertEquals(expected.edgeCount(), actual.edgeCount());
+
+        // The reported edges must form a forest of the same weight.
+        UnionFind sets = new UnionFind(actual.nodeCount());
+        long total = 0;
+        for (int[] e : actual.edges()) {
+            assertTrue(sets.union(e[0], e[1]));
+            total += e[2];
+        }
+        assertEquals(actual.weight(), total);
+    }
+}
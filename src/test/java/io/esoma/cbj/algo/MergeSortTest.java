@@ -1,9 +1,15 @@
 package io.esoma.cbj.algo;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.tinylog.Logger;
 
 class MergeSortTest {
@@ -116,4 +122,40 @@ class MergeSortTest {
         Logger.debug(Arrays.toString(unsorted));
         assertArrayEquals(sorted, result);
     }
+
+    @ParameterizedTest
+    @CsvSource({"0, 1", "1, 1", "33, 5", "1000, 1000000", "100000, 7", "100000, 100000"})
+    void testSortInPlace(int nelts, int bound) {
+        Random rnd = new Random(nelts + bound);
+        int[] unsorted = rnd.ints(nelts, -bound, bound).toArray();
+        int[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        int[] result = MergeSort.sortInPlace(unsorted);
+        assertSame(unsorted, result);
+        assertArrayEquals(sorted, result);
+    }
+
+    @Test
+    void testSortInPlaceOrdered() {
+        int[] ascending = IntStream.range(0, 10_000).toArray();
+        assertArrayEquals(IntStream.range(0, 10_000).toArray(), MergeSort.sortInPlace(ascending));
+        int[] descending = IntStream.range(0, 10_000).map(i -> -i).toArray();
+        assertArrayEquals(IntStream.range(-9_999, 1).toArray(), MergeSort.sortInPlace(descending));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1000, 100, 1", "100000, 10, 64", "1000000, 1000000, 8192", "1000001, 3, 100000"})
+    void testParallelSort(int nelts, int bound, int threshold) {
+        Random rnd = new Random(nelts);
+        int[] unsorted = rnd.ints(nelts, 0, bound).toArray();
+        int[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertArrayEquals(sorted, MergeSort.parallelSort(unsorted, pool, threshold));
+        } finally {
+            pool.shutdown();
+        }
+        Logger.debug("Done! Nelts: {}.", nelts);
+    }
 }
@@ -1,12 +1,36 @@
 package io.esoma.cbj.algo;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import io.esoma.cbj.ds.UnionFind;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.tinylog.Logger;
 
 class MinSpanTreeTest {
 
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.shutdown();
+    }
+
     @Test
     void testCalcKruskal1() {
         int n = 5;
@@ -75,4 +99,150 @@ class MinSpanTreeTest {
         Logger.debug(actual);
         assertEquals(expected, actual);
     }
+
+    @Test
+    void testForest() {
+        // Two triangles and an isolated vertex, with a self loop and a parallel edge.
+        int[] from = {0, 1, 2, 3, 4, 5, 6, 0};
+        int[] to = {1, 2, 0, 4, 5, 3, 6, 1};
+        int[] weight = {4, 2, 3, 1, 1, 1, -5, 1};
+        for (SpanningForest forest : new SpanningForest[] {
+            MinSpanTree.kruskal(7, from, to, weight), MinSpanTree.boruvka(7, from, to, weight, pool)
+        }) {
+            Logger.debug(Arrays.toString(forest.edges()));
+            assertEquals(7, forest.nodeCount());
+            assertEquals(3, forest.componentCount());
+            assertFalse(forest.isSpanningTree());
+            assertEquals(4, forest.edgeCount());
+            assertEquals(5, forest.weight());
+            int[] edges = forest.edges().clone();
+            Arrays.sort(edges);
+            assertArrayEquals(new int[] {1, 3, 4, 7}, edges);
+        }
+    }
+
+    @Test
+    void testExtremeWeights() {
+        // Subtracting these weights would overflow.
+        int[] from = {0, 1, 0};
+        int[] to = {1, 2, 2};
+        int[] weight = {Integer.MAX_VALUE, Integer.MIN_VALUE, 0};
+        SpanningForest forest = MinSpanTree.kruskal(3, from, to, weight);
+        assertTrue(forest.isSpanningTree());
+        assertEquals(Integer.MIN_VALUE, forest.weight());
+        assertEquals(
+                Integer.MIN_VALUE,
+                MinSpanTree.boruvka(3, from, to, weight, pool).weight());
+        assertEquals(Integer.MIN_VALUE, MinSpanTree.calcKruskal(3, new int[][] {
+            {1, 2, Integer.MAX_VALUE}, {2, 3, Integer.MIN_VALUE}, {1, 3, 0}
+        }));
+    }
+
+    @Test
+    void testInvalid() {
+        int[] ends = {0, 1};
+        assertThrows(IllegalArgumentException.class, () -> MinSpanTree.kruskal(-1, new int[0], new int[0], new int[0]));
+        assertThrows(IllegalArgumentException.class, () -> MinSpanTree.kruskal(2, ends, ends, new int[1]));
+        assertThrows(IllegalArgumentException.class, () -> MinSpanTree.kruskal(1, ends, ends, ends));
+        assertThrows(IllegalArgumentException.class, () -> MinSpanTree.boruvka(2, ends, ends, ends, null));
+        assertEquals(
+                0, MinSpanTree.kruskal(0, new int[0], new int[0], new int[0]).edgeCount());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"500, 300, 100", "500, 5000, 1000", "2000, 40000, 10"})
+    void testRandomAgainstPrim(int n, int m, int maxWeight) {
+        int[][] graph = randomEdges(n, m, maxWeight, n);
+        SpanningForest kruskal = MinSpanTree.kruskal(n, graph[0], graph[1], graph[2]);
+        SpanningForest boruvka = MinSpanTree.boruvka(n, graph[0], graph[1], graph[2], pool);
+        long expected = primWeight(n, graph[0], graph[1], graph[2]);
+        Logger.debug(expected);
+        assertEquals(expected, kruskal.weight());
+        assertValidForest(n, graph, kruskal);
+        assertValidForest(n, graph, boruvka);
+        // Both order equal weights by index, so they choose the same edges.
+        int[] k = kruskal.edges().clone();
+        int[] b = boruvka.edges().clone();
+        Arrays.sort(k);
+        Arrays.sort(b);
+        assertArrayEquals(k, b);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"200000, 2000000, 1000000", "300000, 1200000, 50"})
+    void testLarge(int n, int m, int maxWeight) {
+        int[][] graph = randomEdges(n, m, maxWeight, m);
+        SpanningForest kruskal = MinSpanTree.kruskal(n, graph[0], graph[1], graph[2]);
+        SpanningForest boruvka = MinSpanTree.boruvka(n, graph[0], graph[1], graph[2], pool);
+        Logger.debug(kruskal.weight());
+        assertEquals(kruskal.weight(), boruvka.weight());
+        assertEquals(kruskal.componentCount(), boruvka.componentCount());
+        assertValidForest(n, graph, kruskal);
+        assertValidForest(n, graph, boruvka);
+    }
+
+    private static int[][] randomEdges(int n, int m, int maxWeight, long seed) {
+        SplittableRandom rand = new SplittableRandom(seed);
+        int[][] graph = new int[3][m];
+        for (int e = 0; e < m; ++e) {
+            graph[0][e] = rand.nextInt(n);
+            graph[1][e] = rand.nextInt(n);
+            graph[2][e] = rand.nextInt(-maxWeight, maxWeight + 1);
+        }
+        return graph;
+    }
+
+    /** Checks that the edges form a forest with one tree per component and add up to its weight. */
+    private static void assertValidForest(int n, int[][] graph, SpanningForest forest) {
+        UnionFind trees = new UnionFind(n);
+        long total = 0;
+        for (int e : forest.edges()) {
+            assertTrue(trees.union(graph[0][e], graph[1][e]));
+            total += graph[2][e];
+        }
+        UnionFind all = new UnionFind(n);
+        for (int e = 0; e < graph[0].length; ++e) {
+            all.union(graph[0][e], graph[1][e]);
+        }
+        assertEquals(total, forest.weight());
+        assertEquals(all.count(), trees.count());
+        assertEquals(all.count(), forest.componentCount());
+    }
+
+    /** Prim's algorithm over an adjacency matrix, started again from every unvisited vertex. */
+    private static long primWeight(int n, int[] from, int[] to, int[] weight) {
+        long[][] w = new long[n][n];
+        for (long[] row : w) {
+            Arrays.fill(row, Long.MAX_VALUE);
+        }
+        for (int e = 0; e < from.length; ++e) {
+            int a = from[e];
+            int b = to[e];
+            w[a][b] = Math.min(w[a][b], weight[e]);
+            w[b][a] = w[a][b];
+        }
+
+        boolean[] done = new boolean[n];
+        long[] dist = new long[n];
+        Arrays.fill(dist, Long.MAX_VALUE);
+        long total = 0;
+        for (int k = 0; k < n; ++k) {
+            int u = -1;
+            for (int v = 0; v < n; ++v) {
+                if (!done[v] && (u < 0 || dist[v] < dist[u])) {
+                    u = v;
+                }
+            }
+            done[u] = true;
+            if (dist[u] != Long.MAX_VALUE) {
+                total += dist[u];
+            }
+            for (int v = 0; v < n; ++v) {
+                if (!done[v] && w[u][v] < dist[v]) {
+                    dist[v] = w[u][v];
+                }
+            }
+        }
+        return total;
+    }
 }
@@ -2,9 +2,15 @@ package io.esoma.cbj.algo;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
 import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.tinylog.Logger;
 
 class PermutationGenTest {
 
@@ -67,4 +73,127 @@ class PermutationGenTest {
         assertThrows(IllegalStateException.class, gen::getNext);
         assertThrows(IllegalStateException.class, gen::getNext);
     }
+
+    @Test
+    void testForEachRemaining() {
+        PermutationGen expected = new PermutationGen(5);
+        PermutationGen gen = new PermutationGen(5);
+        // Start in the middle, after a few copies.
+        assertArrayEquals(expected.getNext(), gen.getNext());
+        assertArrayEquals(expected.getNext(), gen.getNext());
+
+        int[] count = new int[1];
+        gen.forEachRemaining(p -> {
+            assertArrayEquals(expected.getNext(), p);
+            ++count[0];
+        });
+        assertEquals(118, count[0]);
+        assertFalse(gen.hasNext());
+        assertFalse(expected.hasNext());
+        gen.forEachRemaining(p -> fail());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 5, 6, 7})
+    void testRankAndUnrank(int n) {
+        PermutationGen gen = new PermutationGen(n);
+        long[] index = new long[1];
+        gen.forEachRemaining(p -> {
+            assertEquals(index[0], gen.rank(p));
+            assertArrayEquals(p, gen.unrank(index[0]));
+            ++index[0];
+        });
+        long factorial = 1;
+        for (int i = 2; i <= n; ++i) {
+            factorial *= i;
+        }
+        assertEquals(factorial, index[0]);
+    }
+
+    @Test
+    void testRankLarge() {
+        PermutationGen gen = new PermutationGen(PermutationGen.MAX_RANKED);
+        int[] last = new int[PermutationGen.MAX_RANKED];
+        for (int i = 0; i < last.length; ++i) {
+            last[i] = last.length - i;
+        }
+        long lastIndex = 2432902008176640000L - 1;
+        assertEquals(lastIndex, gen.rank(last));
+        assertArrayEquals(last, gen.unrank(lastIndex));
+
+        gen.seek(lastIndex - 1);
+        int[] beforeLast = gen.getNext();
+        Logger.debug(Arrays.toString(beforeLast));
+        assertEquals(lastIndex - 1, gen.rank(beforeLast));
+        assertArrayEquals(last, gen.getNext());
+        assertFalse(gen.hasNext());
+
+        // Seeking restarts an exhausted generator.
+        gen.seek(0);
+        assertTrue(gen.hasNext());
+        assertEquals(0, gen.rank(gen.getNext()));
+    }
+
+    @Test
+    void testRankInvalid() {
+        PermutationGen gen = new PermutationGen(4);
+        assertThrows(IllegalArgumentException.class, () -> gen.rank(new int[] {1, 2, 3}));
+        assertThrows(IllegalArgumentException.class, () -> gen.rank(new int[] {1, 2, 3, 5}));
+        assertThrows(IllegalArgumentException.class, () -> gen.rank(new int[] {1, 2, 2, 4}));
+        assertThrows(IllegalArgumentException.class, () -> gen.rank(new int[] {0, 1, 2, 3}));
+        assertThrows(IllegalArgumentException.class, () -> gen.unrank(-1));
+        assertThrows(IllegalArgumentException.class, () -> gen.unrank(24));
+        assertThrows(IllegalArgumentException.class, () -> gen.seek(24));
+
+        PermutationGen big = new PermutationGen(PermutationGen.MAX_RANKED + 1);
+        assertThrows(IllegalArgumentException.class, () -> big.unrank(0));
+        assertThrows(IllegalArgumentException.class, () -> PermutationGen.spliterator(PermutationGen.MAX_RANKED + 1));
+        assertThrows(IllegalArgumentException.class, () -> PermutationGen.spliterator(0));
+    }
+
+    @Test
+    void testSpliteratorSplits() {
+        PermutationGen gen = new PermutationGen(6);
+        Spliterator<int[]> suffix = PermutationGen.spliterator(6);
+        assertEquals(720, suffix.estimateSize());
+
+        // Take a few, then split the rest, and check the parts cover the space in order.
+        List<int[]> seen = new ArrayList<>();
+        for (int i = 0; i < 3; ++i) {
+            assertTrue(suffix.tryAdvance(p -> seen.add(p.clone())));
+        }
+        Spliterator<int[]> prefix = suffix.trySplit();
+        assertNotNull(prefix);
+        Spliterator<int[]> middle = suffix.trySplit();
+        assertNotNull(middle);
+        assertEquals(717, prefix.estimateSize() + middle.estimateSize() + suffix.estimateSize());
+        prefix.forEachRemaining(p -> seen.add(p.clone()));
+        middle.forEachRemaining(p -> seen.add(p.clone()));
+        suffix.forEachRemaining(p -> seen.add(p.clone()));
+        assertFalse(suffix.tryAdvance(p -> fail()));
+
+        assertEquals(720, seen.size());
+        for (int[] p : seen) {
+            assertArrayEquals(gen.getNext(), p);
+        }
+    }
+
+    @Test
+    void testParallelStream() {
+        int n = 9;
+        long count = 362880;
+        // Every rank is visited exactly once, so the ranks sum up to count * (count - 1) / 2.
+        PermutationGen gen = new PermutationGen(n);
+        long sum = PermutationGen.stream(n, true).mapToLong(gen::rank).sum();
+        assertEquals(count * (count - 1) / 2, sum);
+        assertEquals(count, PermutationGen.stream(n, true).count());
+
+        // The first permutation whose first two elements sum up to 17.
+        int[] first = PermutationGen.stream(n, true)
+                .filter(p -> p[0] + p[1] == 17)
+                .map(int[]::clone)
+                .findFirst()
+                .orElseThrow();
+        assertArrayEquals(new int[] {8, 9, 1, 2, 3, 4, 5, 6, 7}, first);
+    }
 }
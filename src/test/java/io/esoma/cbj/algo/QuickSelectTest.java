@@ -1,8 +1,15 @@
 package io.esoma.cbj.algo;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
+import java.util.Random;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.tinylog.Logger;
 
 class QuickSelectTest {
@@ -135,4 +142,81 @@ class QuickSelectTest {
         Logger.debug(found);
         assertEquals(expected, found);
     }
+
+    @Test
+    void testSelect1() {
+        int[] array = new int[] {5, 9, 8, 10, 5, 8, 1, 8, 7, 1};
+        int[] expected = new int[] {1, 1, 5, 5, 7};
+        int[] found = QuickSelect.select(array, 5);
+        Logger.debug(Arrays.toString(found));
+        assertArrayEquals(expected, found);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1, 0", "1, 1", "1000, 1", "1000, 999", "100000, 100", "100000, 100000"})
+    void testSelect2(int n, int k) {
+        int[] array = new Random(n + k).ints(n, -1000, 1000).toArray();
+        int[] sorted = array.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(Arrays.copyOf(sorted, k), QuickSelect.select(array, k));
+    }
+
+    @Test
+    void testSelectInvalidK() {
+        assertThrows(IllegalArgumentException.class, () -> QuickSelect.select(new int[] {1}, 2));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1, 0", "7, 3", "1000, 500", "100000, 0", "100000, 99999", "100000, 31337"})
+    void testMedianOfMedians(int n, int idx) {
+        int[] array = new Random(n).ints(n, -100, 100).toArray();
+        int[] sorted = array.clone();
+        Arrays.sort(sorted);
+        // A budget of 0 forces median of medians pivots.
+        QuickSelect.nthElement(array, 0, n - 1, idx, 0, new int[2]);
+        assertEquals(sorted[idx], array[idx]);
+        for (int i = 0; i < n; ++i) {
+            assertTrue(i < idx ? array[i] <= array[idx] : array[i] >= array[idx]);
+        }
+    }
+
+    @Test
+    void testSelectMany1() {
+        int[] array = new int[] {5, 9, 8, 10, 5, 8, 1, 8, 7, 1};
+        int[] expected = new int[] {10, 1, 8, 5};
+        int[] found = QuickSelect.selectMany(array, 10, 1, 6, 4);
+        Logger.debug(Arrays.toString(found));
+        assertArrayEquals(expected, found);
+    }
+
+    @Test
+    void testSelectMany2() {
+        int n = 1_000_000;
+        int[] latencies = new Random(n).ints(n, 0, 5000).toArray();
+        int[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        int[] ranks = new int[] {n / 2, n * 9 / 10, n * 99 / 100, n * 999 / 1000, n, 1, n / 2};
+        int[] found = QuickSelect.selectMany(latencies, ranks);
+        for (int i = 0; i < ranks.length; ++i) {
+            assertEquals(sorted[ranks[i] - 1], found[i]);
+        }
+        assertEquals(0, QuickSelect.selectMany(latencies).length);
+    }
+
+    @Test
+    void testSelectManyInvalidRank() {
+        assertThrows(IllegalArgumentException.class, () -> QuickSelect.selectMany(new int[] {1, 2}, 1, 3));
+    }
+
+    @Test
+    void testFindKthSorted() {
+        int n = 200_000;
+        int[] array = new int[n];
+        for (int i = 0; i < n; ++i) {
+            array[i] = i % 2 == 0 ? i : n - i;
+        }
+        int[] sorted = array.clone();
+        Arrays.sort(sorted);
+        assertEquals(sorted[n / 3], QuickSelect.findKthSmallest(array, n / 3 + 1));
+    }
 }
@@ -1,9 +1,14 @@
 package io.esoma.cbj.algo;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.tinylog.Logger;
 
 class QuickSortTest {
@@ -99,4 +104,65 @@ class QuickSortTest {
         Logger.debug(Arrays.toString(unsorted));
         assertArrayEquals(sorted, result);
     }
+
+    @ParameterizedTest
+    @CsvSource({"0, 0", "1, 0", "31, 0", "1000, 0", "100000, 0", "100000, 1", "100000, 2", "100000, 3", "100000, 4"})
+    void testIntroSort(int n, int shape) {
+        int[] unsorted = shapedArray(n, shape);
+        int[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        int[] result = QuickSort.introSort(unsorted);
+        assertArrayEquals(sorted, result);
+    }
+
+    @Test
+    void testIntroSortKiller() {
+        // Every sample the pivot selection looks at holds the same key, which forces degenerate
+        // splits.
+        int n = 1 << 16;
+        int[] unsorted = new int[n];
+        for (int i = 0; i < n; ++i) {
+            unsorted[i] = i % 2 == 0 ? 0 : n - i;
+        }
+        int[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(sorted, QuickSort.introSort(unsorted));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"100, 0", "200000, 0", "200000, 1", "200000, 2", "200000, 3", "200000, 4"})
+    void testParallelIntroSort(int n, int shape) {
+        int[] unsorted = shapedArray(n, shape);
+        int[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            int[] result = QuickSort.parallelIntroSort(unsorted, pool);
+            Logger.debug("Parallel introsort of {} elements with shape {}", n, shape);
+            assertArrayEquals(sorted, result);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testParallelIntroSortNullPool() {
+        assertThrows(IllegalArgumentException.class, () -> QuickSort.parallelIntroSort(new int[] {2, 1}, null));
+    }
+
+    /** Creates random (0), few unique (1), sorted (2), reversed (3) or organ pipe (4) test data. */
+    private static int[] shapedArray(int n, int shape) {
+        Random rnd = new Random(n * 31L + shape);
+        int[] array = new int[n];
+        for (int i = 0; i < n; ++i) {
+            array[i] = switch (shape) {
+                case 1 -> rnd.nextInt(4);
+                case 2 -> i;
+                case 3 -> n - i;
+                case 4 -> i < n / 2 ? i : n - i;
+                default -> rnd.nextInt();
+            };
+        }
+        return array;
+    }
 }
@@ -0,0 +1,121 @@
+package io.esoma.cbj.algo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.esoma.cbj.ds.CsrGraph;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class ShortestPathEngineTest {
+
+    @Test
+    void testDistanceAndPath() {
+        CsrGraph graph = randomGraph(2000, 3, 17);
+        ShortestPathEngine engine = new ShortestPathEngine(graph, 4);
+        SplittableRandom rnd = new SplittableRandom(17);
+        for (int q = 0; q < 300; ++q) {
+            int s = rnd.nextInt(graph.nodeCount());
+            int t = rnd.nextInt(graph.nodeCount());
+            ShortestPathTree expected = Dijkstra.shortestPaths(graph, s);
+            assertEquals(expected.distance(t), engine.distance(s, t));
+            int[] path = engine.path(s, t);
+            assertEquals(expected.isReachable(t) ? expected.distance(t) : 0, pathLength(graph, path));
+            if (path.length > 0) {
+                assertEquals(s, path[0]);
+                assertEquals(t, path[path.length - 1]);
+            }
+        }
+        assertEquals(0, engine.distance(5, 5));
+        assertArrayEquals(new int[] {5}, engine.path(5, 5));
+    }
+
+    @Test
+    void testBatchedDistances() {
+        CsrGraph graph = randomGraph(3000, 4, 23);
+        ShortestPathEngine engine = new ShortestPathEngine(graph, 2);
+        SplittableRandom rnd = new SplittableRandom(23);
+        int q = 500;
+        int[] sources = new int[q];
+        int[] targets = new int[q];
+        for (int i = 0; i < q; ++i) {
+            // A few hot sources with many targets, and many sources with one.
+            sources[i] = i % 3 == 0 ? rnd.nextInt(5) : rnd.nextInt(graph.nodeCount());
+            targets[i] = rnd.nextInt(graph.nodeCount());
+        }
+
+        for (int round = 0; round < 3; ++round) {
+            long[] actual = engine.distances(sources, targets);
+            for (int i = 0; i < q; ++i) {
+                assertEquals(Dijkstra.shortestPaths(graph, sources[i]).distance(targets[i]), actual[i]);
+            }
+        }
+    }
+
+    @Test
+    void testCacheAndInvalidation() {
+        // 0 -> 1 -> 2 costs 2, and 0 -> 2 costs 5.
+        CsrGraph graph = CsrGraph.fromEdges(3, new int[] {0, 1, 0}, new int[] {1, 2, 2}, new int[] {1, 1, 5});
+        ShortestPathEngine engine = new ShortestPathEngine(graph, 2);
+        assertEquals(2, engine.distance(0, 2));
+        // The second miss admits the source, after which its tree is reused.
+        assertEquals(2, engine.distance(0, 2));
+        ShortestPathTree tree = engine.tree(0);
+        assertSame(tree, engine.tree(0));
+
+        engine.setEdgeWeight(1, 2, 10);
+        // The cache is empty again, so this miss runs the bidirectional search on the new weights.
+        assertEquals(5, engine.distance(0, 2));
+        assertArrayEquals(new int[] {0, 2}, engine.path(0, 2));
+        // The tree is computed from the new weights and cached, and then answers the query.
+        ShortestPathTree updated = engine.tree(0);
+        assertNotSame(tree, updated);
+        assertEquals(5, updated.distance(2));
+        assertEquals(5, engine.distance(0, 2));
+        assertSame(updated, engine.tree(0));
+        assertArrayEquals(new int[] {0, 2}, engine.path(0, 2));
+        // The caller's graph is left untouched.
+        assertEquals(1, graph.weights()[graph.offsets()[1]]);
+        assertEquals(-1, engine.distance(2, 0));
+    }
+
+    @Test
+    void testInvalid() {
+        CsrGraph graph = CsrGraph.fromEdges(2, new int[] {0}, new int[] {1}, new int[] {1});
+        assertThrows(IllegalArgumentException.class, () -> new ShortestPathEngine(graph, 0));
+        ShortestPathEngine engine = new ShortestPathEngine(graph, 1);
+        assertThrows(IllegalArgumentException.class, () -> engine.distance(0, 2));
+        assertThrows(IllegalArgumentException.class, () -> engine.setEdgeWeight(1, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> engine.setEdgeWeight(0, 1, -1));
+        assertThrows(IllegalArgumentException.class, () -> engine.distances(new int[] {0}, new int[0]));
+    }
+
+    private static long pathLength(CsrGraph graph, int[] path) {
+        long len = 0;
+        for (int i = 1; i < path.length; ++i) {
+            long best = Long.MAX_VALUE;
+            for (int e = graph.offsets()[path[i - 1]]; e < graph.offsets()[path[i - 1] + 1]; ++e) {
+                if (graph.targets()[e] == path[i]) {
+                    best = Math.min(best, graph.weights()[e]);
+                }
+            }
+            len += best;
+        }
+        return len;
+    }
+
+    /** A random graph where about one node in ten has no outgoing edges. */
+    private static CsrGraph randomGraph(int n, int degree, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; ++u) {
+            offsets[u + 1] = offsets[u] + (rnd.nextInt(10) == 0 ? 0 : degree);
+        }
+        int m = offsets[n];
+        return new CsrGraph(
+                offsets, rnd.ints(m, 0, n).toArray(), rnd.ints(m, 0, 100).toArray());
+    }
+}
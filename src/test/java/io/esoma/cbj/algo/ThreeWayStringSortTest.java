@@ -1,9 +1,16 @@
 package io.esoma.cbj.algo;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.tinylog.Logger;
 
 class ThreeWayStringSortTest {
@@ -746,4 +753,88 @@ class ThreeWayStringSortTest {
         Logger.debug(Arrays.toString(unsorted));
         assertArrayEquals(sorted, result);
     }
+
+    @Test
+    void testRadixSort1() {
+        String[] unsorted = new String[] {"b", "", "ab", "a", "\u0100", "ba", "\u00ff", "a", "abc", "\uffff", ""};
+        String[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        String[] result = ThreeWayStringSort.radixSort(unsorted);
+        Logger.debug(Arrays.toString(unsorted));
+        assertArrayEquals(sorted, result);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"10, 0", "1000, 0", "100000, 0", "100000, 30", "20000, 200"})
+    void testRadixSort2(int n, int prefix) {
+        String[] unsorted = randomPaths(n, prefix);
+        String[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(sorted, ThreeWayStringSort.radixSort(unsorted));
+    }
+
+    @Test
+    void testRadixSortLongPrefix() {
+        // Recursing once per character would need a call stack deeper than the prefix.
+        String prefix = "k".repeat(200_000);
+        String[] unsorted = new String[] {prefix + "c", prefix, prefix + "a", prefix + "b", prefix + "a"};
+        String[] sorted = new String[] {prefix, prefix + "a", prefix + "a", prefix + "b", prefix + "c"};
+        assertArrayEquals(sorted, ThreeWayStringSort.radixSort(unsorted));
+    }
+
+    @Test
+    void testRadixSortBytes() {
+        String[] keys = randomPaths(50_000, 5);
+        keys[0] = "caf\u00e9";
+        keys[1] = "cafe";
+        keys[2] = "caf\u4e2d";
+        byte[][] unsorted = new byte[keys.length][];
+        for (int i = 0; i < keys.length; ++i) {
+            unsorted[i] = keys[i].getBytes(StandardCharsets.UTF_8);
+        }
+        byte[][] result = ThreeWayStringSort.radixSort(unsorted);
+        assertEquals(keys.length, result.length);
+        for (int i = 1; i < result.length; ++i) {
+            assertTrue(Arrays.compareUnsigned(result[i - 1], result[i]) <= 0);
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"100, 0", "100000, 0", "100000, 40"})
+    void testParallelRadixSort(int n, int prefix) {
+        String[] unsorted = randomPaths(n, prefix);
+        String[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        byte[][] bytes = new byte[n][];
+        for (int i = 0; i < n; ++i) {
+            bytes[i] = unsorted[i].getBytes(StandardCharsets.UTF_8);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertArrayEquals(sorted, ThreeWayStringSort.parallelRadixSort(unsorted, pool));
+            byte[][] result = ThreeWayStringSort.parallelRadixSort(bytes, pool);
+            // The test keys are ASCII, so byte order matches string order.
+            for (int i = 0; i < n; ++i) {
+                assertEquals(sorted[i], new String(result[i], StandardCharsets.UTF_8));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Creates path-like keys that all start with the same number of fixed characters. */
+    private static String[] randomPaths(int n, int prefix) {
+        Random rnd = new Random(n * 31L + prefix);
+        String common = "/api/v1/".repeat(prefix / 8 + 1).substring(0, prefix);
+        String[] keys = new String[n];
+        for (int i = 0; i < n; ++i) {
+            StringBuilder sb = new StringBuilder(common);
+            int len = rnd.nextInt(12);
+            for (int j = 0; j < len; ++j) {
+                sb.append((char) ('a' + rnd.nextInt(rnd.nextBoolean() ? 3 : 26)));
+            }
+            keys[i] = sb.toString();
+        }
+        return keys;
+    }
 }
@@ -2,7 +2,19 @@ package io.esoma.cbj.algo;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
@@ -1443,6 +1455,209 @@ class TimSortTest {
         assertArrayEquals(sorted, result);
     }
 
+    @Test
+    void testSortConcurrent() throws Exception {
+        int tasks = 4000;
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < tasks; ++t) {
+                long seed = t;
+                results.add(pool.submit(() -> {
+                    Random rnd = new Random(seed);
+                    // Small value ranges create long runs and duplicates,
+                    // exercising galloping.
+                    int[] unsorted = rnd.ints(rnd.nextInt(5000), 0, 1 + rnd.nextInt(1000))
+                            .toArray();
+                    int[] sorted = unsorted.clone();
+                    Arrays.sort(sorted);
+                    return Arrays.equals(sorted, TimSort.sort(unsorted));
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        Logger.debug("Done! Tasks: {}.", tasks);
+    }
+
+    @Test
+    void testSorterReuse() {
+        TimSort sorter = TimSort.newSorter();
+        Random rnd = new Random(7);
+        for (int t = 0; t < 200; ++t) {
+            // Alternate between large and small arrays so that the buffers are reused after
+            // growing.
+            int[] unsorted = rnd.ints(t % 2 == 0 ? rnd.nextInt(100_000) : rnd.nextInt(100), 0, 1 + rnd.nextInt(5000))
+                    .toArray();
+            int[] sorted = unsorted.clone();
+            Arrays.sort(sorted);
+            assertArrayEquals(sorted, sorter.sortArray(unsorted));
+        }
+    }
+
+    @Test
+    void testSortNoAllocation() {
+        ThreadMXBean bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int[] source = new Random(11).ints(50_000, 0, 10_000).toArray();
+        int[] work = new int[source.length];
+        // Warm up so that the pooled sorter has grown its buffers.
+        for (int t = 0; t < 20; ++t) {
+            System.arraycopy(source, 0, work, 0, source.length);
+            TimSort.sort(work);
+        }
+
+        long before = bean.getCurrentThreadAllocatedBytes();
+        for (int t = 0; t < 20; ++t) {
+            System.arraycopy(source, 0, work, 0, source.length);
+            TimSort.sort(work);
+        }
+        long allocated = bean.getCurrentThreadAllocatedBytes() - before;
+        Logger.debug("Allocated: {} bytes.", allocated);
+        // Allow for a little noise from the measurement itself, far below one merge buffer.
+        assertTrue(allocated < 1024);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0, 1", "1, 1", "63, 10", "100000, 50", "100000, 2147483647"})
+    void testSortLong(int nelts, int bound) {
+        Random rnd = new Random(nelts);
+        long[] unsorted = rnd.longs(nelts, -bound, bound).toArray();
+        long[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(sorted, TimSort.sort(unsorted));
+    }
+
+    @Test
+    void testSortDouble() {
+        Random rnd = new Random(3);
+        double[] unsorted = new double[100_000];
+        for (int i = 0; i < unsorted.length; ++i) {
+            unsorted[i] = rnd.nextInt(1000) / 8.0 - 60;
+        }
+        // Special values must end up where Arrays.sort puts them.
+        unsorted[7] = Double.NaN;
+        unsorted[70] = -0.0;
+        unsorted[700] = 0.0;
+        unsorted[7000] = Double.NEGATIVE_INFINITY;
+        unsorted[70000] = -0.0;
+        unsorted[8] = Double.POSITIVE_INFINITY;
+        unsorted[80] = Double.MIN_VALUE;
+        unsorted[800] = -Double.MIN_VALUE;
+        unsorted[8000] = -Double.MAX_VALUE;
+        // A NaN with the sign bit set still goes last.
+        unsorted[80000] = Double.longBitsToDouble(0xfff8000000000001L);
+        double[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(sorted, TimSort.sort(unsorted));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"5000, 10", "300, 1000", "0, 1", "1, 1", "200000, 50", "70, 5"})
+    void testSortDoubleReuse(int nelts, int bound) {
+        // Runs in order on the same thread, so every call sees the buffer left by the previous one.
+        Random rnd = new Random(nelts);
+        double[] unsorted = rnd.doubles(nelts, -bound, bound).toArray();
+        double[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        int[] perm = new int[nelts];
+        for (int i = 0; i < nelts; ++i) {
+            perm[i] = nelts - 1 - i;
+        }
+        TimSort.sortIndirect(perm, unsorted);
+        for (int i = 0; i < nelts; ++i) {
+            assertEquals(sorted[i], unsorted[perm[i]]);
+        }
+        assertArrayEquals(sorted, TimSort.sort(unsorted));
+    }
+
+    @Test
+    void testSortObjectsStable() {
+        Random rnd = new Random(5);
+        // Sort (key, position) pairs by key only, any instability shows in the positions.
+        int[][] unsorted = new int[200_000][];
+        for (int i = 0; i < unsorted.length; ++i) {
+            // Sorted chunks with a few distinct keys exercise both galloping and equal keys.
+            int key = i % 5000 < 4000 ? (i % 5000) / 100 : rnd.nextInt(50);
+            unsorted[i] = new int[] {key, i};
+        }
+        Comparator<int[]> byKey = Comparator.comparingInt(e -> e[0]);
+        int[][] sorted = unsorted.clone();
+        Arrays.sort(sorted, byKey);
+        int[][] result = TimSort.sort(unsorted, byKey);
+        for (int i = 0; i < sorted.length; ++i) {
+            assertArrayEquals(sorted[i], result[i]);
+        }
+    }
+
+    @Test
+    void testSortIndirect() {
+        Random rnd = new Random(9);
+        int n = 150_000;
+        long[] timestamps = new long[n];
+        double[] prices = new double[n];
+        for (int i = 0; i < n; ++i) {
+            // Mostly ascending timestamps with late arrivals.
+            timestamps[i] = rnd.nextInt(10) == 0 ? rnd.nextInt(n) * 1000L : i * 1000L;
+            prices[i] = rnd.nextInt(300) / 4.0;
+        }
+        Integer[] expected = new Integer[n];
+        int[] perm = new int[n];
+        for (int i = 0; i < n; ++i) {
+            expected[i] = i;
+            perm[i] = i;
+        }
+
+        Arrays.sort(expected, Comparator.comparingLong(i -> timestamps[i]));
+        TimSort.sortIndirect(perm, timestamps);
+        assertArrayEquals(Arrays.stream(expected).mapToInt(i -> i).toArray(), perm);
+
+        // Sorting by a second column keeps the timestamp order among equal prices.
+        Arrays.sort(expected, Comparator.comparingDouble(i -> prices[i]));
+        TimSort.sortIndirect(perm, prices);
+        assertArrayEquals(Arrays.stream(expected).mapToInt(i -> i).toArray(), perm);
+
+        // Special prices are ordered as by Double.compare.
+        prices[3] = Double.NaN;
+        prices[30] = -0.0;
+        prices[300] = 0.0;
+        prices[3000] = Double.NEGATIVE_INFINITY;
+        Arrays.sort(expected, Comparator.comparingDouble(i -> prices[i]));
+        TimSort.sortIndirect(perm, prices);
+        assertArrayEquals(Arrays.stream(expected).mapToInt(i -> i).toArray(), perm);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0, 1", "100, 1", "1000000, 4", "1000000, 1000", "3000017, 7", "3000017, 100"})
+    void testParallelSort(int nelts, int bound) {
+        Random rnd = new Random(nelts + bound);
+        int[] unsorted = rnd.ints(nelts, 0, bound).toArray();
+        int[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertArrayEquals(sorted, TimSort.parallelSort(unsorted, pool));
+        } finally {
+            pool.shutdown();
+        }
+        Logger.debug("Done! Nelts: {}.", nelts);
+    }
+
+    @Test
+    void testParallelSortRuns() {
+        // Long ascending and descending runs that cross the chunk boundaries.
+        int[] unsorted = new int[2_000_000];
+        for (int i = 0; i < unsorted.length; ++i) {
+            int run = i / 150_000;
+            unsorted[i] = run % 2 == 0 ? i % 150_000 : -(i % 150_000);
+        }
+        int[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(sorted, TimSort.parallelSort(unsorted, ForkJoinPool.commonPool()));
+    }
+
     @ParameterizedTest
     @CsvSource({"55, 55", "2112, 33", "64, 32", "135, 34", "1000039, 62"})
     void testCalcMinRun(int nelts, int mr) {
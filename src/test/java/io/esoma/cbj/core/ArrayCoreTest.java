@@ -3,6 +3,7 @@ package io.esoma.cbj.core;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.Arrays;
+import java.util.Random;
 import org.junit.jupiter.api.Test;
 import org.tinylog.Logger;
 
@@ -40,6 +41,20 @@ class ArrayCoreTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    void testLinearSearchIntSimd() {
+        // Runs with the vector module added by the build.
+        assertTrue(ArrayCore.isVectorized());
+        int[] array = new Random(101).ints(101, 0, 50).toArray();
+        for (int target = -1; target <= 50; ++target) {
+            for (int bin = 0; bin < 20; bin += 3) {
+                int end = array.length - 1 - bin;
+                int expected = ArrayCore.linearSearchInt(array, target, bin, end);
+                assertEquals(expected, ArrayCore.linearSearchIntSimd(array, target, bin, end));
+            }
+        }
+    }
+
     @Test
     void testReverseInt1() {
         int[] straight = new int[] {
@@ -1,8 +1,15 @@
 package io.esoma.cbj.core;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.tinylog.Logger;
 
 class BinarySearchTest {
@@ -161,4 +168,78 @@ class BinarySearchTest {
         Logger.debug(actual);
         assertEquals(expected, actual);
     }
+
+    @Test
+    void testSearchIntBranchless1() {
+        int[] sorted = new int[] {1, 3, 3, 3, 7, 9, 9, 12};
+        assertEquals(1, BinarySearch.searchIntBranchless(sorted, 3));
+        assertEquals(5, BinarySearch.searchIntBranchless(sorted, 9));
+        assertEquals(7, BinarySearch.searchIntBranchless(sorted, 12));
+        assertEquals(-1, BinarySearch.searchIntBranchless(sorted, 8));
+        assertEquals(-1, BinarySearch.searchIntBranchless(sorted, 13));
+        assertEquals(-1, BinarySearch.searchIntBranchless(new int[0], 1));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1", "2", "7", "64", "1000", "4097"})
+    void testSearchIntLeftBranchless(int n) {
+        int[] sorted = new Random(n).ints(n, 0, n).sorted().toArray();
+        for (int target = -1; target <= n; ++target) {
+            int expected = BinarySearch.searchIntLeft(sorted, target, 0, n - 1);
+            int actual = BinarySearch.searchIntLeftBranchless(sorted, target, 0, n - 1);
+            assertEquals(expected, actual);
+        }
+        // Search within bounds only.
+        int bin = n / 4;
+        int end = n - 1 - n / 4;
+        for (int target = -1; target <= n; ++target) {
+            int expected = BinarySearch.searchIntLeft(sorted, target, bin, end);
+            assertEquals(expected, BinarySearch.searchIntLeftBranchless(sorted, target, bin, end));
+        }
+        Logger.debug(Arrays.toString(Arrays.copyOf(sorted, Math.min(n, 10))));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1", "5", "100", "4097"})
+    void testGallopIntLeft(int n) {
+        int[] sorted = new Random(n).ints(n, 0, n).sorted().toArray();
+        for (int bin = 0; bin < n; bin += Math.max(1, n / 7)) {
+            for (int target = -1; target <= n; ++target) {
+                int expected = BinarySearch.searchIntLeft(sorted, target, bin, n - 1);
+                assertEquals(expected, BinarySearch.gallopIntLeft(sorted, target, bin, n - 1));
+            }
+        }
+    }
+
+    @Test
+    void testSearchAll() {
+        int[] sorted = new int[] {2, 4, 4, 8, 16, 23, 42, 42, 99};
+        int[] probes = new int[] {1, 2, 4, 4, 5, 42, 99, 100};
+        int[] expected = new int[] {-1, 0, 1, 1, -1, 6, 8, -1};
+        int[] actual = BinarySearch.searchAll(sorted, probes);
+        Logger.debug(Arrays.toString(actual));
+        assertArrayEquals(expected, actual);
+        assertArrayEquals(new int[] {-1}, BinarySearch.searchAll(new int[0], new int[] {3}));
+        assertThrows(IllegalArgumentException.class, () -> BinarySearch.searchAll(sorted, new int[] {5, 4}));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1000, 10", "1000, 5000", "1000000, 100000"})
+    void testParallelSearchAll(int n, int m) {
+        Random rnd = new Random(n + m);
+        int[] sorted = rnd.ints(n, 0, 2 * n).sorted().toArray();
+        int[] probes = rnd.ints(m, -1, 2 * n + 1).sorted().toArray();
+        int[] expected = new int[m];
+        for (int i = 0; i < m; ++i) {
+            int j = BinarySearch.searchIntLeft(sorted, probes[i], 0, n - 1);
+            expected[i] = j < n && sorted[j] == probes[i] ? j : -1;
+        }
+        assertArrayEquals(expected, BinarySearch.searchAll(sorted, probes));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertArrayEquals(expected, BinarySearch.parallelSearchAll(sorted, probes, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
 }
@@ -0,0 +1,51 @@
+package io.esoma.cbj.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.tinylog.Logger;
+
+class EytzingerIndexTest {
+
+    @Test
+    void testIndexOf() {
+        int[] sorted = new int[] {2, 3, 5, 7, 11, 13, 17, 19, 23, 29};
+        EytzingerIndex index = new EytzingerIndex(sorted);
+        assertEquals(10, index.size());
+        assertEquals(0, index.indexOf(2));
+        assertEquals(4, index.indexOf(11));
+        assertEquals(9, index.indexOf(29));
+        assertEquals(-1, index.indexOf(12));
+        assertEquals(-1, index.indexOf(30));
+        assertTrue(index.contains(17));
+        assertFalse(index.contains(1));
+    }
+
+    @Test
+    void testEmpty() {
+        EytzingerIndex index = new EytzingerIndex(new int[0]);
+        assertEquals(0, index.lowerBound(5));
+        assertEquals(-1, index.indexOf(5));
+        assertThrows(IllegalArgumentException.class, () -> new EytzingerIndex(null));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1", "2", "3", "15", "16", "1000", "65537"})
+    void testLowerBound(int n) {
+        int[] sorted = new Random(n).ints(n, 0, n).sorted().toArray();
+        EytzingerIndex index = new EytzingerIndex(sorted);
+        for (int target = -1; target <= n; ++target) {
+            int expected = BinarySearch.searchIntLeft(sorted, target, 0, n - 1);
+            assertEquals(expected, index.lowerBound(target));
+            int found = expected < n && sorted[expected] == target ? expected : -1;
+            assertEquals(found, index.indexOf(target));
+        }
+        Logger.debug("Verified Eytzinger index of {} keys", n);
+    }
+}
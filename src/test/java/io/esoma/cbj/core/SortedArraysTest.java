@@ -0,0 +1,81 @@
+package io.esoma.cbj.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.tinylog.Logger;
+
+class SortedArraysTest {
+
+    @Test
+    void testIntersect() {
+        int[] a = new int[] {1, 2, 2, 2, 5, 7, 9};
+        int[] b = new int[] {2, 2, 3, 7, 7, 10};
+        int[] expected = new int[] {2, 2, 7};
+        int[] actual = SortedArrays.intersect(a, b);
+        Logger.debug(Arrays.toString(actual));
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void testUnion() {
+        int[] a = new int[] {1, 2, 2, 2, 5, 7, 9};
+        int[] b = new int[] {2, 2, 3, 7, 7, 10};
+        int[] expected = new int[] {1, 2, 2, 2, 3, 5, 7, 7, 9, 10};
+        int[] actual = SortedArrays.union(a, b);
+        Logger.debug(Arrays.toString(actual));
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void testDifference() {
+        int[] a = new int[] {1, 2, 2, 2, 5, 7, 9};
+        int[] b = new int[] {2, 2, 3, 7, 7, 10};
+        int[] expected = new int[] {1, 2, 5, 9};
+        int[] actual = SortedArrays.difference(a, b);
+        Logger.debug(Arrays.toString(actual));
+        assertArrayEquals(expected, actual);
+        assertArrayEquals(new int[] {3, 7, 10}, SortedArrays.difference(b, a));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0, 10", "10, 10", "100, 1000", "50, 100000", "100000, 30", "20000, 20000"})
+    void testAgainstCounts(int m, int n) {
+        Random rnd = new Random(m * 31L + n);
+        int[] a = rnd.ints(m, 0, 500).sorted().toArray();
+        int[] b = rnd.ints(n, 0, 500).sorted().toArray();
+        TreeMap<Integer, int[]> counts = new TreeMap<>();
+        for (int x : a) {
+            ++counts.computeIfAbsent(x, key -> new int[2])[0];
+        }
+        for (int y : b) {
+            ++counts.computeIfAbsent(y, key -> new int[2])[1];
+        }
+
+        assertArrayEquals(expand(counts, 0), SortedArrays.intersect(a, b));
+        assertArrayEquals(expand(counts, 0), SortedArrays.intersect(b, a));
+        assertArrayEquals(expand(counts, 1), SortedArrays.union(a, b));
+        assertArrayEquals(expand(counts, 2), SortedArrays.difference(a, b));
+    }
+
+    /** Expands the counts into the min (0), max (1) or difference (2) of both sides. */
+    private static int[] expand(TreeMap<Integer, int[]> counts, int op) {
+        return counts.entrySet().stream()
+                .flatMapToInt(e -> {
+                    int[] c = e.getValue();
+                    int times =
+                            switch (op) {
+                                case 0 -> Math.min(c[0], c[1]);
+                                case 1 -> Math.max(c[0], c[1]);
+                                default -> Math.max(c[0] - c[1], 0);
+                            };
+                    return Arrays.stream(new int[times]).map(x -> e.getKey());
+                })
+                .toArray();
+    }
+}
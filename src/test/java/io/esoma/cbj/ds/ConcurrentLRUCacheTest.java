@@ -0,0 +1,170 @@
+package io.esoma.cbj.ds;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.tinylog.Logger;
+
+class ConcurrentLRUCacheTest {
+
+    @Test
+    void testSmallCapExactOrder() {
+        // A single segment drained by the single writer follows the exact LRU order.
+        ConcurrentLRUCache<String> cache = new ConcurrentLRUCache<>(3, 1);
+
+        assertNull(cache.get(0));
+        assertTrue(cache.put(1, "1"));
+        assertEquals("1", cache.get(1));
+        assertFalse(cache.put(1, "one")); // 1
+
+        assertTrue(cache.put(2, "2"));
+        assertTrue(cache.put(3, "3"));
+        assertTrue(cache.put(4, "4")); // 4, 3, 2
+        assertNull(cache.get(1));
+        assertEquals("2", cache.get(2)); // 2, 4, 3
+        assertTrue(cache.put(5, "5")); // 5, 2, 4
+        assertFalse(cache.put(4, "four")); // 4, 5, 2
+        assertNull(cache.get(3));
+        assertEquals(3, cache.size());
+
+        assertTrue(cache.put(8, "8"));
+        assertTrue(cache.put(7, "7")); // 7, 8, 4
+        assertNull(cache.get(5));
+        assertEquals("four", cache.get(4)); // 4, 7, 8
+        assertTrue(cache.put(6, "6")); // 6, 4, 7
+        assertNull(cache.get(8));
+        assertEquals("7", cache.get(7));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get(7));
+        assertNull(cache.get(6));
+        assertTrue(cache.put(6, "6"));
+        assertEquals("6", cache.get(6));
+    }
+
+    @Test
+    void testLargeCapManyHits() {
+        final String prefix = "lru_str_";
+
+        ConcurrentLRUCache<String> cache = new ConcurrentLRUCache<>(2022, 1);
+        for (int i = 1; i <= 3033; ++i) {
+            assertTrue(cache.put(i, prefix + i));
+        }
+        assertNull(cache.get(1011));
+        // Far more hits than a read buffer holds between two writes.
+        for (int round = 0; round < 3; ++round) {
+            for (int i = 1012; i <= 1111; ++i) {
+                assertEquals(prefix + i, cache.get(i));
+            }
+        }
+        for (int i = 9999; i <= 11111; ++i) {
+            assertTrue(cache.put(i, prefix + i));
+        }
+        for (int i = 1012; i <= 1111; ++i) {
+            assertEquals(prefix + i, cache.get(i));
+        }
+        assertNull(cache.get(1112));
+        assertEquals(2022, cache.size());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1024, 16", "1000, 64", "100, 8", "20, 4"})
+    void testGlobalCapacity(int capacity, int concurrency) {
+        ConcurrentLRUCache<Integer> cache = new ConcurrentLRUCache<>(capacity, concurrency);
+        SplittableRandom rand = new SplittableRandom(capacity);
+        for (int i = 0; i < 100000; ++i) {
+            int key = rand.nextInt();
+            cache.put(key, key);
+            assertTrue(cache.size() <= capacity + capacity / 16);
+        }
+        Logger.debug(cache.size());
+        assertTrue(cache.size() >= capacity);
+    }
+
+    @Test
+    void testHotKeysSurvive() {
+        ConcurrentLRUCache<Integer> cache = new ConcurrentLRUCache<>(1024, 16);
+        for (int round = 0, cold = 1000; round < 100; ++round) {
+            for (int hot = 0; hot < 100; ++hot) {
+                if (cache.get(hot) == null) {
+                    assertEquals(0, round);
+                    cache.put(hot, hot);
+                }
+            }
+            for (int i = 0; i < 200; ++i, ++cold) {
+                cache.put(cold, cold);
+            }
+        }
+    }
+
+    @Test
+    void testInvalid() {
+        ConcurrentLRUCache<Object> cache = new ConcurrentLRUCache<>(0);
+        assertEquals(20, cache.capacity());
+        assertThrows(IllegalArgumentException.class, () -> cache.put(1, null));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentLRUCache<>(10, 0));
+    }
+
+    @Test
+    void testConcurrentAccess() throws Exception {
+        int capacity = 4096;
+        int keys = 16384;
+        ConcurrentLRUCache<Integer> cache = new ConcurrentLRUCache<>(capacity, 32);
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; ++t) {
+                long seed = t;
+                results.add(pool.submit(() -> {
+                    SplittableRandom rand = new SplittableRandom(seed);
+                    int hits = 0;
+                    for (int i = 0; i < 200000; ++i) {
+                        // Skewed towards the small keys.
+                        int key = (int) (keys * Math.pow(rand.nextDouble(), 3));
+                        if (rand.nextInt(10) == 0) {
+                            cache.put(key, -key);
+                        } else {
+                            Integer value = cache.get(key);
+                            if (value != null) {
+                                // A value is never mixed up with the one of another
+                                // key.
+                                assertEquals(-key, value);
+                                ++hits;
+                            }
+                        }
+                    }
+                    return hits;
+                }));
+            }
+            int hits = 0;
+            for (Future<Integer> result : results) {
+                hits += result.get();
+            }
+            Logger.debug("Hits: {}.", hits);
+            assertTrue(hits > 0);
+        } finally {
+            pool.shutdown();
+        }
+
+        // Every counted entry can be found, and no more.
+        int found = 0;
+        for (int key = 0; key < keys; ++key) {
+            if (cache.get(key) != null) {
+                ++found;
+            }
+        }
+        assertEquals(cache.size(), found);
+        assertTrue(found <= capacity + capacity / 16);
+        assertTrue(found >= capacity - threads);
+    }
+}
@@ -0,0 +1,57 @@
+package io.esoma.cbj.ds;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.tinylog.Logger;
+
+class CsrGraphTest {
+
+    @Test
+    void testFromEdges() {
+        int[] from = new int[] {2, 0, 2, 1, 0};
+        int[] to = new int[] {0, 1, 1, 2, 2};
+        int[] weight = new int[] {5, 1, 4, 3, 2};
+        CsrGraph graph = CsrGraph.fromEdges(4, from, to, weight);
+        Logger.debug(Arrays.toString(graph.offsets()));
+        assertEquals(4, graph.nodeCount());
+        assertEquals(5, graph.edgeCount());
+        assertArrayEquals(new int[] {0, 2, 3, 5, 5}, graph.offsets());
+        assertArrayEquals(new int[] {1, 2, 2, 0, 1}, graph.targets());
+        assertArrayEquals(new int[] {1, 2, 3, 5, 4}, graph.weights());
+        assertEquals(2, graph.degree(2));
+        assertEquals(0, graph.degree(3));
+        assertFalse(graph.hasNegativeWeight());
+    }
+
+    @Test
+    void testReverse() {
+        int[] from = new int[] {2, 0, 2, 1, 0};
+        int[] to = new int[] {0, 1, 1, 2, 2};
+        int[] weight = new int[] {5, 1, 4, 3, 2};
+        CsrGraph reverse = CsrGraph.fromEdges(4, from, to, weight).reverse();
+        Logger.debug(Arrays.toString(reverse.targets()));
+        assertArrayEquals(new int[] {0, 1, 3, 5, 5}, reverse.offsets());
+        assertArrayEquals(new int[] {2, 0, 2, 0, 1}, reverse.targets());
+        assertArrayEquals(new int[] {5, 1, 4, 2, 3}, reverse.weights());
+    }
+
+    @Test
+    void testInvalid() {
+        assertThrows(
+                IllegalArgumentException.class, () -> new CsrGraph(new int[] {0, 2}, new int[] {0}, new int[] {1}));
+        assertThrows(
+                IllegalArgumentException.class, () -> new CsrGraph(new int[] {0, 1}, new int[] {1}, new int[] {1}));
+        assertThrows(
+                IllegalArgumentException.class, () -> new CsrGraph(new int[] {0, 2, 1}, new int[] {0}, new int[] {1}));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> CsrGraph.fromEdges(2, new int[] {2}, new int[] {0}, new int[] {1}));
+        assertTrue(new CsrGraph(new int[] {0, 1}, new int[] {0}, new int[] {-1}).hasNegativeWeight());
+    }
+}
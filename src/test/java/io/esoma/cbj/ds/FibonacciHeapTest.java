@@ -1,7 +1,14 @@
 package io.esoma.cbj.ds;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -159,4 +166,125 @@ class FibonacciHeapTest {
         Logger.debug(tfh);
         assertEquals(expected, actual);
     }
+
+    @Test
+    void testFhDecreaseKey() {
+        List<FibonacciHeap.Handle<Integer>> handles = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            handles.add(tfh.push(100 + i * 10));
+        }
+        // Consolidate so that later decreases have parents to cut from.
+        assertEquals(100, tfh.popMin());
+
+        tfh.decreaseKey(handles.get(9), 5);
+        tfh.decreaseKey(handles.get(5), 7);
+        tfh.decreaseKey(handles.get(7), 6);
+        Logger.debug(tfh);
+        assertEquals(5, tfh.popMin());
+        assertEquals(6, tfh.popMin());
+        assertEquals(7, tfh.popMin());
+        assertEquals(110, tfh.peekMin());
+        assertEquals(6, tfh.getSize());
+
+        assertThrows(IllegalArgumentException.class, () -> tfh.decreaseKey(handles.get(1), 500));
+        assertThrows(IllegalArgumentException.class, () -> tfh.decreaseKey(handles.get(0), 1));
+        assertFalse(handles.get(0).isValid());
+    }
+
+    @Test
+    void testFhDeleteAndMerge() {
+        FibonacciHeap.Handle<Integer> h1 = tfh.push(4);
+        FibonacciHeap.Handle<Integer> h2 = tfh.push(8);
+        tfh.push(6);
+        tfh.delete(h1);
+        assertEquals(6, tfh.peekMin());
+
+        FibonacciHeap<Integer> other = new FibonacciHeap<>();
+        FibonacciHeap.Handle<Integer> h3 = other.push(9);
+        other.push(1);
+        tfh.merge(other);
+        assertEquals(0, other.getSize());
+        assertNull(other.peekMin());
+        assertEquals(4, tfh.getSize());
+
+        // Handles of the merged heap belong to this heap now.
+        tfh.decreaseKey(h3, 0);
+        tfh.delete(h2);
+        Logger.debug(tfh);
+        assertEquals(0, tfh.popMin());
+        assertEquals(1, tfh.popMin());
+        assertEquals(6, tfh.popMin());
+        assertNull(tfh.popMin());
+        assertThrows(IllegalArgumentException.class, () -> tfh.delete(h1));
+    }
+
+    @Test
+    void testFhForeignHandle() {
+        FibonacciHeap<Integer> a = new FibonacciHeap<>();
+        FibonacciHeap<Integer> b = new FibonacciHeap<>();
+        FibonacciHeap<Integer> c = new FibonacciHeap<>();
+        FibonacciHeap.Handle<Integer> ha = a.push(5);
+        FibonacciHeap.Handle<Integer> hb = b.push(7);
+        FibonacciHeap.Handle<Integer> hc = c.push(9);
+
+        // A handle of another heap is rejected, and neither heap changes.
+        assertThrows(IllegalArgumentException.class, () -> a.decreaseKey(hb, 1));
+        assertThrows(IllegalArgumentException.class, () -> a.delete(hb));
+        assertEquals(1, a.getSize());
+        assertEquals(5, a.peekMin());
+        assertEquals(7, b.peekMin());
+
+        // Handles follow their elements through chains of merges.
+        b.merge(a);
+        c.merge(b);
+        assertThrows(IllegalArgumentException.class, () -> a.delete(ha));
+        assertThrows(IllegalArgumentException.class, () -> b.decreaseKey(hb, 1));
+        c.decreaseKey(ha, 2);
+        c.delete(hb);
+        assertEquals(2, c.getSize());
+
+        // An emptied heap owns its new elements only.
+        FibonacciHeap.Handle<Integer> hn = b.push(3);
+        assertThrows(IllegalArgumentException.class, () -> c.delete(hn));
+        assertThrows(IllegalArgumentException.class, () -> b.delete(hc));
+        b.decreaseKey(hn, 1);
+        assertEquals(1, b.popMin());
+        assertEquals(2, c.popMin());
+        assertEquals(9, c.popMin());
+        assertNull(c.popMin());
+    }
+
+    @Test
+    void testFhRandom() {
+        Random rnd = new Random(15);
+        PriorityQueue<Integer> expected = new PriorityQueue<>();
+        List<FibonacciHeap.Handle<Integer>> handles = new ArrayList<>();
+        for (int round = 0; round < 20000; ++round) {
+            int op = rnd.nextInt(10);
+            if (op < 4 || expected.isEmpty()) {
+                int key = rnd.nextInt(1_000_000);
+                handles.add(tfh.push(key));
+                expected.add(key);
+            } else if (op < 6) {
+                assertEquals(expected.poll(), tfh.popMin());
+            } else {
+                FibonacciHeap.Handle<Integer> h = handles.get(rnd.nextInt(handles.size()));
+                if (!h.isValid()) {
+                    continue;
+                }
+                expected.remove(h.getKey());
+                if (op < 9) {
+                    int key = h.getKey() - rnd.nextInt(1000);
+                    tfh.decreaseKey(h, key);
+                    expected.add(key);
+                } else {
+                    tfh.delete(h);
+                }
+            }
+            assertEquals(expected.size(), tfh.getSize());
+        }
+        while (!expected.isEmpty()) {
+            assertEquals(expected.poll(), tfh.popMin());
+        }
+    }
 }
@@ -0,0 +1,66 @@
+package io.esoma.cbj.ds;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.tinylog.Logger;
+
+class FrequencySketchTest {
+
+    @Test
+    void testCounts() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        assertEquals(0, sketch.frequency(42));
+        for (int i = 1; i <= 10; ++i) {
+            sketch.increment(42);
+            assertEquals(i, sketch.frequency(42));
+        }
+        // Counters stop at 15.
+        for (int i = 0; i < 100; ++i) {
+            sketch.increment(-7);
+        }
+        assertEquals(15, sketch.frequency(-7));
+
+        sketch.clear();
+        assertEquals(0, sketch.frequency(42));
+        assertEquals(0, sketch.frequency(-7));
+    }
+
+    @Test
+    void testFewCollisions() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        for (int key = 0; key < 1024; ++key) {
+            sketch.increment(key);
+        }
+        int over = 0;
+        for (int key = 0; key < 1024; ++key) {
+            assertTrue(sketch.frequency(key) >= 1);
+            over += sketch.frequency(key) > 1 ? 1 : 0;
+        }
+        Logger.debug("Overestimated keys: {}.", over);
+        assertTrue(over < 64);
+    }
+
+    @Test
+    void testAging() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 12; ++i) {
+            sketch.increment(1);
+        }
+        assertEquals(12, sketch.frequency(1));
+        // The 160th increment halves every counter.
+        for (int key = 1000; sketch.frequency(1) == 12; ++key) {
+            sketch.increment(key);
+            assertTrue(key < 1000 + 160);
+        }
+        assertEquals(6, sketch.frequency(1));
+    }
+
+    @Test
+    void testTinyCapacity() {
+        FrequencySketch sketch = new FrequencySketch(1);
+        sketch.increment(3);
+        sketch.increment(3);
+        assertTrue(sketch.frequency(3) >= 2);
+    }
+}
@@ -0,0 +1,78 @@
+package io.esoma.cbj.ds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.tinylog.Logger;
+
+class IndexedMinHeapTest {
+
+    @Test
+    void testHeap() {
+        IndexedMinHeap heap = new IndexedMinHeap(10);
+        assertTrue(heap.isEmpty());
+        heap.insert(3, 30);
+        heap.insert(7, 10);
+        heap.insert(1, 20);
+        heap.insert(9, 40);
+        assertEquals(4, heap.size());
+        assertEquals(7, heap.peekMin());
+
+        heap.decreaseKey(9, 5);
+        assertEquals(5, heap.keyOf(9));
+        assertEquals(9, heap.pollMin());
+        assertFalse(heap.contains(9));
+        assertEquals(7, heap.pollMin());
+        assertEquals(1, heap.pollMin());
+        assertEquals(3, heap.pollMin());
+        assertTrue(heap.isEmpty());
+        Logger.debug("Heap drained");
+    }
+
+    @Test
+    void testHeapInvalid() {
+        IndexedMinHeap heap = new IndexedMinHeap(4);
+        heap.insert(2, 10);
+        assertThrows(IllegalArgumentException.class, () -> heap.insert(2, 5));
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(2, 11));
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(1, 1));
+        heap.clear();
+        assertFalse(heap.contains(2));
+        assertThrows(IllegalStateException.class, heap::pollMin);
+        assertThrows(IllegalArgumentException.class, () -> new IndexedMinHeap(4, 1));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"2", "3", "4", "8"})
+    void testHeapRandom(int arity) {
+        int n = 5000;
+        Random rnd = new Random(arity);
+        IndexedMinHeap heap = new IndexedMinHeap(n, arity);
+        long[] keys = new long[n];
+        for (int id = 0; id < n; ++id) {
+            keys[id] = rnd.nextInt(1_000_000);
+            heap.insert(id, keys[id]);
+        }
+        for (int i = 0; i < n; ++i) {
+            int id = rnd.nextInt(n);
+            keys[id] -= rnd.nextInt(1000);
+            heap.decreaseKey(id, keys[id]);
+        }
+
+        PriorityQueue<Long> expected = new PriorityQueue<>();
+        for (long k : keys) {
+            expected.add(k);
+        }
+        while (!heap.isEmpty()) {
+            int id = heap.pollMin();
+            assertEquals(expected.poll(), keys[id]);
+        }
+    }
+}
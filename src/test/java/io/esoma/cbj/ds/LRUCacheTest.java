@@ -3,9 +3,15 @@ package io.esoma.cbj.ds;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.tinylog.Logger;
 
 class LRUCacheTest {
 
@@ -111,4 +117,131 @@ class LRUCacheTest {
             assertNull(lruCache.get(i));
         }
     }
+
+    @Test
+    void testLRUCacheCapOne() {
+        LRUCache<String> lruCache = new LRUCache<>(1);
+        for (int i = 0; i < 100; ++i) {
+            assertTrue(lruCache.put(i, "v" + i));
+            assertEquals("v" + i, lruCache.get(i));
+            assertNull(lruCache.get(i - 1));
+            assertEquals(1, lruCache.size());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 10, 100, 1000})
+    void testTinyLfuCapacity(int capacity) {
+        LRUCache<Integer> cache = new LRUCache<>(capacity, TinyLfuPolicy::new);
+        assertEquals(capacity, cache.capacity());
+        SplittableRandom rand = new SplittableRandom(capacity);
+        for (int i = 0; i < 100000; ++i) {
+            int key = (int) (capacity * 4 * Math.pow(rand.nextDouble(), 2));
+            Integer value = cache.get(key);
+            if (value == null) {
+                assertTrue(cache.put(key, key * 7));
+            } else {
+                assertEquals(key * 7, value);
+                if (i % 5 == 0) {
+                    assertFalse(cache.put(key, key * 7));
+                }
+            }
+            assertTrue(cache.size() <= capacity);
+        }
+        assertEquals(capacity, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        for (int key = 0; key < capacity * 4; ++key) {
+            assertNull(cache.get(key));
+        }
+    }
+
+    @Test
+    void testTinyLfuScanResistance() {
+        LRUCache<Integer> lru = new LRUCache<>(100);
+        LRUCache<Integer> tinyLfu = new LRUCache<>(100, TinyLfuPolicy::new);
+        for (LRUCache<Integer> cache : List.of(lru, tinyLfu)) {
+            // Make 50 keys popular, then scan through many keys that are seen once.
+            for (int round = 0; round < 5; ++round) {
+                for (int key = 0; key < 50; ++key) {
+                    if (cache.get(key) == null) {
+                        cache.put(key, key);
+                    }
+                }
+            }
+            // The scan is six times the capacity, but shorter than the aging period of the sketch.
+            for (int key = 1000; key < 1600; ++key) {
+                if (cache.get(key) == null) {
+                    cache.put(key, key);
+                }
+            }
+        }
+
+        int lruHits = 0;
+        int tinyLfuHits = 0;
+        for (int key = 0; key < 50; ++key) {
+            lruHits += lru.get(key) != null ? 1 : 0;
+            tinyLfuHits += tinyLfu.get(key) != null ? 1 : 0;
+        }
+        Logger.debug("Popular keys kept: LRU {}, W-TinyLFU {}.", lruHits, tinyLfuHits);
+        assertEquals(0, lruHits);
+        assertEquals(50, tinyLfuHits);
+    }
+
+    @Test
+    void testTinyLfuAdaptsToNewWorkingSet() {
+        // The sketch ages, so a new working set replaces an old one that is no longer used.
+        LRUCache<Integer> cache = new LRUCache<>(100, TinyLfuPolicy::new);
+        for (int phase = 0; phase < 2; ++phase) {
+            int base = phase * 1000;
+            for (int round = 0; round < 30; ++round) {
+                for (int key = base; key < base + 80; ++key) {
+                    if (cache.get(key) == null) {
+                        cache.put(key, key);
+                    }
+                }
+            }
+        }
+        int kept = 0;
+        for (int key = 1000; key < 1080; ++key) {
+            kept += cache.get(key) != null ? 1 : 0;
+        }
+        assertEquals(80, kept);
+    }
+
+    @Test
+    void testPolicyHitRatioOnSkewedTraceWithScans() {
+        SplittableRandom rand = new SplittableRandom(25);
+        int[] trace = new int[200000];
+        for (int i = 0, scan = -1; i < trace.length; ++i) {
+            // A skewed workload over 10000 keys, with a scan of one-off keys every 5000 lookups.
+            trace[i] = i % 5000 < 4000 ? (int) (10000 * Math.pow(rand.nextDouble(), 4)) : scan--;
+        }
+        double lru = hitRatio(trace, 500, LruPolicy::new);
+        double tinyLfu = hitRatio(trace, 500, TinyLfuPolicy::new);
+        Logger.debug("Hit ratio: LRU {}, W-TinyLFU {}.", lru, tinyLfu);
+        assertTrue(tinyLfu > lru);
+    }
+
+    @Test
+    void testPolicyInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new LruPolicy(0));
+        assertThrows(IllegalArgumentException.class, () -> new TinyLfuPolicy(-1));
+        // The default capacity of the cache is passed to the policy.
+        assertEquals(20, new LRUCache<Integer>(0, TinyLfuPolicy::new).capacity());
+    }
+
+    private static double hitRatio(int[] trace, int capacity, IntFunction<EvictionPolicy> policy) {
+        LRUCache<Integer> cache = new LRUCache<>(capacity, policy);
+        int hits = 0;
+        for (int key : trace) {
+            if (cache.get(key) != null) {
+                ++hits;
+            } else {
+                cache.put(key, key);
+            }
+        }
+        return (double) hits / trace.length;
+    }
 }
@@ -0,0 +1,139 @@
+package io.esoma.cbj.ds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.tinylog.Logger;
+
+class LinkCutTreeTest {
+
+    @Test
+    void testLinkCut() {
+        LinkCutTree tree = new LinkCutTree(6);
+        for (int x = 0; x < 6; ++x) {
+            tree.setValue(x, x * 10);
+        }
+        tree.link(0, 1);
+        tree.link(1, 2);
+        tree.link(3, 1);
+        tree.link(4, 5);
+        assertTrue(tree.connected(0, 3));
+        assertFalse(tree.connected(0, 4));
+        assertEquals(3, tree.pathMax(0, 3));
+        assertEquals(2, tree.pathMax(2, 0));
+
+        tree.setValue(1, 100);
+        assertEquals(1, tree.pathMax(0, 2));
+        assertEquals(100, tree.value(1));
+
+        tree.cut(1, 3);
+        assertFalse(tree.connected(0, 3));
+        tree.link(3, 4);
+        assertEquals(5, tree.pathMax(3, 5));
+        Logger.debug(tree.size());
+    }
+
+    @Test
+    void testLinkCutInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new LinkCutTree(-1));
+        LinkCutTree tree = new LinkCutTree(4);
+        tree.link(0, 1);
+        tree.link(1, 2);
+        assertThrows(IllegalArgumentException.class, () -> tree.link(0, 2));
+        assertThrows(IllegalArgumentException.class, () -> tree.cut(0, 2));
+        assertThrows(IllegalArgumentException.class, () -> tree.cut(0, 3));
+        assertThrows(IllegalArgumentException.class, () -> tree.pathMax(0, 3));
+        // A failed cut must leave the tree intact.
+        assertTrue(tree.connected(0, 2));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"10, 1000", "200, 20000", "2000, 50000"})
+    void testRandomOperations(int n, int ops) {
+        // Compare against adjacency lists searched on every query.
+        Random rand = new Random(n);
+        LinkCutTree tree = new LinkCutTree(n);
+        List<List<Integer>> adj = new ArrayList<>();
+        long[] values = new long[n];
+        for (int x = 0; x < n; ++x) {
+            adj.add(new ArrayList<>());
+            values[x] = rand.nextInt(1000);
+            tree.setValue(x, values[x]);
+        }
+
+        int links = 0;
+        for (int k = 0; k < ops; ++k) {
+            int u = rand.nextInt(n);
+            int v = rand.nextInt(n);
+            int[] path = path(adj, u, v);
+            assertEquals(path != null, tree.connected(u, v));
+            int op = rand.nextInt(4);
+            if (path == null) {
+                tree.link(u, v);
+                adj.get(u).add(v);
+                adj.get(v).add(u);
+                ++links;
+            } else if (op == 0 && path.length > 1) {
+                // Cut a random edge of the path.
+                int i = rand.nextInt(path.length - 1);
+                int a = path[i];
+                int b = path[i + 1];
+                tree.cut(b, a);
+                adj.get(a).remove(Integer.valueOf(b));
+                adj.get(b).remove(Integer.valueOf(a));
+            } else if (op == 1) {
+                values[u] = rand.nextInt(1000);
+                tree.setValue(u, values[u]);
+            } else {
+                long best = Long.MIN_VALUE;
+                for (int x : path) {
+                    best = Math.max(best, values[x]);
+                }
+                assertEquals(best, values[tree.pathMax(u, v)]);
+            }
+        }
+        Logger.debug(links);
+    }
+
+    /** Finds the path between two nodes with a depth-first search, or null if there is none. */
+    private static int[] path(List<List<Integer>> adj, int u, int v) {
+        int n = adj.size();
+        int[] prev = new int[n];
+        Arrays.fill(prev, -2);
+        int[] stack = new int[n];
+        int top = 0;
+        stack[top++] = u;
+        prev[u] = -1;
+        while (top > 0) {
+            int x = stack[--top];
+            for (int y : adj.get(x)) {
+                if (prev[y] == -2) {
+                    prev[y] = x;
+                    stack[top++] = y;
+                }
+            }
+        }
+        if (prev[v] == -2) {
+            return null;
+        }
+
+        int len = 0;
+        for (int x = v; x >= 0; x = prev[x]) {
+            ++len;
+        }
+        int[] path = new int[len];
+        for (int x = v; x >= 0; x = prev[x]) {
+            path[--len] = x;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,157 @@
+package io.esoma.cbj.ds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tinylog.Logger;
+
+class PairingHeapTest {
+
+    // Hold the heap used for testing.
+    private static PairingHeap<Integer> tph;
+
+    @BeforeEach
+    void setUp() {
+        tph = new PairingHeap<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tph = null;
+    }
+
+    @Test
+    void testPhDecreaseKey() {
+        List<PairingHeap.Handle<Integer>> handles = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            handles.add(tph.push(100 + i * 10));
+        }
+        // Pair up the roots so that later decreases have parents to cut from.
+        assertEquals(100, tph.popMin());
+
+        tph.decreaseKey(handles.get(9), 5);
+        tph.decreaseKey(handles.get(5), 7);
+        tph.decreaseKey(handles.get(7), 6);
+        Logger.debug(tph);
+        assertEquals(5, tph.popMin());
+        assertEquals(6, tph.popMin());
+        assertEquals(7, tph.popMin());
+        assertEquals(110, tph.peekMin());
+        assertEquals(6, tph.getSize());
+
+        assertThrows(IllegalArgumentException.class, () -> tph.decreaseKey(handles.get(1), 500));
+        assertThrows(IllegalArgumentException.class, () -> tph.decreaseKey(handles.get(0), 1));
+        assertFalse(handles.get(0).isValid());
+    }
+
+    @Test
+    void testPhDeleteAndMerge() {
+        PairingHeap.Handle<Integer> h1 = tph.push(4);
+        PairingHeap.Handle<Integer> h2 = tph.push(8);
+        tph.push(6);
+        tph.delete(h1);
+        assertEquals(6, tph.peekMin());
+
+        PairingHeap<Integer> other = new PairingHeap<>();
+        PairingHeap.Handle<Integer> h3 = other.push(9);
+        other.push(1);
+        tph.merge(other);
+        assertEquals(0, other.getSize());
+        assertNull(other.peekMin());
+        assertEquals(4, tph.getSize());
+
+        // Handles of the merged heap belong to this heap now.
+        tph.decreaseKey(h3, 0);
+        tph.delete(h2);
+        Logger.debug(tph);
+        assertEquals(0, tph.popMin());
+        assertEquals(1, tph.popMin());
+        assertEquals(6, tph.popMin());
+        assertNull(tph.popMin());
+        assertThrows(IllegalArgumentException.class, () -> tph.delete(h1));
+    }
+
+    @Test
+    void testPhForeignHandle() {
+        PairingHeap<Integer> a = new PairingHeap<>();
+        PairingHeap<Integer> b = new PairingHeap<>();
+        PairingHeap<Integer> c = new PairingHeap<>();
+        PairingHeap.Handle<Integer> ha = a.push(5);
+        PairingHeap.Handle<Integer> hb = b.push(7);
+        PairingHeap.Handle<Integer> hc = c.push(9);
+        PairingHeap.Handle<Integer> hd = b.push(8);
+
+        // A handle of another heap is rejected, root or not, and neither heap changes.
+        assertThrows(IllegalArgumentException.class, () -> a.decreaseKey(hb, 1));
+        assertThrows(IllegalArgumentException.class, () -> a.delete(hb));
+        assertThrows(IllegalArgumentException.class, () -> a.decreaseKey(hd, 1));
+        assertThrows(IllegalArgumentException.class, () -> a.delete(hd));
+        assertEquals(1, a.getSize());
+        assertEquals(5, a.peekMin());
+        assertEquals(2, b.getSize());
+        assertEquals(7, b.peekMin());
+
+        // Handles follow their elements through chains of merges.
+        b.merge(a);
+        c.merge(b);
+        assertThrows(IllegalArgumentException.class, () -> a.delete(ha));
+        assertThrows(IllegalArgumentException.class, () -> b.decreaseKey(hb, 1));
+        c.decreaseKey(ha, 2);
+        c.delete(hb);
+        assertEquals(3, c.getSize());
+
+        // An emptied heap owns its new elements only.
+        PairingHeap.Handle<Integer> hn = b.push(3);
+        assertThrows(IllegalArgumentException.class, () -> c.delete(hn));
+        assertThrows(IllegalArgumentException.class, () -> b.delete(hc));
+        b.decreaseKey(hn, 1);
+        assertEquals(1, b.popMin());
+        assertEquals(2, c.popMin());
+        assertEquals(8, c.popMin());
+        assertEquals(9, c.popMin());
+        assertNull(c.popMin());
+    }
+
+    @Test
+    void testPhRandom() {
+        Random rnd = new Random(16);
+        PriorityQueue<Integer> expected = new PriorityQueue<>();
+        List<PairingHeap.Handle<Integer>> handles = new ArrayList<>();
+        for (int round = 0; round < 20000; ++round) {
+            int op = rnd.nextInt(10);
+            if (op < 4 || expected.isEmpty()) {
+                int key = rnd.nextInt(1_000_000);
+                handles.add(tph.push(key));
+                expected.add(key);
+            } else if (op < 6) {
+                assertEquals(expected.poll(), tph.popMin());
+            } else {
+                PairingHeap.Handle<Integer> h = handles.get(rnd.nextInt(handles.size()));
+                if (!h.isValid()) {
+                    continue;
+                }
+                expected.remove(h.getKey());
+                if (op < 9) {
+                    int key = h.getKey() - rnd.nextInt(1000);
+                    tph.decreaseKey(h, key);
+                    expected.add(key);
+                } else {
+                    tph.delete(h);
+                }
+            }
+            assertEquals(expected.size(), tph.getSize());
+        }
+        while (!expected.isEmpty()) {
+            assertEquals(expected.poll(), tph.popMin());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.esoma.cbj.ds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.tinylog.Logger;
+
+class UnionFindTest {
+
+    @Test
+    void testUnionFind() {
+        UnionFind sets = new UnionFind(6);
+        assertEquals(6, sets.size());
+        assertEquals(6, sets.count());
+
+        assertTrue(sets.union(0, 1));
+        assertTrue(sets.union(2, 3));
+        assertTrue(sets.union(1, 3));
+        assertFalse(sets.union(0, 2));
+        assertEquals(3, sets.count());
+        assertTrue(sets.connected(0, 3));
+        assertFalse(sets.connected(0, 4));
+        assertEquals(sets.find(0), sets.find(2));
+        assertEquals(5, sets.find(5));
+        Logger.debug(sets.count());
+    }
+
+    @Test
+    void testUnionFindInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new UnionFind(-1));
+        assertEquals(0, new UnionFind(0).count());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"100, 50", "10000, 20000", "100000, 400000"})
+    void testUnionFindRandom(int n, int unions) {
+        // Compare against a plain labeling that relabels a whole set on every union.
+        Random rand = new Random(n);
+        UnionFind sets = new UnionFind(n);
+        int[] label = new int[n];
+        int[][] members = new int[n][];
+        int[] sizes = new int[n];
+        for (int i = 0; i < n; ++i) {
+            label[i] = i;
+            members[i] = new int[] {i};
+            sizes[i] = 1;
+        }
+
+        int count = n;
+        for (int k = 0; k < unions; ++k) {
+            int a = rand.nextInt(n);
+            int b = rand.nextInt(n);
+            int la = label[a];
+            int lb = label[b];
+            assertEquals(la == lb, sets.connected(a, b));
+            assertEquals(la != lb, sets.union(a, b));
+            if (la != lb) {
+                // Merge the smaller labeling into the larger one.
+                if (sizes[la] < sizes[lb]) {
+                    int t = la;
+                    la = lb;
+                    lb = t;
+                }
+                int[] merged = Arrays.copyOf(members[la], sizes[la] + sizes[lb]);
+                for (int i = 0; i < sizes[lb]; ++i) {
+                    label[members[lb][i]] = la;
+                    merged[sizes[la] + i] = members[lb][i];
+                }
+                members[la] = merged;
+                sizes[la] += sizes[lb];
+                members[lb] = null;
+                --count;
+            }
+        }
+        Logger.debug(count);
+        assertEquals(count, sets.count());
+    }
+}